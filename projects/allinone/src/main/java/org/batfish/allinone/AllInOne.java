@@ -2,6 +2,7 @@ package org.batfish.allinone;
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -11,7 +12,7 @@ import org.batfish.allinone.config.Settings;
 import org.batfish.client.Client;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.util.BindPortFutures;
-import org.batfish.coordinator.BatfishWorkerServiceWorkExecutor;
+import org.batfish.coordinator.AffinityWorkExecutor;
 import org.batfish.coordinator.WorkExecutorCreator;
 import org.batfish.main.Driver;
 
@@ -182,8 +183,10 @@ public class AllInOne {
           public void run() {
             WorkExecutorCreator workExecutorCreator =
                 (logger, settings) ->
-                    new BatfishWorkerServiceWorkExecutor(
-                        logger, settings.getContainersLocation(), Driver.getBatfishWorkerService());
+                    new AffinityWorkExecutor(
+                        logger,
+                        settings.getContainersLocation(),
+                        ImmutableList.of(Driver.getBatfishWorkerService()));
             try {
               org.batfish.coordinator.Main.main(
                   argArray, _logger, bindPortFutures, workExecutorCreator);
@@ -1,5 +1,8 @@
 package org.batfish.common;
 
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /**
@@ -14,4 +17,12 @@ public interface BatfishWorkerService {
 
   /** Launch the task defined by args that has the given taskId. */
   LaunchResult runTask(String taskId, String[] args);
+
+  /**
+   * Get the snapshots whose configurations or data plane this service has cached, so that tasks on
+   * them run without loading them from storage.
+   */
+  default @Nonnull Set<NetworkSnapshot> getCachedSnapshots() {
+    return ImmutableSet.of();
+  }
 }
@@ -41,5 +41,6 @@ public class CoordConstsV2 {
   public static final String RSC_VERSION = "version";
   public static final String RSC_WORK = "work";
   public static final String RSC_WORK_LOG = "worklog";
+  public static final String RSC_WORK_QUEUE_METRICS = "work_queue_metrics";
   public static final String RSC_WORK_JSON = "workjson";
 }
@@ -0,0 +1,92 @@
+package org.batfish.common.bdd;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * BDD state shared by the questions asked about one snapshot: a {@link BDDPacket}, and artifacts
+ * built with it that do not depend on the question, such as ACL, transformation, and FIB BDDs.
+ *
+ * <p>Rules for using a context:
+ *
+ * <ul>
+ *   <li>A {@link BDDPacket}'s factory is not thread-safe, so the packet and artifacts may only be
+ *       used inside {@link #compute}, which runs one task at a time per context. BDDs must not
+ *       escape the task; convert them to flows or other plain objects first.
+ *   <li>Every BDD variable allocated in the packet stays allocated for the life of the context, so
+ *       variables may only be allocated while building an artifact, never per question.
+ *   <li>Artifacts are shared, so tasks must not free or modify the BDDs they hold.
+ *   <li>The reachability analyses do not free the BDDs they compute, so every task leaves its
+ *       fixpoint and result BDDs in the node table. Once the table holds more than {@link
+ *       #MAX_NODES} nodes the context is {@link #isExhausted exhausted}, and its owner should
+ *       replace it with a new one, rebuilding the artifacts. {@link #MAX_NODES} therefore bounds
+ *       the memory a context leaks, at roughly 100MB of node table. Owners may also drop a context
+ *       at any time, e.g. when memory is low or the snapshot's data plane is recomputed.
+ * </ul>
+ *
+ * <p>Because {@link #compute} holds the context's lock for the whole task, concurrent questions
+ * about the same snapshot that use its context run one after another rather than in parallel.
+ */
+@ParametersAreNonnullByDefault
+public final class SnapshotBddContext {
+
+  @VisibleForTesting static final int MAX_NODES = 1 << 22;
+
+  private final @Nonnull BDDPacket _pkt;
+  // Guarded by this
+  private final @Nonnull Map<Object, Object> _artifacts;
+
+  public SnapshotBddContext() {
+    this(new BDDPacket());
+  }
+
+  @VisibleForTesting
+  SnapshotBddContext(BDDPacket pkt) {
+    _pkt = pkt;
+    _artifacts = new HashMap<>();
+  }
+
+  /** Runs {@code task} with this context, after any other tasks using it have finished. */
+  public synchronized <T> T compute(Function<? super SnapshotBddContext, T> task) {
+    return task.apply(this);
+  }
+
+  /** The shared packet. Must be called inside {@link #compute}. */
+  public @Nonnull BDDPacket getPacket() {
+    checkHeld();
+    return _pkt;
+  }
+
+  /**
+   * Returns the artifact with the given key, building it with {@code builder} the first time. Must
+   * be called inside {@link #compute}.
+   *
+   * @param key identifies the artifact and everything it depends on other than the snapshot, e.g.
+   *     its type and the parameters it was built with.
+   */
+  public @Nonnull <T> T getArtifact(Object key, Class<T> type, Supplier<? extends T> builder) {
+    checkHeld();
+    Object artifact = _artifacts.get(key);
+    if (artifact == null) {
+      artifact = builder.get();
+      _artifacts.put(key, artifact);
+    }
+    return type.cast(artifact);
+  }
+
+  /** Whether so many BDD nodes are in use that this context should be replaced. */
+  public synchronized boolean isExhausted() {
+    return _pkt.getFactory().getNodeNum() > MAX_NODES;
+  }
+
+  private void checkHeld() {
+    checkState(Thread.holdsLock(this), "SnapshotBddContext must be used inside compute()");
+  }
+}
@@ -17,6 +17,7 @@ import org.apache.commons.configuration2.ImmutableConfiguration;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.common.topology.TopologyProvider;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
@@ -170,6 +171,12 @@ public interface IBatfish extends IPluginConsumer {
 
   DataPlane loadDataPlane(NetworkSnapshot snapshot);
 
+  /**
+   * Returns the snapshot that {@code snapshot} was forked from, if there is one and its data plane
+   * has already been computed.
+   */
+  Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(NetworkSnapshot snapshot);
+
   SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(NetworkSnapshot snapshot);
 
   ParseVendorConfigurationAnswerElement loadParseVendorConfigurationAnswerElement(
@@ -221,4 +228,11 @@ public interface IBatfish extends IPluginConsumer {
   @Nonnull
   BidirectionalReachabilityResult bidirectionalReachability(
       NetworkSnapshot snapshot, BDDPacket bddPacket, ReachabilityParameters parameters);
+
+  /**
+   * Returns the {@link SnapshotBddContext} shared by questions about the given snapshot. See its
+   * documentation for the rules for using it.
+   */
+  @Nonnull
+  SnapshotBddContext getBddContext(NetworkSnapshot snapshot);
 }
@@ -97,7 +97,6 @@ public class Ip implements Comparable<Ip>, Serializable {
    * <p>For example, for {@code numBits = 8}, should return {@code 0xFF000000L} representing a mask
    * of the top 8 bits.
    */
-  // Visible for testing only.
   static long numSubnetBitsToSubnetLong(int numBits) {
     return ~(0xFFFFFFFFL >> numBits) & 0xFFFFFFFFL;
   }
@@ -10,11 +10,19 @@ import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -42,6 +50,8 @@ public class RouteFilterList implements Serializable {
 
   private final Supplier<Set<Prefix>> _permittedCache;
 
+  private transient volatile @Nullable LineIndex _lineIndex;
+
   private static class CacheSupplier implements Supplier<Set<Prefix>>, Serializable {
 
     @Override
@@ -118,17 +128,8 @@ public class RouteFilterList implements Serializable {
   }
 
   private boolean evaluatePrefix(Prefix prefix) {
-    boolean accept = false;
-    for (RouteFilterLine line : _lines) {
-      if (line.getIpWildcard().containsIp(prefix.getStartIp())) {
-        int prefixLength = prefix.getPrefixLength();
-        SubRange range = line.getLengthRange();
-        if (prefixLength >= range.getStart() && prefixLength <= range.getEnd()) {
-          accept = line.getAction() == LineAction.PERMIT;
-          break;
-        }
-      }
-    }
+    RouteFilterLine line = firstMatchingLine(prefix);
+    boolean accept = line != null && line.getAction() == LineAction.PERMIT;
     if (accept) {
       _permittedCache.get().add(prefix);
     } else {
@@ -137,6 +138,108 @@ public class RouteFilterList implements Serializable {
     return accept;
   }
 
+  private static boolean matches(RouteFilterLine line, Prefix prefix) {
+    if (!line.getIpWildcard().containsIp(prefix.getStartIp())) {
+      return false;
+    }
+    int prefixLength = prefix.getPrefixLength();
+    SubRange range = line.getLengthRange();
+    return prefixLength >= range.getStart() && prefixLength <= range.getEnd();
+  }
+
+  /** Returns the first line that matches {@code prefix}, or {@code null} if none does. */
+  private @Nullable RouteFilterLine firstMatchingLine(Prefix prefix) {
+    List<RouteFilterLine> lines = _lines;
+    if (lines.size() < MIN_INDEXED_LINES) {
+      for (RouteFilterLine line : lines) {
+        if (matches(line, prefix)) {
+          return line;
+        }
+      }
+      return null;
+    }
+    LineIndex index = _lineIndex;
+    if (index == null || index._source != lines) {
+      // Not built yet, or lines were added since
+      index = new LineIndex(lines);
+      _lineIndex = index;
+    }
+    return index.firstMatchingLine(prefix);
+  }
+
+  /** Lists with fewer lines are scanned line by line, since indexing would not pay off. */
+  private static final int MIN_INDEXED_LINES = 16;
+
+  /**
+   * The lines of a long list by the network they match, so that finding the first line matching a
+   * prefix only checks lines whose network contains the prefix's start IP, rather than every line.
+   * Lines whose wildcard is not a prefix are always checked.
+   */
+  private static final class LineIndex {
+    private final @Nonnull List<RouteFilterLine> _source;
+    private final @Nonnull List<RouteFilterLine> _lines;
+    // Distinct prefix lengths of the lines' networks, and for each, network address -> lines
+    private final @Nonnull int[] _prefixLengths;
+    private final @Nonnull List<Map<Long, int[]>> _linesByNetwork;
+    private final @Nonnull int[] _otherLines;
+
+    private LineIndex(List<RouteFilterLine> lines) {
+      _source = lines;
+      _lines = ImmutableList.copyOf(lines);
+      SortedMap<Integer, Map<Long, List<Integer>>> byLength = new TreeMap<>();
+      ImmutableList.Builder<Integer> otherLines = ImmutableList.builder();
+      for (int i = 0; i < _lines.size(); i++) {
+        IpWildcard wildcard = _lines.get(i).getIpWildcard();
+        if (!wildcard.isPrefix()) {
+          otherLines.add(i);
+          continue;
+        }
+        Prefix network = wildcard.toPrefix();
+        byLength
+            .computeIfAbsent(network.getPrefixLength(), l -> new HashMap<>())
+            .computeIfAbsent(network.getStartIp().asLong(), n -> new ArrayList<>())
+            .add(i);
+      }
+      _prefixLengths = byLength.keySet().stream().mapToInt(Integer::intValue).toArray();
+      _linesByNetwork =
+          byLength.values().stream()
+              .map(
+                  networks ->
+                      networks.entrySet().stream()
+                          .collect(
+                              ImmutableMap.toImmutableMap(
+                                  Entry::getKey, e -> Ints.toArray(e.getValue()))))
+              .collect(ImmutableList.toImmutableList());
+      _otherLines = Ints.toArray(otherLines.build());
+    }
+
+    private @Nullable RouteFilterLine firstMatchingLine(Prefix prefix) {
+      long ip = prefix.getStartIp().asLong();
+      int first = Integer.MAX_VALUE;
+      for (int i = 0; i < _prefixLengths.length; i++) {
+        long network = ip & Ip.numSubnetBitsToSubnetLong(_prefixLengths[i]);
+        int[] candidates = _linesByNetwork.get(i).get(network);
+        if (candidates != null) {
+          first = firstMatch(candidates, prefix, first);
+        }
+      }
+      first = firstMatch(_otherLines, prefix, first);
+      return first == Integer.MAX_VALUE ? null : _lines.get(first);
+    }
+
+    /** Returns the first of {@code candidates} before {@code bound} that matches, or bound. */
+    private int firstMatch(int[] candidates, Prefix prefix, int bound) {
+      for (int line : candidates) {
+        if (line >= bound) {
+          break;
+        } else if (matches(_lines.get(line), prefix)) {
+          return line;
+        }
+      }
+      return bound;
+    }
+  }
+
   /** Check if a given prefix is permitted by this filter list. */
   public boolean permits(Prefix prefix) {
     if (_deniedCache.get().contains(prefix)) {
@@ -0,0 +1,638 @@
+package org.batfish.datamodel.acl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.Sets;
+import com.google.common.collect.TreeRangeSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.AclIpSpaceLine;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpIpSpace;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardIpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixIpSpace;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+
+/**
+ * An {@link IpAccessList} compiled for evaluating many concrete flows, with the same results as
+ * {@link IpAccessList#filter}.
+ *
+ * <p>Each line is compiled once into a tree of predicates, rather than visited anew for every
+ * flow. Longer ACLs are also indexed by IP protocol, destination IP, and source IP: each index maps
+ * a header value to the lines whose match conditions could match it, so evaluating a flow only
+ * visits those lines, still in order.
+ *
+ * <p>The compiled form depends only on the (immutable) ACL itself. ACLs and IP spaces referenced by
+ * name are resolved when a flow is evaluated, so the same compiled ACL can be used with any
+ * definitions, and is cached for as long as the ACL is reachable.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledAcl {
+
+  /** Returns the compiled form of {@code acl}, compiling it if it was not already. */
+  public static @Nonnull CompiledAcl of(IpAccessList acl) {
+    return CACHE.getUnchecked(acl);
+  }
+
+  /**
+   * Returns the action {@code acl} takes on {@code flow} and the index of the line that matches
+   * it, as {@link IpAccessList#filter} does.
+   */
+  public @Nonnull FilterResult filter(
+      Flow flow,
+      @Nullable String srcInterface,
+      Map<String, IpAccessList> availableAcls,
+      Map<String, IpSpace> namedIpSpaces) {
+    return filter(new Input(flow, srcInterface, availableAcls, namedIpSpaces));
+  }
+
+  private @Nonnull FilterResult filter(Input input) {
+    if (_index == null) {
+      for (int i = 0; i < _lines.size(); i++) {
+        LineAction action = _lines.get(i).apply(input);
+        if (action != null) {
+          return new FilterResult(i, action);
+        }
+      }
+    } else {
+      BitSet candidates = _index.candidates(input._flow);
+      for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+        LineAction action = _lines.get(i).apply(input);
+        if (action != null) {
+          return new FilterResult(i, action);
+        }
+      }
+    }
+    return new FilterResult(null, LineAction.DENY);
+  }
+
+  /** Returns {@code true} if this ACL has an index of its lines. */
+  @VisibleForTesting
+  boolean isIndexed() {
+    return _index != null;
+  }
+
+  /** ACLs with fewer lines are evaluated line by line, since indexing would not pay off. */
+  @VisibleForTesting static final int MIN_INDEXED_LINES = 16;
+
+  /**
+   * The maximum size in bits of each field index, beyond which the field is not indexed. Bounds
+   * the memory of an index to a few megabytes regardless of the ACL.
+   */
+  private static final long MAX_FIELD_INDEX_BITS = 1L << 24;
+
+  private static final LoadingCache<IpAccessList, CompiledAcl> CACHE =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(CompiledAcl::new));
+
+  private final @Nonnull List<LineMatcher> _lines;
+  private final @Nullable LineIndex _index;
+
+  private CompiledAcl(IpAccessList acl) {
+    _lines =
+        acl.getLines().stream()
+            .map(LINE_COMPILER::visit)
+            .collect(ImmutableList.toImmutableList());
+    _index = acl.getLines().size() < MIN_INDEXED_LINES ? null : LineIndex.build(acl.getLines());
+  }
+
+  /** The flow being evaluated, along with the definitions that references are resolved against. */
+  private static final class Input {
+    private final @Nonnull Flow _flow;
+    private final @Nullable String _srcInterface;
+    private final @Nonnull Map<String, IpAccessList> _availableAcls;
+    private final @Nonnull Map<String, IpSpace> _namedIpSpaces;
+
+    private Input(
+        Flow flow,
+        @Nullable String srcInterface,
+        Map<String, IpAccessList> availableAcls,
+        Map<String, IpSpace> namedIpSpaces) {
+      _flow = flow;
+      _srcInterface = srcInterface;
+      _availableAcls = availableAcls;
+      _namedIpSpaces = namedIpSpaces;
+    }
+
+    private @Nonnull FilterResult filter(String aclName) {
+      IpAccessList acl =
+          checkNotNull(
+              _availableAcls.get(aclName), "Reference to undefined IpAccessList %s", aclName);
+      return of(acl).filter(this);
+    }
+  }
+
+  /** A compiled {@link AclLine}: returns its action on the input, or null if it does not match. */
+  @FunctionalInterface
+  private interface LineMatcher {
+    @Nullable
+    LineAction apply(Input input);
+  }
+
+  /** A compiled {@link AclLineMatchExpr}. */
+  @FunctionalInterface
+  private interface Matcher {
+    boolean matches(Input input);
+  }
+
+  private static final GenericAclLineVisitor<LineMatcher> LINE_COMPILER =
+      new GenericAclLineVisitor<LineMatcher>() {
+        @Override
+        public LineMatcher visitAclAclLine(AclAclLine aclAclLine) {
+          String aclName = aclAclLine.getAclName();
+          return input -> {
+            FilterResult result = input.filter(aclName);
+            return result.getMatchLine() == null ? null : result.getAction();
+          };
+        }
+
+        @Override
+        public LineMatcher visitExprAclLine(ExprAclLine exprAclLine) {
+          Matcher matcher = EXPR_COMPILER.visit(exprAclLine.getMatchCondition());
+          LineAction action = exprAclLine.getAction();
+          return input -> matcher.matches(input) ? action : null;
+        }
+      };
+
+  private static final GenericAclLineMatchExprVisitor<Matcher> EXPR_COMPILER =
+      new GenericAclLineMatchExprVisitor<Matcher>() {
+        @Override
+        public Matcher visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+          Matcher[] conjuncts = compileAll(andMatchExpr.getConjuncts());
+          return input -> {
+            for (Matcher conjunct : conjuncts) {
+              if (!conjunct.matches(input)) {
+                return false;
+              }
+            }
+            return true;
+          };
+        }
+
+        @Override
+        public Matcher visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+          String aclName = deniedByAcl.getAclName();
+          return input -> input.filter(aclName).getAction() == LineAction.DENY;
+        }
+
+        @Override
+        public Matcher visitFalseExpr(FalseExpr falseExpr) {
+          return input -> false;
+        }
+
+        @Override
+        public Matcher visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+          HeaderSpace headerSpace = matchHeaderSpace.getHeaderspace();
+          return input -> headerSpace.matches(input._flow, input._namedIpSpaces);
+        }
+
+        @Override
+        public Matcher visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+          Set<String> srcInterfaces = matchSrcInterface.getSrcInterfaces();
+          return input -> srcInterfaces.contains(input._srcInterface);
+        }
+
+        @Override
+        public Matcher visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+          Matcher operand = visit(notMatchExpr.getOperand());
+          return input -> !operand.matches(input);
+        }
+
+        @Override
+        public Matcher visitOriginatingFromDevice(OriginatingFromDevice originatingFromDevice) {
+          return input -> input._srcInterface == null;
+        }
+
+        @Override
+        public Matcher visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+          Matcher[] disjuncts = compileAll(orMatchExpr.getDisjuncts());
+          return input -> {
+            for (Matcher disjunct : disjuncts) {
+              if (disjunct.matches(input)) {
+                return true;
+              }
+            }
+            return false;
+          };
+        }
+
+        @Override
+        public Matcher visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+          String aclName = permittedByAcl.getAclName();
+          return input -> input.filter(aclName).getAction() == LineAction.PERMIT;
+        }
+
+        @Override
+        public Matcher visitTrueExpr(TrueExpr trueExpr) {
+          return input -> true;
+        }
+
+        private Matcher[] compileAll(Iterable<AclLineMatchExpr> exprs) {
+          ImmutableList.Builder<Matcher> matchers = ImmutableList.builder();
+          exprs.forEach(expr -> matchers.add(visit(expr)));
+          return matchers.build().toArray(new Matcher[0]);
+        }
+      };
+
+  /**
+   * For each of a few header fields, the lines whose match conditions could match each value of
+   * the field. A line is a candidate for a flow if it could match every indexed field of the flow.
+   */
+  private static final class LineIndex {
+    private final @Nullable ProtocolIndex _protocols;
+    private final @Nonnull List<IpIndex> _ips;
+
+    private LineIndex(@Nullable ProtocolIndex protocols, List<IpIndex> ips) {
+      _protocols = protocols;
+      _ips = ips;
+    }
+
+    /** Returns the lines that could match {@code flow}, or null if no field is worth indexing. */
+    private static @Nullable LineIndex build(List<AclLine> lines) {
+      List<Constraints> constraints =
+          lines.stream().map(CONSTRAINTS::visit).collect(ImmutableList.toImmutableList());
+      ProtocolIndex protocols = ProtocolIndex.build(constraints);
+      ImmutableList.Builder<IpIndex> ips = ImmutableList.builder();
+      IpIndex dstIps = IpIndex.build(constraints, c -> c._dstIps, Flow::getDstIp);
+      if (dstIps != null) {
+        ips.add(dstIps);
+      }
+      IpIndex srcIps = IpIndex.build(constraints, c -> c._srcIps, Flow::getSrcIp);
+      if (srcIps != null) {
+        ips.add(srcIps);
+      }
+      LineIndex index = new LineIndex(protocols, ips.build());
+      return protocols == null && index._ips.isEmpty() ? null : index;
+    }
+
+    /** Returns a new set of the lines that could match {@code flow}. */
+    private @Nonnull BitSet candidates(Flow flow) {
+      BitSet candidates;
+      int ipIndex = 0;
+      if (_protocols != null) {
+        candidates = _protocols.candidates(flow.getIpProtocol());
+      } else {
+        candidates = (BitSet) _ips.get(0).lines(flow).clone();
+        ipIndex = 1;
+      }
+      for (; ipIndex < _ips.size(); ipIndex++) {
+        candidates.and(_ips.get(ipIndex).lines(flow));
+      }
+      return candidates;
+    }
+  }
+
+  /** The lines that could match each IP protocol. */
+  private static final class ProtocolIndex {
+    private final @Nonnull BitSet _anyProtocol;
+    private final @Nonnull Map<IpProtocol, BitSet> _byProtocol;
+
+    private ProtocolIndex(BitSet anyProtocol, Map<IpProtocol, BitSet> byProtocol) {
+      _anyProtocol = anyProtocol;
+      _byProtocol = byProtocol;
+    }
+
+    private static @Nullable ProtocolIndex build(List<Constraints> constraints) {
+      BitSet anyProtocol = new BitSet(constraints.size());
+      Map<IpProtocol, BitSet> byProtocol = new EnumMap<>(IpProtocol.class);
+      for (int i = 0; i < constraints.size(); i++) {
+        Set<IpProtocol> protocols = constraints.get(i)._protocols;
+        if (protocols == null) {
+          anyProtocol.set(i);
+          continue;
+        }
+        for (IpProtocol protocol : protocols) {
+          byProtocol.computeIfAbsent(protocol, p -> new BitSet(constraints.size())).set(i);
+        }
+      }
+      return byProtocol.isEmpty() && anyProtocol.cardinality() == constraints.size()
+          ? null
+          : new ProtocolIndex(anyProtocol, byProtocol);
+    }
+
+    private @Nonnull BitSet candidates(IpProtocol protocol) {
+      BitSet candidates = (BitSet) _anyProtocol.clone();
+      BitSet lines = _byProtocol.get(protocol);
+      if (lines != null) {
+        candidates.or(lines);
+      }
+      return candidates;
+    }
+  }
+
+  /**
+   * The lines that could match each value of an IP field. The IP addresses are partitioned into
+   * intervals on which the candidate lines are the same.
+   */
+  private static final class IpIndex {
+    private final @Nonnull Function<Flow, Ip> _field;
+    // Sorted starts of the intervals. The first interval starts at 0.
+    private final @Nonnull long[] _starts;
+    private final @Nonnull BitSet[] _lines;
+
+    private IpIndex(Function<Flow, Ip> field, long[] starts, BitSet[] lines) {
+      _field = field;
+      _starts = starts;
+      _lines = lines;
+    }
+
+    private static @Nullable IpIndex build(
+        List<Constraints> constraints,
+        Function<Constraints, RangeSet<Long>> lineIps,
+        Function<Flow, Ip> field) {
+      TreeSet<Long> boundaries = new TreeSet<>();
+      boundaries.add(0L);
+      for (Constraints c : constraints) {
+        RangeSet<Long> ips = lineIps.apply(c);
+        if (ips != null) {
+          for (Range<Long> range : ips.asRanges()) {
+            boundaries.add(range.lowerEndpoint());
+            boundaries.add(range.upperEndpoint());
+          }
+        }
+      }
+      if (boundaries.size() == 1
+          || (long) boundaries.size() * constraints.size() > MAX_FIELD_INDEX_BITS) {
+        // Either no line constrains this field, or the index would be too large
+        return null;
+      }
+      long[] starts = boundaries.stream().mapToLong(Long::longValue).toArray();
+      BitSet[] lines = new BitSet[starts.length];
+      Arrays.setAll(lines, i -> new BitSet(constraints.size()));
+      for (int line = 0; line < constraints.size(); line++) {
+        RangeSet<Long> ips = lineIps.apply(constraints.get(line));
+        if (ips == null) {
+          for (BitSet interval : lines) {
+            interval.set(line);
+          }
+          continue;
+        }
+        for (Range<Long> range : ips.asRanges()) {
+          int end = Arrays.binarySearch(starts, range.upperEndpoint());
+          for (int i = Arrays.binarySearch(starts, range.lowerEndpoint()); i < end; i++) {
+            lines[i].set(line);
+          }
+        }
+      }
+      return new IpIndex(field, starts, lines);
+    }
+
+    private @Nonnull BitSet lines(Flow flow) {
+      int i = Arrays.binarySearch(_starts, _field.apply(flow).asLong());
+      return _lines[i >= 0 ? i : -i - 2];
+    }
+  }
+
+  /**
+   * Over-approximations of the header values a match condition can match. A null field is
+   * unconstrained. IP ranges are closed-open.
+   */
+  private static final class Constraints {
+    private static final Constraints NONE = new Constraints(null, null, null);
+    private static final Constraints NOTHING =
+        new Constraints(ImmutableRangeSet.of(), ImmutableRangeSet.of(), ImmutableSet.of());
+
+    private final @Nullable RangeSet<Long> _dstIps;
+    private final @Nullable RangeSet<Long> _srcIps;
+    private final @Nullable Set<IpProtocol> _protocols;
+
+    private Constraints(
+        @Nullable RangeSet<Long> dstIps,
+        @Nullable RangeSet<Long> srcIps,
+        @Nullable Set<IpProtocol> protocols) {
+      _dstIps = dstIps;
+      _srcIps = srcIps;
+      _protocols = protocols;
+    }
+
+    /** Constraints satisfied by anything satisfying both {@code this} and {@code other}. */
+    private @Nonnull Constraints and(Constraints other) {
+      return new Constraints(
+          intersect(_dstIps, other._dstIps),
+          intersect(_srcIps, other._srcIps),
+          _protocols == null
+              ? other._protocols
+              : other._protocols == null
+                  ? _protocols
+                  : Sets.intersection(_protocols, other._protocols)
+                      .immutableCopy());
+    }
+
+    /** Constraints satisfied by anything satisfying either {@code this} or {@code other}. */
+    private @Nonnull Constraints or(Constraints other) {
+      return new Constraints(
+          union(_dstIps, other._dstIps),
+          union(_srcIps, other._srcIps),
+          _protocols == null || other._protocols == null
+              ? null
+              : Sets.union(_protocols, other._protocols)
+                  .immutableCopy());
+    }
+
+    private static @Nullable RangeSet<Long> intersect(
+        @Nullable RangeSet<Long> a, @Nullable RangeSet<Long> b) {
+      if (a == null) {
+        return b;
+      } else if (b == null) {
+        return a;
+      }
+      RangeSet<Long> intersection = TreeRangeSet.create(a);
+      intersection.removeAll(b.complement());
+      return intersection;
+    }
+
+    private static @Nullable RangeSet<Long> union(
+        @Nullable RangeSet<Long> a, @Nullable RangeSet<Long> b) {
+      if (a == null || b == null) {
+        return null;
+      }
+      RangeSet<Long> union = TreeRangeSet.create(a);
+      union.addAll(b);
+      return union;
+    }
+  }
+
+  private static final GenericAclLineVisitor<Constraints> CONSTRAINTS =
+      new GenericAclLineVisitor<Constraints>() {
+        @Override
+        public Constraints visitAclAclLine(AclAclLine aclAclLine) {
+          return Constraints.NONE;
+        }
+
+        @Override
+        public Constraints visitExprAclLine(ExprAclLine exprAclLine) {
+          return EXPR_CONSTRAINTS.visit(exprAclLine.getMatchCondition());
+        }
+      };
+
+  private static final GenericAclLineMatchExprVisitor<Constraints> EXPR_CONSTRAINTS =
+      new GenericAclLineMatchExprVisitor<Constraints>() {
+        @Override
+        public Constraints visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+          return andMatchExpr.getConjuncts().stream()
+              .map(this::visit)
+              .reduce(Constraints.NONE, Constraints::and);
+        }
+
+        @Override
+        public Constraints visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+          return Constraints.NONE;
+        }
+
+        @Override
+        public Constraints visitFalseExpr(FalseExpr falseExpr) {
+          return Constraints.NOTHING;
+        }
+
+        @Override
+        public Constraints visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+          HeaderSpace headerSpace = matchHeaderSpace.getHeaderspace();
+          return new Constraints(
+              ipRanges(headerSpace.getDstIps()),
+              ipRanges(headerSpace.getSrcIps()),
+              headerSpace.getIpProtocols().isEmpty() ? null : headerSpace.getIpProtocols());
+        }
+
+        @Override
+        public Constraints visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+          return Constraints.NONE;
+        }
+
+        @Override
+        public Constraints visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+          return Constraints.NONE;
+        }
+
+        @Override
+        public Constraints visitOriginatingFromDevice(
+            OriginatingFromDevice originatingFromDevice) {
+          return Constraints.NONE;
+        }
+
+        @Override
+        public Constraints visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+          return orMatchExpr.getDisjuncts().stream()
+              .map(this::visit)
+              .reduce(Constraints.NOTHING, Constraints::or);
+        }
+
+        @Override
+        public Constraints visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+          return Constraints.NONE;
+        }
+
+        @Override
+        public Constraints visitTrueExpr(TrueExpr trueExpr) {
+          return Constraints.NONE;
+        }
+      };
+
+  /** Returns ranges containing every IP in {@code ipSpace}, or null if unconstrained. */
+  private static @Nullable RangeSet<Long> ipRanges(@Nullable IpSpace ipSpace) {
+    return ipSpace == null ? null : IP_RANGES.visit(ipSpace);
+  }
+
+  private static @Nonnull Range<Long> range(Prefix prefix) {
+    return Range.closedOpen(prefix.getStartIp().asLong(), prefix.getEndIp().asLong() + 1);
+  }
+
+  private static @Nonnull Range<Long> range(IpWildcard wildcard) {
+    // Every IP matching the wildcard is between those with all wildcard bits clear and set
+    long min = wildcard.getIp().asLong() & wildcard.getMask();
+    return Range.closedOpen(min, (min | wildcard.getWildcardMask()) + 1);
+  }
+
+  private static final GenericIpSpaceVisitor<RangeSet<Long>> IP_RANGES =
+      new GenericIpSpaceVisitor<RangeSet<Long>>() {
+        @Override
+        public RangeSet<Long> visitAclIpSpace(AclIpSpace aclIpSpace) {
+          // Denied IPs can only shrink the space, so the permitted lines' spaces cover it
+          RangeSet<Long> ranges = TreeRangeSet.create();
+          for (AclIpSpaceLine line : aclIpSpace.getLines()) {
+            if (line.getAction() != LineAction.PERMIT) {
+              continue;
+            }
+            RangeSet<Long> lineRanges = visit(line.getIpSpace());
+            if (lineRanges == null) {
+              return null;
+            }
+            ranges.addAll(lineRanges);
+          }
+          return ranges;
+        }
+
+        @Override
+        public RangeSet<Long> visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+          return ImmutableRangeSet.of();
+        }
+
+        @Override
+        public RangeSet<Long> visitIpIpSpace(IpIpSpace ipIpSpace) {
+          long ip = ipIpSpace.getIp().asLong();
+          return ImmutableRangeSet.of(Range.closedOpen(ip, ip + 1));
+        }
+
+        @Override
+        public RangeSet<Long> visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+          // Resolved only at evaluation time
+          return null;
+        }
+
+        @Override
+        public RangeSet<Long> visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+          return ImmutableRangeSet.of(range(ipWildcardIpSpace.getIpWildcard()));
+        }
+
+        @Override
+        public RangeSet<Long> visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+          // Blacklisted IPs can only shrink the space, so the whitelist covers it
+          RangeSet<Long> ranges = TreeRangeSet.create();
+          ipWildcardSetIpSpace.getWhitelist().forEach(wildcard -> ranges.add(range(wildcard)));
+          return ranges;
+        }
+
+        @Override
+        public RangeSet<Long> visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+          return ImmutableRangeSet.of(range(prefixIpSpace.getPrefix()));
+        }
+
+        @Override
+        public RangeSet<Long> visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+          return null;
+        }
+      };
+}
@@ -1,5 +1,6 @@
 package org.batfish.datamodel.answers;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -8,6 +9,15 @@ import org.batfish.common.Warnings;
 /** This answer contains summary information and warning about dataplane computation. */
 public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
 
+  /** Phase of the computation that initializes nodes and computes IGP routes. */
+  public static final String PHASE_IGP = "igp";
+  /** Phase of each topology iteration that computes BGP and other dependent routes. */
+  public static final String PHASE_EGP = "egp";
+  /** Phase of each topology iteration that computes FIBs and forwarding analysis. */
+  public static final String PHASE_FIBS = "fibs";
+  /** Phase of each topology iteration that computes the next topologies and track results. */
+  public static final String PHASE_TOPOLOGY = "topology";
+
   private static final String MAIN_RIB_ROUTES_BY_ITERATION = "mainRibRoutesByIteration";
   private static final String PROP_BGP_BEST_PATH_RIB_ROUTES_BY_ITERATION =
       "bgpBestPathRibRoutesByIteration";
@@ -22,6 +32,7 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
   private int _dependentRoutesIterations;
   private SortedMap<Integer, Integer> _mainRibRoutesByIteration;
   private int _ospfInternalIterations;
+  private final SortedMap<String, Long> _phaseNanos;
   private String _version;
   private Warnings _warnings;
 
@@ -29,6 +40,7 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _bgpBestPathRibRoutesByIteration = new TreeMap<>();
     _bgpMultipathRibRoutesByIteration = new TreeMap<>();
     _mainRibRoutesByIteration = new TreeMap<>();
+    _phaseNanos = new TreeMap<>();
     _warnings = new Warnings();
   }
 
@@ -57,6 +69,15 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     return _ospfInternalIterations;
   }
 
+  /**
+   * Time spent in each phase of the computation, in nanoseconds, summed over topology iterations.
+   * Only available where the data plane was computed, since it is not serialized.
+   */
+  @JsonIgnore
+  public SortedMap<String, Long> getPhaseNanos() {
+    return _phaseNanos;
+  }
+
   @Override
   @JsonProperty(PROP_VERSION)
   public String getVersion() {
@@ -95,6 +116,11 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _ospfInternalIterations = ospfInternalIterations;
   }
 
+  /** Adds time spent in the given phase of the computation. */
+  public void addPhaseNanos(String phase, long nanos) {
+    _phaseNanos.merge(phase, nanos, Long::sum);
+  }
+
   @JsonProperty(PROP_VERSION)
   public void setVersion(String version) {
     _version = version;
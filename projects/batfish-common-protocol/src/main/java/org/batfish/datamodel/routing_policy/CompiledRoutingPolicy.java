@@ -0,0 +1,283 @@
+package org.batfish.datamodel.routing_policy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.RouteFilterList;
+import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
+import org.batfish.datamodel.routing_policy.expr.BooleanExprs;
+import org.batfish.datamodel.routing_policy.expr.CallExpr;
+import org.batfish.datamodel.routing_policy.expr.Conjunction;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.Disjunction;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.NamedPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.Not;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statement;
+import org.batfish.datamodel.routing_policy.statement.TraceableStatement;
+import org.batfish.datamodel.trace.Tracer;
+
+/**
+ * A {@link RoutingPolicy} compiled for processing many routes, with the same results and effects
+ * on the {@link Environment} as the original.
+ *
+ * <p>Statement blocks, if/else, traceable blocks, and the common guards (conjunctions,
+ * disjunctions, negations, constants, calls, and prefix-set matches on the destination network)
+ * are compiled into closures over flattened arrays. Evaluating them does not dispatch through the
+ * policy's expression tree, and calls to other policies compiled together go to the compiled
+ * callee. Every other statement and expression is evaluated by the interpreter.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledRoutingPolicy extends RoutingPolicy {
+
+  /**
+   * Compiles each of the given policies of a single configuration. Calls between them go to the
+   * compiled callee.
+   */
+  public static @Nonnull Map<String, RoutingPolicy> compileAll(
+      Map<String, RoutingPolicy> policies) {
+    Map<RoutingPolicy, RoutingPolicy> compiled = new IdentityHashMap<>();
+    Function<RoutingPolicy, RoutingPolicy> resolver =
+        Collections.unmodifiableMap(compiled)::get;
+    ImmutableMap.Builder<String, RoutingPolicy> byName = ImmutableMap.builder();
+    policies.forEach(
+        (name, policy) -> {
+          CompiledRoutingPolicy compiledPolicy = new CompiledRoutingPolicy(policy, resolver);
+          compiled.put(policy, compiledPolicy);
+          byName.put(name, compiledPolicy);
+        });
+    return byName.build();
+  }
+
+  /**
+   * Returns {@code true} if this was compiled from {@code policy} and the policy still has the same
+   * top-level statement objects. Statements that were mutated in place are not detected.
+   */
+  public boolean isCompiledFrom(RoutingPolicy policy) {
+    if (policy != _source) {
+      return false;
+    }
+    // Statements are compared by identity, so this check does not walk the statement trees.
+    List<Statement> statements = policy.getStatements();
+    if (statements == _sourceStatements) {
+      return true;
+    }
+    if (statements.size() != _sourceStatements.size()) {
+      return false;
+    }
+    for (int i = 0; i < statements.size(); i++) {
+      if (statements.get(i) != _sourceStatements.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Result call(Environment environment) {
+    for (CompiledStatement statement : _statements) {
+      Result result = statement.execute(environment);
+      if (result.getExit()) {
+        return result;
+      }
+      if (result.getReturn()) {
+        return result.toBuilder().setReturn(false).build();
+      }
+    }
+    return Result.builder()
+        .setFallThrough(true)
+        .setBooleanValue(environment.getDefaultAction())
+        .build();
+  }
+
+  private static final Result FALL_THROUGH = Result.builder().setFallThrough(true).build();
+  private static final Result TRUE = new Result(true);
+  private static final Result FALSE = new Result(false);
+
+  private final @Nonnull RoutingPolicy _source;
+  private final @Nonnull ImmutableList<Statement> _sourceStatements;
+  private final @Nonnull Function<RoutingPolicy, RoutingPolicy> _resolver;
+  private final @Nonnull CompiledStatement[] _statements;
+
+  private CompiledRoutingPolicy(
+      RoutingPolicy source, Function<RoutingPolicy, RoutingPolicy> resolver) {
+    super(source.getName(), source.getOwner());
+    _source = source;
+    _sourceStatements = ImmutableList.copyOf(source.getStatements());
+    setStatements(_sourceStatements);
+    _resolver = resolver;
+    _statements = compileStatements(_sourceStatements);
+  }
+
+  @FunctionalInterface
+  private interface CompiledStatement {
+    @Nonnull
+    Result execute(Environment environment);
+  }
+
+  @FunctionalInterface
+  private interface CompiledExpr {
+    @Nonnull
+    Result evaluate(Environment environment);
+  }
+
+  private @Nonnull CompiledStatement[] compileStatements(List<Statement> statements) {
+    return statements.stream().map(this::compile).toArray(CompiledStatement[]::new);
+  }
+
+  /** Executes the statements in order, as {@link If} and {@link TraceableStatement} do. */
+  private static @Nonnull Result executeBlock(
+      CompiledStatement[] statements, Environment environment) {
+    for (CompiledStatement statement : statements) {
+      Result result = statement.execute(environment);
+      if (result.getExit() || result.getReturn()) {
+        return result;
+      }
+    }
+    return FALL_THROUGH;
+  }
+
+  private @Nonnull CompiledStatement compile(Statement statement) {
+    if (statement instanceof If) {
+      If ifStatement = (If) statement;
+      CompiledExpr guard = compile(ifStatement.getGuard());
+      CompiledStatement[] trueStatements = compileStatements(ifStatement.getTrueStatements());
+      CompiledStatement[] falseStatements = compileStatements(ifStatement.getFalseStatements());
+      return environment -> {
+        Result guardResult = guard.evaluate(environment);
+        if (guardResult.getExit()) {
+          return guardResult;
+        }
+        return executeBlock(
+            guardResult.getBooleanValue() ? trueStatements : falseStatements, environment);
+      };
+    } else if (statement instanceof TraceableStatement) {
+      TraceableStatement traceable = (TraceableStatement) statement;
+      CompiledStatement[] innerStatements = compileStatements(traceable.getInnerStatements());
+      return environment -> {
+        Tracer tracer = environment.getTracer();
+        if (tracer == null) {
+          return executeBlock(innerStatements, environment);
+        }
+        tracer.newSubTrace();
+        tracer.setTraceElement(traceable.getTraceElement());
+        try {
+          return executeBlock(innerStatements, environment);
+        } finally {
+          tracer.endSubTrace();
+        }
+      };
+    }
+    return statement::execute;
+  }
+
+  private @Nonnull CompiledExpr compile(BooleanExpr expr) {
+    if (expr instanceof Conjunction) {
+      CompiledExpr[] conjuncts = compileExprs(((Conjunction) expr).getConjuncts());
+      return environment -> {
+        for (CompiledExpr conjunct : conjuncts) {
+          Result result = conjunct.evaluate(environment);
+          if (result.getExit()) {
+            return result;
+          } else if (!result.getBooleanValue()) {
+            return result.getReturn() ? result.toBuilder().setReturn(false).build() : result;
+          }
+        }
+        return TRUE;
+      };
+    } else if (expr instanceof Disjunction) {
+      CompiledExpr[] disjuncts = compileExprs(((Disjunction) expr).getDisjuncts());
+      return environment -> {
+        for (CompiledExpr disjunct : disjuncts) {
+          Result result = disjunct.evaluate(environment);
+          if (result.getExit()) {
+            return result;
+          } else if (result.getBooleanValue()) {
+            return result.getReturn() ? result.toBuilder().setReturn(false).build() : result;
+          }
+        }
+        return FALSE;
+      };
+    } else if (expr instanceof Not) {
+      CompiledExpr operand = compile(((Not) expr).getExpr());
+      return environment -> {
+        Result result = operand.evaluate(environment);
+        return result.getExit() ? result : result.getBooleanValue() ? FALSE : TRUE;
+      };
+    } else if (expr.equals(BooleanExprs.TRUE)) {
+      return environment -> TRUE;
+    } else if (expr.equals(BooleanExprs.FALSE)) {
+      return environment -> FALSE;
+    } else if (expr instanceof CallExpr) {
+      return compileCall(((CallExpr) expr).getCalledPolicyName());
+    } else if (expr instanceof MatchPrefixSet) {
+      CompiledExpr matchPrefixSet = compileMatchPrefixSet((MatchPrefixSet) expr);
+      if (matchPrefixSet != null) {
+        return matchPrefixSet;
+      }
+    }
+    return expr::evaluate;
+  }
+
+  private @Nonnull CompiledExpr[] compileExprs(List<BooleanExpr> exprs) {
+    return exprs.stream().map(this::compile).toArray(CompiledExpr[]::new);
+  }
+
+  /** Same as {@link CallExpr#evaluate}, but calls the compiled callee if there is one. */
+  private @Nonnull CompiledExpr compileCall(String calledPolicyName) {
+    return environment -> {
+      RoutingPolicy policy = environment.getRoutingPolicies().get(calledPolicyName);
+      if (policy == null) {
+        environment.setError(true);
+        return FALSE;
+      }
+      RoutingPolicy compiled = _resolver.apply(policy);
+      boolean oldCallExprContext = environment.getCallExprContext();
+      boolean oldLocalDefaultAction = environment.getLocalDefaultAction();
+      environment.setCallExprContext(true);
+      Result policyResult = (compiled != null ? compiled : policy).call(environment);
+      environment.setCallExprContext(oldCallExprContext);
+      environment.setLocalDefaultAction(oldLocalDefaultAction);
+      return policyResult.toBuilder().setReturn(false).build();
+    };
+  }
+
+  /**
+   * Compiles a match of the destination network against a named or explicit prefix set, or returns
+   * null for any other prefix or prefix set.
+   */
+  private static @Nullable CompiledExpr compileMatchPrefixSet(MatchPrefixSet matchPrefixSet) {
+    if (!(matchPrefixSet.getPrefix() instanceof DestinationNetwork)) {
+      return null;
+    }
+    if (matchPrefixSet.getPrefixSet() instanceof ExplicitPrefixSet) {
+      PrefixSpace prefixSpace =
+          ((ExplicitPrefixSet) matchPrefixSet.getPrefixSet()).getPrefixSpace();
+      return environment ->
+          prefixSpace.containsPrefix(environment.getOriginalRoute().getNetwork()) ? TRUE : FALSE;
+    } else if (matchPrefixSet.getPrefixSet() instanceof NamedPrefixSet) {
+      String name = ((NamedPrefixSet) matchPrefixSet.getPrefixSet()).getName();
+      return environment -> {
+        RouteFilterList list = environment.getRouteFilterLists().get(name);
+        if (list == null) {
+          environment.setError(true);
+          return FALSE;
+        }
+        Prefix network = environment.getOriginalRoute().getNetwork();
+        return list.permits(network) ? TRUE : FALSE;
+      };
+    }
+    return null;
+  }
+}
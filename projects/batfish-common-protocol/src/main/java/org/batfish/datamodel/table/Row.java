@@ -175,6 +175,14 @@ public class Row implements Serializable {
     _data = firstNonNull(data, BatfishObjectMapper.mapper().createObjectNode());
   }
 
+  /**
+   * Returns a row backed by {@code data}, without copying it. {@code data} must not be modified
+   * afterwards.
+   */
+  static @Nonnull Row fromData(ObjectNode data) {
+    return new Row(data);
+  }
+
   /** Returns an {@link UntypedRowBuilder} object for Row */
   public static UntypedRowBuilder builder() {
     return new UntypedRowBuilder();
@@ -255,7 +263,7 @@ public class Row implements Serializable {
   }
 
   @JsonValue
-  private ObjectNode getData() {
+  ObjectNode getData() {
     return _data;
   }
 
@@ -2,39 +2,153 @@ package org.batfish.datamodel.table;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMultiset;
-import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.common.util.BatfishObjectMapper;
 
-/** Represents data rows insider {@link TableAnswerElement} */
+/**
+ * Represents data rows insider {@link TableAnswerElement}
+ *
+ * <p>Rows are insertion-ordered, with duplicates appearing next to their first instance. To keep
+ * large answers compact, rows are not stored as {@link Row} objects. Instead, each column has a
+ * dictionary of its distinct values, and each distinct row is stored as the dictionary codes of its
+ * cells in a flat array. {@link Row} objects are recreated on iteration, and share the dictionary
+ * values, which must therefore not be modified.
+ *
+ * <p>A column whose values are mostly distinct gains nothing from sharing them, so once it has
+ * many values it drops its dictionary and stores the value of each distinct row as is.
+ */
 public class Rows implements Serializable {
 
-  private final Multiset<Row> _data;
+  /** Code of a cell for a column the row does not have. */
+  private static final int ABSENT = -1;
+
+  /**
+   * Minimum number of distinct values of a column before it stops using a dictionary, which it then
+   * does if the values are more than half the distinct rows.
+   */
+  @VisibleForTesting static final int MIN_RAW_CARDINALITY = 1024;
+
+  /** Column names, in the order they were first seen. */
+  private final List<String> _columns;
+
+  /** The index of each column in {@link #_columns}. */
+  private final Map<String, Integer> _columnIndices;
+
+  /**
+   * For each column, the code of each distinct value, or {@code null} if the column stores raw
+   * values.
+   */
+  private final List<Map<JsonNode, Integer>> _codes;
+
+  /**
+   * For each column, the values indexed by code. Values of a column with a dictionary are distinct,
+   * while a column storing raw values has one value per distinct row that has the column.
+   */
+  private final List<List<JsonNode>> _values;
+
+  private int _numRawColumns;
+
+  /** Cells of the distinct rows in order of first occurrence, with one code per column. */
+  private int[] _cells;
+
+  /** Number of occurrences of each distinct row. */
+  private int[] _counts;
+
+  /** Hash of the cells of each distinct row. */
+  private int[] _hashes;
+
+  /** Open-addressing hash table of distinct rows, holding the index of each row plus one. */
+  private int[] _index;
+
+  private int _numDistinct;
+
+  private int _size;
+
+  /** Hash of the multiset of rows, or 0 if not computed since the last change. */
+  private transient int _hashCode;
 
   public Rows() {
-    _data = LinkedHashMultiset.create();
+    _columns = new ArrayList<>();
+    _columnIndices = new HashMap<>();
+    _codes = new ArrayList<>();
+    _values = new ArrayList<>();
+    _cells = new int[0];
+    _counts = new int[0];
+    _hashes = new int[0];
+    _index = new int[INITIAL_INDEX_SIZE];
   }
 
   @VisibleForTesting
   public Rows(@Nonnull Multiset<Row> rows) {
-    _data = ImmutableMultiset.copyOf(rows);
+    this();
+    rows.forEach(this::add);
   }
 
   public Rows add(Row row) {
-    _data.add(row);
+    ObjectNode data = row.getData();
+    data.fieldNames().forEachRemaining(this::columnIndex);
+    int width = _columns.size();
+    int[] cells = new int[width];
+    Arrays.fill(cells, ABSENT);
+    JsonNode[] raw = _numRawColumns == 0 ? null : new JsonNode[width];
+    data.fields()
+        .forEachRemaining(
+            field -> {
+              int column = columnIndex(field.getKey());
+              if (_codes.get(column) == null) {
+                raw[column] = field.getValue();
+                cells[column] = 0;
+              } else {
+                cells[column] = code(column, field.getValue());
+              }
+            });
+    int hash = hash(cells, raw);
+    int slot = find(cells, raw, hash);
+    if (_index[slot] != 0) {
+      _counts[_index[slot] - 1]++;
+    } else {
+      insert(slot, cells, raw, hash);
+      dropLargeDictionaries();
+    }
+    _size++;
+    _hashCode = 0;
     return this;
   }
 
   @Override
   public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
     if (!(o instanceof Rows)) {
       return false;
     }
-    return _data.equals(((Rows) o)._data);
+    Rows other = (Rows) o;
+    if (_size != other._size
+        || _numDistinct != other._numDistinct
+        || hashCode() != other.hashCode()) {
+      return false;
+    }
+    for (int row = 0; row < _numDistinct; row++) {
+      if (other.count(this, row) != _counts[row]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -43,35 +157,284 @@ public class Rows implements Serializable {
    * @return An ImmutableMultiset
    */
   public Multiset<Row> getData() {
-    return ImmutableMultiset.copyOf(_data);
+    return ImmutableMultiset.copyOf(this::iterator);
   }
 
   public Iterator<Row> iterator() {
-    return _data.iterator();
+    return new AbstractIterator<Row>() {
+      private int _row;
+      private int _remaining = _numDistinct == 0 ? 0 : _counts[0];
+
+      @Override
+      protected Row computeNext() {
+        while (_remaining == 0) {
+          _row++;
+          if (_row >= _numDistinct) {
+            return endOfData();
+          }
+          _remaining = _counts[_row];
+        }
+        _remaining--;
+        return row(_row);
+      }
+    };
   }
 
+  /** Equal to the hash code of {@link #getData()}, without copying the rows. */
   @Override
   public int hashCode() {
-    return _data.hashCode();
+    int hashCode = _hashCode;
+    if (hashCode == 0) {
+      // As for any Multiset, the sum over the distinct elements of their hash xor their count.
+      for (int row = 0; row < _numDistinct; row++) {
+        hashCode += row(row).hashCode() ^ _counts[row];
+      }
+      _hashCode = hashCode;
+    }
+    return hashCode;
   }
 
   public int size() {
-    return _data.size();
+    return _size;
   }
 
   @Override
   public String toString() {
-    return _data.toString();
+    return getData().toString();
+  }
+
+  private static final int INITIAL_INDEX_SIZE = 16;
+
+  /** Returns the index of {@code column}, adding it if it is new. */
+  private int columnIndex(String column) {
+    Integer index = _columnIndices.get(column);
+    if (index != null) {
+      return index;
+    }
+    _columnIndices.put(column, _columns.size());
+    _columns.add(column);
+    _codes.add(new HashMap<>());
+    _values.add(new ArrayList<>());
+    if (_numDistinct > 0) {
+      // Existing rows do not have the new column.
+      int oldWidth = _columns.size() - 1;
+      int[] cells = new int[_counts.length * _columns.size()];
+      for (int row = 0; row < _numDistinct; row++) {
+        System.arraycopy(_cells, row * oldWidth, cells, row * _columns.size(), oldWidth);
+        cells[row * _columns.size() + oldWidth] = ABSENT;
+      }
+      _cells = cells;
+      reindex();
+    }
+    return _columns.size() - 1;
+  }
+
+  /** Returns the code of {@code value} in the dictionary of {@code column}, adding it if new. */
+  private int code(int column, JsonNode value) {
+    List<JsonNode> values = _values.get(column);
+    return _codes
+        .get(column)
+        .computeIfAbsent(
+            value,
+            v -> {
+              values.add(v);
+              return values.size() - 1;
+            });
+  }
+
+  /**
+   * Switches the columns whose values are mostly distinct to storing raw values. Their existing
+   * codes stay valid, since they index the values of the column.
+   */
+  private void dropLargeDictionaries() {
+    boolean dropped = false;
+    for (int column = 0; column < _columns.size(); column++) {
+      int cardinality = _values.get(column).size();
+      if (_codes.get(column) != null
+          && cardinality >= MIN_RAW_CARDINALITY
+          && cardinality * 2 > _numDistinct) {
+        _codes.set(column, null);
+        _numRawColumns++;
+        dropped = true;
+      }
+    }
+    if (dropped) {
+      // The hashes of raw cells are those of their values rather than their codes.
+      reindex();
+    }
+  }
+
+  private @Nonnull Row row(int row) {
+    ObjectNode data = BatfishObjectMapper.mapper().createObjectNode();
+    int width = _columns.size();
+    for (int column = 0; column < width; column++) {
+      int code = _cells[row * width + column];
+      if (code != ABSENT) {
+        data.set(_columns.get(column), _values.get(column).get(code));
+      }
+    }
+    return Row.fromData(data);
+  }
+
+  /**
+   * Returns the number of occurrences in this object of the distinct row {@code row} of {@code
+   * rows}.
+   */
+  private int count(Rows rows, int row) {
+    int width = _columns.size();
+    int[] cells = new int[width];
+    Arrays.fill(cells, ABSENT);
+    JsonNode[] raw = _numRawColumns == 0 ? null : new JsonNode[width];
+    int otherWidth = rows._columns.size();
+    for (int otherColumn = 0; otherColumn < otherWidth; otherColumn++) {
+      int otherCode = rows._cells[row * otherWidth + otherColumn];
+      if (otherCode == ABSENT) {
+        continue;
+      }
+      Integer column = _columnIndices.get(rows._columns.get(otherColumn));
+      if (column == null) {
+        return 0;
+      }
+      JsonNode value = rows._values.get(otherColumn).get(otherCode);
+      Map<JsonNode, Integer> codes = _codes.get(column);
+      if (codes == null) {
+        raw[column] = value;
+        cells[column] = 0;
+      } else {
+        Integer code = codes.get(value);
+        if (code == null) {
+          return 0;
+        }
+        cells[column] = code;
+      }
+    }
+    int entry = _index[find(cells, raw, hash(cells, raw))];
+    return entry == 0 ? 0 : _counts[entry - 1];
+  }
+
+  /**
+   * Returns the hash of a row given the codes of its cells and, if any column stores raw values,
+   * the values of those columns.
+   */
+  private static int hash(int[] cells, @Nullable JsonNode[] raw) {
+    int hash = 1;
+    for (int column = 0; column < cells.length; column++) {
+      JsonNode value = raw == null ? null : raw[column];
+      hash = 31 * hash + (value != null ? value.hashCode() : cells[column]);
+    }
+    return hash;
+  }
+
+  /** Returns the hash of the distinct row {@code row}, as {@link #hash} computes it. */
+  private int hash(int row) {
+    int width = _columns.size();
+    int hash = 1;
+    for (int column = 0; column < width; column++) {
+      int code = _cells[row * width + column];
+      hash =
+          31 * hash
+              + (code != ABSENT && _codes.get(column) == null
+                  ? _values.get(column).get(code).hashCode()
+                  : code);
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the slot of the index holding the distinct row with the given {@code cells}, or the
+   * empty slot where it should be inserted.
+   */
+  private int find(int[] cells, @Nullable JsonNode[] raw, int hash) {
+    int mask = _index.length - 1;
+    for (int slot = slot(hash, mask); ; slot = (slot + 1) & mask) {
+      int entry = _index[slot];
+      if (entry == 0) {
+        return slot;
+      }
+      int row = entry - 1;
+      if (_hashes[row] == hash && rowEquals(row, cells, raw)) {
+        return slot;
+      }
+    }
+  }
+
+  /** Returns whether the distinct row {@code row} has the given cells. */
+  private boolean rowEquals(int row, int[] cells, @Nullable JsonNode[] raw) {
+    int width = _columns.size();
+    if (raw == null) {
+      return Arrays.equals(_cells, row * width, (row + 1) * width, cells, 0, width);
+    }
+    for (int column = 0; column < width; column++) {
+      int code = _cells[row * width + column];
+      if (_codes.get(column) != null || code == ABSENT || raw[column] == null) {
+        if (code != cells[column]) {
+          return false;
+        }
+      } else if (!_values.get(column).get(code).equals(raw[column])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void insert(int slot, int[] cells, @Nullable JsonNode[] raw, int hash) {
+    int width = _columns.size();
+    if (raw != null) {
+      for (int column = 0; column < width; column++) {
+        if (raw[column] != null) {
+          List<JsonNode> values = _values.get(column);
+          values.add(raw[column]);
+          cells[column] = values.size() - 1;
+        }
+      }
+    }
+    if (_numDistinct == _counts.length) {
+      int capacity = Math.max(INITIAL_INDEX_SIZE, _counts.length * 2);
+      _cells = Arrays.copyOf(_cells, capacity * width);
+      _counts = Arrays.copyOf(_counts, capacity);
+      _hashes = Arrays.copyOf(_hashes, capacity);
+    }
+    System.arraycopy(cells, 0, _cells, _numDistinct * width, width);
+    _counts[_numDistinct] = 1;
+    _hashes[_numDistinct] = hash;
+    _numDistinct++;
+    _index[slot] = _numDistinct;
+    if (_numDistinct * 2 > _index.length) {
+      _index = new int[_index.length * 2];
+      reindex();
+    }
+  }
+
+  /** Returns the preferred slot of the index for {@code hash}. */
+  private static int slot(int hash, int mask) {
+    int h = hash * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /** Recomputes the hashes of all distinct rows and rebuilds the index. */
+  private void reindex() {
+    Arrays.fill(_index, 0);
+    int mask = _index.length - 1;
+    for (int row = 0; row < _numDistinct; row++) {
+      int hash = hash(row);
+      _hashes[row] = hash;
+      int slot = slot(hash, mask);
+      while (_index[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      _index[slot] = row + 1;
+    }
   }
 
   // Jackson serializes a Multiset as a list of items.
   @JsonCreator
   private Rows(Iterable<Row> data) {
-    _data = ImmutableMultiset.copyOf(data);
+    this();
+    data.forEach(this::add);
   }
 
   @JsonValue
   private Iterable<Row> asJsonValue() {
-    return _data;
+    return this::iterator;
   }
 }
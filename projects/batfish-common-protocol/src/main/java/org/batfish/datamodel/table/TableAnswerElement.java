@@ -155,11 +155,17 @@ public final class TableAnswerElement extends AnswerElement {
     return _rows;
   }
 
-  @JsonProperty(PROP_ROWS)
+  @JsonIgnore
   public List<Row> getRowsList() {
     return ImmutableList.copyOf(_rows.iterator());
   }
 
+  /** Serializes the rows directly from {@link Rows}, without first copying them into a list. */
+  @JsonProperty(PROP_ROWS)
+  private Rows getRowsJson() {
+    return _rows;
+  }
+
   @JsonProperty(PROP_WARNINGS)
   public List<String> getWarnings() {
     return _warnings;
@@ -0,0 +1,272 @@
+package org.batfish.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerElement;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ExcludedRows;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.Rows;
+import org.batfish.datamodel.table.TableAnswerElement;
+
+/**
+ * A table answer stored column by column, so that filtering, sorting, and paging can read only the
+ * columns they need instead of deserializing every row.
+ *
+ * <p>Each cell is stored as its JSON encoding. For each column, the cells are stored contiguously,
+ * followed by the offsets of each cell within the column. A footer holds the answer without its
+ * rows, and the location of each column. Columns are memory-mapped when read.
+ */
+@ParametersAreNonnullByDefault
+public final class ColumnarAnswer {
+
+  /**
+   * Returns {@code true} iff {@code answer} can be stored as a {@link ColumnarAnswer}, i.e., it is
+   * successful and its first answer element is a {@link TableAnswerElement}.
+   */
+  public static boolean isColumnar(Answer answer) {
+    return answer.getStatus() == AnswerStatus.SUCCESS
+        && !answer.getAnswerElements().isEmpty()
+        && answer.getAnswerElements().get(0) instanceof TableAnswerElement;
+  }
+
+  /**
+   * Writes {@code answer} to {@code out} in columnar form.
+   *
+   * @throws IllegalArgumentException if {@code answer} is not {@link #isColumnar(Answer)
+   *     columnar}
+   * @throws IOException if there is an error writing, or a column is too large to be mapped
+   */
+  public static void write(Answer answer, OutputStream out) throws IOException {
+    checkArgument(isColumnar(answer), "Not a successful table answer");
+    TableAnswerElement table = (TableAnswerElement) answer.getAnswerElements().get(0);
+    // Rows are iterated once per column rather than copied into a list, so only one row is held
+    // at a time.
+    Rows rows = table.getRows();
+    List<String> columns = columnNames(table);
+
+    CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(out));
+    DataOutputStream data = new DataOutputStream(counting);
+    data.writeInt(MAGIC);
+    long[] dataPositions = new long[columns.size()];
+    long[] offsetsPositions = new long[columns.size()];
+    for (int c = 0; c < columns.size(); c++) {
+      String column = columns.get(c);
+      int[] offsets = new int[rows.size() + 1];
+      dataPositions[c] = counting.getCount();
+      Iterator<Row> rowIterator = rows.iterator();
+      for (int r = 0; r < rows.size(); r++) {
+        Row row = rowIterator.next();
+        if (row.getColumnNames().contains(column)) {
+          data.write(BatfishObjectMapper.mapper().writeValueAsBytes(row.get(column)));
+        }
+        long columnLength = counting.getCount() - dataPositions[c];
+        if (columnLength > Integer.MAX_VALUE) {
+          throw new IOException(String.format("Column %s is too large to store", column));
+        }
+        offsets[r + 1] = (int) columnLength;
+      }
+      offsetsPositions[c] = counting.getCount();
+      for (int offset : offsets) {
+        data.writeInt(offset);
+      }
+    }
+
+    long footerPosition = counting.getCount();
+    data.writeInt(VERSION);
+    byte[] header = BatfishObjectMapper.mapper().writeValueAsBytes(withoutRows(answer, table));
+    data.writeInt(header.length);
+    data.write(header);
+    data.writeInt(rows.size());
+    data.writeInt(columns.size());
+    for (int c = 0; c < columns.size(); c++) {
+      data.writeUTF(columns.get(c));
+      data.writeLong(dataPositions[c]);
+      data.writeLong(offsetsPositions[c]);
+    }
+    data.writeLong(footerPosition);
+    data.writeInt(MAGIC);
+    data.flush();
+  }
+
+  /**
+   * Opens the columnar answer stored in {@code file}.
+   *
+   * @throws IOException if the file cannot be read or is not a columnar answer
+   */
+  public static @Nonnull ColumnarAnswer open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < TRAILER_SIZE) {
+        throw new IOException(String.format("Not a columnar answer: %s", file));
+      }
+      ByteBuffer trailer = channel.map(MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+      long footerPosition = trailer.getLong();
+      if (trailer.getInt() != MAGIC || footerPosition < 0 || footerPosition > size) {
+        throw new IOException(String.format("Not a columnar answer: %s", file));
+      }
+      ByteBuffer footerBuffer =
+          channel.map(MapMode.READ_ONLY, footerPosition, size - TRAILER_SIZE - footerPosition);
+      byte[] footerBytes = new byte[footerBuffer.remaining()];
+      footerBuffer.get(footerBytes);
+      DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerBytes));
+      int version = footer.readInt();
+      if (version != VERSION) {
+        throw new IOException(
+            String.format("Unsupported columnar answer version %s: %s", version, file));
+      }
+      byte[] header = new byte[footer.readInt()];
+      footer.readFully(header);
+      int numRows = footer.readInt();
+      int numColumns = footer.readInt();
+      ImmutableMap.Builder<String, Column> columns = ImmutableMap.builder();
+      for (int c = 0; c < numColumns; c++) {
+        String name = footer.readUTF();
+        long dataPosition = footer.readLong();
+        long offsetsPosition = footer.readLong();
+        IntBuffer offsets =
+            channel
+                .map(MapMode.READ_ONLY, offsetsPosition, (numRows + 1L) * Integer.BYTES)
+                .asIntBuffer();
+        ByteBuffer data =
+            channel.map(MapMode.READ_ONLY, dataPosition, offsetsPosition - dataPosition);
+        columns.put(name, new Column(data, offsets));
+      }
+      return new ColumnarAnswer(
+          BatfishObjectMapper.mapper().readValue(header, Answer.class), numRows, columns.build());
+    }
+  }
+
+  /**
+   * Returns the answer without any rows. Its first answer element is a {@link TableAnswerElement}
+   * holding the metadata, summary, and warnings of the table.
+   */
+  public @Nonnull Answer getHeader() {
+    return _header;
+  }
+
+  /** Returns the table of {@link #getHeader()}, which has no rows. */
+  public @Nonnull TableAnswerElement getTable() {
+    return (TableAnswerElement) _header.getAnswerElements().get(0);
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  /**
+   * Returns the row at {@code index}, with only the specified {@code columns}.
+   *
+   * @throws NoSuchElementException if one of the columns is not in the table
+   */
+  public @Nonnull Row getRow(int index, Collection<String> columns) {
+    Row.RowBuilder row = Row.builder();
+    for (String column : columns) {
+      Column c = _columns.get(column);
+      if (c == null) {
+        throw new NoSuchElementException(
+            Row.missingColumnErrorMessage(column, _columns.keySet()));
+      }
+      int start = c._offsets.get(index);
+      int end = c._offsets.get(index + 1);
+      if (start == end) {
+        // the row has no value for this column
+        continue;
+      }
+      ByteBuffer cell = c._data.duplicate();
+      cell.position(start);
+      cell.limit(end);
+      try {
+        row.put(
+            column,
+            BatfishObjectMapper.mapper().readTree(new ByteBufferBackedInputStream(cell)));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return row.build();
+  }
+
+  private static final int MAGIC = 0x42464341; // "BFCA"
+
+  private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+  private static final int VERSION = 1;
+
+  private static @Nonnull List<String> columnNames(TableAnswerElement table) {
+    List<String> columns = new ArrayList<>();
+    for (ColumnMetadata columnMetadata : table.getMetadata().getColumnMetadata()) {
+      columns.add(columnMetadata.getName());
+    }
+    return columns;
+  }
+
+  private static @Nonnull Answer withoutRows(Answer answer, TableAnswerElement table) {
+    TableAnswerElement header = new TableAnswerElement(table.getMetadata());
+    header.setSummary(table.getSummary());
+    table.getWarnings().forEach(header::addWarning);
+    for (ExcludedRows excluded : table.getExcludedRows()) {
+      for (Row row : excluded.getRowsList()) {
+        header.addExcludedRow(row, excluded.getExclusionName());
+      }
+    }
+    Answer headerAnswer = new Answer();
+    headerAnswer.setQuestion(answer.getQuestion());
+    headerAnswer.setStatus(answer.getStatus());
+    headerAnswer.setSummary(answer.getSummary());
+    headerAnswer.setAnswerElements(
+        ImmutableList.<AnswerElement>builder()
+            .add(header)
+            .addAll(answer.getAnswerElements().subList(1, answer.getAnswerElements().size()))
+            .build());
+    return headerAnswer;
+  }
+
+  private static final class Column {
+    private final @Nonnull ByteBuffer _data;
+    private final @Nonnull IntBuffer _offsets;
+
+    private Column(ByteBuffer data, IntBuffer offsets) {
+      _data = data;
+      _offsets = offsets;
+    }
+  }
+
+  private final @Nonnull Answer _header;
+  private final int _numRows;
+  private final @Nonnull Map<String, Column> _columns;
+
+  private ColumnarAnswer(Answer header, int numRows, Map<String, Column> columns) {
+    _header = header;
+    _numRows = numRows;
+    _columns = columns;
+  }
+}
@@ -10,9 +10,11 @@ import static org.batfish.common.plugin.PluginConsumer.detectFormat;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Sets;
@@ -32,6 +34,9 @@ import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
@@ -39,6 +44,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
@@ -54,6 +60,7 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
@@ -83,6 +90,7 @@ import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -104,6 +112,7 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.referencelibrary.ReferenceLibrary;
 import org.batfish.role.NodeRolesData;
+import org.batfish.storage.SchemaSerialization.Schema;
 import org.batfish.vendor.ConversionContext;
 import org.batfish.vendor.VendorConfiguration;
 
@@ -137,6 +146,7 @@ public class FileBasedStorage implements StorageProvider {
   private static final String RELPATH_ANSWERS_DIR = "answers";
   private static final String RELPATH_ANSWER_METADATA = "answer_metadata.json";
   private static final String RELPATH_ANSWER_JSON = "answer.json";
+  private static final String RELPATH_ANSWER_COLUMNS = "answer.columns";
   private static final String RELPATH_BATFISH_CONFIGS_DIR = "batfish";
   private static final String RELPATH_SNAPSHOT_ZIP_FILE = "snapshot.zip";
   private static final String RELPATH_DATA_PLANE = "dp";
@@ -148,10 +158,23 @@ public class FileBasedStorage implements StorageProvider {
   private static final String RELPATH_AWS_ACCOUNTS_DIR = "accounts";
   private static final String RELPATH_SNAPSHOTS_DIR = "snapshots";
   private static final String RELPATH_OUTPUT = "output";
+  private static final String RELPATH_SCHEMA = ".schema";
+
+  /** Each per-host object is a standalone LZ4-compressed Java-serialized stream. */
+  public static final int STORAGE_FORMAT_VERSION_JAVA = 1;
+
+  /**
+   * Per-host objects share one class schema per directory, see {@link SchemaSerialization}. Files
+   * written in the Java format are still read.
+   */
+  public static final int STORAGE_FORMAT_VERSION_SCHEMA = 2;
+
+  public static final int DEFAULT_STORAGE_FORMAT_VERSION = STORAGE_FORMAT_VERSION_SCHEMA;
 
   private final BatfishLogger _logger;
   private final BiFunction<String, Integer, AtomicInteger> _newBatch;
   private final Path _baseDir;
+  private final int _storageFormatVersion;
 
   /**
    * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
@@ -159,8 +182,27 @@ public class FileBasedStorage implements StorageProvider {
    */
   public FileBasedStorage(
       Path baseDir, BatfishLogger logger, BiFunction<String, Integer, AtomicInteger> newBatch) {
+    this(baseDir, logger, newBatch, DEFAULT_STORAGE_FORMAT_VERSION);
+  }
+
+  /**
+   * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
+   * provider function, and writes configurations and data planes in the given storage format
+   * version.
+   */
+  public FileBasedStorage(
+      Path baseDir,
+      BatfishLogger logger,
+      BiFunction<String, Integer, AtomicInteger> newBatch,
+      int storageFormatVersion) {
+    checkArgument(
+        storageFormatVersion == STORAGE_FORMAT_VERSION_JAVA
+            || storageFormatVersion == STORAGE_FORMAT_VERSION_SCHEMA,
+        "Unsupported storage format version: %s",
+        storageFormatVersion);
     _logger = logger;
     _newBatch = newBatch;
+    _storageFormatVersion = storageFormatVersion;
     try {
       _baseDir = baseDir.toFile().getCanonicalFile().toPath();
     } catch (IOException e) {
@@ -216,6 +258,9 @@ public class FileBasedStorage implements StorageProvider {
     try (DirectoryStream<Path> stream = Files.newDirectoryStream(indepDir)) {
       for (Path serializedConfig : stream) {
         String name = serializedConfig.getFileName().toString();
+        if (name.equals(RELPATH_SCHEMA)) {
+          continue;
+        }
         namesByPath.put(serializedConfig, name);
       }
     } catch (IOException e) {
@@ -223,7 +268,7 @@ public class FileBasedStorage implements StorageProvider {
           "Error reading vendor-independent configs directory: '" + indepDir + "'", e);
     }
     try {
-      return deserializeObjects(namesByPath, Configuration.class);
+      return deserializeObjects(namesByPath, Configuration.class, getSchemaPath(indepDir));
     } catch (BatfishException e) {
       return null;
     }
@@ -511,13 +556,50 @@ public class FileBasedStorage implements StorageProvider {
     deleteDirectory(outputDir);
     mkdirs(outputDir);
 
+    Schema schema = _storageFormatVersion == STORAGE_FORMAT_VERSION_SCHEMA ? new Schema() : null;
     configurations.entrySet().parallelStream()
         .forEach(
             e -> {
               Path currentOutputPath = outputDir.resolve(e.getKey());
-              serializeObject(e.getValue(), currentOutputPath);
+              serializeObject(e.getValue(), currentOutputPath, schema);
               progressCount.incrementAndGet();
             });
+    storeSchema(schema, getSchemaPath(outputDir));
+  }
+
+  /**
+   * Returns the path of the schema shared by the objects in {@code dir}. It is kept inside {@code
+   * dir}, so that deleting the objects also deletes their schema.
+   */
+  private static @Nonnull Path getSchemaPath(Path dir) {
+    return dir.resolve(RELPATH_SCHEMA);
+  }
+
+  /**
+   * Stores {@code schema} at {@code schemaPath}, or deletes any stored schema if {@code schema} is
+   * {@code null}. Must be called after all objects using the schema are written.
+   */
+  private void storeSchema(@Nullable Schema schema, Path schemaPath) throws IOException {
+    if (schema == null) {
+      deleteIfExists(schemaPath);
+      return;
+    }
+    writeFile(schemaPath, schema::write);
+  }
+
+  private static @Nonnull Schema loadSchema(Path schemaPath) {
+    try (InputStream in = Files.newInputStream(schemaPath)) {
+      return Schema.read(in);
+    } catch (IOException e) {
+      throw new BatfishException(String.format("Failed to load schema %s", schemaPath), e);
+    }
+  }
+
+  /** Maps {@code file} into memory for reading. */
+  private static @Nonnull ByteBuffer mapFile(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
   }
 
   @Override
@@ -527,6 +609,51 @@ public class FileBasedStorage implements StorageProvider {
     Path answerPath = getAnswerPath(network, snapshot, answerId);
     mkdirs(answerPath.getParent());
     writeStringToFile(answerPath, answerStr, UTF_8);
+    Path columnarAnswerPath = getColumnarAnswerPath(network, snapshot, answerId);
+    Answer answer;
+    try {
+      answer = BatfishObjectMapper.mapper().readValue(answerStr, Answer.class);
+    } catch (IOException e) {
+      deleteIfExists(columnarAnswerPath);
+      _logger.warnf("Failed to parse answer for columnar storage: %s", e.getMessage());
+      LOGGER.warn("Failed to parse answer for columnar storage", e);
+      return;
+    }
+    storeColumnarAnswer(answer, columnarAnswerPath);
+  }
+
+  @Override
+  public void storeAnswer(
+      NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException {
+    Path answerPath = getAnswerPath(network, snapshot, answerId);
+    mkdirs(answerPath.getParent());
+    writeJsonFile(answerPath, answer);
+    storeColumnarAnswer(answer, getColumnarAnswerPath(network, snapshot, answerId));
+  }
+
+  /**
+   * Stores a columnar copy of the answer if it is a table, so that it can be filtered without
+   * loading every row. Failure to do so is not fatal, since the JSON answer remains authoritative.
+   */
+  private void storeColumnarAnswer(Answer answer, Path columnarAnswerPath) throws IOException {
+    deleteIfExists(columnarAnswerPath);
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      if (!ColumnarAnswer.isColumnar(answer)) {
+        return;
+      }
+      try (OutputStream out = Files.newOutputStream(tmpFile)) {
+        ColumnarAnswer.write(answer, out);
+      }
+      Files.move(tmpFile, validatePath(columnarAnswerPath), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      _logger.warnf(
+          "Failed to store columnar answer at %s: %s", columnarAnswerPath, e.getMessage());
+      LOGGER.warn("Failed to store columnar answer at {}", columnarAnswerPath, e);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
   }
 
   @Override
@@ -583,8 +710,52 @@ public class FileBasedStorage implements StorageProvider {
     }
   }
 
+  /**
+   * Returns an object of the given class deserialized from the given file. Files written in the
+   * schema-based format are decoded with the given schema, and other files are read as by {@link
+   * #deserializeObject(Path, Class)}. Either way the object is fully Java-deserialized.
+   */
+  private <S extends Serializable> S deserializeObject(
+      Path inputFile, Class<S> outputClass, Supplier<Schema> schema) throws BatfishException {
+    Path sanitizedInputFile = validatePath(inputFile);
+    try {
+      ByteBuffer buffer = mapFile(sanitizedInputFile);
+      if (!SchemaSerialization.isSchemaSerialized(buffer)) {
+        return deserializeObject(sanitizedInputFile, outputClass);
+      }
+      return outputClass.cast(SchemaSerialization.read(buffer, schema.get()));
+    } catch (BatfishException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new BatfishException(
+          String.format(
+              "Failed to deserialize object of type %s from file %s",
+              outputClass.getCanonicalName(), sanitizedInputFile),
+          e);
+    }
+  }
+
   private <S extends Serializable> SortedMap<String, S> deserializeObjects(
       Map<Path, String> namesByPath, Class<S> outputClass) {
+    return deserializeObjects(namesByPath, outputClass, null);
+  }
+
+  /**
+   * Deserializes the objects of the given class from the given files in parallel. Files written in
+   * the schema-based format are decoded using the schema at {@code schemaPath}, which must then be
+   * non-null.
+   */
+  private <S extends Serializable> SortedMap<String, S> deserializeObjects(
+      Map<Path, String> namesByPath, Class<S> outputClass, @Nullable Path schemaPath) {
+    // loaded at most once, and only if some file needs it
+    Supplier<Schema> schema =
+        Suppliers.memoize(
+            () -> {
+              if (schemaPath == null) {
+                throw new BatfishException("Schema-serialized objects found without a schema");
+              }
+              return loadSchema(validatePath(schemaPath));
+            });
     String outputClassName = outputClass.getName();
     AtomicInteger completed =
         _newBatch.apply(
@@ -600,7 +771,7 @@ public class FileBasedStorage implements StorageProvider {
                       String name = entry.getValue();
                       _logger.debugf(
                           "Reading %s '%s' from '%s'\n", outputClassName, name, inputPath);
-                      S output = deserializeObject(inputPath, outputClass);
+                      S output = deserializeObject(inputPath, outputClass, schema);
                       completed.incrementAndGet();
                       return output;
                     })));
@@ -612,28 +783,54 @@ public class FileBasedStorage implements StorageProvider {
    */
   @VisibleForTesting
   void serializeObject(Serializable object, Path outputFile) {
-    Path sanitizedOutputFile = validatePath(outputFile);
+    serializeObject(object, outputFile, null);
+  }
+
+  /**
+   * Writes a single object to the given file, in the schema-based format using the given schema if
+   * it is non-null, and as by {@link #serializeObject(Serializable, Path)} otherwise.
+   */
+  private void serializeObject(Serializable object, Path outputFile, @Nullable Schema schema) {
     try {
-      Path tmpFile = Files.createTempFile(null, null);
-      try {
-        try (OutputStream out = Files.newOutputStream(tmpFile);
-            LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-            ObjectOutputStream oos = new ObjectOutputStream(gos)) {
-          oos.writeObject(object);
-        } catch (Throwable e) {
-          throw new BatfishException(
-              "Failed to serialize object to output file: " + sanitizedOutputFile, e);
-        }
-        mkdirs(sanitizedOutputFile.getParent());
-        Files.move(tmpFile, sanitizedOutputFile, StandardCopyOption.REPLACE_EXISTING);
-      } finally {
-        Files.deleteIfExists(tmpFile);
-      }
+      writeFile(
+          outputFile,
+          out -> {
+            if (schema != null) {
+              SchemaSerialization.write(object, schema, out);
+              return;
+            }
+            try (LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
+                ObjectOutputStream oos = new ObjectOutputStream(gos)) {
+              oos.writeObject(object);
+            }
+          });
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
+  private interface StreamWriter {
+    void write(OutputStream out) throws IOException;
+  }
+
+  /** Atomically replaces {@code outputFile} with the output of {@code writer}. */
+  private void writeFile(Path outputFile, StreamWriter writer) throws IOException {
+    Path sanitizedOutputFile = validatePath(outputFile);
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      try (OutputStream out = Files.newOutputStream(tmpFile)) {
+        writer.write(out);
+      } catch (Throwable e) {
+        throw new BatfishException(
+            "Failed to serialize object to output file: " + sanitizedOutputFile, e);
+      }
+      mkdirs(sanitizedOutputFile.getParent());
+      Files.move(tmpFile, sanitizedOutputFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
   private <S extends Serializable> void serializeObjects(Map<Path, S> objectsByPath) {
     if (objectsByPath.isEmpty()) {
       return;
@@ -698,6 +895,16 @@ public class FileBasedStorage implements StorageProvider {
     throw new FileNotFoundException(String.format("Could not find answer with ID: %s", answerId));
   }
 
+  @Override
+  public @Nonnull Optional<ColumnarAnswer> loadColumnarAnswer(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException {
+    Path columnarAnswerPath = getColumnarAnswerPath(networkId, snapshotId, answerId);
+    if (!exists(columnarAnswerPath)) {
+      return Optional.empty();
+    }
+    return Optional.of(ColumnarAnswer.open(validatePath(columnarAnswerPath)));
+  }
+
   @Override
   public @Nonnull AnswerMetadata loadAnswerMetadata(
       NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException {
@@ -722,6 +929,12 @@ public class FileBasedStorage implements StorageProvider {
     return getAnswerDir(networkId, snapshotId, answerId).resolve(RELPATH_ANSWER_JSON);
   }
 
+  @VisibleForTesting
+  @Nonnull
+  Path getColumnarAnswerPath(NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
+    return getAnswerDir(networkId, snapshotId, answerId).resolve(RELPATH_ANSWER_COLUMNS);
+  }
+
   @VisibleForTesting
   @Nonnull
   Path getOldAnswerPath(AnswerId answerId) {
@@ -1548,28 +1761,39 @@ public class FileBasedStorage implements StorageProvider {
   @Nonnull
   @Override
   public DataPlane loadDataPlane(NetworkSnapshot snapshot) throws IOException {
-    Map<Path, String> namesByPath = new TreeMap<>();
+    ImmutableMap.Builder<String, Path> pathsByName = ImmutableMap.builder();
     Path dataplanePath = getDataPlanePath(snapshot);
     try (DirectoryStream<Path> hostDataPlanes = Files.newDirectoryStream(dataplanePath)) {
       for (Path hostDataPlane : hostDataPlanes) {
         String name = hostDataPlane.getFileName().toString();
-        if (name.equals(RELPATH_DATA_PLANE_FORWARDING_ANALYSIS)) {
+        if (name.equals(RELPATH_DATA_PLANE_FORWARDING_ANALYSIS) || name.equals(RELPATH_SCHEMA)) {
           continue;
         }
-        namesByPath.put(hostDataPlane, fromBase64(name));
+        pathsByName.put(fromBase64(name), hostDataPlane);
       }
     } catch (IOException e) {
       throw new BatfishException("Error reading data plane directory", e);
     }
-    Map<String, PerHostDataPlane> perNodeDataPlanes =
-        deserializeObjects(namesByPath, PerHostDataPlane.class);
-    ForwardingAnalysis forwardingAnalysis =
-        deserializeObjectUnchecked(getDataPlaneForwardingAnalysisPath(snapshot));
-    return new SimpleFieldsDataPlane(perNodeDataPlanes, forwardingAnalysis);
+    // Hosts are only deserialized when a question first reads them.
+    Map<String, Path> hostPaths = pathsByName.build();
+    Supplier<Schema> schema =
+        Suppliers.memoize(() -> loadSchema(validatePath(getSchemaPath(dataplanePath))));
+    Supplier<ForwardingAnalysis> forwardingAnalysis =
+        Suppliers.memoize(
+            () -> deserializeObjectUnchecked(getDataPlaneForwardingAnalysisPath(snapshot)));
+    return new LazyDataPlane(
+        hostPaths.keySet(),
+        hostname -> deserializeObject(hostPaths.get(hostname), PerHostDataPlane.class, schema),
+        forwardingAnalysis);
   }
 
   @Override
   public void storeDataPlane(DataPlane dataPlane, NetworkSnapshot snapshot) throws IOException {
+    // Delete any existing output, since stale hosts would not match a new schema
+    deleteDirectory(getDataPlanePath(snapshot));
+    // The forwarding analysis is written last, so the data plane is only considered present (see
+    // hasDataPlane) once every host and the schema are written.
+    Schema schema = _storageFormatVersion == STORAGE_FORMAT_VERSION_SCHEMA ? new Schema() : null;
     dataPlane.getFibs().keySet().parallelStream()
         .forEach(
             hostname -> {
@@ -1584,15 +1808,38 @@ public class FileBasedStorage implements StorageProvider {
                       dataPlane.getLayer3Vnis().row(hostname),
                       dataPlane.getPrefixTracingInfoSummary().get(hostname),
                       dataPlane.getRibs().row(hostname));
-              serializeObject(dp, getDataPlaneHostPath(snapshot, hostname));
+              serializeObject(dp, getDataPlaneHostPath(snapshot, hostname), schema);
             });
+    storeSchema(schema, getSchemaPath(getDataPlanePath(snapshot)));
     serializeObject(
         dataPlane.getForwardingAnalysis(), getDataPlaneForwardingAnalysisPath(snapshot));
   }
 
+  /**
+   * Returns {@code true} iff a complete data plane is stored for {@code snapshot} that this version
+   * of Batfish can read. A data plane whose schema was written by another version is treated as
+   * absent, so that it is recomputed.
+   */
   @Override
   public boolean hasDataPlane(NetworkSnapshot snapshot) throws IOException {
-    return Files.exists(getDataPlanePath(snapshot));
+    if (!Files.exists(getDataPlaneForwardingAnalysisPath(snapshot))) {
+      return false;
+    }
+    Path schemaPath = getSchemaPath(getDataPlanePath(snapshot));
+    if (!Files.exists(schemaPath)) {
+      // written in the Java format
+      return true;
+    }
+    try (InputStream in = Files.newInputStream(schemaPath)) {
+      if (Schema.isCompatible(in)) {
+        return true;
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to read data plane schema of snapshot {}", snapshot, e);
+    }
+    _logger.warnf(
+        "Ignoring stored data plane of snapshot %s: it cannot be read by this version", snapshot);
+    return false;
   }
 
   @MustBeClosed
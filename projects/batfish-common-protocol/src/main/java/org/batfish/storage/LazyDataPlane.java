@@ -0,0 +1,415 @@
+package org.batfish.storage;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+import com.google.common.collect.Tables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.datamodel.vxlan.Layer3Vni;
+
+/**
+ * A {@link DataPlane} whose per-host state is loaded on first access.
+ *
+ * <p>Questions often touch only a few hosts, so rather than deserializing every {@link
+ * PerHostDataPlane} up front, this data plane only knows the hostnames and loads a host's RIBs,
+ * FIBs, and BGP tables when one of them is first read. Loaded hosts are held in a bounded cache of
+ * soft references, so they may be dropped under memory pressure and loaded again on next access.
+ *
+ * <p>Point lookups such as {@link Table#row(Object)}, {@link Table#get(Object, Object)} and {@code
+ * getFibs().get(hostname)} load a single host and cache it. Iterating a table or map, or any
+ * column-oriented access, streams through every host instead: hosts already cached are reused, and
+ * the others are loaded without being cached, so a full scan neither evicts the hosts that point
+ * lookups are using nor holds the whole data plane at once. Objects read during a scan of a host
+ * that was not cached are therefore not the same instances as those of a later lookup.
+ */
+@ParametersAreNonnullByDefault
+final class LazyDataPlane implements DataPlane {
+
+  private final @Nonnull ImmutableSortedSet<String> _hostnames;
+  private final @Nonnull Function<String, PerHostDataPlane> _loader;
+  private final @Nonnull LoadingCache<String, PerHostDataPlane> _hosts;
+  private final @Nonnull HostMap<Map<String, Fib>> _fibs;
+  private final @Nonnull Supplier<ForwardingAnalysis> _forwardingAnalysis;
+  private final @Nonnull LazyHostTable<Set<Bgpv4Route>> _bgpRoutes;
+  private final @Nonnull LazyHostTable<Set<Bgpv4Route>> _bgpBackupRoutes;
+  private final @Nonnull LazyHostTable<Set<EvpnRoute<?, ?>>> _evpnRoutes;
+  private final @Nonnull LazyHostTable<Set<EvpnRoute<?, ?>>> _evpnBackupRoutes;
+  private final @Nonnull LazyHostTable<Set<Layer2Vni>> _layer2Vnis;
+  private final @Nonnull LazyHostTable<Set<Layer3Vni>> _layer3Vnis;
+  private final @Nonnull LazyHostTable<FinalMainRib> _ribs;
+
+  /** The maximum number of hosts held at once, in addition to the soft reference limit. */
+  @VisibleForTesting static final int MAX_LOADED_HOSTS = 4096;
+
+  LazyDataPlane(
+      Set<String> hostnames,
+      Function<String, PerHostDataPlane> loader,
+      Supplier<ForwardingAnalysis> forwardingAnalysis) {
+    this(hostnames, loader, forwardingAnalysis, MAX_LOADED_HOSTS);
+  }
+
+  @VisibleForTesting
+  LazyDataPlane(
+      Set<String> hostnames,
+      Function<String, PerHostDataPlane> loader,
+      Supplier<ForwardingAnalysis> forwardingAnalysis,
+      int maxLoadedHosts) {
+    _hostnames = ImmutableSortedSet.copyOf(hostnames);
+    _loader = loader;
+    _hosts =
+        CacheBuilder.newBuilder()
+            .softValues()
+            .maximumSize(maxLoadedHosts)
+            .build(CacheLoader.from(loader::apply));
+    _forwardingAnalysis = forwardingAnalysis;
+    _fibs = new HostMap<>(PerHostDataPlane::getFibs);
+    _bgpRoutes = new LazyHostTable<>(PerHostDataPlane::getBgpRoutes);
+    _bgpBackupRoutes = new LazyHostTable<>(PerHostDataPlane::getBgpBackupRoutes);
+    _evpnRoutes = new LazyHostTable<>(PerHostDataPlane::getEvpnRoutes);
+    _evpnBackupRoutes = new LazyHostTable<>(PerHostDataPlane::getEvpnBackupRoutes);
+    _layer2Vnis = new LazyHostTable<>(PerHostDataPlane::getLayer2Vnis);
+    _layer3Vnis = new LazyHostTable<>(PerHostDataPlane::getLayer3Vnis);
+    _ribs = new LazyHostTable<>(PerHostDataPlane::getRibs);
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+    return _bgpRoutes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+    return _bgpBackupRoutes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+    return _evpnRoutes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+    return _evpnBackupRoutes;
+  }
+
+  @Override
+  public @Nonnull Map<String, Map<String, Fib>> getFibs() {
+    return _fibs;
+  }
+
+  @Override
+  public @Nonnull ForwardingAnalysis getForwardingAnalysis() {
+    return _forwardingAnalysis.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+    return _layer2Vnis;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
+    return _layer3Vnis;
+  }
+
+  @Override
+  public @Nonnull SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      getPrefixTracingInfoSummary() {
+    // Only ever read as a whole, so stream rather than cache.
+    return Maps.asMap(_hostnames, hostname -> scanHost(hostname).getPrefixTracingInfoSummary());
+  }
+
+  @Override
+  public @Nonnull Table<String, String, FinalMainRib> getRibs() {
+    return _ribs;
+  }
+
+  /** Returns the data plane of {@code hostname}, loading it if it is not already loaded. */
+  private @Nonnull PerHostDataPlane getHost(String hostname) {
+    try {
+      return _hosts.getUnchecked(hostname);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the data plane of {@code hostname} for a scan over every host: the cached one if it is
+   * loaded, otherwise a freshly loaded one that is not cached.
+   */
+  private @Nonnull PerHostDataPlane scanHost(String hostname) {
+    PerHostDataPlane host = _hosts.getIfPresent(hostname);
+    return host != null ? host : _loader.apply(hostname);
+  }
+
+  /** Serialized as a fully loaded data plane, since the loader cannot be serialized. */
+  private Object writeReplace() {
+    return new SimpleFieldsDataPlane(
+        ImmutableMap.copyOf(Maps.asMap(_hostnames, this::scanHost)), getForwardingAnalysis());
+  }
+
+  /**
+   * A read-only view of one per-host value by hostname. A lookup loads and caches only the host it
+   * names, while iteration streams through every host (see {@link #scanHost(String)}).
+   */
+  private final class HostMap<V> extends AbstractMap<String, V> {
+    private final @Nonnull Function<PerHostDataPlane, V> _getter;
+
+    private HostMap(Function<PerHostDataPlane, V> getter) {
+      _getter = getter;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+      return _hostnames.contains(key);
+    }
+
+    @Override
+    public @Nullable V get(@Nullable Object key) {
+      if (!(key instanceof String) || !_hostnames.contains(key)) {
+        return null;
+      }
+      return _getter.apply(getHost((String) key));
+    }
+
+    @Override
+    public @Nonnull Set<String> keySet() {
+      return _hostnames;
+    }
+
+    @Override
+    public int size() {
+      return _hostnames.size();
+    }
+
+    @Override
+    public @Nonnull Set<Entry<String, V>> entrySet() {
+      return new AbstractSet<Entry<String, V>>() {
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+          return Iterators.transform(
+              _hostnames.iterator(),
+              hostname -> Maps.immutableEntry(hostname, _getter.apply(scanHost(hostname))));
+        }
+
+        @Override
+        public int size() {
+          return _hostnames.size();
+        }
+      };
+    }
+  }
+
+  /**
+   * A read-only view of one per-host field as a table of hostname -&gt; key -&gt; value, loading
+   * each host only when its row is read. As for an {@link ImmutableTable}, rows with no values are
+   * not part of the table.
+   */
+  private final class LazyHostTable<V> implements Table<String, String, V> {
+    private final @Nonnull Function<PerHostDataPlane, Map<String, V>> _getter;
+
+    private LazyHostTable(Function<PerHostDataPlane, Map<String, V>> getter) {
+      _getter = getter;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object rowKey, @Nullable Object columnKey) {
+      return rowOf(rowKey).containsKey(columnKey);
+    }
+
+    @Override
+    public boolean containsRow(@Nullable Object rowKey) {
+      return !rowOf(rowKey).isEmpty();
+    }
+
+    @Override
+    public boolean containsColumn(@Nullable Object columnKey) {
+      return rowMap().values().stream().anyMatch(row -> row.containsKey(columnKey));
+    }
+
+    @Override
+    public boolean containsValue(@Nullable Object value) {
+      return rowMap().values().stream().anyMatch(row -> row.containsValue(value));
+    }
+
+    @Override
+    public @Nullable V get(@Nullable Object rowKey, @Nullable Object columnKey) {
+      return rowOf(rowKey).get(columnKey);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return rowMap().isEmpty();
+    }
+
+    @Override
+    public int size() {
+      return rowMap().values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V put(String rowKey, String columnKey, V value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Table<? extends String, ? extends String, ? extends V> table) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(@Nullable Object rowKey, @Nullable Object columnKey) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** Loads only the host {@code rowKey}. */
+    @Override
+    public @Nonnull Map<String, V> row(String rowKey) {
+      return rowOf(rowKey);
+    }
+
+    /** Returns the row of {@code rowKey}, loading only that host. */
+    private @Nonnull Map<String, V> rowOf(@Nullable Object rowKey) {
+      if (!(rowKey instanceof String) || !_hostnames.contains(rowKey)) {
+        return ImmutableMap.of();
+      }
+      return _getter.apply(getHost((String) rowKey));
+    }
+
+    @Override
+    public @Nonnull Map<String, V> column(String columnKey) {
+      return materialize().column(columnKey);
+    }
+
+    @Override
+    public @Nonnull Set<Cell<String, String, V>> cellSet() {
+      return new AbstractSet<Cell<String, String, V>>() {
+        @Override
+        public Iterator<Cell<String, String, V>> iterator() {
+          return Iterators.concat(
+              Iterators.transform(
+                  rowMap().entrySet().iterator(),
+                  row ->
+                      Iterators.transform(
+                          row.getValue().entrySet().iterator(),
+                          cell ->
+                              Tables.immutableCell(
+                                  row.getKey(), cell.getKey(), cell.getValue()))));
+        }
+
+        @Override
+        public boolean contains(@Nullable Object o) {
+          if (!(o instanceof Cell)) {
+            return false;
+          }
+          Cell<?, ?, ?> cell = (Cell<?, ?, ?>) o;
+          Map<String, V> row = rowOf(cell.getRowKey());
+          return row.containsKey(cell.getColumnKey())
+              && Objects.equals(row.get(cell.getColumnKey()), cell.getValue());
+        }
+
+        @Override
+        public int size() {
+          return LazyHostTable.this.size();
+        }
+      };
+    }
+
+    @Override
+    public @Nonnull Set<String> rowKeySet() {
+      return rowMap().keySet();
+    }
+
+    @Override
+    public @Nonnull Set<String> columnKeySet() {
+      return materialize().columnKeySet();
+    }
+
+    @Override
+    public @Nonnull Collection<V> values() {
+      return new AbstractCollection<V>() {
+        @Override
+        public Iterator<V> iterator() {
+          return Iterators.concat(
+              Iterators.transform(rowMap().values().iterator(), row -> row.values().iterator()));
+        }
+
+        @Override
+        public int size() {
+          return LazyHostTable.this.size();
+        }
+      };
+    }
+
+    /**
+     * A view of the non-empty rows, in which a lookup loads only the host it names, and iteration
+     * streams through every host.
+     */
+    @Override
+    public @Nonnull Map<String, Map<String, V>> rowMap() {
+      return Maps.filterValues(new HostMap<>(_getter), row -> !row.isEmpty());
+    }
+
+    @Override
+    public @Nonnull Map<String, Map<String, V>> columnMap() {
+      return materialize().columnMap();
+    }
+
+    /** Returns a copy of the whole table, streaming through every host. */
+    private @Nonnull ImmutableTable<String, String, V> materialize() {
+      return ImmutableTable.copyOf(this);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      return obj == this
+          || (obj instanceof Table && cellSet().equals(((Table<?, ?, ?>) obj).cellSet()));
+    }
+
+    @Override
+    public int hashCode() {
+      return cellSet().hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return rowMap().toString();
+    }
+  }
+}
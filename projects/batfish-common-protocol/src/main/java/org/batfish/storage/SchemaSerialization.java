@@ -0,0 +1,239 @@
+package org.batfish.storage;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.batfish.version.BatfishVersion;
+
+/**
+ * Java serialization of many objects sharing a single {@link Schema}.
+ *
+ * <p>Standard Java serialization writes the full descriptor of every class in every stream: its
+ * name, serialVersionUID, and the names and types of its fields. A snapshot is stored as one
+ * stream per host, so the descriptors of the hundreds of classes reachable from a {@link
+ * org.batfish.datamodel.Configuration} are written and parsed again for every host. In this
+ * format, a stream instead refers to a class by its index in a schema shared by all the streams
+ * of a directory, and the descriptor is looked up from the local class when reading.
+ *
+ * <p>Since the field layout is taken from the local class, objects can only be read by the
+ * version of Batfish that wrote them. The schema records that version, and reading fails if it
+ * differs.
+ */
+@ParametersAreNonnullByDefault
+final class SchemaSerialization {
+
+  /** Bytes at the start of every stream in this format, distinct from all legacy formats. */
+  private static final byte[] MAGIC = {'B', 'F', 'S', '1'};
+
+  /** Marks a descriptor written in full, for classes that cannot be looked up by name alone. */
+  private static final int FULL_DESCRIPTOR = -1;
+
+  /** The classes referred to by a set of streams. */
+  @ThreadSafe
+  static final class Schema {
+
+    @GuardedBy("this")
+    private final List<String> _classNames;
+
+    @GuardedBy("this")
+    private final List<ObjectStreamClass> _descriptors;
+
+    @GuardedBy("this")
+    private final Map<String, Integer> _indices;
+
+    @GuardedBy("this")
+    private final List<Long> _serialVersionUids;
+
+    Schema() {
+      _classNames = new ArrayList<>();
+      _descriptors = new ArrayList<>();
+      _indices = new HashMap<>();
+      _serialVersionUids = new ArrayList<>();
+    }
+
+    /** Returns the index of the class of {@code descriptor}, adding it if it is new. */
+    private synchronized int indexOf(ObjectStreamClass descriptor) {
+      return _indices.computeIfAbsent(
+          descriptor.getName(),
+          name -> {
+            _classNames.add(name);
+            _descriptors.add(descriptor);
+            _serialVersionUids.add(descriptor.getSerialVersionUID());
+            return _classNames.size() - 1;
+          });
+    }
+
+    /** Returns the local descriptor of the class at {@code index}. */
+    private synchronized @Nonnull ObjectStreamClass get(int index)
+        throws IOException, ClassNotFoundException {
+      if (index < 0 || index >= _classNames.size()) {
+        throw new StreamCorruptedException("Invalid class index: " + index);
+      }
+      ObjectStreamClass descriptor = _descriptors.get(index);
+      if (descriptor == null) {
+        String name = _classNames.get(index);
+        descriptor =
+            ObjectStreamClass.lookupAny(
+                Class.forName(name, false, SchemaSerialization.class.getClassLoader()));
+        if (descriptor.getSerialVersionUID() != _serialVersionUids.get(index)) {
+          throw new InvalidClassException(name, "serialVersionUID differs from stored schema");
+        }
+        _descriptors.set(index, descriptor);
+      }
+      return descriptor;
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+      return _classNames.size();
+    }
+
+    /** Writes this schema, stamped with the running version of Batfish. */
+    synchronized void write(OutputStream out) throws IOException {
+      DataOutputStream data = new DataOutputStream(out);
+      data.writeUTF(BatfishVersion.getVersionStatic());
+      data.writeInt(_classNames.size());
+      for (int i = 0; i < _classNames.size(); i++) {
+        data.writeUTF(_classNames.get(i));
+        data.writeLong(_serialVersionUids.get(i));
+      }
+      data.flush();
+    }
+
+    /**
+     * Returns {@code true} iff the schema written by {@link #write(OutputStream)} to {@code in} was
+     * written by the running version of Batfish, so that {@link #read(InputStream)} accepts it.
+     */
+    static boolean isCompatible(InputStream in) throws IOException {
+      return new DataInputStream(in).readUTF().equals(BatfishVersion.getVersionStatic());
+    }
+
+    /**
+     * Reads a schema written by {@link #write(OutputStream)}.
+     *
+     * @throws InvalidClassException if the schema was written by another version of Batfish
+     */
+    static @Nonnull Schema read(InputStream in) throws IOException {
+      DataInputStream data = new DataInputStream(in);
+      String version = data.readUTF();
+      if (!version.equals(BatfishVersion.getVersionStatic())) {
+        throw new InvalidClassException(
+            String.format(
+                "Schema written by Batfish version %s cannot be read by version %s",
+                version, BatfishVersion.getVersionStatic()));
+      }
+      Schema schema = new Schema();
+      int size = data.readInt();
+      for (int i = 0; i < size; i++) {
+        String name = data.readUTF();
+        schema._indices.put(name, i);
+        schema._classNames.add(name);
+        schema._descriptors.add(null);
+        schema._serialVersionUids.add(data.readLong());
+      }
+      return schema;
+    }
+  }
+
+  /** Returns {@code true} iff {@code buffer} starts with a stream in this format. */
+  static boolean isSchemaSerialized(ByteBuffer buffer) {
+    if (buffer.remaining() < MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Writes {@code object} to {@code out}, adding its classes to {@code schema}. */
+  static void write(Serializable object, Schema schema, OutputStream out) throws IOException {
+    out.write(MAGIC);
+    try (LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(out);
+        SchemaObjectOutputStream oos = new SchemaObjectOutputStream(lz4, schema)) {
+      oos.writeObject(object);
+    }
+  }
+
+  /** Reads an object written by {@link #write} from {@code buffer}, using {@code schema}. */
+  static @Nonnull Object read(ByteBuffer buffer, Schema schema)
+      throws IOException, ClassNotFoundException {
+    if (!isSchemaSerialized(buffer)) {
+      throw new StreamCorruptedException("Not a schema-serialized stream");
+    }
+    ByteBuffer stream = buffer.duplicate();
+    stream.position(stream.position() + MAGIC.length);
+    try (LZ4FrameInputStream lz4 = new LZ4FrameInputStream(new ByteBufferBackedInputStream(stream));
+        SchemaObjectInputStream ois = new SchemaObjectInputStream(lz4, schema)) {
+      return ois.readObject();
+    }
+  }
+
+  /**
+   * Classes that must be described in full: the descriptors of arrays and primitives cannot be
+   * recreated by {@link ObjectStreamClass#lookupAny(Class)} reliably, and they are few.
+   */
+  private static boolean needsFullDescriptor(ObjectStreamClass descriptor) {
+    Class<?> clazz = descriptor.forClass();
+    return clazz == null || clazz.isArray() || clazz.isPrimitive() || clazz.isInterface();
+  }
+
+  private static final class SchemaObjectOutputStream extends ObjectOutputStream {
+    private final @Nonnull Schema _schema;
+
+    private SchemaObjectOutputStream(OutputStream out, Schema schema) throws IOException {
+      super(out);
+      _schema = schema;
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass descriptor) throws IOException {
+      if (needsFullDescriptor(descriptor)) {
+        writeInt(FULL_DESCRIPTOR);
+        super.writeClassDescriptor(descriptor);
+      } else {
+        writeInt(_schema.indexOf(descriptor));
+      }
+    }
+  }
+
+  private static final class SchemaObjectInputStream extends ObjectInputStream {
+    private final @Nonnull Schema _schema;
+
+    private SchemaObjectInputStream(InputStream in, Schema schema) throws IOException {
+      super(in);
+      _schema = schema;
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+      int index = readInt();
+      return index == FULL_DESCRIPTOR ? super.readClassDescriptor() : _schema.get(index);
+    }
+  }
+
+  private SchemaSerialization() {}
+}
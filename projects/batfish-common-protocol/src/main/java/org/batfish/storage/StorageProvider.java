@@ -23,6 +23,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -158,6 +159,19 @@ public interface StorageProvider {
   void storeAnswer(NetworkId network, SnapshotId snapshot, String answerStr, AnswerId answerId)
       throws IOException;
 
+  /**
+   * Store the answer to an ad-hoc question, serializing it directly to storage rather than first
+   * to a string.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answer The answer
+   * @param answerId The ID of the answer
+   * @throws IOException if there is an error
+   */
+  void storeAnswer(NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException;
+
   /**
    * Store the metadata for the answer to an ad-hoc question.
    *
@@ -202,6 +216,19 @@ public interface StorageProvider {
   String loadAnswer(NetworkId network, SnapshotId snapshot, AnswerId answerId)
       throws FileNotFoundException, IOException;
 
+  /**
+   * Load the answer to an ad-hoc question in columnar form, if it was stored in that form.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answerId The ID of the answer
+   * @return {@link Optional#empty()} if the answer is not stored in columnar form
+   * @throws IOException if there is an error reading the answer.
+   */
+  @Nonnull
+  Optional<ColumnarAnswer> loadColumnarAnswer(
+      NetworkId network, SnapshotId snapshot, AnswerId answerId) throws IOException;
+
   /**
    * Load the metadata for the answer to an ad-hoc question.
    *
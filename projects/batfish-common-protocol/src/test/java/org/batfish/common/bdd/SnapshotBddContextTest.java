@@ -0,0 +1,58 @@
+package org.batfish.common.bdd;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.javabdd.BDD;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link SnapshotBddContext}. */
+public final class SnapshotBddContextTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  @Test
+  public void testArtifactBuiltOnce() {
+    BDDPacket pkt = new BDDPacket();
+    SnapshotBddContext ctx = new SnapshotBddContext(pkt);
+    AtomicInteger builds = new AtomicInteger();
+    BDD first =
+        ctx.compute(
+            c ->
+                c.getArtifact(
+                    "foo",
+                    BDD.class,
+                    () -> {
+                      builds.incrementAndGet();
+                      return c.getPacket().allocateBDDBit("foo");
+                    }));
+    int varNum = pkt.getFactory().varNum();
+    BDD second =
+        ctx.compute(
+            c -> c.getArtifact("foo", BDD.class, () -> c.getPacket().allocateBDDBit("bar")));
+    assertThat(second, sameInstance(first));
+    assertThat(builds.get(), equalTo(1));
+    assertThat(pkt.getFactory().varNum(), equalTo(varNum));
+  }
+
+  @Test
+  public void testGetPacketOutsideCompute() {
+    _thrown.expect(IllegalStateException.class);
+    new SnapshotBddContext().getPacket();
+  }
+
+  @Test
+  public void testGetArtifactOutsideCompute() {
+    _thrown.expect(IllegalStateException.class);
+    new SnapshotBddContext().getArtifact("foo", String.class, () -> "foo");
+  }
+
+  @Test
+  public void testNotExhausted() {
+    assertFalse(new SnapshotBddContext().isExhausted());
+  }
+}
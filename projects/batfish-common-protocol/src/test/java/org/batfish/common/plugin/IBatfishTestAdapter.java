@@ -16,6 +16,7 @@ import org.batfish.common.Answerer;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.common.topology.IpOwners;
 import org.batfish.common.topology.IpOwnersBaseImpl;
 import org.batfish.common.topology.L3Adjacencies;
@@ -187,6 +188,12 @@ public class IBatfishTestAdapter implements IBatfish {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public SnapshotBddContext getBddContext(NetworkSnapshot snapshot) {
+    // Not shared, so nothing is reused across questions
+    return new SnapshotBddContext();
+  }
+
   @Override
   public boolean debugFlagEnabled(String flag) {
     throw new UnsupportedOperationException();
@@ -305,6 +312,11 @@ public class IBatfishTestAdapter implements IBatfish {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(
       NetworkSnapshot snapshot) {
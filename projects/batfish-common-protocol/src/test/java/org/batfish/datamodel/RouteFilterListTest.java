@@ -2,9 +2,11 @@ package org.batfish.datamodel;
 
 import static org.batfish.datamodel.matchers.RouteFilterListMatchers.permits;
 import static org.batfish.datamodel.matchers.RouteFilterListMatchers.rejects;
+import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -75,4 +77,50 @@ public class RouteFilterListTest {
     assertThat(_rfPrefixExact, permits(acceptedPrefix1));
     assertThat(_rfPrefixExact, rejects(deniedPrefix1));
   }
+
+  /** The action of the first line matching the prefix, checking every line. */
+  private static LineAction firstMatchAction(List<RouteFilterLine> lines, Prefix prefix) {
+    for (RouteFilterLine line : lines) {
+      if (line.getIpWildcard().containsIp(prefix.getStartIp())
+          && line.getLengthRange().includes(prefix.getPrefixLength())) {
+        return line.getAction();
+      }
+    }
+    return LineAction.DENY;
+  }
+
+  @Test
+  public void testLongListFirstMatch() {
+    ImmutableList.Builder<RouteFilterLine> lines = ImmutableList.builder();
+    long base = Ip.parse("10.0.0.0").asLong();
+    for (int i = 0; i < 32; i++) {
+      lines.add(
+          new RouteFilterLine(
+              i % 3 == 0 ? LineAction.DENY : LineAction.PERMIT,
+              Prefix.create(Ip.create(base + ((long) i << 12)), 20 + i % 5),
+              new SubRange(20, 26 + i % 4)));
+    }
+    lines.add(
+        new RouteFilterLine(
+            LineAction.PERMIT, IpWildcard.parse("10.0.0.0:0.0.240.255"), new SubRange(24, 32)));
+    lines.add(
+        new RouteFilterLine(LineAction.DENY, Prefix.parse("10.0.0.0/8"), new SubRange(8, 32)));
+    RouteFilterList list = new RouteFilterList("long", lines.build());
+
+    for (long ip = base; ip < base + (2 << 16); ip += 777) {
+      for (int length = 16; length <= 32; length += 2) {
+        Prefix prefix = Prefix.create(Ip.create(ip), length);
+        assertThat(
+            prefix.toString(),
+            list.permits(prefix),
+            equalTo(firstMatchAction(list.getLines(), prefix) == LineAction.PERMIT));
+      }
+    }
+
+    // The index is rebuilt for added lines
+    Prefix unmatched = Prefix.parse("11.0.0.0/8");
+    list.addLine(
+        new RouteFilterLine(LineAction.PERMIT, Prefix.parse("11.0.0.0/8"), new SubRange(8, 8)));
+    assertThat(list, permits(unmatched));
+  }
 }
@@ -0,0 +1,149 @@
+package org.batfish.datamodel.acl;
+
+import static org.batfish.datamodel.ExprAclLine.accepting;
+import static org.batfish.datamodel.ExprAclLine.rejecting;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchIpProtocol;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrcInterface;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.not;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.or;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.permittedByAcl;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/** Tests of {@link CompiledAcl}. */
+public final class CompiledAclTest {
+
+  private static final IpAccessList REFERENCED =
+      IpAccessList.builder()
+          .setName("referenced")
+          .setLines(
+              rejecting(matchSrc(Prefix.parse("10.0.0.0/24"))),
+              accepting(matchDst(Prefix.parse("10.1.0.0/16"))))
+          .build();
+
+  private static final Map<String, IpSpace> NAMED_IP_SPACES =
+      ImmutableMap.of("named", Prefix.parse("10.2.0.0/16").toIpSpace());
+
+  /** An ACL using every kind of line and match condition, long enough to be indexed. */
+  private static IpAccessList indexedAcl() {
+    ImmutableList.Builder<AclLine> lines = ImmutableList.builder();
+    long base = Ip.parse("10.0.0.0").asLong();
+    for (int i = 0; i < CompiledAcl.MIN_INDEXED_LINES; i++) {
+      lines.add(
+          rejecting(
+              and(
+                  matchDst(Prefix.create(Ip.create(base + (i << 8)), 24)),
+                  matchIpProtocol(i % 2 == 0 ? IpProtocol.TCP : IpProtocol.UDP))));
+    }
+    lines.add(
+        accepting(
+            or(
+                matchDst(IpWildcard.ipWithWildcardMask(Ip.parse("10.0.0.1"), 0x0000FF00L)),
+                matchSrc(new IpSpaceReference("named")))),
+        rejecting(not(matchSrc(Prefix.parse("10.0.0.0/8")))),
+        new AclAclLine("ref", REFERENCED.getName()),
+        accepting(and(matchSrcInterface("i1"), permittedByAcl(REFERENCED.getName()))),
+        accepting(
+            matchDst(
+                AclIpSpace.rejecting(Prefix.parse("10.3.1.0/24").toIpSpace())
+                    .thenPermitting(Prefix.parse("10.3.0.0/16").toIpSpace())
+                    .build())));
+    return IpAccessList.builder().setName("acl").setLines(lines.build()).build();
+  }
+
+  private static Flow flow(long srcIp, long dstIp, IpProtocol protocol) {
+    return Flow.builder()
+        .setIngressNode("node")
+        .setSrcIp(Ip.create(srcIp))
+        .setDstIp(Ip.create(dstIp))
+        .setIpProtocol(protocol)
+        .setSrcPort(1)
+        .setDstPort(2)
+        .build();
+  }
+
+  @Test
+  public void testSameResultsAsFilter() {
+    IpAccessList acl = indexedAcl();
+    CompiledAcl compiled = CompiledAcl.of(acl);
+    assertTrue(compiled.isIndexed());
+
+    Map<String, IpAccessList> acls = ImmutableMap.of(REFERENCED.getName(), REFERENCED);
+    long base = Ip.parse("10.0.0.0").asLong();
+    for (long src : new long[] {0, base + 5, base + (2 << 16) + 1, base + (1 << 24)}) {
+      for (long dst = base; dst < base + (4 << 16); dst += 97) {
+        for (IpProtocol protocol :
+            new IpProtocol[] {IpProtocol.TCP, IpProtocol.UDP, IpProtocol.OSPF}) {
+          for (String srcInterface : new String[] {null, "i1"}) {
+            Flow flow = flow(src, dst, protocol);
+            FilterResult expected = acl.filter(flow, srcInterface, acls, NAMED_IP_SPACES);
+            FilterResult actual = compiled.filter(flow, srcInterface, acls, NAMED_IP_SPACES);
+            assertThat(flow.toString(), actual.getMatchLine(), equalTo(expected.getMatchLine()));
+            assertThat(flow.toString(), actual.getAction(), equalTo(expected.getAction()));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testShortAclNotIndexed() {
+    CompiledAcl compiled = CompiledAcl.of(REFERENCED);
+    assertFalse(compiled.isIndexed());
+
+    FilterResult result =
+        compiled.filter(
+            flow(0, Ip.parse("10.1.2.3").asLong(), IpProtocol.TCP),
+            null,
+            ImmutableMap.of(),
+            ImmutableMap.of());
+    assertThat(result.getMatchLine(), equalTo(1));
+    assertThat(result.getAction(), equalTo(LineAction.PERMIT));
+
+    FilterResult noMatch =
+        compiled.filter(flow(0, 0, IpProtocol.TCP), null, ImmutableMap.of(), ImmutableMap.of());
+    assertThat(noMatch.getMatchLine(), nullValue());
+    assertThat(noMatch.getAction(), equalTo(LineAction.DENY));
+  }
+
+  @Test
+  public void testCached() {
+    assertThat(CompiledAcl.of(REFERENCED), sameInstance(CompiledAcl.of(REFERENCED)));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testUndefinedReference() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(new AclAclLine("ref", "undefined"))
+            .build();
+    CompiledAcl.of(acl)
+        .filter(flow(0, 0, IpProtocol.TCP), null, ImmutableMap.of(), ImmutableMap.of());
+  }
+}
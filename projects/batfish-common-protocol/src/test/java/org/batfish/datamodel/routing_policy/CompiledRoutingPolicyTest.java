@@ -0,0 +1,188 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Map;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.RouteFilterLine;
+import org.batfish.datamodel.RouteFilterList;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.TraceElement;
+import org.batfish.datamodel.routing_policy.Environment.Direction;
+import org.batfish.datamodel.routing_policy.expr.BooleanExprs;
+import org.batfish.datamodel.routing_policy.expr.CallExpr;
+import org.batfish.datamodel.routing_policy.expr.Conjunction;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.Disjunction;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.LiteralLong;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.NamedPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.Not;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.SetMetric;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.batfish.datamodel.routing_policy.statement.TraceableStatement;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CompiledRoutingPolicy}, checking that compiled policies give the same results and
+ * output routes as the interpreter.
+ */
+public final class CompiledRoutingPolicyTest {
+
+  private Configuration _c;
+  private RoutingPolicy _callee;
+  private RoutingPolicy _main;
+
+  private static MatchPrefixSet matchNamed(String name) {
+    return new MatchPrefixSet(DestinationNetwork.instance(), new NamedPrefixSet(name));
+  }
+
+  @Before
+  public void setup() {
+    _c =
+        Configuration.builder()
+            .setHostname("c")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+
+    // Long enough to be indexed, with a line that is not a prefix
+    ImmutableList.Builder<RouteFilterLine> lines = ImmutableList.builder();
+    for (int i = 0; i < 20; i++) {
+      lines.add(
+          new RouteFilterLine(
+              i % 2 == 0 ? LineAction.DENY : LineAction.PERMIT,
+              Prefix.create(Ip.create(Ip.parse("10.0.0.0").asLong() + (i << 8)), 24),
+              new SubRange(24, 28)));
+    }
+    lines.add(
+        new RouteFilterLine(
+            LineAction.PERMIT, IpWildcard.parse("10.1.0.0:0.0.255.0"), SubRange.singleton(24)));
+    lines.add(
+        new RouteFilterLine(
+            LineAction.PERMIT, Prefix.parse("10.0.0.0/16"), new SubRange(16, 32)));
+    _c.getRouteFilterLists().put("long", new RouteFilterList("long", lines.build()));
+
+    _callee =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("callee")
+            .addStatement(
+                new If(
+                    matchNamed("long"),
+                    ImmutableList.of(
+                        new SetLocalPreference(new LiteralLong(200)),
+                        Statements.ReturnTrue.toStaticStatement()),
+                    ImmutableList.of(Statements.ReturnFalse.toStaticStatement())))
+            .build();
+
+    PrefixSpace slash8 =
+        new PrefixSpace(new PrefixRange(Prefix.parse("10.0.0.0/8"), new SubRange(26, 32)));
+    _main =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("main")
+            .addStatement(
+                new TraceableStatement(
+                    TraceElement.of("term"),
+                    ImmutableList.of(
+                        new If(
+                            new Conjunction(
+                                ImmutableList.of(
+                                    new Not(
+                                        new MatchPrefixSet(
+                                            DestinationNetwork.instance(),
+                                            new ExplicitPrefixSet(slash8))),
+                                    new CallExpr(_callee.getName()))),
+                            ImmutableList.of(
+                                new SetMetric(new LiteralLong(7)),
+                                Statements.ExitAccept.toStaticStatement())))))
+            .addStatement(
+                new If(
+                    new Disjunction(matchNamed("undefined"), BooleanExprs.FALSE),
+                    ImmutableList.of(Statements.ExitAccept.toStaticStatement())))
+            .addStatement(
+                new If(
+                    new Disjunction(matchNamed("long"), BooleanExprs.TRUE),
+                    ImmutableList.of(
+                        new SetMetric(new LiteralLong(9)),
+                        Statements.SetDefaultActionAccept.toStaticStatement())))
+            .build();
+  }
+
+  /** Asserts that both policies accept the same routes and produce the same output routes. */
+  private static void assertSameAsInterpreter(RoutingPolicy compiled, RoutingPolicy interpreted) {
+    for (String network :
+        new String[] {
+          "10.0.0.0/24", "10.0.1.0/24", "10.0.1.0/26", "10.0.1.16/28", "10.0.1.0/30",
+          "10.0.5.0/25", "10.0.99.0/24", "10.0.0.0/16", "10.0.0.0/20", "10.0.0.0/8",
+          "10.1.7.0/24", "10.1.7.0/25", "10.2.7.0/24", "11.0.0.0/8", "0.0.0.0/0"
+        }) {
+      Bgpv4Route input =
+          Bgpv4Route.testBuilder().setNetwork(Prefix.parse(network)).setMetric(1).build();
+      Bgpv4Route.Builder expectedOutput = input.toBuilder();
+      Bgpv4Route.Builder actualOutput = input.toBuilder();
+      boolean expected = interpreted.process(input, expectedOutput, Direction.IN);
+      boolean actual = compiled.process(input, actualOutput, Direction.IN);
+      assertThat(network, actual, equalTo(expected));
+      assertThat(network, actualOutput.build(), equalTo(expectedOutput.build()));
+    }
+  }
+
+  @Test
+  public void testSameResultsAsInterpreter() {
+    Map<String, RoutingPolicy> compiled = CompiledRoutingPolicy.compileAll(_c.getRoutingPolicies());
+    assertThat(compiled.get(_main.getName()), instanceOf(CompiledRoutingPolicy.class));
+    assertSameAsInterpreter(compiled.get(_main.getName()), _main);
+    assertSameAsInterpreter(compiled.get(_callee.getName()), _callee);
+  }
+
+  @Test
+  public void testUndefinedCallee() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("undefinedCallee")
+            .addStatement(
+                new If(
+                    new CallExpr("undefined"),
+                    ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+            .build();
+    Map<String, RoutingPolicy> compiled = CompiledRoutingPolicy.compileAll(_c.getRoutingPolicies());
+    assertSameAsInterpreter(compiled.get(policy.getName()), policy);
+  }
+
+  @Test
+  public void testIsCompiledFrom() {
+    CompiledRoutingPolicy compiled =
+        (CompiledRoutingPolicy)
+            CompiledRoutingPolicy.compileAll(_c.getRoutingPolicies()).get(_main.getName());
+    assertTrue(compiled.isCompiledFrom(_main));
+    assertFalse(compiled.isCompiledFrom(_callee));
+
+    // A new list of the same statement instances is unchanged.
+    _main.setStatements(new ArrayList<>(_main.getStatements()));
+    assertTrue(compiled.isCompiledFrom(_main));
+
+    _main.setStatements(ImmutableList.of(Statements.ExitReject.toStaticStatement()));
+    assertFalse(compiled.isCompiledFrom(_main));
+  }
+}
@@ -1,11 +1,14 @@
 package org.batfish.datamodel.table;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.testing.EqualsTester;
+import java.io.IOException;
 import java.util.List;
 import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.util.BatfishObjectMapper;
@@ -58,4 +61,77 @@ public final class RowsTest {
           equalTo(reversedRows));
     }
   }
+
+  @Test
+  public void testDuplicatesAndGrowth() {
+    Rows rows = new Rows();
+    ImmutableList.Builder<Row> expected = ImmutableList.builder();
+    for (int i = 0; i < 100; i++) {
+      Row row = Row.of("node", "n" + (i % 3), "val", i);
+      rows.add(row).add(row);
+      expected.add(row).add(row);
+    }
+    assertThat(rows.size(), equalTo(200));
+    assertThat(ImmutableList.copyOf(rows.iterator()), equalTo(expected.build()));
+  }
+
+  @Test
+  public void testDifferentColumns() {
+    // A column that appears only in later rows is absent from earlier rows.
+    Row r1 = Row.of("a", 1);
+    Row r2 = Row.of("a", 1, "b", 2);
+    Row r3 = Row.of("b", 2);
+    Rows rows = new Rows().add(r1).add(r2).add(r3).add(r1);
+    assertThat(ImmutableList.copyOf(rows.iterator()), equalTo(ImmutableList.of(r1, r1, r2, r3)));
+  }
+
+  @Test
+  public void testEqualsIgnoresEncoding() {
+    // The same rows, with columns and values first seen in different orders.
+    Rows rows1 = new Rows().add(Row.of("a", 1, "b", 2)).add(Row.of("a", 3)).add(Row.of("a", 3));
+    Rows rows2 = new Rows().add(Row.of("a", 3)).add(Row.of("b", 2, "a", 1)).add(Row.of("a", 3));
+    assertThat(rows1, equalTo(rows2));
+    assertThat(rows1.hashCode(), equalTo(rows2.hashCode()));
+    assertThat(rows1.hashCode(), equalTo(rows1.getData().hashCode()));
+    assertThat(rows1, not(equalTo(new Rows().add(Row.of("a", 1, "b", 2)).add(Row.of("a", 3)))));
+  }
+
+  @Test
+  public void testHighCardinalityColumn() {
+    // "val" has a distinct value per row, so it stops using a dictionary.
+    int numRows = Rows.MIN_RAW_CARDINALITY * 2;
+    Rows rows = new Rows();
+    Rows reverse = new Rows();
+    ImmutableList.Builder<Row> expected = ImmutableList.builder();
+    for (int i = 0; i < numRows; i++) {
+      Row row = Row.of("node", "n" + (i % 3), "val", i);
+      rows.add(row).add(row);
+      expected.add(row).add(row);
+      Row reverseRow = Row.of("node", "n" + ((numRows - 1 - i) % 3), "val", numRows - 1 - i);
+      reverse.add(reverseRow).add(reverseRow);
+    }
+    assertThat(ImmutableList.copyOf(rows.iterator()), equalTo(expected.build()));
+
+    // Duplicates are still found once values are stored raw.
+    rows.add(Row.of("node", "n0", "val", 0));
+    assertThat(rows.size(), equalTo(numRows * 2 + 1));
+    assertThat(
+        ImmutableList.copyOf(rows.iterator()).subList(0, 3),
+        everyItem(equalTo(Row.of("node", "n0", "val", 0))));
+    reverse.add(Row.of("node", "n0", "val", 0));
+    assertThat(rows, equalTo(reverse));
+    assertThat(rows.hashCode(), equalTo(rows.getData().hashCode()));
+    assertThat(SerializationUtils.clone(rows), equalTo(rows));
+
+    rows.add(Row.of("node", "n0", "val", -1));
+    assertThat(rows, not(equalTo(reverse)));
+  }
+
+  @Test
+  public void testJsonWireFormat() throws IOException {
+    Rows rows = new Rows().add(Row.of("node", "n1", "val", 1)).add(Row.of("node", "n1", "val", 2));
+    assertThat(
+        BatfishObjectMapper.writeString(rows),
+        equalTo("[{\"node\":\"n1\",\"val\":1},{\"node\":\"n1\",\"val\":2}]"));
+  }
 }
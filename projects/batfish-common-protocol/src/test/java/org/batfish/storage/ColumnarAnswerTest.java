@@ -0,0 +1,119 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.StringAnswerElement;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link ColumnarAnswer}. */
+public final class ColumnarAnswerTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static Answer tableAnswer(Row... rows) {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata("node", Schema.STRING, "node", true, false),
+                    new ColumnMetadata("ip", Schema.IP, "ip", false, true))));
+    for (Row row : rows) {
+      table.addRow(row);
+    }
+    table.addWarning("warning");
+    table.setSummary(new AnswerSummary("notes", 0, 0, rows.length));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    return answer;
+  }
+
+  private ColumnarAnswer roundTrip(Answer answer) throws IOException {
+    Path file = _folder.newFile().toPath();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      ColumnarAnswer.write(answer, out);
+    }
+    return ColumnarAnswer.open(file);
+  }
+
+  @Test
+  public void testIsColumnar() {
+    assertTrue(ColumnarAnswer.isColumnar(tableAnswer()));
+    Answer notTable = new Answer();
+    notTable.addAnswerElement(new StringAnswerElement("foo"));
+    notTable.setStatus(AnswerStatus.SUCCESS);
+    assertFalse(ColumnarAnswer.isColumnar(notTable));
+    Answer failure = tableAnswer();
+    failure.setStatus(AnswerStatus.FAILURE);
+    assertFalse(ColumnarAnswer.isColumnar(failure));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Row row1 = Row.of("node", "n1", "ip", Ip.parse("1.1.1.1"));
+    Row row2 = Row.of("node", "n2", "ip", null);
+    Answer answer = tableAnswer(row1, row2);
+    ColumnarAnswer columnar = roundTrip(answer);
+
+    assertThat(columnar.getNumRows(), equalTo(2));
+    assertThat(columnar.getHeader().getStatus(), equalTo(AnswerStatus.SUCCESS));
+    assertThat(
+        columnar.getHeader().getAnswerElements().get(0), instanceOf(TableAnswerElement.class));
+    TableAnswerElement table = columnar.getTable();
+    TableAnswerElement original = (TableAnswerElement) answer.getAnswerElements().get(0);
+    assertThat(table.getMetadata(), equalTo(original.getMetadata()));
+    assertThat(table.getWarnings(), equalTo(original.getWarnings()));
+    assertThat(table.getSummary().getNumResults(), equalTo(2));
+    assertThat(table.getRowsList(), equalTo(ImmutableList.of()));
+
+    assertThat(columnar.getRow(0, ImmutableSet.of("node", "ip")), equalTo(row1));
+    assertThat(columnar.getRow(1, ImmutableSet.of("node", "ip")), equalTo(row2));
+    assertThat(columnar.getRow(1, ImmutableSet.of("node")), equalTo(Row.of("node", "n2")));
+  }
+
+  @Test
+  public void testRoundTripEmpty() throws IOException {
+    ColumnarAnswer columnar = roundTrip(tableAnswer());
+    assertThat(columnar.getNumRows(), equalTo(0));
+  }
+
+  @Test
+  public void testGetRowMissingColumn() throws IOException {
+    ColumnarAnswer columnar = roundTrip(tableAnswer(Row.of("node", "n1", "ip", null)));
+    _thrown.expect(NoSuchElementException.class);
+    columnar.getRow(0, ImmutableSet.of("missing"));
+  }
+
+  @Test
+  public void testOpenNotColumnar() throws IOException {
+    Path file = _folder.newFile().toPath();
+    Files.write(file, new byte[] {1, 2, 3});
+    _thrown.expect(IOException.class);
+    ColumnarAnswer.open(file);
+  }
+}
@@ -3,6 +3,7 @@ package org.batfish.storage;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.storage.FileBasedStorage.GC_SKEW_ALLOWANCE;
 import static org.batfish.storage.FileBasedStorage.ISP_CONFIGURATION_KEY;
+import static org.batfish.storage.FileBasedStorage.STORAGE_FORMAT_VERSION_JAVA;
 import static org.batfish.storage.FileBasedStorage.getWorkLogPath;
 import static org.batfish.storage.FileBasedStorage.keyInDir;
 import static org.batfish.storage.FileBasedStorage.objectKeyToRelativePath;
@@ -32,6 +33,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -83,14 +85,20 @@ import org.batfish.datamodel.ReceivedFromIp;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.bgp.RouteDistinguisher;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.isp_configuration.BorderInterfaceInfo;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspFilter;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
 import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.NodeRolesId;
@@ -140,6 +148,52 @@ public final class FileBasedStorageTest {
     assertThat(deserialized.keySet(), equalTo(Sets.newHashSet("node1")));
   }
 
+  @Test
+  public void loadConfigurationsInJavaFormat() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot = new SnapshotId("snapshot");
+    FileBasedStorage javaStorage =
+        new FileBasedStorage(
+            _containerDir.getParent(),
+            _logger,
+            (m, n) -> new AtomicInteger(),
+            STORAGE_FORMAT_VERSION_JAVA);
+
+    Map<String, Configuration> configs =
+        ImmutableMap.of("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS));
+    javaStorage.storeConfigurations(
+        configs, new ConvertConfigurationAnswerElement(), Layer1Topology.EMPTY, network, snapshot);
+
+    // Files in the legacy format are read regardless of the configured format
+    Map<String, Configuration> deserialized = _storage.loadConfigurations(network, snapshot);
+    assertThat(deserialized, not(nullValue()));
+    assertThat(deserialized.keySet(), contains("node1"));
+  }
+
+  @Test
+  public void loadConfigurationsWithoutSchemaReturnsNull() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot = new SnapshotId("snapshot");
+
+    Map<String, Configuration> configs =
+        ImmutableMap.of("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS));
+    _storage.storeConfigurations(
+        configs, new ConvertConfigurationAnswerElement(), Layer1Topology.EMPTY, network, snapshot);
+    List<Path> schemas;
+    try (Stream<Path> paths = Files.walk(_containerDir)) {
+      schemas =
+          paths
+              .filter(path -> path.toString().endsWith(".schema"))
+              .collect(ImmutableList.toImmutableList());
+    }
+    assertThat(schemas, not(equalTo(ImmutableList.of())));
+    for (Path schema : schemas) {
+      Files.delete(schema);
+    }
+
+    assertThat(_storage.loadConfigurations(network, snapshot), nullValue());
+  }
+
   @Test
   public void loadMissingConfigurationsReturnsNull() {
     assertThat(
@@ -542,6 +596,32 @@ public final class FileBasedStorageTest {
     _storage.loadAnswer(networkId, snapshotId, new AnswerId("missing"));
   }
 
+  @Test
+  public void testStoreAnswerObject() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata("col", Schema.STRING, "col", true, false))));
+    table.addRow(Row.of("col", "value"));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+
+    _storage.storeAnswer(networkId, snapshotId, answer, answerId);
+
+    assertThat(
+        _storage.loadAnswer(networkId, snapshotId, answerId),
+        equalTo(BatfishObjectMapper.writeString(answer)));
+    Optional<ColumnarAnswer> columnar =
+        _storage.loadColumnarAnswer(networkId, snapshotId, answerId);
+    assertTrue(columnar.isPresent());
+    assertThat(
+        columnar.get().getRow(0, ImmutableList.of("col")), equalTo(Row.of("col", "value")));
+  }
+
   /**
    * Test that the answer metadata is loaded from the legacy location if nothing is found in the
    * primary location
@@ -1065,4 +1145,54 @@ public final class FileBasedStorageTest {
     assertThat(dp2.getPrefixTracingInfoSummary(), hasEntry(equalTo("n"), hasKey("vp")));
     assertThat(dp2.getRibs().rowMap(), hasEntry(equalTo("n"), hasKey("vr")));
   }
+
+  private static DataPlane singleHostDataPlane() {
+    return MockDataPlane.builder()
+        .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+        .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()))
+        .build();
+  }
+
+  private Path getOnlySchemaPath() throws IOException {
+    try (Stream<Path> paths = Files.walk(_containerDir)) {
+      return paths
+          .filter(path -> path.getFileName().toString().equals(".schema"))
+          .collect(ImmutableList.toImmutableList())
+          .get(0);
+    }
+  }
+
+  @Test
+  public void testHasDataPlaneWithSchemaFromOtherVersion() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.storeDataPlane(singleHostDataPlane(), snapshot);
+    assertTrue(_storage.hasDataPlane(snapshot));
+
+    // Simulate a data plane stored by another version of Batfish
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(getOnlySchemaPath()))) {
+      out.writeUTF("0.0.0-other");
+      out.writeInt(0);
+    }
+
+    // The data plane is treated as absent, so it is recomputed rather than failing to load
+    assertFalse(_storage.hasDataPlane(snapshot));
+
+    // Storing it again replaces the stale schema
+    _storage.storeDataPlane(singleHostDataPlane(), snapshot);
+    assertTrue(_storage.hasDataPlane(snapshot));
+    assertThat(_storage.loadDataPlane(snapshot).getFibs(), hasKey("n"));
+  }
+
+  @Test
+  public void testHasDataPlaneIncomplete() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.storeDataPlane(singleHostDataPlane(), snapshot);
+
+    // Simulate a crash before the forwarding analysis, which is written last
+    Files.delete(getOnlySchemaPath().resolveSibling("forwarding_analysis"));
+
+    assertFalse(_storage.hasDataPlane(snapshot));
+  }
 }
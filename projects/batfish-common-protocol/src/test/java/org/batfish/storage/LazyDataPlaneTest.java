@@ -0,0 +1,109 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.MockFib;
+import org.batfish.datamodel.MockForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/** Tests of {@link LazyDataPlane}. */
+public final class LazyDataPlaneTest {
+
+  private static final Bgpv4Route BGP_ROUTE =
+      Bgpv4Route.testBuilder().setNetwork(Prefix.ZERO).build();
+
+  /** A host with a RIB in VRF {@code v}, and BGP routes only if {@code withBgp}. */
+  private static @Nonnull PerHostDataPlane host(boolean withBgp) {
+    return new PerHostDataPlane(
+        withBgp ? ImmutableMap.of("v", ImmutableSet.of(BGP_ROUTE)) : ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableMap.of("v", MockFib.builder().build()),
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableSortedMap.of(),
+        ImmutableMap.of("v", FinalMainRib.of()));
+  }
+
+  private final List<String> _loaded = new ArrayList<>();
+
+  private @Nonnull LazyDataPlane dataPlane(int maxLoadedHosts) {
+    return new LazyDataPlane(
+        ImmutableSet.of("a", "b", "c"),
+        hostname -> {
+          _loaded.add(hostname);
+          return host(hostname.equals("a"));
+        },
+        () -> MockForwardingAnalysis.builder().build(),
+        maxLoadedHosts);
+  }
+
+  @Test
+  public void testPointLookupsLoadOneHost() {
+    LazyDataPlane dp = dataPlane(LazyDataPlane.MAX_LOADED_HOSTS);
+
+    assertThat(dp.getRibs().get("b", "v"), equalTo(FinalMainRib.of()));
+    assertThat(dp.getFibs().get("b").keySet(), contains("v"));
+    assertThat(dp.getBgpRoutes().row("b"), equalTo(ImmutableMap.of()));
+    assertThat(dp.getRibs().get("missing", "v"), nullValue());
+    assertThat(_loaded, contains("b"));
+  }
+
+  @Test
+  public void testTablesMatchEagerDataPlane() {
+    LazyDataPlane dp = dataPlane(LazyDataPlane.MAX_LOADED_HOSTS);
+
+    // Like an ImmutableTable, rows without values are omitted
+    Set<Bgpv4Route> routes = ImmutableSet.of(BGP_ROUTE);
+    assertThat(dp.getBgpRoutes(), equalTo(ImmutableTable.of("a", "v", routes)));
+    assertThat(dp.getBgpRoutes().rowKeySet(), contains("a"));
+    assertThat(dp.getBgpRoutes().columnKeySet(), contains("v"));
+    assertTrue(dp.getBgpRoutes().containsRow("a"));
+    assertFalse(dp.getBgpRoutes().containsRow("b"));
+    assertThat(dp.getBgpBackupRoutes().cellSet(), empty());
+    assertThat(dp.getRibs().size(), equalTo(3));
+    assertThat(dp.getRibs().column("v").keySet(), contains("a", "b", "c"));
+  }
+
+  @Test
+  public void testHostsAreReloadedWhenEvicted() {
+    LazyDataPlane dp = dataPlane(1);
+
+    dp.getRibs().row("a");
+    dp.getRibs().row("b");
+    dp.getRibs().row("a");
+    assertThat(_loaded, contains("a", "b", "a"));
+  }
+
+  @Test
+  public void testScansDoNotEvictLoadedHosts() {
+    LazyDataPlane dp = dataPlane(1);
+
+    dp.getRibs().row("a");
+    // Full scans reuse the cached host a and stream through b and c without caching them.
+    assertThat(dp.getRibs().size(), equalTo(3));
+    assertThat(dp.getFibs().keySet(), contains("a", "b", "c"));
+    dp.getFibs().forEach((hostname, fibs) -> assertThat(fibs.keySet(), contains("v")));
+    assertThat(dp.getBgpRoutes().rowKeySet(), contains("a"));
+    dp.getRibs().row("a");
+    assertThat(_loaded, contains("a", "b", "c", "b", "c", "b", "c"));
+  }
+}
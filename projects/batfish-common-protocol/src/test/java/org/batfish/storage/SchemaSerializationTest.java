@@ -0,0 +1,109 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.storage.SchemaSerialization.Schema;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link SchemaSerialization}. */
+public final class SchemaSerializationTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static final class Holder implements Serializable {
+    private final int[] _ints;
+    private final ConfigurationFormat _format;
+    private final Object _value;
+
+    private Holder(int[] ints, ConfigurationFormat format, Object value) {
+      _ints = ints;
+      _format = format;
+      _value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Holder)) {
+        return false;
+      }
+      Holder h = (Holder) o;
+      return Arrays.equals(_ints, h._ints) && _format == h._format && _value.equals(h._value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(Arrays.hashCode(_ints), _format, _value);
+    }
+  }
+
+  private static ByteBuffer write(Serializable object, Schema schema) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SchemaSerialization.write(object, schema, out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  private static Schema roundTrip(Schema schema) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    schema.write(out);
+    return Schema.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Schema schema = new Schema();
+    Holder holder1 =
+        new Holder(
+            new int[] {1, 2},
+            ConfigurationFormat.CISCO_IOS,
+            ImmutableMap.of("a", ImmutableList.of(Ip.parse("1.1.1.1"), Prefix.ZERO)));
+    Holder holder2 = new Holder(new int[0], ConfigurationFormat.JUNIPER, new Holder[] {holder1});
+    ByteBuffer buffer1 = write(holder1, schema);
+    int schemaSize = schema.size();
+    ByteBuffer buffer2 = write(holder2, schema);
+
+    // classes are shared between streams
+    assertThat(schema.size(), equalTo(schemaSize));
+
+    Schema readSchema = roundTrip(schema);
+    assertThat(SchemaSerialization.read(buffer1, readSchema), equalTo(holder1));
+    Holder readHolder2 = (Holder) SchemaSerialization.read(buffer2, readSchema);
+    assertThat(((Holder[]) readHolder2._value)[0], equalTo(holder1));
+  }
+
+  @Test
+  public void testIsSchemaSerialized() throws IOException {
+    assertTrue(SchemaSerialization.isSchemaSerialized(write("a", new Schema())));
+    assertFalse(SchemaSerialization.isSchemaSerialized(ByteBuffer.wrap(new byte[] {'B', 'F'})));
+    assertFalse(SchemaSerialization.isSchemaSerialized(ByteBuffer.wrap(new byte[] {1, 2, 3, 4})));
+  }
+
+  @Test
+  public void testReadSchemaOtherVersion() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeUTF("not a version");
+    data.writeInt(0);
+
+    _thrown.expect(InvalidClassException.class);
+    Schema.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+}
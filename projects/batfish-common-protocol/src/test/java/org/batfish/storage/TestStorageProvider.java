@@ -21,6 +21,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -155,6 +156,13 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public void storeAnswer(
+      NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerMetadata answerMetadata, AnswerId answerId)
@@ -168,6 +176,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public Optional<ColumnarAnswer> loadColumnarAnswer(
+      NetworkId network, SnapshotId snapshot, AnswerId answerId) throws IOException {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public AnswerMetadata loadAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerId answerId)
@@ -52,10 +52,20 @@ public class BDDLoopDetectionAnalysis {
       BDDPacket bddPacket, Stream<Edge> edges, Set<StateExpr> ingressLocationStates) {
     this(
         bddPacket,
-        BDDReachabilityUtils.computeForwardEdgeTable(getLoopEdges(edges, ingressLocationStates)),
+        loopEdgeTable(edges, ingressLocationStates),
         buildIngressLocationStateBDDs(ingressLocationStates, bddPacket.getFactory().one()));
   }
 
+  /**
+   * Returns the forward edge table of the optimized graph that loops reachable from {@code
+   * ingressLocationStates} are searched for in. It depends only on its inputs, so callers running
+   * several analyses over the same graph can compute it once.
+   */
+  static Table<StateExpr, StateExpr, Transition> loopEdgeTable(
+      Stream<Edge> edges, Set<StateExpr> ingressLocationStates) {
+    return BDDReachabilityUtils.computeForwardEdgeTable(getLoopEdges(edges, ingressLocationStates));
+  }
+
   private static Collection<Edge> getLoopEdges(
       Stream<Edge> inEdges, Set<StateExpr> ingressLocationStates) {
     List<Edge> edges = inEdges.collect(Collectors.toList());
@@ -25,11 +25,13 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Streams;
+import com.google.common.collect.Table;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -250,6 +252,14 @@ public final class BDDReachabilityAnalysisFactory {
   private final BDD _zero;
   private final IpsRoutedOutInterfacesFactory _ipsRoutesOutInterfacesFactory;
 
+  // The query-independent edges, computed on first use.
+  private @Nullable List<Edge> _edges;
+
+  // The optimized graph of the most recent loop detection query, and the roots it was built for.
+  // Loop detection is usually run from the same roots, so the graph is reused until they change.
+  private @Nullable Map<StateExpr, BDD> _loopGraphRoots;
+  private @Nullable Table<StateExpr, StateExpr, Transition> _loopGraph;
+
   public BDDReachabilityAnalysisFactory(
       BDDPacket packet,
       Map<String, Configuration> configs,
@@ -649,10 +659,17 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   /*
-   * These edges do not depend on the query. Compute them separately so that we can later cache them
-   * across queries if we want to.
+   * These edges do not depend on the query, so they are computed once and reused by every query
+   * answered with this factory.
    */
   private Stream<Edge> generateEdges() {
+    if (_edges == null) {
+      _edges = computeEdges().collect(ImmutableList.toImmutableList());
+    }
+    return _edges.stream();
+  }
+
+  private Stream<Edge> computeEdges() {
     return Streams.concat(
         generateRules_PreInInterface_NodeDropAclIn(),
         generateRules_PreInInterface_PostInInterface(),
@@ -1302,8 +1319,36 @@ public final class BDDReachabilityAnalysisFactory {
 
   public BDDLoopDetectionAnalysis bddLoopDetectionAnalysis(IpSpaceAssignment srcIpSpaceAssignment) {
     Map<StateExpr, BDD> ingressLocationStates = rootConstraints(srcIpSpaceAssignment, _one, false);
-    Stream<Edge> edges = Stream.concat(generateEdges(), generateRootEdges(ingressLocationStates));
-    return new BDDLoopDetectionAnalysis(_bddPacket, edges, ingressLocationStates.keySet());
+    if (!ingressLocationStates.equals(_loopGraphRoots)) {
+      Stream<Edge> edges = Stream.concat(generateEdges(), generateRootEdges(ingressLocationStates));
+      _loopGraph = BDDLoopDetectionAnalysis.loopEdgeTable(edges, ingressLocationStates.keySet());
+      _loopGraphRoots = ingressLocationStates;
+    }
+    return new BDDLoopDetectionAnalysis(
+        _bddPacket,
+        _loopGraph,
+        toImmutableMap(ingressLocationStates.keySet(), Function.identity(), state -> _one));
+  }
+
+  /**
+   * Computes the graph edges that do not depend on the query now, rather than when the first query
+   * is answered.
+   */
+  public void precomputeEdges() {
+    generateEdges();
+  }
+
+  /** Whether the graph edges that do not depend on the query have been computed. */
+  @VisibleForTesting
+  public boolean hasComputedEdges() {
+    return _edges != null;
+  }
+
+  /** The optimized graph of the most recent loop detection query, if any. */
+  @VisibleForTesting
+  @Nullable
+  Table<StateExpr, StateExpr, Transition> getLoopGraph() {
+    return _loopGraph;
   }
 
   /**
@@ -1,5 +1,6 @@
 package org.batfish.config;
 
+import static org.batfish.storage.FileBasedStorage.DEFAULT_STORAGE_FORMAT_VERSION;
 import static org.batfish.storage.FileBasedStorage.getWorkLogPath;
 
 import com.google.common.collect.ImmutableList;
@@ -24,6 +25,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   public static final String ARG_CHECK_BGP_REACHABILITY = "checkbgpsessionreachability";
 
+  private static final String ARG_CONVERSION_REUSE = "conversionreuse";
+
   private static final String ARG_DATAPLANE_ENGINE_NAME = "dataplaneengine";
 
   private static final String ARG_DEBUG_FLAGS = "debugflags";
@@ -46,6 +49,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_JOBS = "jobs";
 
+  private static final String ARG_MAX_CONCURRENT_ANSWER_TASKS = "maxconcurrentanswertasks";
+
   private static final String ARG_MAX_PARSER_CONTEXT_LINES = "maxparsercontextlines";
 
   private static final String ARG_MAX_PARSER_CONTEXT_TOKENS = "maxparsercontexttokens";
@@ -56,6 +61,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_NO_SHUFFLE = "noshuffle";
 
+  private static final String ARG_PRECOMPUTE_REACHABILITY_EDGES = "precomputereachabilityedges";
+
   private static final String ARG_PRINT_PARSE_TREES = "ppt";
 
   private static final String ARG_PRINT_PARSE_TREE_LINE_NUMS = "printparsetreelinenums";
@@ -64,6 +71,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_SEQUENTIAL = "sequential";
 
+  private static final String ARG_STORAGE_FORMAT_VERSION = "storageformatversion";
+
   private static final String ARG_THROW_ON_LEXER_ERROR = "throwlexer";
 
   private static final String ARG_THROW_ON_PARSER_ERROR = "throwparser";
@@ -149,6 +158,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return Math.min(Runtime.getRuntime().availableProcessors(), getJobs());
   }
 
+  public boolean getConversionReuse() {
+    return _config.getBoolean(ARG_CONVERSION_REUSE);
+  }
+
   public NetworkId getContainer() {
     String id = _config.getString(BfConsts.ARG_CONTAINER);
     return id != null ? new NetworkId(id) : null;
@@ -236,6 +249,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_PARSE_REUSE);
   }
 
+  public boolean getPrecomputeReachabilityEdges() {
+    return _config.getBoolean(ARG_PRECOMPUTE_REACHABILITY_EDGES);
+  }
+
+  public int getMaxConcurrentAnswerTasks() {
+    return _config.getInt(ARG_MAX_CONCURRENT_ANSWER_TASKS);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -302,6 +323,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return Paths.get(storageBase);
   }
 
+  public int getStorageFormatVersion() {
+    return _config.getInt(ARG_STORAGE_FORMAT_VERSION);
+  }
+
   @Nullable
   public String getTaskId() {
     return _config.getString(TASK_ID);
@@ -383,13 +408,16 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_IGNORE_UNKNOWN, true);
     setDefaultProperty(ARG_JOBS, Integer.MAX_VALUE);
     setDefaultProperty(BfConsts.ARG_LOG_LEVEL, "debug");
+    setDefaultProperty(ARG_MAX_CONCURRENT_ANSWER_TASKS, 1);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_LINES, 10);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_TOKENS, 10);
     setDefaultProperty(ARG_MAX_PARSE_TREE_PRINT_LENGTH, 0);
     setDefaultProperty(ARG_MAX_RUNTIME_MS, 0);
     setDefaultProperty(ARG_CHECK_BGP_REACHABILITY, true);
     setDefaultProperty(ARG_NO_SHUFFLE, false);
+    setDefaultProperty(ARG_CONVERSION_REUSE, true);
     setDefaultProperty(ARG_PARSE_REUSE, true);
+    setDefaultProperty(ARG_PRECOMPUTE_REACHABILITY_EDGES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
@@ -397,6 +425,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_SEQUENTIAL, false);
     setDefaultProperty(BfConsts.ARG_SNAPSHOT_NAME, null);
     setDefaultProperty(BfConsts.ARG_STORAGE_BASE, null);
+    setDefaultProperty(ARG_STORAGE_FORMAT_VERSION, DEFAULT_STORAGE_FORMAT_VERSION);
     setDefaultProperty(BfConsts.ARG_TASK_PLUGIN, null);
     setDefaultProperty(ARG_THROW_ON_LEXER_ERROR, true);
     setDefaultProperty(ARG_THROW_ON_PARSER_ERROR, true);
@@ -513,6 +542,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_HISTOGRAM, "build histogram of unimplemented features");
 
+    addOption(
+        ARG_MAX_CONCURRENT_ANSWER_TASKS,
+        "max number of read-only answer tasks a worker service runs at the same time",
+        ARGNAME_NUMBER);
+
     addOption(
         ARG_MAX_PARSER_CONTEXT_LINES,
         "max number of surrounding lines to print on parser error",
@@ -533,8 +567,15 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_NO_SHUFFLE, "do not shuffle parallel jobs");
 
+    addBooleanOption(ARG_CONVERSION_REUSE, "reuse conversion results when appropriate");
+
     addBooleanOption(ARG_PARSE_REUSE, "reuse parse results when appropriate");
 
+    addBooleanOption(
+        ARG_PRECOMPUTE_REACHABILITY_EDGES,
+        "after computing the data plane, build the query-independent BDD reachability edges in"
+            + " memory for later questions in this process (not persisted)");
+
     addBooleanOption(ARG_PRINT_PARSE_TREES, "print parse trees");
 
     addBooleanOption(
@@ -553,6 +594,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addOption(BfConsts.ARG_STORAGE_BASE, "path to the storage base", ARGNAME_PATH);
 
+    addOption(
+        ARG_STORAGE_FORMAT_VERSION,
+        "version of the format in which configurations and data planes are stored",
+        ARGNAME_NUMBER);
+
     addBooleanOption(
         BfConsts.ARG_SYNTHESIZE_TOPOLOGY,
         "synthesize topology from interface ip subnet information");
@@ -682,6 +728,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(ARG_IGNORE_UNSUPPORTED);
     getBooleanOptionValue(BfConsts.COMMAND_INIT_INFO);
     getIntOptionValue(ARG_JOBS);
+    getIntOptionValue(ARG_MAX_CONCURRENT_ANSWER_TASKS);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_LINES);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_TOKENS);
     getIntOptionValue(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
@@ -694,9 +741,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(BfConsts.COMMAND_PARSE_VENDOR_INDEPENDENT);
     getBooleanOptionValue(BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
+    getBooleanOptionValue(ARG_CONVERSION_REUSE);
     getBooleanOptionValue(ARG_PARSE_REUSE);
+    getBooleanOptionValue(ARG_PRECOMPUTE_REACHABILITY_EDGES);
     getStringOptionValue(BfConsts.ARG_SNAPSHOT_NAME);
     getPathOptionValue(BfConsts.ARG_STORAGE_BASE);
+    getIntOptionValue(ARG_STORAGE_FORMAT_VERSION);
     getStringOptionValue(BfConsts.ARG_TASK_PLUGIN);
     getStringOptionValue(BfConsts.ARG_TESTRIG);
     getBooleanOptionValue(ARG_THROW_ON_LEXER_ERROR);
@@ -767,6 +817,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_MAX_RUNTIME_MS, runtimeMs);
   }
 
+  public void setPrecomputeReachabilityEdges(boolean precomputeReachabilityEdges) {
+    _config.setProperty(ARG_PRECOMPUTE_REACHABILITY_EDGES, precomputeReachabilityEdges);
+  }
+
   @Override
   public void setPrintParseTree(boolean printParseTree) {
     _config.setProperty(ARG_PRINT_PARSE_TREES, printParseTree);
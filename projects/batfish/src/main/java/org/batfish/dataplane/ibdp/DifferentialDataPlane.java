@@ -0,0 +1,180 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.datamodel.vxlan.Layer3Vni;
+
+/**
+ * Data plane of a forked snapshot, in which the per-node state of nodes unaffected by the fork is
+ * taken from the parent snapshot's data plane, and that of all other nodes from a recomputation.
+ *
+ * <p>The {@link ForwardingAnalysis} is network-wide, so it is recomputed from the merged FIBs
+ * rather than merged.
+ */
+@ParametersAreNonnullByDefault
+public final class DifferentialDataPlane implements Serializable, DataPlane {
+
+  /**
+   * Merges {@code parent} and {@code recomputed}.
+   *
+   * @param reusedNodes hostnames whose state is taken from {@code parent}; all other state is taken
+   *     from {@code recomputed}
+   * @param computeForwardingAnalysis computes the {@link ForwardingAnalysis} from the merged FIBs
+   */
+  static @Nonnull DifferentialDataPlane merge(
+      DataPlane parent,
+      DataPlane recomputed,
+      Set<String> reusedNodes,
+      Function<Map<String, Map<String, Fib>>, ForwardingAnalysis> computeForwardingAnalysis) {
+    Map<String, Map<String, Fib>> fibs =
+        mergeMaps(parent.getFibs(), recomputed.getFibs(), reusedNodes);
+    return new DifferentialDataPlane(
+        mergeTables(parent.getBgpRoutes(), recomputed.getBgpRoutes(), reusedNodes),
+        mergeTables(parent.getBgpBackupRoutes(), recomputed.getBgpBackupRoutes(), reusedNodes),
+        mergeTables(parent.getEvpnRoutes(), recomputed.getEvpnRoutes(), reusedNodes),
+        mergeTables(parent.getEvpnBackupRoutes(), recomputed.getEvpnBackupRoutes(), reusedNodes),
+        fibs,
+        computeForwardingAnalysis.apply(fibs),
+        mergeTables(parent.getLayer2Vnis(), recomputed.getLayer2Vnis(), reusedNodes),
+        mergeTables(parent.getLayer3Vnis(), recomputed.getLayer3Vnis(), reusedNodes),
+        mergeTables(parent.getRibs(), recomputed.getRibs(), reusedNodes),
+        ImmutableSortedMap.copyOf(
+            mergeMaps(
+                parent.getPrefixTracingInfoSummary(),
+                recomputed.getPrefixTracingInfoSummary(),
+                reusedNodes)));
+  }
+
+  private static <V> Table<String, String, V> mergeTables(
+      Table<String, String, V> parent, Table<String, String, V> recomputed, Set<String> reused) {
+    ImmutableTable.Builder<String, String, V> merged = ImmutableTable.builder();
+    parent.cellSet().stream()
+        .filter(cell -> reused.contains(cell.getRowKey()))
+        .forEach(merged::put);
+    recomputed.cellSet().forEach(merged::put);
+    return merged.build();
+  }
+
+  private static <V> Map<String, V> mergeMaps(
+      Map<String, V> parent, Map<String, V> recomputed, Set<String> reused) {
+    ImmutableMap.Builder<String, V> merged = ImmutableMap.builder();
+    parent.forEach(
+        (hostname, value) -> {
+          if (reused.contains(hostname)) {
+            merged.put(hostname, value);
+          }
+        });
+    merged.putAll(recomputed);
+    return merged.build();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+    return _bgpRoutes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+    return _bgpBackupRoutes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+    return _evpnRoutes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+    return _evpnBackupRoutes;
+  }
+
+  @Override
+  public @Nonnull Map<String, Map<String, Fib>> getFibs() {
+    return _fibs;
+  }
+
+  @Override
+  public @Nonnull ForwardingAnalysis getForwardingAnalysis() {
+    return _forwardingAnalysis;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, FinalMainRib> getRibs() {
+    return _ribs;
+  }
+
+  @Override
+  public @Nonnull SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      getPrefixTracingInfoSummary() {
+    return _prefixTracerSummary;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+    return _layer2Vnis;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
+    return _layer3Vnis;
+  }
+
+  /////////////////////////
+  // Private implementation
+  /////////////////////////
+
+  @Nonnull private final Table<String, String, Set<Bgpv4Route>> _bgpRoutes;
+  @Nonnull private final Table<String, String, Set<Bgpv4Route>> _bgpBackupRoutes;
+  @Nonnull private final Table<String, String, Set<EvpnRoute<?, ?>>> _evpnRoutes;
+  @Nonnull private final Table<String, String, Set<EvpnRoute<?, ?>>> _evpnBackupRoutes;
+  @Nonnull private final Map<String, Map<String, Fib>> _fibs;
+  @Nonnull private final ForwardingAnalysis _forwardingAnalysis;
+  @Nonnull private final Table<String, String, Set<Layer2Vni>> _layer2Vnis;
+  @Nonnull private final Table<String, String, Set<Layer3Vni>> _layer3Vnis;
+  @Nonnull private final Table<String, String, FinalMainRib> _ribs;
+
+  @Nonnull
+  private final SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      _prefixTracerSummary;
+
+  private DifferentialDataPlane(
+      Table<String, String, Set<Bgpv4Route>> bgpRoutes,
+      Table<String, String, Set<Bgpv4Route>> bgpBackupRoutes,
+      Table<String, String, Set<EvpnRoute<?, ?>>> evpnRoutes,
+      Table<String, String, Set<EvpnRoute<?, ?>>> evpnBackupRoutes,
+      Map<String, Map<String, Fib>> fibs,
+      ForwardingAnalysis forwardingAnalysis,
+      Table<String, String, Set<Layer2Vni>> layer2Vnis,
+      Table<String, String, Set<Layer3Vni>> layer3Vnis,
+      Table<String, String, FinalMainRib> ribs,
+      SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+          prefixTracerSummary) {
+    _bgpRoutes = bgpRoutes;
+    _bgpBackupRoutes = bgpBackupRoutes;
+    _evpnRoutes = evpnRoutes;
+    _evpnBackupRoutes = evpnBackupRoutes;
+    _fibs = fibs;
+    _forwardingAnalysis = forwardingAnalysis;
+    _layer2Vnis = layer2Vnis;
+    _layer3Vnis = layer3Vnis;
+    _ribs = ribs;
+    _prefixTracerSummary = prefixTracerSummary;
+  }
+}
@@ -0,0 +1,401 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableGraph;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.topology.IpOwners;
+import org.batfish.common.topology.TunnelTopology;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpsecPeerConfigId;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.bgp.BgpTopology;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.datamodel.ipsec.IpsecTopology;
+
+/**
+ * Utilities for computing the data plane of a forked snapshot by recomputing only the nodes that
+ * the fork may affect, and reusing the parent snapshot's data plane for the rest.
+ *
+ * <p>A node's routing state can only be influenced by nodes it can exchange routes with, so nodes
+ * are grouped into islands connected by anything that can carry routes or change forwarding:
+ * layer-3 edges, candidate IPsec and tunnel edges, BGP sessions, and shared IP addresses. Islands
+ * that contain no changed node are reused unchanged.
+ *
+ * <p>Only whole islands are reused: the parent's routes are not used to seed the recomputation of
+ * an island that contains a changed node. In a connected network every node is affected by any
+ * change, so the whole data plane is recomputed. Snapshots with VXLAN are always recomputed.
+ */
+@ParametersAreNonnullByDefault
+final class DifferentialDataPlaneUtil {
+
+  private static final Logger LOGGER = LogManager.getLogger(DifferentialDataPlaneUtil.class);
+
+  /**
+   * Returns the hostnames in {@code configurations} whose data plane state may differ from that in
+   * the parent snapshot, or {@link Optional#empty()} if the whole data plane must be recomputed.
+   *
+   * @param parentConfigurations configurations of the parent snapshot
+   * @param configurations configurations of the forked snapshot
+   * @param parentExternalAdverts external BGP advertisements of the parent snapshot
+   * @param externalAdverts external BGP advertisements of the forked snapshot
+   * @param parentInitialLayer3Topology initial layer-3 topology of the parent snapshot
+   * @param initialLayer3Topology initial layer-3 topology of the forked snapshot
+   * @param parentLayer3Topology final layer-3 topology of the parent snapshot
+   * @param parentBgpTopology final BGP topology of the parent snapshot
+   * @param parentIpOwners IP owners of the parent snapshot
+   * @param ipOwners IP owners of the forked snapshot
+   * @param ipsecTopology initial IPsec topology of the forked snapshot
+   * @param tunnelTopology initial tunnel topology of the forked snapshot
+   */
+  static @Nonnull Optional<Set<String>> computeAffectedNodes(
+      Map<String, Configuration> parentConfigurations,
+      Map<String, Configuration> configurations,
+      Set<BgpAdvertisement> parentExternalAdverts,
+      Set<BgpAdvertisement> externalAdverts,
+      Topology parentInitialLayer3Topology,
+      Topology initialLayer3Topology,
+      Topology parentLayer3Topology,
+      BgpTopology parentBgpTopology,
+      IpOwners parentIpOwners,
+      IpOwners ipOwners,
+      IpsecTopology ipsecTopology,
+      TunnelTopology tunnelTopology) {
+    if (hasVnis(parentConfigurations) || hasVnis(configurations)) {
+      // EVPN route exchange updates L3 adjacencies network-wide.
+      LOGGER.info("Not reusing the parent data plane: snapshot has VXLAN");
+      return Optional.empty();
+    }
+    Set<String> changed =
+        computeChangedNodes(
+            parentConfigurations,
+            configurations,
+            parentExternalAdverts,
+            externalAdverts,
+            parentInitialLayer3Topology,
+            initialLayer3Topology);
+
+    MutableGraph<String> coupling =
+        coupling(configurations, initialLayer3Topology, ipOwners, ipsecTopology, tunnelTopology);
+    parentConfigurations.keySet().forEach(coupling::addNode);
+    Stream.of(parentInitialLayer3Topology, parentLayer3Topology)
+        .flatMap(topology -> topology.getEdges().stream())
+        .forEach(edge -> coupling.putEdge(edge.getNode1(), edge.getNode2()));
+    for (EndpointPair<BgpPeerConfigId> edge : parentBgpTopology.getGraph().edges()) {
+      coupling.putEdge(edge.nodeU().getHostname(), edge.nodeV().getHostname());
+    }
+    coupleBgpPeers(coupling, parentConfigurations, parentIpOwners);
+    coupleSharedIps(coupling, parentIpOwners);
+
+    Set<String> affected = new HashSet<>();
+    for (String hostname : changed) {
+      if (!affected.contains(hostname)) {
+        affected.addAll(Graphs.reachableNodes(coupling, hostname));
+      }
+    }
+    affected.retainAll(configurations.keySet());
+    if (affected.size() == configurations.size()) {
+      LOGGER.info("Not reusing the parent data plane: every node may be affected");
+      return Optional.empty();
+    }
+    return Optional.of(ImmutableSet.copyOf(affected));
+  }
+
+  /**
+   * Returns whether the nodes of the forked snapshot fall into more than one island using only the
+   * forked snapshot's own initial adjacencies. The parent can only add coupling, so if this returns
+   * false every node is affected by any change and nothing from the parent needs to be loaded or
+   * fingerprinted. This gives up reuse for a fork with no changes at all in a connected network.
+   *
+   * @param configurations configurations of the forked snapshot
+   * @param initialLayer3Topology initial layer-3 topology of the forked snapshot
+   * @param ipOwners IP owners of the forked snapshot
+   * @param ipsecTopology initial IPsec topology of the forked snapshot
+   * @param tunnelTopology initial tunnel topology of the forked snapshot
+   */
+  static boolean mayReuseParent(
+      Map<String, Configuration> configurations,
+      Topology initialLayer3Topology,
+      IpOwners ipOwners,
+      IpsecTopology ipsecTopology,
+      TunnelTopology tunnelTopology) {
+    if (configurations.isEmpty()) {
+      return false;
+    }
+    if (hasVnis(configurations)) {
+      LOGGER.info("Not reusing the parent data plane: snapshot has VXLAN");
+      return false;
+    }
+    MutableGraph<String> coupling =
+        coupling(configurations, initialLayer3Topology, ipOwners, ipsecTopology, tunnelTopology);
+    String first = configurations.keySet().iterator().next();
+    if (Graphs.reachableNodes(coupling, first).containsAll(configurations.keySet())) {
+      LOGGER.info("Not reusing the parent data plane: snapshot is a single island");
+      return false;
+    }
+    return true;
+  }
+
+  /** Returns the graph coupling nodes of the forked snapshot by its own initial adjacencies. */
+  private static MutableGraph<String> coupling(
+      Map<String, Configuration> configurations,
+      Topology initialLayer3Topology,
+      IpOwners ipOwners,
+      IpsecTopology ipsecTopology,
+      TunnelTopology tunnelTopology) {
+    MutableGraph<String> coupling = GraphBuilder.undirected().allowsSelfLoops(true).build();
+    configurations.keySet().forEach(coupling::addNode);
+    for (Edge edge : initialLayer3Topology.getEdges()) {
+      coupling.putEdge(edge.getNode1(), edge.getNode2());
+    }
+    for (EndpointPair<IpsecPeerConfigId> edge : ipsecTopology.getGraph().edges()) {
+      coupling.putEdge(edge.nodeU().getHostName(), edge.nodeV().getHostName());
+    }
+    for (EndpointPair<NodeInterfacePair> edge : tunnelTopology.getGraph().edges()) {
+      coupling.putEdge(edge.nodeU().getHostname(), edge.nodeV().getHostname());
+    }
+    coupleBgpPeers(coupling, configurations, ipOwners);
+    coupleSharedIps(coupling, ipOwners);
+    return coupling;
+  }
+
+  /**
+   * Returns the hostnames of nodes whose own inputs to the data plane computation differ between
+   * the parent and forked snapshot.
+   */
+  static @Nonnull Set<String> computeChangedNodes(
+      Map<String, Configuration> parentConfigurations,
+      Map<String, Configuration> configurations,
+      Set<BgpAdvertisement> parentExternalAdverts,
+      Set<BgpAdvertisement> externalAdverts,
+      Topology parentInitialLayer3Topology,
+      Topology initialLayer3Topology) {
+    Set<String> changed =
+        new HashSet<>(
+            Sets.symmetricDifference(parentConfigurations.keySet(), configurations.keySet()));
+    Map<String, Set<BgpAdvertisement>> parentAdvertsByNode = advertsByNode(parentExternalAdverts);
+    Map<String, Set<BgpAdvertisement>> advertsByNode = advertsByNode(externalAdverts);
+    Sets.union(parentAdvertsByNode.keySet(), advertsByNode.keySet()).stream()
+        .filter(
+            hostname ->
+                !Objects.equals(parentAdvertsByNode.get(hostname), advertsByNode.get(hostname)))
+        .forEach(changed::add);
+    for (Edge edge :
+        Sets.symmetricDifference(
+            parentInitialLayer3Topology.getEdges(), initialLayer3Topology.getEdges())) {
+      changed.add(edge.getNode1());
+      changed.add(edge.getNode2());
+    }
+    // Data-plane-dependent tracks are evaluated during the computation, and their results are
+    // needed for the final IP owners, so they are never reused.
+    changed.addAll(IncrementalBdpEngine.collectTrackRoutes(configurations).keySet());
+    changed.addAll(IncrementalBdpEngine.collectTrackReachabilities(configurations).keySet());
+    // Fingerprinting is the expensive check, so only do it for nodes not already known to change.
+    configurations.forEach(
+        (hostname, c) -> {
+          Configuration parent = parentConfigurations.get(hostname);
+          if (parent != null
+              && !changed.contains(hostname)
+              && !fingerprint(parent).equals(fingerprint(c))) {
+            changed.add(hostname);
+          }
+        });
+    return changed;
+  }
+
+  /**
+   * Returns a hash of the serialized form of {@code object}, in which the entries of every {@link
+   * HashMap} and {@link HashSet} with mutually comparable keys are written in sorted order. Their
+   * iteration order depends on insertion history, so two equal objects can otherwise serialize
+   * differently.
+   */
+  @VisibleForTesting
+  static @Nonnull HashCode fingerprint(Serializable object) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    try (ObjectOutputStream out = new CanonicalObjectOutputStream(Funnels.asOutputStream(hasher))) {
+      out.writeObject(object);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * An {@link ObjectOutputStream} that writes hash-based collections in sorted order. Only used for
+   * hashing, never read back.
+   */
+  private static final class CanonicalObjectOutputStream extends ObjectOutputStream {
+    private CanonicalObjectOutputStream(OutputStream out) throws IOException {
+      super(out);
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+      if (obj.getClass() == HashMap.class) {
+        Map<?, ?> map = (Map<?, ?>) obj;
+        Optional<List<Object>> keys = sorted(map.keySet());
+        if (keys.isPresent()) {
+          Map<Object, Object> sortedMap = new LinkedHashMap<>();
+          keys.get().forEach(key -> sortedMap.put(key, map.get(key)));
+          return sortedMap;
+        }
+      } else if (obj.getClass() == HashSet.class) {
+        Optional<List<Object>> elements = sorted((Set<?>) obj);
+        if (elements.isPresent()) {
+          return new LinkedHashSet<>(elements.get());
+        }
+      }
+      return obj;
+    }
+
+    /**
+     * Returns {@code elements} in natural order, or {@link Optional#empty()} if they are not all
+     * non-null instances of one {@link Comparable} class.
+     */
+    @SuppressWarnings("unchecked")
+    private static Optional<List<Object>> sorted(Collection<?> elements) {
+      Class<?> elementClass = null;
+      for (Object element : elements) {
+        if (!(element instanceof Comparable)) {
+          return Optional.empty();
+        }
+        if (elementClass == null) {
+          elementClass = element.getClass();
+        } else if (element.getClass() != elementClass) {
+          return Optional.empty();
+        }
+      }
+      List<Object> list = new ArrayList<>(elements);
+      // Stable, so elements that compare equal keep their relative order; at worst an unchanged
+      // node is reported as changed.
+      list.sort((a, b) -> ((Comparable<Object>) a).compareTo(b));
+      return Optional.of(list);
+    }
+  }
+
+  /** Returns the subset of {@code topology} whose edges are between {@code hostnames}. */
+  static @Nonnull Topology restrict(Topology topology, Set<String> hostnames) {
+    return new Topology(
+        topology.getEdges().stream()
+            .filter(e -> hostnames.contains(e.getNode1()) && hostnames.contains(e.getNode2()))
+            .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder())));
+  }
+
+  /**
+   * Logs the nodes on which a differentially-computed data plane disagrees with a full
+   * recomputation, and returns them.
+   */
+  static @Nonnull Set<String> logDifferences(
+      ComputeDataPlaneResult differential, ComputeDataPlaneResult full) {
+    DataPlane d = differential._dataPlane;
+    DataPlane f = full._dataPlane;
+    Set<String> differingNodes =
+        Stream.of(
+                differingRows(d.getRibs().rowMap(), f.getRibs().rowMap()),
+                differingRows(d.getBgpRoutes().rowMap(), f.getBgpRoutes().rowMap()),
+                differingRows(d.getBgpBackupRoutes().rowMap(), f.getBgpBackupRoutes().rowMap()),
+                differingRows(d.getEvpnRoutes().rowMap(), f.getEvpnRoutes().rowMap()))
+            .flatMap(Collection::stream)
+            .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder()));
+    if (!differingNodes.isEmpty()) {
+      LOGGER.error(
+          "Differential data plane differs from full recomputation on nodes: {}", differingNodes);
+    }
+    if (!differential._topologies.getBgpTopology().equals(full._topologies.getBgpTopology())) {
+      LOGGER.error("Differential BGP topology differs from full recomputation");
+    }
+    if (!differential
+        ._topologies
+        .getLayer3Topology()
+        .equals(full._topologies.getLayer3Topology())) {
+      LOGGER.error("Differential layer-3 topology differs from full recomputation");
+    }
+    return differingNodes;
+  }
+
+  private static <V> Set<String> differingRows(Map<String, V> a, Map<String, V> b) {
+    return Sets.union(a.keySet(), b.keySet()).stream()
+        .filter(hostname -> !Objects.equals(a.get(hostname), b.get(hostname)))
+        .collect(toImmutableSet());
+  }
+
+  private static boolean hasVnis(Map<String, Configuration> configurations) {
+    return configurations.values().stream()
+        .flatMap(c -> c.getVrfs().values().stream())
+        .anyMatch(vrf -> !vrf.getLayer2Vnis().isEmpty() || !vrf.getLayer3Vnis().isEmpty());
+  }
+
+  private static Map<String, Set<BgpAdvertisement>> advertsByNode(Set<BgpAdvertisement> adverts) {
+    return adverts.stream()
+        .collect(Collectors.groupingBy(BgpAdvertisement::getDstNode, Collectors.toSet()));
+  }
+
+  /** Couples each node with the owners of the addresses of its active BGP peers. */
+  private static void coupleBgpPeers(
+      MutableGraph<String> coupling, Map<String, Configuration> configurations, IpOwners owners) {
+    Map<Ip, Map<String, Set<String>>> ipOwners = owners.getAllDeviceOwnedIps();
+    configurations.forEach(
+        (hostname, c) ->
+            c.getVrfs().values().stream()
+                .filter(vrf -> vrf.getBgpProcess() != null)
+                .flatMap(vrf -> vrf.getBgpProcess().getActiveNeighbors().keySet().stream())
+                .flatMap(ip -> ipOwners.getOrDefault(ip, ImmutableMap.of()).keySet().stream())
+                .forEach(owner -> coupling.putEdge(hostname, owner)));
+  }
+
+  /** Couples all nodes that own the same IP address. */
+  private static void coupleSharedIps(MutableGraph<String> coupling, IpOwners owners) {
+    for (Map<String, Set<String>> ownersByHostname : owners.getAllDeviceOwnedIps().values()) {
+      Iterator<String> hostnames = ownersByHostname.keySet().iterator();
+      if (!hostnames.hasNext()) {
+        continue;
+      }
+      String first = hostnames.next();
+      hostnames.forEachRemaining(hostname -> coupling.putEdge(first, hostname));
+    }
+  }
+
+  private DifferentialDataPlaneUtil() {}
+}
@@ -7,6 +7,7 @@ import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
 import org.batfish.common.topology.TopologyContainer;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.answers.DataPlaneAnswerElement;
+import org.batfish.dataplane.ibdp.DataplaneTrackEvaluator.DataPlaneTrackMethodEvaluatorProvider;
 
 /**
  * A specific type of {@link ComputeDataPlaneResult} returned by {@link IncrementalBdpEngine} which
@@ -18,18 +19,27 @@ import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 final class IbdpResult extends ComputeDataPlaneResult {
 
   @Nonnull private final Map<String, Node> _nodes;
+  @Nonnull private final DataPlaneTrackMethodEvaluatorProvider _trackMethodEvaluatorProvider;
 
   IbdpResult(
       DataPlaneAnswerElement answerElement,
       DataPlane dataPlane,
       TopologyContainer topologies,
-      Map<String, Node> nodes) {
+      Map<String, Node> nodes,
+      DataPlaneTrackMethodEvaluatorProvider trackMethodEvaluatorProvider) {
     super(answerElement, dataPlane, topologies);
     _nodes = nodes;
+    _trackMethodEvaluatorProvider = trackMethodEvaluatorProvider;
   }
 
   @Nonnull
   Map<String, Node> getNodes() {
     return _nodes;
   }
+
+  /** Evaluates data-plane-dependent track methods against the final data plane. */
+  @Nonnull
+  DataPlaneTrackMethodEvaluatorProvider getTrackMethodEvaluatorProvider() {
+    return _trackMethodEvaluatorProvider;
+  }
 }
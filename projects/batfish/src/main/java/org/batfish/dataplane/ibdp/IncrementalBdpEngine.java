@@ -8,6 +8,10 @@ import static org.batfish.common.util.CollectionUtil.toImmutableSortedMap;
 import static org.batfish.common.util.IpsecUtil.retainReachableIpsecEdges;
 import static org.batfish.common.util.IpsecUtil.toEdgeSet;
 import static org.batfish.common.util.StreamUtil.toListInRandomOrder;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_EGP;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_FIBS;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_IGP;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_TOPOLOGY;
 import static org.batfish.datamodel.bgp.BgpTopologyUtils.initBgpTopology;
 import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.computeNextVxlanTopologyModuloReachability;
 import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.prunedVxlanTopology;
@@ -16,6 +20,7 @@ import static org.batfish.dataplane.ibdp.TrackReachabilityUtils.evaluateTrackRea
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
@@ -49,6 +54,7 @@ import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IsisRoute;
@@ -75,6 +81,7 @@ import org.batfish.dataplane.ibdp.DataplaneTrackEvaluator.DataPlaneTrackMethodEv
 import org.batfish.dataplane.ibdp.TrackRouteUtils.GetRoutesForPrefix;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
+import org.batfish.dataplane.ibdp.schedule.WorklistSchedule;
 import org.batfish.dataplane.rib.RibDelta;
 import org.batfish.version.BatfishVersion;
 
@@ -128,9 +135,9 @@ final class IncrementalBdpEngine {
    * can be established given the current L3 topology and dataplane state. The resulting {@code
    * TopologyContext} for the next iteration of dataplane is returned.
    */
-  private static TopologyContext nextTopologyContext(
+  static TopologyContext nextTopologyContext(
       TopologyContext currentTopologyContext,
-      PartialDataplane currentDataplane,
+      DataPlane currentDataplane,
       TopologyContext initialTopologyContext,
       NetworkConfigurations networkConfigurations,
       Map<Ip, Map<String, Set<String>>> ipVrfOwners) {
@@ -279,12 +286,14 @@ final class IncrementalBdpEngine {
      */
     IncrementalBdpAnswerElement answerElement = new IncrementalBdpAnswerElement();
     // TODO: eventually, IGP needs to be part of fixed-point below, because tunnels.
+    long phaseStart = System.nanoTime();
     computeIgpDataPlane(nodes, vrs, initialTopologyContext, answerElement);
 
     LOGGER.info("Initialize virtual routers before topology fixed point");
     vrs.parallelStream()
         .forEach(
             vr -> vr.initForEgpComputationBeforeTopologyLoop(externalAdverts, initialIpVrfOwners));
+    phaseStart = endPhase(answerElement, PHASE_IGP, phaseStart);
 
     /*
      * Perform a fixed-point computation, in which every round the topology is updated based
@@ -300,6 +309,7 @@ final class IncrementalBdpEngine {
             .build();
     PartialDataplane currentDataplane =
         nextDataplane(priorTopologyContext, nodes, vrs, initialIpOwners);
+    phaseStart = endPhase(answerElement, PHASE_FIBS, phaseStart);
 
     TopologyContext currentTopologyContext =
         nextTopologyContext(
@@ -327,6 +337,7 @@ final class IncrementalBdpEngine {
             configurations,
             currentTopologyContext.getL3Adjacencies(),
             currentTrackMethodEvaluatorProvider);
+    phaseStart = endPhase(answerElement, PHASE_TOPOLOGY, phaseStart);
     int topologyIterations = 0;
     boolean converged = false;
     while (!converged && topologyIterations++ < MAX_TOPOLOGY_ITERATIONS) {
@@ -346,10 +357,12 @@ final class IncrementalBdpEngine {
         LOGGER.error("Network has no stable solution");
         throw new BdpOscillationException("Network has no stable solution");
       }
+      phaseStart = endPhase(answerElement, PHASE_EGP, phaseStart);
 
       updateLayer3Vnis(vrs);
       currentDataplane = null; // free the old one
       currentDataplane = nextDataplane(currentTopologyContext, nodes, vrs, currentIpOwners);
+      phaseStart = endPhase(answerElement, PHASE_FIBS, phaseStart);
       TopologyContext nextTopologyContext =
           nextTopologyContext(
               currentTopologyContext,
@@ -383,6 +396,7 @@ final class IncrementalBdpEngine {
       currentTrackReachabilityResultsByHostname = nextTrackReachabilityResultsByHostname;
       currentTrackRouteResultsByHostname = nextTrackRouteResultsByHostname;
       currentIpOwners = nextIpOwners;
+      phaseStart = endPhase(answerElement, PHASE_TOPOLOGY, phaseStart);
     }
 
     if (!converged) {
@@ -402,7 +416,12 @@ final class IncrementalBdpEngine {
             .setNodes(nodes)
             .setPartialDataplane(currentDataplane)
             .build();
-    return new IbdpResult(answerElement, finalDataplane, currentTopologyContext, nodes);
+    return new IbdpResult(
+        answerElement,
+        finalDataplane,
+        currentTopologyContext,
+        nodes,
+        currentTrackMethodEvaluatorProvider);
   }
 
   private @Nonnull Map<String, Map<TrackRoute, Boolean>> nextTrackRoutesByHostname(
@@ -425,7 +444,7 @@ final class IncrementalBdpEngine {
    * Returns map: hostname of config with at least one {@link TrackRoute} -> {@link TrackRoute}s in
    * that config.
    */
-  private static @Nonnull Map<String, Collection<TrackReachability>> collectTrackReachabilities(
+  static @Nonnull Map<String, Collection<TrackReachability>> collectTrackReachabilities(
       Map<String, Configuration> configurations) {
     ImmutableMap.Builder<String, Collection<TrackReachability>> builder = ImmutableMap.builder();
     configurations.forEach(
@@ -490,7 +509,7 @@ final class IncrementalBdpEngine {
    * Returns map: hostname of config with at least one {@link TrackRoute} -> {@link TrackRoute}s in
    * that config.
    */
-  private static @Nonnull Map<String, Collection<TrackRoute>> collectTrackRoutes(
+  static @Nonnull Map<String, Collection<TrackRoute>> collectTrackRoutes(
       Map<String, Configuration> configurations) {
     ImmutableMap.Builder<String, Collection<TrackRoute>> builder = ImmutableMap.builder();
     configurations.forEach(
@@ -734,6 +753,16 @@ final class IncrementalBdpEngine {
     vrs.parallelStream().forEach(VirtualRouter::computeFib);
   }
 
+  /**
+   * Records the time since {@code phaseStart} as spent in the given phase, and returns the start
+   * time of the next phase.
+   */
+  private static long endPhase(IncrementalBdpAnswerElement ae, String phase, long phaseStart) {
+    long now = System.nanoTime();
+    ae.addPhaseNanos(phase, now - phaseStart);
+    return now;
+  }
+
   /**
    * Compute the IGP portion of the dataplane.
    *
@@ -820,20 +849,46 @@ final class IncrementalBdpEngine {
 
     Schedule currentSchedule = _settings.getScheduleName();
 
+    /*
+     * Hostnames of nodes that may still have work to do, used by the worklist schedule. The first
+     * round after a topology update must process every node, since new sessions and changed track
+     * states require a full exchange of routes.
+     */
+    Set<String> dirtyNodes = nodes.keySet();
+
     // Go into iteration mode, until the routes converge (or oscillation is detected)
     do {
       _numIterations++;
       LOGGER.info("Iteration {} begins", _numIterations);
       LOGGER.info("Compute schedule");
       // Compute node schedule
-      IbdpSchedule schedule =
-          IbdpSchedule.getSchedule(_settings, currentSchedule, nodes, topologyContext);
+      IbdpSchedule schedule;
+      // Virtual routers that participate in this round. Those left out are quiescent, so every
+      // per-VR step below would be a no-op for them.
+      List<VirtualRouter> roundVrs;
+      if (currentSchedule == Schedule.WORKLIST) {
+        WorklistSchedule worklistSchedule =
+            new WorklistSchedule(nodes, dirtyNodes, topologyContext);
+        Map<String, Node> activeNodes = worklistSchedule.getActiveNodes();
+        LOGGER.info(
+            "Iteration {}: {} of {} nodes active", _numIterations, activeNodes.size(), nodes.size());
+        roundVrs =
+            activeNodes.size() == nodes.size()
+                ? vrs
+                : vrs.stream()
+                    .filter(vr -> activeNodes.containsKey(vr.getConfiguration().getHostname()))
+                    .collect(ImmutableList.toImmutableList());
+        schedule = worklistSchedule;
+      } else {
+        schedule = IbdpSchedule.getSchedule(_settings, currentSchedule, nodes, topologyContext);
+        roundVrs = vrs;
+      }
 
       // (Re)initialization of dependent route calculation
       //  Since this is a local step, coloring not required.
 
       LOGGER.info("Re-Init for new route iteration");
-      vrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
+      roundVrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
 
       /*
       Redistribution: take all the routes merged into the main RIB during previous iteration
@@ -843,11 +898,11 @@ final class IncrementalBdpEngine {
       Since this is a local step, coloring not required.
       */
       LOGGER.info("Redistribute");
-      vrs.parallelStream().forEach(VirtualRouter::redistribute);
+      roundVrs.parallelStream().forEach(VirtualRouter::redistribute);
 
       // Handle process-specific route resolution and cross-VRF leaking here too.
-      vrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
-      queueRoutesForCrossVrfLeaking(vrs);
+      roundVrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
+      queueRoutesForCrossVrfLeaking(roundVrs);
 
       // compute dependent routes for each allowable set of nodes until we cover all nodes
       int nodeSet = 0;
@@ -864,7 +919,7 @@ final class IncrementalBdpEngine {
 
       // Tell each VR that a route computation round has ended.
       // This must be the last thing called on a VR in a routing round.
-      vrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
+      roundVrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
 
       /*
        * Perform various bookkeeping at the end of the iteration:
@@ -893,16 +948,23 @@ final class IncrementalBdpEngine {
           return true; // Found an oscillation
         }
       }
-    } while (hasNotReachedRoutingFixedPoint(vrs));
+      dirtyNodes = computeDirtyNodes(vrs);
+    } while (!dirtyNodes.isEmpty());
 
     ae.setDependentRoutesIterations(_numIterations);
     return false; // No oscillations
   }
 
-  /** Check if we have reached a routing fixed point */
-  private boolean hasNotReachedRoutingFixedPoint(List<VirtualRouter> vrs) {
+  /**
+   * Return the hostnames of nodes with at least one dirty {@link VirtualRouter}. A routing fixed
+   * point has been reached iff the result is empty.
+   */
+  private Set<String> computeDirtyNodes(List<VirtualRouter> vrs) {
     LOGGER.info("Iteration {}: Check if fixed point reached", _numIterations);
-    return vrs.parallelStream().anyMatch(VirtualRouter::isDirty);
+    return vrs.parallelStream()
+        .filter(VirtualRouter::isDirty)
+        .map(vr -> vr.getConfiguration().getHostname())
+        .collect(ImmutableSet.toImmutableSet());
   }
 
   /**
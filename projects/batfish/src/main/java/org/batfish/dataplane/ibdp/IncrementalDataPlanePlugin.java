@@ -1,18 +1,37 @@
 package org.batfish.dataplane.ibdp;
 
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.computeAffectedNodes;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.mayReuseParent;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.restrict;
+
 import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.Plugin;
+import org.batfish.common.topology.IpOwners;
+import org.batfish.common.topology.L3Adjacencies;
 import org.batfish.common.topology.TopologyProvider;
+import org.batfish.common.topology.TopologyUtil;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
 import org.batfish.datamodel.isis.IsisTopology;
+import org.batfish.datamodel.ospf.OspfTopologyUtils;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings.DifferentialMode;
 
 /** A batfish plugin that registers the Incremental Batfish Data Plane (ibdp) Engine. */
 @AutoService(Plugin.class)
@@ -23,6 +42,7 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
   public static final String PLUGIN_NAME = "ibdp";
 
   private IncrementalBdpEngine _engine;
+  private IncrementalDataPlaneSettings _settings;
 
   public IncrementalDataPlanePlugin() {}
 
@@ -46,25 +66,161 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
             .setOspfTopology(topologyProvider.getInitialOspfTopology(snapshot))
             .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
             .build();
+    IpOwners initialIpOwners = topologyProvider.getInitialIpOwners(snapshot);
+
+    DifferentialMode differentialMode = _settings.getDifferentialMode();
+    Optional<ComputeDataPlaneResult> differential =
+        differentialMode == DifferentialMode.OFF
+            ? Optional.empty()
+            : _batfish
+                .getParentSnapshotWithDataPlane(snapshot)
+                .flatMap(
+                    parent ->
+                        computeDifferentialDataPlane(
+                            parent,
+                            snapshot,
+                            configurations,
+                            externalAdverts,
+                            topologyContext,
+                            initialIpOwners));
+    if (differential.isPresent() && differentialMode == DifferentialMode.ON) {
+      return differential.get();
+    }
 
     ComputeDataPlaneResult answer =
-        _engine.computeDataPlane(
-            configurations,
-            topologyContext,
-            externalAdverts,
-            topologyProvider.getInitialIpOwners(snapshot));
+        _engine.computeDataPlane(configurations, topologyContext, externalAdverts, initialIpOwners);
     _logger.infof(
         "Generated data-plane for snapshot:%s; iterations:%s",
         snapshot.getSnapshot(),
         ((IncrementalBdpAnswerElement) answer._answerElement).getDependentRoutesIterations());
+    differential.ifPresent(d -> DifferentialDataPlaneUtil.logDifferences(d, answer));
     return answer;
   }
 
+  /**
+   * Computes the data plane of {@code snapshot} by recomputing only the nodes that may be affected
+   * by the differences from {@code parent}, and reusing the data plane of {@code parent} for all
+   * other nodes. Returns {@link Optional#empty()} if nothing can be reused. Nothing is loaded from
+   * {@code parent} if the forked snapshot is a single island, since then any change affects every
+   * node.
+   */
+  private Optional<ComputeDataPlaneResult> computeDifferentialDataPlane(
+      NetworkSnapshot parent,
+      NetworkSnapshot snapshot,
+      Map<String, Configuration> configurations,
+      Set<BgpAdvertisement> externalAdverts,
+      TopologyContext initialTopologyContext,
+      IpOwners initialIpOwners) {
+    if (!mayReuseParent(
+        configurations,
+        initialTopologyContext.getLayer3Topology(),
+        initialIpOwners,
+        initialTopologyContext.getIpsecTopology(),
+        initialTopologyContext.getTunnelTopology())) {
+      // Skip loading and fingerprinting the parent when no island could be reused anyway.
+      return Optional.empty();
+    }
+    LOGGER.info("Computing data plane of {} differentially from parent {}", snapshot, parent);
+    TopologyProvider topologyProvider = _batfish.getTopologyProvider();
+    Map<String, Configuration> parentConfigurations = _batfish.loadConfigurations(parent);
+    Topology parentLayer3Topology = topologyProvider.getLayer3Topology(parent);
+    Optional<Set<String>> maybeAffected =
+        computeAffectedNodes(
+            parentConfigurations,
+            configurations,
+            _batfish.loadExternalBgpAnnouncements(parent, parentConfigurations),
+            externalAdverts,
+            topologyProvider.getInitialLayer3Topology(parent),
+            initialTopologyContext.getLayer3Topology(),
+            parentLayer3Topology,
+            topologyProvider.getBgpTopology(parent),
+            topologyProvider.getInitialIpOwners(parent),
+            initialIpOwners,
+            initialTopologyContext.getIpsecTopology(),
+            initialTopologyContext.getTunnelTopology());
+    if (!maybeAffected.isPresent()) {
+      return Optional.empty();
+    }
+    Set<String> affected = maybeAffected.get();
+    Set<String> reused = ImmutableSet.copyOf(Sets.difference(configurations.keySet(), affected));
+    LOGGER.info(
+        "Recomputing data plane for {} of {} nodes", affected.size(), configurations.size());
+
+    // The affected nodes are closed under every kind of adjacency, so their data plane can be
+    // computed in isolation.
+    SortedMap<String, Configuration> affectedConfigurations =
+        ImmutableSortedMap.copyOf(Maps.filterKeys(configurations, affected::contains));
+    Topology affectedLayer3Topology =
+        restrict(initialTopologyContext.getLayer3Topology(), affected);
+    TopologyContext affectedTopologyContext =
+        initialTopologyContext.toBuilder()
+            .setIpsecTopology(TopologyUtil.computeIpsecTopology(affectedConfigurations))
+            .setIsisTopology(
+                IsisTopology.initIsisTopology(affectedConfigurations, affectedLayer3Topology))
+            .setLayer3Topology(affectedLayer3Topology)
+            .setOspfTopology(
+                OspfTopologyUtils.computeOspfTopology(
+                    NetworkConfigurations.of(affectedConfigurations), affectedLayer3Topology))
+            .setTunnelTopology(TopologyUtil.computeInitialTunnelTopology(affectedConfigurations))
+            .build();
+    IbdpResult recomputed =
+        (IbdpResult)
+            new IncrementalBdpEngine(_settings)
+                .computeDataPlane(
+                    affectedConfigurations,
+                    affectedTopologyContext,
+                    externalAdverts,
+                    initialIpOwners);
+
+    // Layer-3 edges never cross between affected and reused nodes, so the final layer-3 topology
+    // is the union of the parent's among reused nodes and the recomputed one.
+    Topology layer3Topology =
+        new Topology(
+            ImmutableSortedSet.<Edge>naturalOrder()
+                .addAll(restrict(parentLayer3Topology, reused).getEdges())
+                .addAll(recomputed._topologies.getLayer3Topology().getEdges())
+                .build());
+    // Without VXLAN, L3 adjacencies do not depend on the data plane.
+    L3Adjacencies l3Adjacencies = initialTopologyContext.getL3Adjacencies();
+    IpOwners ipOwners =
+        new DataPlaneIpOwners(
+            configurations, l3Adjacencies, recomputed.getTrackMethodEvaluatorProvider());
+    DifferentialDataPlane dataPlane =
+        DifferentialDataPlane.merge(
+            _batfish.loadDataPlane(parent),
+            recomputed._dataPlane,
+            reused,
+            fibs ->
+                DataplaneUtil.computeForwardingAnalysis(
+                    fibs, configurations, layer3Topology, ipOwners));
+
+    // Topologies that depend on the data plane are network-wide, so recompute them from the merged
+    // data plane rather than merging them.
+    TopologyContext topologies =
+        IncrementalBdpEngine.nextTopologyContext(
+            initialTopologyContext.toBuilder()
+                .setLayer3Topology(layer3Topology)
+                .setL3Adjacencies(l3Adjacencies)
+                .build(),
+            dataPlane,
+            initialTopologyContext,
+            NetworkConfigurations.of(configurations),
+            ipOwners.getIpVrfOwners());
+    _logger.infof(
+        "Generated data-plane for snapshot:%s differentially; recomputed %s of %s nodes;"
+            + " iterations:%s",
+        snapshot.getSnapshot(),
+        affected.size(),
+        configurations.size(),
+        ((IncrementalBdpAnswerElement) recomputed._answerElement).getDependentRoutesIterations());
+    return Optional.of(
+        new ComputeDataPlaneResult(recomputed._answerElement, dataPlane, topologies));
+  }
+
   @Override
   protected void dataPlanePluginInitialize() {
-    _engine =
-        new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration()));
+    _settings = new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration());
+    _engine = new IncrementalBdpEngine(_settings);
   }
 
   @Override
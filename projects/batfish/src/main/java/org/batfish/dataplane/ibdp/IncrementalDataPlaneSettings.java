@@ -17,6 +17,7 @@ public final class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_DIFFERENTIAL = "differentialdataplane";
   public static final String PROP_SCHEDULE = "schedule";
 
   /**
@@ -48,6 +49,7 @@ public final class IncrementalDataPlaneSettings {
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_DIFFERENTIAL, DifferentialMode.OFF.toString());
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
   }
 
@@ -63,4 +65,25 @@ public final class IncrementalDataPlaneSettings {
   public Coloring getColoringType() {
     return Coloring.valueOf(_config.getString(PROP_COLORING));
   }
+
+  /** Return whether and how to reuse the data plane of the snapshot a snapshot was forked from */
+  public DifferentialMode getDifferentialMode() {
+    return DifferentialMode.valueOf(_config.getString(PROP_DIFFERENTIAL));
+  }
+
+  /** How to compute the data plane of a snapshot forked from one with a computed data plane */
+  public enum DifferentialMode {
+    /** Always compute the data plane from scratch */
+    OFF,
+    /**
+     * Recompute only the islands of nodes that may be affected by the fork, and reuse the parent's
+     * data plane for islands with no changed node. See {@link DifferentialDataPlaneUtil}.
+     */
+    ON,
+    /**
+     * Compute both ways, log any difference, and keep the from-scratch result. For testing the
+     * differential computation.
+     */
+    VERIFY,
+  }
 }
@@ -1,11 +1,15 @@
 package org.batfish.dataplane.ibdp;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.routing_policy.CompiledRoutingPolicy;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
 
 /** Internal iBDP implementation. A collection of all routing polices on a single device. */
@@ -37,11 +41,43 @@ final class RoutingPolicies {
                     String.format("Routing policy %s does not exist on node %s", name, _hostname)));
   }
 
+  /**
+   * Returns the routing policies of the given configuration, compiled for route processing.
+   *
+   * <p>The compiled policies are cached per configuration, since each node and each of its routing
+   * processes looks them up. They are compiled again if the configuration's policies have changed.
+   */
   @Nonnull
   static RoutingPolicies from(Configuration c) {
-    return new RoutingPolicies(c.getRoutingPolicies(), c.getHostname());
+    Map<String, RoutingPolicy> policies = c.getRoutingPolicies();
+    RoutingPolicies cached = COMPILED.getIfPresent(c);
+    if (cached != null && cached.isCompiledFrom(policies)) {
+      return cached;
+    }
+    RoutingPolicies compiled =
+        new RoutingPolicies(CompiledRoutingPolicy.compileAll(policies), c.getHostname());
+    COMPILED.put(c, compiled);
+    return compiled;
   }
 
+  /** Whether these policies are exactly the given ones, compiled. */
+  private boolean isCompiledFrom(Map<String, RoutingPolicy> policies) {
+    if (!_policies.keySet().equals(policies.keySet())) {
+      return false;
+    }
+    for (Entry<String, RoutingPolicy> entry : policies.entrySet()) {
+      RoutingPolicy policy = _policies.get(entry.getKey());
+      if (!(policy instanceof CompiledRoutingPolicy)
+          || !((CompiledRoutingPolicy) policy).isCompiledFrom(entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final Cache<Configuration, RoutingPolicies> COMPILED =
+      CacheBuilder.newBuilder().weakKeys().build();
+
   @Nonnull private final Map<String, RoutingPolicy> _policies;
   // For internal informational purposes only
   @Nonnull private final String _hostname;
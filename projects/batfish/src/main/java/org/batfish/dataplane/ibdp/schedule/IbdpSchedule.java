@@ -21,6 +21,7 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
     ALL,
     NODE_COLORED,
     NODE_SERIALIZED,
+    WORKLIST,
   }
 
   protected ImmutableMap<String, Node> _nodes;
@@ -87,6 +88,9 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
       case NODE_COLORED:
         Coloring coloring = settings.getColoringType();
         return new NodeColoredSchedule(allNodes, coloring, topologyContext);
+      case WORKLIST:
+        // Without knowledge of which nodes are dirty, every node must be considered active.
+        return new WorklistSchedule(allNodes, allNodes.keySet(), topologyContext);
       default:
         throw new BatfishException(String.format("Unsupported ibdp schedule: %s", schedule));
     }
@@ -0,0 +1,112 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.graph.EndpointPair;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.eigrp.EigrpEdge;
+import org.batfish.datamodel.isis.IsisEdge;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.batfish.datamodel.vxlan.VxlanNode;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TopologyContext;
+
+/**
+ * Allows only the nodes that may still have work to do to exchange routes, all at the same time.
+ *
+ * <p>A node is active if it is dirty (see {@link #WorklistSchedule(Map, Set, TopologyContext)}), or
+ * if it is adjacent to a dirty node in any of the routing protocol topologies, since neighbors pull
+ * routes from (or are pushed routes by) dirty nodes. Nodes that are neither dirty nor adjacent to a
+ * dirty node would not change any state if processed, so they are skipped.
+ */
+public final class WorklistSchedule extends IbdpSchedule {
+  private boolean _hasNext = true;
+
+  /**
+   * Create a new schedule that only activates dirty nodes and their protocol neighbors.
+   *
+   * @param nodes all nodes in the network
+   * @param dirtyNodes hostnames of nodes whose message queues, main RIB deltas, or track states
+   *     changed in the previous round
+   * @param topologyContext the various network topologies
+   */
+  public WorklistSchedule(
+      Map<String, Node> nodes, Set<String> dirtyNodes, TopologyContext topologyContext) {
+    super(activeNodes(nodes, dirtyNodes, topologyContext));
+  }
+
+  /** Return the nodes that will be processed by this schedule, keyed by hostname. */
+  public @Nonnull Map<String, Node> getActiveNodes() {
+    return _nodes;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super Map<String, Node>> action) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public boolean hasNext() {
+    return _hasNext;
+  }
+
+  @Override
+  public Map<String, Node> next() {
+    if (_hasNext) {
+      _hasNext = false;
+      return _nodes;
+    }
+    throw new NoSuchElementException();
+  }
+
+  private static @Nonnull Map<String, Node> activeNodes(
+      Map<String, Node> nodes, Set<String> dirtyNodes, TopologyContext topologyContext) {
+    if (dirtyNodes.size() == nodes.size()) {
+      return ImmutableMap.copyOf(nodes);
+    }
+    ImmutableSet.Builder<String> active = ImmutableSet.builder();
+    active.addAll(dirtyNodes);
+    for (EndpointPair<BgpPeerConfigId> edge : topologyContext.getBgpTopology().getGraph().edges()) {
+      addIfAdjacentToDirty(
+          active, dirtyNodes, edge.source().getHostname(), edge.target().getHostname());
+    }
+    for (EdgeId edge : topologyContext.getOspfTopology().edges()) {
+      addIfAdjacentToDirty(
+          active, dirtyNodes, edge.getTail().getHostname(), edge.getHead().getHostname());
+    }
+    for (EigrpEdge edge : topologyContext.getEigrpTopology().getNetwork().edges()) {
+      addIfAdjacentToDirty(
+          active, dirtyNodes, edge.getNode1().getHostname(), edge.getNode2().getHostname());
+    }
+    for (IsisEdge edge : topologyContext.getIsisTopology().getNetwork().edges()) {
+      addIfAdjacentToDirty(
+          active, dirtyNodes, edge.getNode1().getNode(), edge.getNode2().getNode());
+    }
+    for (EndpointPair<VxlanNode> edge : topologyContext.getVxlanTopology().getGraph().edges()) {
+      addIfAdjacentToDirty(
+          active, dirtyNodes, edge.nodeU().getHostname(), edge.nodeV().getHostname());
+    }
+    for (Edge edge : topologyContext.getLayer3Topology().getEdges()) {
+      addIfAdjacentToDirty(active, dirtyNodes, edge.getNode1(), edge.getNode2());
+    }
+    Set<String> activeNames = active.build();
+    return Maps.filterKeys(nodes, activeNames::contains);
+  }
+
+  private static void addIfAdjacentToDirty(
+      ImmutableSet.Builder<String> active, Set<String> dirtyNodes, String node1, String node2) {
+    if (dirtyNodes.contains(node1)) {
+      active.add(node2);
+    }
+    if (dirtyNodes.contains(node2)) {
+      active.add(node1);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.batfish.job;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Serializable;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+
+/**
+ * The output of a successful {@link ConvertConfigurationJob}, in a form that can be stored and
+ * reused to skip converting the same vendor configuration again.
+ */
+@ParametersAreNonnullByDefault
+public final class CachedConversion implements Serializable {
+
+  /** Extracts the reusable parts of a successful {@code result}. */
+  public static @Nonnull CachedConversion of(ConvertConfigurationResult result) {
+    checkArgument(
+        result.getConfigurations() != null, "Cannot cache a failed conversion: %s", result);
+    return new CachedConversion(
+        result.getName(),
+        result.getHistory(),
+        result.getConfigurations(),
+        result.getWarningsByHost(),
+        result.getAnswerElement());
+  }
+
+  /** Returns the name of the vendor configuration that was converted. */
+  public @Nonnull String getName() {
+    return _name;
+  }
+
+  /**
+   * Recreates the {@link ConvertConfigurationResult} this was extracted from, including the log
+   * messages recorded during the original conversion.
+   */
+  public @Nonnull ConvertConfigurationResult toResult(long elapsedTime) {
+    return new ConvertConfigurationResult(
+        elapsedTime,
+        _history,
+        _warningsByHost,
+        _name,
+        _configurations,
+        _answerElement);
+  }
+
+  private CachedConversion(
+      String name,
+      BatfishLoggerHistory history,
+      Map<String, Configuration> configurations,
+      Map<String, Warnings> warningsByHost,
+      ConvertConfigurationAnswerElement answerElement) {
+    _name = name;
+    _history = history;
+    _configurations = configurations;
+    _warningsByHost = warningsByHost;
+    _answerElement = answerElement;
+  }
+
+  private final @Nonnull String _name;
+  private final @Nonnull BatfishLoggerHistory _history;
+  private final @Nonnull Map<String, Configuration> _configurations;
+  private final @Nonnull Map<String, Warnings> _warningsByHost;
+  private final @Nonnull ConvertConfigurationAnswerElement _answerElement;
+}
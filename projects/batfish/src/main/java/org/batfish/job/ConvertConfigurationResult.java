@@ -97,6 +97,10 @@ public class ConvertConfigurationResult
     }
   }
 
+  public ConvertConfigurationAnswerElement getAnswerElement() {
+    return _answerElement;
+  }
+
   public Map<String, Configuration> getConfigurations() {
     return _configurations;
   }
@@ -110,6 +114,10 @@ public class ConvertConfigurationResult
     return _name;
   }
 
+  public Map<String, Warnings> getWarningsByHost() {
+    return _warningsByHost;
+  }
+
   @Override
   public String toString() {
     if (_configurations != null) {
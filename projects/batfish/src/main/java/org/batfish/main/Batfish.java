@@ -30,10 +30,15 @@ import static org.batfish.main.StreamDecoder.decodeStreamAndAppendNewline;
 import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
 import static org.batfish.vendor.check_point_management.parsing.CheckpointManagementParser.parseCheckpointManagementData;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -106,6 +111,7 @@ import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warning;
 import org.batfish.common.Warnings;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.common.plugin.BgpTablePlugin;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
@@ -145,6 +151,7 @@ import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.acl.AclLineMatchExpr;
@@ -198,7 +205,9 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.identifiers.StorageBasedIdResolver;
 import org.batfish.job.BatfishJobExecutor;
+import org.batfish.job.CachedConversion;
 import org.batfish.job.ConvertConfigurationJob;
+import org.batfish.job.ConvertConfigurationResult;
 import org.batfish.job.ParseEnvironmentBgpTableJob;
 import org.batfish.job.ParseResult;
 import org.batfish.job.ParseVendorConfigurationJob;
@@ -212,6 +221,7 @@ import org.batfish.question.differentialreachability.DifferentialReachabilityRes
 import org.batfish.question.multipath.MultipathConsistencyParameters;
 import org.batfish.referencelibrary.ReferenceLibrary;
 import org.batfish.representation.aws.AwsConfiguration;
+import org.batfish.representation.aws.Region;
 import org.batfish.representation.host.HostConfiguration;
 import org.batfish.representation.iptables.IptablesVendorConfiguration;
 import org.batfish.role.InferRoles;
@@ -248,6 +258,20 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private static final Pattern MANAGEMENT_VRFS =
       Pattern.compile("(\\Amgmt)|(\\Amanagement)", CASE_INSENSITIVE);
 
+  /**
+   * Per-snapshot locks, held while parsing, repairing, or computing the stored outputs of a
+   * snapshot (e.g., its configurations or data plane). Those outputs are shared by concurrent
+   * answer tasks in the same worker, so only one task may write them at a time. A lock is kept as
+   * long as some thread holds it.
+   */
+  private static final LoadingCache<NetworkSnapshot, Object> SNAPSHOT_LOCKS =
+      CacheBuilder.newBuilder().weakValues().build(CacheLoader.from(Object::new));
+
+  /** Returns the lock held while writing the stored outputs of {@code snapshot}. */
+  private static @Nonnull Object snapshotLock(NetworkSnapshot snapshot) {
+    return SNAPSHOT_LOCKS.getUnchecked(snapshot);
+  }
+
   static void checkTopology(Map<String, Configuration> configurations, Topology topology) {
     for (Edge edge : topology.getEdges()) {
       if (!configurations.containsKey(edge.getNode1())) {
@@ -437,6 +461,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
       _cachedVendorConfigurations;
 
+  private final Cache<NetworkSnapshot, SnapshotBddContext> _cachedBddContexts;
+
   private SnapshotId _referenceSnapshot;
 
   private Set<ExternalBgpAdvertisementPlugin> _externalBgpAdvertisementPlugins;
@@ -463,6 +489,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
       Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
       Cache<NetworkSnapshot, Map<String, VendorConfiguration>> cachedVendorConfigurations,
+      Cache<NetworkSnapshot, SnapshotBddContext> cachedBddContexts,
       @Nullable StorageProvider alternateStorageProvider,
       @Nullable IdResolver alternateIdResolver) {
     _settings = settings;
@@ -471,6 +498,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _cachedDataPlanes = cachedDataPlanes;
     _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
     _cachedVendorConfigurations = cachedVendorConfigurations;
+    _cachedBddContexts = cachedBddContexts;
     _externalBgpAdvertisementPlugins = new TreeSet<>();
     initLocalSettings(settings);
     _logger = _settings.getLogger();
@@ -480,7 +508,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _storage =
         alternateStorageProvider != null
             ? alternateStorageProvider
-            : new FileBasedStorage(_settings.getStorageBase(), _logger, this::newBatch);
+            : new FileBasedStorage(
+                _settings.getStorageBase(),
+                _logger,
+                this::newBatch,
+                _settings.getStorageFormatVersion());
     _idResolver =
         alternateIdResolver != null ? alternateIdResolver : new StorageBasedIdResolver(_storage);
     _topologyProvider = new TopologyProviderImpl(this, _storage);
@@ -707,6 +739,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
     // If already present, invalidate a dataplane for this snapshot.
     // (unlikely, only when devs force recomputation)
     _cachedDataPlanes.invalidate(snapshot);
+    // BDD artifacts built from the old dataplane are stale too.
+    _cachedBddContexts.invalidate(snapshot);
 
     // Reserve space for the new dataplane in the in-memory cache by inserting and invalidating a
     // dummy value.
@@ -721,15 +755,35 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     saveDataPlane(snapshot, dataplane, topologyContainer);
     LOGGER.info("Finished data plane computation successfully");
+    if (_settings.getPrecomputeReachabilityEdges()) {
+      precomputeReachabilityEdges(snapshot);
+    }
     return answerElement;
   }
 
+  /**
+   * Builds the query-independent edges of the snapshot's BDD reachability graph in its {@link
+   * SnapshotBddContext}, so reachability questions that follow in this process do not have to.
+   *
+   * <p>Nothing is persisted: the edges live only as long as the context, and are rebuilt by the
+   * first question after the context is dropped or the process restarts.
+   */
+  private void precomputeReachabilityEdges(NetworkSnapshot snapshot) {
+    LOGGER.info("Building BDD reachability edges");
+    long start = System.currentTimeMillis();
+    getBddContext(snapshot)
+        .compute(
+            ctx -> {
+              getBddReachabilityAnalysisFactory(snapshot, ctx, false).precomputeEdges();
+              return null;
+            });
+    LOGGER.info("Building BDD reachability edges took {}ms", System.currentTimeMillis() - start);
+  }
+
   /* Write the dataplane to disk and cache, and write the answer element to disk.
    */
   private void saveDataPlane(
       NetworkSnapshot snapshot, DataPlane dataplane, TopologyContainer topologies) {
-    _cachedDataPlanes.put(snapshot, dataplane);
-
     _logger.resetTimer();
     newBatch("Writing data plane to disk", 0);
     try {
@@ -747,6 +801,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
       _storage.storeOspfTopology(topologies.getOspfTopology(), snapshot);
       LOGGER.info("Storing VxLAN Topology");
       _storage.storeVxlanTopology(topologies.getVxlanTopology(), snapshot);
+      // Cache the data plane as loaded from storage, which loads hosts on demand, rather than the
+      // fully materialized one just computed.
+      _cachedDataPlanes.put(snapshot, _storage.loadDataPlane(snapshot));
     } catch (IOException e) {
       throw new BatfishException("Failed to save data plane", e);
     }
@@ -754,6 +811,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
   }
 
   private Map<String, Configuration> convertConfigurations(
+      NetworkSnapshot snapshot,
       Map<String, VendorConfiguration> vendorConfigurations,
       ConversionContext conversionContext,
       SnapshotRuntimeData runtimeData,
@@ -762,13 +820,32 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _logger.resetTimer();
     Map<String, Configuration> configurations = new TreeMap<>();
     List<ConvertConfigurationJob> jobs = new ArrayList<>();
+    String conversionInputsHash =
+        _settings.getConversionReuse()
+            ? hashConversionInputs(snapshot, runtimeData)
+            : null;
     for (Entry<String, VendorConfiguration> config : vendorConfigurations.entrySet()) {
       VendorConfiguration vc = config.getValue();
-      ConvertConfigurationJob job =
-          new ConvertConfigurationJob(
-              _settings, conversionContext, runtimeData, vc, config.getKey());
-      jobs.add(job);
+      String cacheKey =
+          conversionInputsHash != null ? conversionCacheKey(conversionInputsHash, vc) : null;
+      if (cacheKey == null) {
+        jobs.add(
+            new ConvertConfigurationJob(
+                _settings, conversionContext, runtimeData, vc, config.getKey()));
+        continue;
+      }
+      ConvertConfigurationResult cached = loadCachedConversion(cacheKey, config.getKey());
+      if (cached != null) {
+        cached.applyTo(configurations, _logger, answerElement);
+        continue;
+      }
+      jobs.add(
+          new CachingConvertConfigurationJob(
+              _settings, conversionContext, runtimeData, vc, config.getKey(), cacheKey));
     }
+    _logger.infof(
+        "Reusing conversion results for %s of %s vendor configurations\n",
+        vendorConfigurations.size() - jobs.size(), vendorConfigurations.size());
     BatfishJobExecutor.runJobsInExecutor(
         _settings,
         _logger,
@@ -781,6 +858,150 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return configurations;
   }
 
+  /**
+   * Returns a hash of everything other than the vendor configuration itself that conversion
+   * depends on, or {@code null} if it cannot be computed (in which case nothing is reused).
+   *
+   * <p>The {@link ConversionContext} is built from the checkpoint management input files, so their
+   * texts are hashed rather than the parsed context, whose serialized form is not stable across
+   * JVMs.
+   */
+  private @Nullable String hashConversionInputs(
+      NetworkSnapshot snapshot, @Nullable SnapshotRuntimeData runtimeData) {
+    try {
+      Hasher hasher =
+          Hashing.murmur3_128()
+              .newHasher()
+              .putString("Cached Conversion Result", UTF_8)
+              .putString(BatfishVersion.getVersionStatic(), UTF_8)
+              // Which warnings are recorded depends on the log level.
+              .putString(_settings.getLogLevel(), UTF_8);
+      try (Stream<String> keys = _storage.listInputCheckpointManagementKeys(snapshot)) {
+        readAllInputObjects(keys, snapshot)
+            .forEach(
+                (key, text) -> {
+                  hasher.putString(key, UTF_8);
+                  hasher.putString(text, UTF_8);
+                });
+      }
+      return hasher
+          .putString(
+              BatfishObjectMapper.writer()
+                  .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                  .writeValueAsString(runtimeData),
+              UTF_8)
+          .hash()
+          .toString();
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error hashing conversion inputs, not reusing conversion results: %s",
+          Throwables.getStackTraceAsString(e));
+      return null;
+    }
+  }
+
+  /**
+   * Returns the network blob ID under which the conversion of {@code vc} is cached, or {@code null}
+   * if the input files {@code vc} was parsed from are unknown.
+   *
+   * <p>The key is derived from the raw input file texts and parse settings recorded at parse time
+   * (see {@link VendorConfiguration#getInputHash()}) rather than from the parsed object, whose
+   * serialized form is not stable across JVMs. The hostname is included because parsing may rename
+   * configurations with duplicate hostnames.
+   */
+  private static @Nullable String conversionCacheKey(
+      String conversionInputsHash, VendorConfiguration vc) {
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString(conversionInputsHash, UTF_8)
+            .putString(vc.getHostname(), UTF_8);
+    if (!putInputHashes(hasher, vc)) {
+      return null;
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Adds to {@code hasher} the input hash of {@code vc} and of the configurations attached to it
+   * after parsing: its overlay and, for hosts, its iptables configuration. Returns {@code false} if
+   * any of them has no input hash.
+   */
+  private static boolean putInputHashes(Hasher hasher, @Nullable VendorConfiguration vc) {
+    if (vc == null) {
+      hasher.putBoolean(false);
+      return true;
+    }
+    String inputHash = vc.getInputHash();
+    if (inputHash == null) {
+      return false;
+    }
+    hasher.putBoolean(true).putString(inputHash, UTF_8);
+    IptablesVendorConfiguration iptables =
+        vc instanceof HostConfiguration ? ((HostConfiguration) vc).getIptablesVendorConfig() : null;
+    return putInputHashes(hasher, vc.getOverlayConfiguration()) && putInputHashes(hasher, iptables);
+  }
+
+  /**
+   * Returns the cached conversion result of the vendor configuration {@code name}, or {@code null}
+   * if there is none.
+   */
+  private @Nullable ConvertConfigurationResult loadCachedConversion(String cacheKey, String name) {
+    long startTime = System.currentTimeMillis();
+    CachedConversion cached;
+    try (InputStream in = _storage.loadNetworkBlob(getContainerName(), cacheKey)) {
+      cached = SerializationUtils.deserialize(in);
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error deserializing cached conversion result for %s: %s",
+          name, Throwables.getStackTraceAsString(e));
+      return null;
+    }
+    // sanity-check the name. In the extremely unlikely event of a collision, we'll lose reuse for
+    // this input.
+    if (!cached.getName().equals(name)) {
+      return null;
+    }
+    return cached.toResult(System.currentTimeMillis() - startTime);
+  }
+
+  /** A {@link ConvertConfigurationJob} that caches its result for later reuse, if successful. */
+  private final class CachingConvertConfigurationJob extends ConvertConfigurationJob {
+    private final String _cacheKey;
+
+    private CachingConvertConfigurationJob(
+        Settings settings,
+        @Nullable ConversionContext conversionContext,
+        @Nullable SnapshotRuntimeData runtimeData,
+        VendorConfiguration vc,
+        String name,
+        String cacheKey) {
+      super(settings, conversionContext, runtimeData, vc, name);
+      _cacheKey = cacheKey;
+    }
+
+    @Override
+    public ConvertConfigurationResult call() {
+      ConvertConfigurationResult result = super.call();
+      if (result.getConfigurations() == null) {
+        // Do not cache failures, so they are retried.
+        return result;
+      }
+      try {
+        byte[] serialized = SerializationUtils.serialize(CachedConversion.of(result));
+        _storage.storeNetworkBlob(
+            new ByteArrayInputStream(serialized), getContainerName(), _cacheKey);
+      } catch (Exception e) {
+        _logger.warnf(
+            "Error caching conversion result for %s: %s",
+            result.getName(), Throwables.getStackTraceAsString(e));
+      }
+      return result;
+    }
+  }
+
   @Override
   public boolean debugFlagEnabled(String flag) {
     return _settings.debugFlagEnabled(flag);
@@ -864,12 +1085,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   /** Returns a map of hostname to VI {@link Configuration} */
   public Map<String, Configuration> getConfigurations(
+      NetworkSnapshot snapshot,
       Map<String, VendorConfiguration> vendorConfigurations,
       ConversionContext conversionContext,
       SnapshotRuntimeData runtimeData,
       ConvertConfigurationAnswerElement answerElement) {
     Map<String, Configuration> configurations =
-        convertConfigurations(vendorConfigurations, conversionContext, runtimeData, answerElement);
+        convertConfigurations(
+            snapshot, vendorConfigurations, conversionContext, runtimeData, answerElement);
 
     identifyDeviceTypes(configurations.values());
     return configurations;
@@ -1025,12 +1248,18 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private void prepareToAnswerQuestions(NetworkSnapshot snapshot, boolean dp) {
     try {
-      if (!_storage.hasParseEnvironmentBgpTablesAnswerElement(snapshot)) {
-        computeEnvironmentBgpTables(snapshot);
+      if (isPreparedToAnswerQuestions(snapshot, dp)) {
+        return;
       }
-      if (dp && _cachedDataPlanes.getIfPresent(snapshot) == null) {
-        if (!_storage.hasDataPlane(snapshot)) {
-          computeDataPlane(snapshot);
+      // A worker may run several answer tasks at once; make sure only one of them computes.
+      synchronized (snapshotLock(snapshot)) {
+        if (!_storage.hasParseEnvironmentBgpTablesAnswerElement(snapshot)) {
+          computeEnvironmentBgpTables(snapshot);
+        }
+        if (dp && _cachedDataPlanes.getIfPresent(snapshot) == null) {
+          if (!_storage.hasDataPlane(snapshot)) {
+            computeDataPlane(snapshot);
+          }
         }
       }
     } catch (IOException e) {
@@ -1038,6 +1267,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  private boolean isPreparedToAnswerQuestions(NetworkSnapshot snapshot, boolean dp)
+      throws IOException {
+    return _storage.hasParseEnvironmentBgpTablesAnswerElement(snapshot)
+        && (!dp
+            || _cachedDataPlanes.getIfPresent(snapshot) != null
+            || _storage.hasDataPlane(snapshot));
+  }
+
   private void prepareToAnswerQuestions(boolean diff, boolean dp) {
     prepareToAnswerQuestions(getSnapshot(), dp);
     if (diff) {
@@ -1088,15 +1325,22 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   @Nonnull
   private SortedMap<String, Configuration> actuallyParseConfigurations(NetworkSnapshot snapshot) {
-    _logger.infof("Repairing configurations for testrig %s", snapshot.getSnapshot());
-    repairConfigurations(snapshot);
-    SortedMap<String, Configuration> configurations =
-        _storage.loadConfigurations(snapshot.getNetwork(), snapshot.getSnapshot());
-    verify(
-        configurations != null,
-        "Configurations should not be null when loaded immediately after repair.");
-    assert configurations != null;
-    return configurations;
+    synchronized (snapshotLock(snapshot)) {
+      // Another task may have parsed them while this one waited for the lock.
+      SortedMap<String, Configuration> configurations =
+          _storage.loadConfigurations(snapshot.getNetwork(), snapshot.getSnapshot());
+      if (configurations != null) {
+        return configurations;
+      }
+      _logger.infof("Repairing configurations for testrig %s", snapshot.getSnapshot());
+      repairConfigurations(snapshot);
+      configurations = _storage.loadConfigurations(snapshot.getNetwork(), snapshot.getSnapshot());
+      verify(
+          configurations != null,
+          "Configurations should not be null when loaded immediately after repair.");
+      assert configurations != null;
+      return configurations;
+    }
   }
 
   @Override
@@ -1109,10 +1353,19 @@ public class Batfish extends PluginConsumer implements IBatfish {
       return ccae;
     }
 
-    repairConfigurations(snapshot);
-    ccae =
-        _storage.loadConvertConfigurationAnswerElement(
-            snapshot.getNetwork(), snapshot.getSnapshot());
+    synchronized (snapshotLock(snapshot)) {
+      // Another task may have repaired them while this one waited for the lock.
+      ccae =
+          _storage.loadConvertConfigurationAnswerElement(
+              snapshot.getNetwork(), snapshot.getSnapshot());
+      if (ccae != null) {
+        return ccae;
+      }
+      repairConfigurations(snapshot);
+      ccae =
+          _storage.loadConvertConfigurationAnswerElement(
+              snapshot.getNetwork(), snapshot.getSnapshot());
+    }
     if (ccae != null) {
       return ccae;
     } else {
@@ -1142,6 +1395,26 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  @Override
+  public Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(NetworkSnapshot snapshot) {
+    try {
+      SnapshotMetadata metadata =
+          BatfishObjectMapper.mapper()
+              .readValue(
+                  _storage.loadSnapshotMetadata(snapshot.getNetwork(), snapshot.getSnapshot()),
+                  SnapshotMetadata.class);
+      SnapshotId parentId = metadata.getParentSnapshotId();
+      if (parentId == null) {
+        return Optional.empty();
+      }
+      NetworkSnapshot parent = new NetworkSnapshot(snapshot.getNetwork(), parentId);
+      return _storage.hasDataPlane(parent) ? Optional.of(parent) : Optional.empty();
+    } catch (IOException e) {
+      LOGGER.warn("Could not determine parent of snapshot {}", snapshot, e);
+      return Optional.empty();
+    }
+  }
+
   @Override
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(
       NetworkSnapshot snapshot) {
@@ -1162,7 +1435,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   public ParseEnvironmentBgpTablesAnswerElement loadParseEnvironmentBgpTablesAnswerElement(
       NetworkSnapshot snapshot) {
-    return loadParseEnvironmentBgpTablesAnswerElement(snapshot, true);
+    // Held throughout, since loading may repair the stored tables.
+    synchronized (snapshotLock(snapshot)) {
+      return loadParseEnvironmentBgpTablesAnswerElement(snapshot, true);
+    }
   }
 
   private ParseEnvironmentBgpTablesAnswerElement loadParseEnvironmentBgpTablesAnswerElement(
@@ -1194,7 +1470,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Override
   public ParseVendorConfigurationAnswerElement loadParseVendorConfigurationAnswerElement(
       NetworkSnapshot snapshot) {
-    return loadParseVendorConfigurationAnswerElement(snapshot, true);
+    // Held throughout, since loading may repair the stored vendor configurations.
+    synchronized (snapshotLock(snapshot)) {
+      return loadParseVendorConfigurationAnswerElement(snapshot, true);
+    }
   }
 
   private ParseVendorConfigurationAnswerElement loadParseVendorConfigurationAnswerElement(
@@ -1310,25 +1589,36 @@ public class Batfish extends PluginConsumer implements IBatfish {
       // - answering a question
       // - question successful
       // - client did not request full successful answers
-      String answerString = BatfishObjectMapper.writeString(answer);
       boolean summarizeWorkJsonLogAnswer =
           writeLog
               && _settings.getQuestionName() != null
               && !_settings.getAlwaysIncludeAnswerInWorkJsonLog()
               && answer.getStatus() == AnswerStatus.SUCCESS;
-      String workJsonLogAnswerString;
-      if (summarizeWorkJsonLogAnswer) {
-        Answer summaryAnswer = new Answer();
-        summaryAnswer.setQuestion(answer.getQuestion());
-        summaryAnswer.setStatus(answer.getStatus());
-        summaryAnswer.setSummary(answer.getSummary());
-        // do not include answer elements
-        workJsonLogAnswerString = BatfishObjectMapper.writeString(summaryAnswer);
-      } else {
-        workJsonLogAnswerString = answerString;
+      // The full answer can be very large, so only serialize it to a string when it is needed
+      // for logging. Otherwise it is streamed directly to storage.
+      boolean logAnswer = _logger.isActive(BatfishLogger.LEVEL_DEBUG);
+      String answerString =
+          logAnswer || (writeLog && !summarizeWorkJsonLogAnswer)
+              ? BatfishObjectMapper.writeString(answer)
+              : null;
+      if (writeLog) {
+        String workJsonLogAnswerString;
+        if (summarizeWorkJsonLogAnswer) {
+          Answer summaryAnswer = new Answer();
+          summaryAnswer.setQuestion(answer.getQuestion());
+          summaryAnswer.setStatus(answer.getStatus());
+          summaryAnswer.setSummary(answer.getSummary());
+          // do not include answer elements
+          workJsonLogAnswerString = BatfishObjectMapper.writeString(summaryAnswer);
+        } else {
+          workJsonLogAnswerString = answerString;
+        }
+        writeWorkJsonLog(workJsonLogAnswerString);
       }
-      _logger.debug(answerString);
-      writeJsonAnswerWithLog(answerString, workJsonLogAnswerString, writeLog);
+      if (logAnswer) {
+        _logger.debug(answerString);
+      }
+      writeJsonAnswer(answer);
     } catch (Exception e) {
       BatfishException be = new BatfishException("Error in sending answer", e);
       try {
@@ -1373,10 +1663,38 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Nonnull
   public static AwsConfiguration parseAwsConfigurations(
       Map<String, String> configurationData, ParseVendorConfigurationAnswerElement pvcae) {
+    return parseAwsConfigurations(
+        configurationData.keySet(),
+        key -> new ByteArrayInputStream(configurationData.get(key).getBytes(UTF_8)),
+        pvcae);
+  }
+
+  /** Opens the content of the input object with a given key. */
+  @FunctionalInterface
+  interface InputObjectOpener {
+    @Nonnull
+    InputStream open(String key) throws IOException;
+  }
+
+  /**
+   * Parse AWS configurations for one or more accounts, streaming the content of each key from
+   * {@code opener} rather than reading whole files into memory.
+   *
+   * <p>Regions are parsed in parallel. The files of a single region are parsed one at a time, in
+   * the order of {@code keys}.
+   */
+  @Nonnull
+  static AwsConfiguration parseAwsConfigurations(
+      Collection<String> keys,
+      InputObjectOpener opener,
+      ParseVendorConfigurationAnswerElement pvcae) {
     AwsConfiguration config = new AwsConfiguration();
-    for (Entry<String, String> configFile : configurationData.entrySet()) {
+    // account -> region -> (key, file name) of each file in that region
+    Table<String, String, List<SimpleEntry<String, String>>> filesByRegion =
+        HashBasedTable.create();
+    for (String key : keys) {
       // Using path for convenience for now to handle separators and key hierarchcially gracefully
-      Path path = Paths.get(configFile.getKey());
+      Path path = Paths.get(key);
 
       // Find the place in the path where "aws_configs" starts
       int awsRootIndex = 0;
@@ -1410,18 +1728,72 @@ public class Batfish extends PluginConsumer implements IBatfish {
       String fileName = path.subpath(awsRootIndex, pathLength).toString();
       pvcae.getFileMap().put(BfConsts.RELPATH_AWS_CONFIGS_FILE, fileName);
 
-      try {
-        JsonNode json = BatfishObjectMapper.mapper().readTree(configFile.getValue());
-        config.addConfigElement(regionName, json, fileName, pvcae, accountName);
-      } catch (IOException e) {
-        pvcae.addRedFlagWarning(
-            BfConsts.RELPATH_AWS_CONFIGS_FILE,
-            new Warning(String.format("Unexpected content in AWS file %s", fileName), "AWS"));
+      List<SimpleEntry<String, String>> files = filesByRegion.get(accountName, regionName);
+      if (files == null) {
+        files = new ArrayList<>();
+        filesByRegion.put(accountName, regionName, files);
       }
+      files.add(new SimpleEntry<>(key, fileName));
+    }
+
+    // Create every account and region up front, so that parsing only modifies a single region
+    List<SimpleEntry<Region, List<SimpleEntry<String, String>>>> regions =
+        filesByRegion.cellSet().stream()
+            .map(
+                cell ->
+                    new SimpleEntry<>(
+                        config
+                            .addOrGetAccount(cell.getRowKey())
+                            .addOrGetRegion(cell.getColumnKey()),
+                        cell.getValue()))
+            .collect(ImmutableList.toImmutableList());
+
+    // Warnings are collected per region and merged afterward, since pvcae is not thread-safe
+    List<ParseVendorConfigurationAnswerElement> regionPvcaes =
+        regions.parallelStream()
+            .map(
+                regionFiles -> {
+                  ParseVendorConfigurationAnswerElement regionPvcae =
+                      new ParseVendorConfigurationAnswerElement();
+                  for (SimpleEntry<String, String> file : regionFiles.getValue()) {
+                    parseAwsFile(
+                        regionFiles.getKey(), opener, file.getKey(), file.getValue(), regionPvcae);
+                  }
+                  return regionPvcae;
+                })
+            .collect(ImmutableList.toImmutableList());
+    for (ParseVendorConfigurationAnswerElement regionPvcae : regionPvcaes) {
+      regionPvcae
+          .getWarnings()
+          .forEach(
+              (name, warnings) -> {
+                warnings.getRedFlagWarnings().forEach(w -> pvcae.addRedFlagWarning(name, w));
+                warnings
+                    .getUnimplementedWarnings()
+                    .forEach(w -> pvcae.addUnimplementedWarning(name, w));
+              });
     }
     return config;
   }
 
+  /** Streams the AWS file with the given key into {@code region}. */
+  private static void parseAwsFile(
+      Region region,
+      InputObjectOpener opener,
+      String key,
+      String fileName,
+      ParseVendorConfigurationAnswerElement pvcae) {
+    // Jackson detects the UTF-8/16/32 encoding and byte order mark of the raw stream itself
+    try (InputStream inputStream = opener.open(key);
+        JsonParser parser = BatfishObjectMapper.mapper().getFactory().createParser(inputStream)) {
+      region.addConfigElements(parser, fileName, pvcae);
+    } catch (IOException e) {
+      pvcae.addRedFlagWarning(
+          BfConsts.RELPATH_AWS_CONFIGS_FILE,
+          new Warning(String.format("Unexpected content in AWS file %s", fileName), "AWS"));
+    }
+  }
+
   private SortedMap<String, BgpAdvertisementsByVrf> parseEnvironmentBgpTables(
       NetworkSnapshot snapshot,
       SortedMap<String, String> inputData,
@@ -2110,19 +2482,28 @@ public class Batfish extends PluginConsumer implements IBatfish {
     AwsConfiguration awsConfiguration;
     boolean found = false;
     try {
-      Map<String, String> awsConfigurationData;
+      List<String> awsConfigurationKeys;
       // Try to parse all accounts as one vendor configuration
       try (Stream<String> keys = _storage.listInputAwsMultiAccountKeys(snapshot)) {
-        awsConfigurationData = readAllInputObjects(keys, snapshot);
+        awsConfigurationKeys = keys.sorted().collect(ImmutableList.toImmutableList());
       }
-      if (awsConfigurationData.isEmpty()) {
+      if (awsConfigurationKeys.isEmpty()) {
         // No multi-account data, so try to parse as single-account
         try (Stream<String> keys = _storage.listInputAwsSingleAccountKeys(snapshot)) {
-          awsConfigurationData = readAllInputObjects(keys, snapshot);
+          awsConfigurationKeys = keys.sorted().collect(ImmutableList.toImmutableList());
         }
       }
-      found = !awsConfigurationData.isEmpty();
-      awsConfiguration = parseAwsConfigurations(awsConfigurationData, pvcae);
+      found = !awsConfigurationKeys.isEmpty();
+      // Files are streamed while parsing, rather than read into memory up front
+      awsConfiguration =
+          parseAwsConfigurations(
+              awsConfigurationKeys,
+              key -> {
+                _logger.debugf("Reading: \"%s\"\n", key);
+                return _storage.loadSnapshotInputObject(
+                    snapshot.getNetwork(), snapshot.getSnapshot(), key);
+              },
+              pvcae);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -2283,7 +2664,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
     try {
       vendorConfigs = _storage.loadVendorConfigurations(snapshot);
       configurations =
-          getConfigurations(vendorConfigs, conversionContext, runtimeData, answerElement);
+          getConfigurations(
+              snapshot, vendorConfigs, conversionContext, runtimeData, answerElement);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -2419,29 +2801,13 @@ public class Batfish extends PluginConsumer implements IBatfish {
       long startTime = System.currentTimeMillis();
       ParseResult result = job.parse();
       long elapsed = System.currentTimeMillis() - startTime;
+      if (_settings.getConversionReuse()) {
+        recordInputHash(result, hashParseInputs(job, settings));
+      }
       return job.fromResult(result, elapsed);
     }
 
-    Hasher hasher =
-        Hashing.murmur3_128()
-            .newHasher()
-            .putString("Cached Parse Result", UTF_8)
-            .putBoolean(settings.getDisableUnrecognized())
-            .putInt(settings.getMaxParserContextLines())
-            .putInt(settings.getMaxParserContextTokens())
-            .putInt(settings.getMaxParseTreePrintLength())
-            .putBoolean(settings.getPrintParseTreeLineNums())
-            .putBoolean(settings.getPrintParseTree())
-            .putBoolean(settings.getThrowOnLexerError())
-            .putBoolean(settings.getThrowOnParserError());
-    job.getFileTexts().keySet().stream()
-        .sorted()
-        .forEach(
-            filename -> {
-              hasher.putString(filename, UTF_8);
-              hasher.putString(job.getFileTexts().get(filename), UTF_8);
-            });
-    String id = hasher.hash().toString();
+    String id = hashParseInputs(job, settings);
     long startTime = System.currentTimeMillis();
     boolean cached = false;
     ParseResult result;
@@ -2469,10 +2835,47 @@ public class Batfish extends PluginConsumer implements IBatfish {
             job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
       }
     }
+    recordInputHash(result, id);
     long elapsed = System.currentTimeMillis() - startTime;
     return job.fromResult(result, elapsed);
   }
 
+  /**
+   * Returns a hash of the file texts of {@code job} and of the grammar {@code settings}, which
+   * together determine the result of parsing.
+   */
+  private static @Nonnull String hashParseInputs(
+      ParseVendorConfigurationJob job, GrammarSettings settings) {
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString("Cached Parse Result", UTF_8)
+            .putBoolean(settings.getDisableUnrecognized())
+            .putInt(settings.getMaxParserContextLines())
+            .putInt(settings.getMaxParserContextTokens())
+            .putInt(settings.getMaxParseTreePrintLength())
+            .putBoolean(settings.getPrintParseTreeLineNums())
+            .putBoolean(settings.getPrintParseTree())
+            .putBoolean(settings.getThrowOnLexerError())
+            .putBoolean(settings.getThrowOnParserError());
+    job.getFileTexts().keySet().stream()
+        .sorted()
+        .forEach(
+            filename -> {
+              hasher.putString(filename, UTF_8);
+              hasher.putString(job.getFileTexts().get(filename), UTF_8);
+            });
+    return hasher.hash().toString();
+  }
+
+  /** Records {@code inputHash} on the vendor configuration parsed in {@code result}, if any. */
+  private static void recordInputHash(ParseResult result, String inputHash) {
+    VendorConfiguration vc = result.getConfig();
+    if (vc != null) {
+      vc.setInputHash(inputHash);
+    }
+  }
+
   /**
    * Parses configuration files for networking devices from the uploaded user data and produces
    * {@link VendorConfiguration vendor-specific configurations} serialized to the given output path.
@@ -2863,37 +3266,43 @@ public class Batfish extends PluginConsumer implements IBatfish {
         params.getSrcNatted() == SrcNattedConstraint.UNCONSTRAINED,
         "Requiring or forbidding Source NAT is currently unsupported");
 
-    BDDPacket pkt = new BDDPacket();
     boolean ignoreFilters = params.getIgnoreFilters();
-    BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
-
-    Map<IngressLocation, BDD> reachableBDDs =
-        bddReachabilityAnalysisFactory.getAllBDDs(
-            params.getSourceIpAssignment(),
-            params.getHeaderSpace(),
-            params.getForbiddenTransitNodes(),
-            params.getRequiredTransitNodes(),
-            params.getFinalNodes(),
-            params.getActions());
-
-    Set<Flow> flows = constructFlows(pkt, reachableBDDs);
+    Set<Flow> flows =
+        getBddContext(snapshot)
+            .compute(
+                ctx -> {
+                  Map<IngressLocation, BDD> reachableBDDs =
+                      getBddReachabilityAnalysisFactory(snapshot, ctx, ignoreFilters)
+                          .getAllBDDs(
+                              params.getSourceIpAssignment(),
+                              params.getHeaderSpace(),
+                              params.getForbiddenTransitNodes(),
+                              params.getRequiredTransitNodes(),
+                              params.getFinalNodes(),
+                              params.getActions());
+                  return constructFlows(ctx.getPacket(), reachableBDDs);
+                });
 
     return new TraceWrapperAsAnswerElement(buildFlows(snapshot, flows, ignoreFilters));
   }
 
   @Override
   public Set<Flow> bddLoopDetection(NetworkSnapshot snapshot) {
-    BDDPacket pkt = new BDDPacket();
     // TODO add ignoreFilters parameter
     boolean ignoreFilters = false;
-    BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
-    BDDLoopDetectionAnalysis analysis =
-        bddReachabilityAnalysisFactory.bddLoopDetectionAnalysis(
-            getAllSourcesInferFromLocationIpSpaceAssignment(snapshot));
-    Map<IngressLocation, BDD> loopBDDs = analysis.detectLoops();
+    IpSpaceAssignment srcIpSpaceAssignment =
+        getAllSourcesInferFromLocationIpSpaceAssignment(snapshot);
+    return getBddContext(snapshot)
+        .compute(
+            ctx -> {
+              BDDLoopDetectionAnalysis analysis =
+                  getBddReachabilityAnalysisFactory(snapshot, ctx, ignoreFilters)
+                      .bddLoopDetectionAnalysis(srcIpSpaceAssignment);
+              return loopFlows(ctx.getPacket(), analysis.detectLoops());
+            });
+  }
 
+  private static Set<Flow> loopFlows(BDDPacket pkt, Map<IngressLocation, BDD> loopBDDs) {
     return loopBDDs.entrySet().stream()
         .map(
             entry ->
@@ -2921,11 +3330,21 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Override
   public Set<Flow> bddMultipathConsistency(
       NetworkSnapshot snapshot, MultipathConsistencyParameters parameters) {
-    BDDPacket pkt = new BDDPacket();
     // TODO add ignoreFilters parameter
     boolean ignoreFilters = false;
-    BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+    return getBddContext(snapshot)
+        .compute(
+            ctx ->
+                multipathInconsistencies(
+                    ctx.getPacket(),
+                    getBddReachabilityAnalysisFactory(snapshot, ctx, ignoreFilters),
+                    parameters));
+  }
+
+  private static Set<Flow> multipathInconsistencies(
+      BDDPacket pkt,
+      BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory,
+      MultipathConsistencyParameters parameters) {
     IpSpaceAssignment srcIpSpaceAssignment = parameters.getSrcIpSpaceAssignment();
     Set<String> finalNodes = parameters.getFinalNodes();
     Set<FlowDisposition> failureDispositions =
@@ -2977,6 +3396,39 @@ public class Batfish extends PluginConsumer implements IBatfish {
         locations, specifierContext);
   }
 
+  @Nonnull
+  @Override
+  public SnapshotBddContext getBddContext(NetworkSnapshot snapshot) {
+    SnapshotBddContext ctx;
+    try {
+      ctx = _cachedBddContexts.get(snapshot, SnapshotBddContext::new);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+    if (ctx.isExhausted()) {
+      LOGGER.info("Replacing exhausted BDD context for snapshot {}", snapshot);
+      // Questions still using the old context can finish with it.
+      _cachedBddContexts.asMap().remove(snapshot, ctx);
+      return getBddContext(snapshot);
+    }
+    return ctx;
+  }
+
+  /**
+   * Returns the {@link BDDReachabilityAnalysisFactory} for the snapshot in the given context,
+   * building it the first time it is requested with these parameters. Must be called inside {@link
+   * SnapshotBddContext#compute}.
+   */
+  @VisibleForTesting
+  @Nonnull
+  BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
+      NetworkSnapshot snapshot, SnapshotBddContext ctx, boolean ignoreFilters) {
+    return ctx.getArtifact(
+        ImmutableList.of(BDDReachabilityAnalysisFactory.class, ignoreFilters),
+        BDDReachabilityAnalysisFactory.class,
+        () -> getBddReachabilityAnalysisFactory(snapshot, ctx.getPacket(), ignoreFilters));
+  }
+
   @Nonnull
   private BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
       NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters) {
@@ -3102,32 +3554,47 @@ public class Batfish extends PluginConsumer implements IBatfish {
         .collect(ImmutableSet.toImmutableSet());
   }
 
-  private void writeJsonAnswer(String structuredAnswerString) throws IOException {
+  private @Nullable AnswerId getAnswerIdToWrite() {
+    QuestionId questionId = _settings.getQuestionName();
+    if (questionId == null) {
+      // Only write an answer if WorkItem was answering a question
+      return null;
+    }
     SnapshotId referenceSnapshot = _settings.getDiffQuestion() ? _referenceSnapshot : null;
     NetworkId networkId = _settings.getContainer();
-    QuestionId questionId = _settings.getQuestionName();
     NodeRolesId networkNodeRolesId =
         _idResolver
             .getNetworkNodeRolesId(networkId)
             .orElse(NodeRolesId.DEFAULT_NETWORK_NODE_ROLES_ID);
-    AnswerId baseAnswerId =
-        _idResolver.getAnswerId(
-            networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot);
-    _storage.storeAnswer(networkId, _snapshot, structuredAnswerString, baseAnswerId);
+    return _idResolver.getAnswerId(
+        networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot);
   }
 
-  private void writeJsonAnswerWithLog(
-      String answerOutput, String workJsonLogAnswerString, boolean writeLog) throws IOException {
-    if (writeLog && _settings.getTaskId() != null) {
+  private void writeJsonAnswer(Answer answer) throws IOException {
+    AnswerId answerId = getAnswerIdToWrite();
+    if (answerId != null) {
+      _storage.storeAnswer(_settings.getContainer(), _snapshot, answer, answerId);
+    }
+  }
+
+  private void writeWorkJsonLog(String workJsonLogAnswerString) throws IOException {
+    if (_settings.getTaskId() != null) {
       _storage.storeWorkJson(
           workJsonLogAnswerString,
           _settings.getContainer(),
           _settings.getTestrig(),
           _settings.getTaskId());
     }
-    // Write answer if WorkItem was answering a question
-    if (_settings.getQuestionName() != null) {
-      writeJsonAnswer(answerOutput);
+  }
+
+  private void writeJsonAnswerWithLog(
+      String answerOutput, String workJsonLogAnswerString, boolean writeLog) throws IOException {
+    if (writeLog) {
+      writeWorkJsonLog(workJsonLogAnswerString);
+    }
+    AnswerId answerId = getAnswerIdToWrite();
+    if (answerId != null) {
+      _storage.storeAnswer(_settings.getContainer(), _snapshot, answerOutput, answerId);
     }
   }
 
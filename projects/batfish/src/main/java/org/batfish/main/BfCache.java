@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.SortedMap;
 import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
@@ -14,6 +15,8 @@ import org.batfish.vendor.VendorConfiguration;
 
 /** Internal caches. */
 public final class BfCache {
+  public static final Cache<NetworkSnapshot, SnapshotBddContext> CACHED_BDD_CONTEXTS =
+      buildBddContextCache();
   public static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
   public static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
@@ -22,7 +25,18 @@ public final class BfCache {
   public static final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
       CACHED_VENDOR_CONFIGURATIONS = buildVendorConfigurationCache();
 
-  private static final int MAX_CACHED_DATA_PLANES = 2;
+  /**
+   * BDD contexts can hold ACL, FIB, and reachability graph BDDs for the whole network, so only the
+   * snapshots most recently asked about keep theirs.
+   */
+  private static final int MAX_CACHED_BDD_CONTEXTS = 2;
+
+  /**
+   * Cached data planes are always loaded from storage, even right after they are computed. They
+   * hold their hosts in soft references and load them on demand, so several snapshots fit in the
+   * space that one fully loaded data plane used to take.
+   */
+  private static final int MAX_CACHED_DATA_PLANES = 8;
 
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
 
@@ -32,6 +46,10 @@ public final class BfCache {
 
   private BfCache() {}
 
+  static Cache<NetworkSnapshot, SnapshotBddContext> buildBddContextCache() {
+    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_BDD_CONTEXTS).build();
+  }
+
   static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
   }
@@ -1,9 +1,12 @@
 package org.batfish.main;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.Date;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
@@ -31,7 +34,11 @@ public class Driver {
     WORKSERVICE,
   }
 
-  private static boolean _idle = true;
+  /** Number of read-only answer tasks currently running. See {@link #isSharedTask(Settings)}. */
+  private static int _runningSharedTasks = 0;
+
+  /** Whether a task that needs the worker to itself (e.g., parsing) is currently running. */
+  private static boolean _exclusiveTaskRunning = false;
 
   private static BatfishLogger _mainLogger = null;
 
@@ -42,13 +49,54 @@ public class Driver {
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
+  /**
+   * Tries to claim a task slot. Any number of shared tasks up to {@code maxSharedTasks} may run
+   * together, but an exclusive task only runs when no other task is running.
+   *
+   * @return {@code true} iff the slot was claimed, in which case the caller must later call {@link
+   *     #releaseSlot(boolean)}.
+   */
+  @VisibleForTesting
+  static synchronized boolean claimSlot(boolean shared, int maxSharedTasks) {
+    if (_exclusiveTaskRunning) {
+      return false;
+    }
+    if (shared) {
+      if (_runningSharedTasks >= maxSharedTasks) {
+        return false;
+      }
+      _runningSharedTasks++;
       return true;
     }
+    if (_runningSharedTasks > 0) {
+      return false;
+    }
+    _exclusiveTaskRunning = true;
+    return true;
+  }
 
-    return false;
+  @VisibleForTesting
+  static synchronized void releaseSlot(boolean shared) {
+    if (shared) {
+      assert _runningSharedTasks > 0;
+      _runningSharedTasks--;
+    } else {
+      assert _exclusiveTaskRunning;
+      _exclusiveTaskRunning = false;
+    }
+  }
+
+  /**
+   * Returns {@code true} iff the task only answers questions, so it can run alongside other such
+   * tasks and share the in-memory caches in {@link BfCache}. Tasks that parse snapshots or compute
+   * data planes need the worker to themselves.
+   */
+  @VisibleForTesting
+  static boolean isSharedTask(Settings settings) {
+    return (settings.getAnswer() || settings.getInitInfo())
+        && !settings.getDataPlane()
+        && !settings.getSerializeIndependent()
+        && !settings.getSerializeVendor();
   }
 
   @Deprecated
@@ -123,11 +171,15 @@ public class Driver {
         public LaunchResult runTask(String taskId, String[] args) {
           return runBatfishThroughService(taskId, args);
         }
-      };
 
-  private static synchronized void makeIdle() {
-    _idle = true;
-  }
+        @Override
+        public Set<NetworkSnapshot> getCachedSnapshots() {
+          return ImmutableSet.<NetworkSnapshot>builder()
+              .addAll(BfCache.CACHED_TESTRIGS.asMap().keySet())
+              .addAll(BfCache.CACHED_DATA_PLANES.asMap().keySet())
+              .build();
+        }
+      };
 
   @SuppressWarnings("deprecation")
   private static String runBatfish(Settings settings) {
@@ -142,6 +194,7 @@ public class Driver {
               BfCache.CACHED_DATA_PLANES,
               BfCache.CACHED_ENVIRONMENT_BGP_TABLES,
               BfCache.CACHED_VENDOR_CONFIGURATIONS,
+              BfCache.CACHED_BDD_CONTEXTS,
               null,
               null);
 
@@ -251,11 +304,12 @@ public class Driver {
       return LaunchResult.error("Non-executable command");
     }
 
-    if (!claimIdle()) {
+    boolean shared = isSharedTask(settings);
+    if (!claimSlot(shared, settings.getMaxConcurrentAnswerTasks())) {
       return LaunchResult.busy();
     }
 
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that the slot is released in case of problem submitting thread.
     try {
 
       BatfishLogger jobLogger =
@@ -266,7 +320,7 @@ public class Driver {
 
       BatchManager.get().logTask(taskId, task);
 
-      // run batfish on a new thread and set idle to true when done
+      // run batfish on a new thread and release the slot when done
       Thread thread =
           new Thread(
               () -> {
@@ -280,7 +334,7 @@ public class Driver {
                 }
                 task.setTerminated(new Date());
                 jobLogger.close();
-                makeIdle();
+                releaseSlot(shared);
               });
 
       thread.start();
@@ -288,7 +342,7 @@ public class Driver {
       return LaunchResult.launched();
     } catch (Exception e) {
       _mainLogger.error("Exception while launching task: " + e.getMessage());
-      makeIdle();
+      releaseSlot(shared);
       return LaunchResult.error(e.getMessage());
     }
   }
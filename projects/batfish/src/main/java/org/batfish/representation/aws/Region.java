@@ -7,6 +7,9 @@ import static org.batfish.representation.aws.AwsConfiguration.AWS_SERVICES_GATEW
 import static org.batfish.representation.aws.ElasticsearchDomain.getNodeName;
 import static org.batfish.representation.aws.Utils.getTraceElementForSecurityGroup;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.annotations.VisibleForTesting;
@@ -261,40 +264,126 @@ public final class Region implements Serializable {
         if (json.get(key).isArray() && json.get(key).size() == 0) {
           continue;
         }
-        pvcae.addUnimplementedWarning(
-            BfConsts.RELPATH_AWS_CONFIGS_FILE,
-            new Warning(
-                String.format("Unrecognized element '%s' in AWS file %s", key, sourceFileName),
-                "AWS"));
+        warnUnrecognizedElement(key, sourceFileName, pvcae);
         continue;
       }
       if (!json.get(key).isArray()) {
-        pvcae.addRedFlagWarning(
-            BfConsts.RELPATH_AWS_CONFIGS_FILE,
-            new Warning(
-                String.format(
-                    "Unexpected JSON for element '%s' in AWS file %s. Expected a list.",
-                    key, sourceFileName),
-                "AWS"));
+        warnNotAList(key, sourceFileName, pvcae);
+        continue;
       }
 
       ArrayNode array = (ArrayNode) json.get(key);
       for (int index = 0; index < array.size(); index++) {
-        try {
-          integratorFunction.accept(array.get(index));
-        } catch (IOException | IllegalArgumentException e) {
-          pvcae.addRedFlagWarning(
-              BfConsts.RELPATH_AWS_CONFIGS_FILE,
-              new Warning(
-                  String.format(
-                      "Exception while parsing '%s' in AWS file %s: %s",
-                      key, sourceFileName, e.getMessage()),
-                  "AWS"));
+        addChild(key, integratorFunction, array.get(index), sourceFileName, pvcae);
+      }
+    }
+  }
+
+  /**
+   * Reads the top-level object of an AWS file from {@code parser} and adds its elements to this
+   * region, with the same result and warnings as {@link #addConfigElement}.
+   *
+   * <p>The file is never held in memory as a whole: each child of a top-level list is read as a
+   * tree and integrated before the next one is read, and ignored or unrecognized elements are
+   * skipped without being read.
+   *
+   * @throws IOException if the content is not a JSON object. Elements read before the malformed
+   *     content remain in this region.
+   */
+  public void addConfigElements(
+      JsonParser parser, String sourceFileName, ParseVendorConfigurationAnswerElement pvcae)
+      throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Expected a JSON object");
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+
+      if (ignoreElement(key)) {
+        parser.skipChildren();
+        continue;
+      }
+
+      ThrowingConsumer<JsonNode, IOException> integratorFunction = getChildConsumer(key);
+
+      if (integratorFunction == null) {
+        // Add warning for unrecognized key in AWS file but don't warn if there is no data
+        if (value == JsonToken.START_ARRAY && parser.nextToken() == JsonToken.END_ARRAY) {
+          continue;
         }
+        warnUnrecognizedElement(key, sourceFileName, pvcae);
+        skipRestOfValue(parser, value);
+        continue;
+      }
+      if (value != JsonToken.START_ARRAY) {
+        warnNotAList(key, sourceFileName, pvcae);
+        parser.skipChildren();
+        continue;
+      }
+
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        JsonNode child = parser.readValueAsTree();
+        addChild(key, integratorFunction, child, sourceFileName, pvcae);
       }
     }
   }
 
+  /**
+   * Skips the rest of a value whose first token was {@code value}, when the parser may have been
+   * advanced to the first element of an array.
+   */
+  private static void skipRestOfValue(JsonParser parser, JsonToken value) throws IOException {
+    if (value != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    // The parser is on the first element of a non-empty array
+    do {
+      parser.skipChildren();
+    } while (parser.nextToken() != JsonToken.END_ARRAY);
+  }
+
+  /** Integrates one child of the top-level element {@code key}, warning if it is malformed. */
+  private static void addChild(
+      String key,
+      ThrowingConsumer<JsonNode, IOException> integratorFunction,
+      JsonNode child,
+      String sourceFileName,
+      ParseVendorConfigurationAnswerElement pvcae) {
+    try {
+      integratorFunction.accept(child);
+    } catch (IOException | IllegalArgumentException e) {
+      pvcae.addRedFlagWarning(
+          BfConsts.RELPATH_AWS_CONFIGS_FILE,
+          new Warning(
+              String.format(
+                  "Exception while parsing '%s' in AWS file %s: %s",
+                  key, sourceFileName, e.getMessage()),
+              "AWS"));
+    }
+  }
+
+  private static void warnUnrecognizedElement(
+      String key, String sourceFileName, ParseVendorConfigurationAnswerElement pvcae) {
+    pvcae.addUnimplementedWarning(
+        BfConsts.RELPATH_AWS_CONFIGS_FILE,
+        new Warning(
+            String.format("Unrecognized element '%s' in AWS file %s", key, sourceFileName),
+            "AWS"));
+  }
+
+  private static void warnNotAList(
+      String key, String sourceFileName, ParseVendorConfigurationAnswerElement pvcae) {
+    pvcae.addRedFlagWarning(
+        BfConsts.RELPATH_AWS_CONFIGS_FILE,
+        new Warning(
+            String.format(
+                "Unexpected JSON for element '%s' in AWS file %s. Expected a list.",
+                key, sourceFileName),
+            "AWS"));
+  }
+
   public static RegionBuilder builder(String name) {
     return new RegionBuilder(name);
   }
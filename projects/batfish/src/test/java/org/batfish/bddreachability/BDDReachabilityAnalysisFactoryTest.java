@@ -46,6 +46,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -58,6 +59,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Streams;
+import com.google.common.collect.Table;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +72,7 @@ import javax.annotation.Nonnull;
 import net.sf.javabdd.BDD;
 import org.batfish.bddreachability.transition.AddOutgoingOriginalFlowFiltersConstraint;
 import org.batfish.bddreachability.transition.Transition;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.HeaderSpaceToBDD;
 import org.batfish.common.bdd.IpSpaceToBDD;
@@ -517,6 +520,35 @@ public final class BDDReachabilityAnalysisFactoryTest {
     assertThat(flowDispositions, contains(FlowDisposition.LOOP));
   }
 
+  @Test
+  public void testBddLoopDetectionRepeated() throws IOException {
+    SortedMap<String, Configuration> configs = LoopNetwork.testLoopNetwork(true);
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, temp);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    DataPlane dataPlane = batfish.loadDataPlane(snapshot);
+    BDDReachabilityAnalysisFactory factory =
+        new BDDReachabilityAnalysisFactory(
+            _pkt,
+            configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false);
+    IpSpaceAssignment srcIpSpaceAssignment =
+        batfish.getAllSourcesInferFromLocationIpSpaceAssignment(snapshot);
+
+    Map<IngressLocation, BDD> loops =
+        factory.bddLoopDetectionAnalysis(srcIpSpaceAssignment).detectLoops();
+    assertFalse(loops.isEmpty());
+    Table<StateExpr, StateExpr, Transition> loopGraph = factory.getLoopGraph();
+
+    // The second query from the same roots reuses the optimized loop graph
+    assertThat(
+        factory.bddLoopDetectionAnalysis(srcIpSpaceAssignment).detectLoops(), equalTo(loops));
+    assertThat(factory.getLoopGraph(), sameInstance(loopGraph));
+  }
+
   @Test
   public void testGetAllBDDsLoopWithNoroute() throws IOException {
     SortedMap<String, Configuration> configs = new TreeMap<>(LoopNetwork.testLoopNetwork(true));
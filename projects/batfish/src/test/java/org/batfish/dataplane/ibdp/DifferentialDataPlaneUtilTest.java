@@ -0,0 +1,220 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.dataplane.ibdp.DataplaneTrackEvaluator.createTrackMethodEvaluatorProvider;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.computeAffectedNodes;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.computeChangedNodes;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.fingerprint;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.mayReuseParent;
+import static org.batfish.dataplane.ibdp.DifferentialDataPlaneUtil.restrict;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
+import org.batfish.common.topology.IpOwners;
+import org.batfish.common.topology.TunnelTopology;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.bgp.BgpTopology;
+import org.batfish.datamodel.ipsec.IpsecTopology;
+import org.junit.Test;
+
+/** Tests of {@link DifferentialDataPlaneUtil}. */
+public final class DifferentialDataPlaneUtilTest {
+
+  private static Configuration config(String hostname) {
+    return Configuration.builder()
+        .setHostname(hostname)
+        .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+        .build();
+  }
+
+  private static Topology topology(Edge... edges) {
+    return new Topology(ImmutableSortedSet.copyOf(edges));
+  }
+
+  private static IpOwners ipOwners(Map<String, Configuration> configurations) {
+    return new DataPlaneIpOwners(
+        configurations,
+        GlobalBroadcastNoPointToPoint.instance(),
+        createTrackMethodEvaluatorProvider(ImmutableMap.of(), ImmutableMap.of()));
+  }
+
+  @Test
+  public void testRestrict() {
+    Edge ab = Edge.of("a", "i", "b", "i");
+    Edge bc = Edge.of("b", "i", "c", "i");
+    assertThat(restrict(topology(ab, bc), ImmutableSet.of("a", "b")), equalTo(topology(ab)));
+  }
+
+  @Test
+  public void testComputeChangedNodes() {
+    Configuration unchanged = config("unchanged");
+    Configuration modified = config("modified");
+    modified.setDomainName("example.com");
+    Map<String, Configuration> parent =
+        ImmutableMap.of(
+            "unchanged", unchanged, "modified", config("modified"), "removed", config("removed"));
+    Map<String, Configuration> child =
+        ImmutableMap.of(
+            "unchanged", unchanged,
+            "modified", modified,
+            "added", config("added"),
+            "relinked", config("relinked"));
+    Edge relinked = Edge.of("relinked", "i", "unchanged", "i");
+
+    assertThat(
+        computeChangedNodes(
+            parent,
+            child,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            topology(),
+            topology(relinked, relinked.reverse())),
+        containsInAnyOrder("modified", "removed", "added", "relinked", "unchanged"));
+    assertThat(
+        computeChangedNodes(
+            parent, child, ImmutableSet.of(), ImmutableSet.of(), topology(), topology()),
+        containsInAnyOrder("modified", "removed", "added"));
+  }
+
+  @Test
+  public void testComputeAffectedNodes() {
+    Configuration a = config("a");
+    Configuration modifiedA = config("a");
+    modifiedA.setDomainName("example.com");
+    Configuration b = config("b");
+    Configuration c = config("c");
+    Map<String, Configuration> parent = ImmutableMap.of("a", a, "b", b, "c", c);
+    Map<String, Configuration> child = ImmutableMap.of("a", modifiedA, "b", b, "c", c);
+    Edge ab = Edge.of("a", "i", "b", "i");
+    Topology layer3 = topology(ab, ab.reverse());
+
+    // a changed, b is adjacent to a, and c is an island of its own.
+    Optional<Set<String>> affected =
+        computeAffectedNodes(
+            parent,
+            child,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            layer3,
+            layer3,
+            layer3,
+            BgpTopology.EMPTY,
+            ipOwners(parent),
+            ipOwners(child),
+            IpsecTopology.EMPTY,
+            TunnelTopology.EMPTY);
+    assertThat(affected, equalTo(Optional.of(ImmutableSet.of("a", "b"))));
+
+    // Nothing to reuse once c is connected too.
+    Edge bc = Edge.of("b", "j", "c", "j");
+    Topology connected = topology(ab, ab.reverse(), bc, bc.reverse());
+    assertThat(
+        computeAffectedNodes(
+            parent,
+            child,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            connected,
+            connected,
+            connected,
+            BgpTopology.EMPTY,
+            ipOwners(parent),
+            ipOwners(child),
+            IpsecTopology.EMPTY,
+            TunnelTopology.EMPTY),
+        equalTo(Optional.empty()));
+  }
+
+  @Test
+  public void testComputeAffectedNodesConnectedNetwork() {
+    // A chain a - b - c - d, connected only by the parent's final layer-3 topology. Changing the
+    // leaf d affects every node, since the parent's routes are not used to seed recomputation.
+    Configuration d = config("d");
+    Configuration modifiedD = config("d");
+    modifiedD.setDomainName("example.com");
+    Map<String, Configuration> parent =
+        ImmutableMap.of("a", config("a"), "b", config("b"), "c", config("c"), "d", d);
+    Map<String, Configuration> child =
+        ImmutableMap.of(
+            "a", parent.get("a"), "b", parent.get("b"), "c", parent.get("c"), "d", modifiedD);
+    Edge ab = Edge.of("a", "i", "b", "i");
+    Edge bc = Edge.of("b", "j", "c", "j");
+    Edge cd = Edge.of("c", "k", "d", "k");
+    Topology chain = topology(ab, ab.reverse(), bc, bc.reverse(), cd, cd.reverse());
+
+    assertThat(
+        computeAffectedNodes(
+            parent,
+            child,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            topology(),
+            topology(),
+            chain,
+            BgpTopology.EMPTY,
+            ipOwners(parent),
+            ipOwners(child),
+            IpsecTopology.EMPTY,
+            TunnelTopology.EMPTY),
+        equalTo(Optional.empty()));
+  }
+
+  @Test
+  public void testMayReuseParent() {
+    Map<String, Configuration> configurations =
+        ImmutableMap.of("a", config("a"), "b", config("b"), "c", config("c"));
+    Edge ab = Edge.of("a", "i", "b", "i");
+    Edge bc = Edge.of("b", "j", "c", "j");
+
+    // c is an island of its own.
+    assertThat(
+        mayReuseParent(
+            configurations,
+            topology(ab, ab.reverse()),
+            ipOwners(configurations),
+            IpsecTopology.EMPTY,
+            TunnelTopology.EMPTY),
+        equalTo(true));
+    // A single island: nothing from the parent is needed.
+    assertThat(
+        mayReuseParent(
+            configurations,
+            topology(ab, ab.reverse(), bc, bc.reverse()),
+            ipOwners(configurations),
+            IpsecTopology.EMPTY,
+            TunnelTopology.EMPTY),
+        equalTo(false));
+  }
+
+  @Test
+  public void testFingerprintIgnoresHashOrder() {
+    // "Aa" and "BB" have the same hash code, so a HashSet iterates them in insertion order.
+    Set<String> ab = new HashSet<>();
+    ab.add("Aa");
+    ab.add("BB");
+    Set<String> ba = new HashSet<>();
+    ba.add("BB");
+    ba.add("Aa");
+    Configuration c1 = config("c");
+    c1.setDnsServers(ab);
+    Configuration c2 = config("c");
+    c2.setDnsServers(ba);
+    assertThat(fingerprint(c1), equalTo(fingerprint(c2)));
+
+    Configuration c3 = config("c");
+    c3.setDnsServers(ImmutableSet.of("Aa"));
+    assertThat(fingerprint(c1), not(equalTo(fingerprint(c3))));
+  }
+}
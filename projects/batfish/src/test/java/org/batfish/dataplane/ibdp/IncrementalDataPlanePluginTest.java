@@ -27,6 +27,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 import com.google.common.graph.EndpointPair;
 import com.google.common.graph.ValueGraph;
@@ -47,6 +48,7 @@ import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
 import org.batfish.common.plugin.TracerouteEngine;
 import org.batfish.common.topology.IpOwnersBaseImpl;
 import org.batfish.common.topology.L3Adjacencies;
+import org.batfish.common.topology.TopologyProvider;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.BgpActivePeerConfig;
@@ -59,6 +61,8 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibEntry;
 import org.batfish.datamodel.FinalMainRib;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
@@ -89,10 +93,12 @@ import org.batfish.datamodel.isis.IsisInterfaceMode;
 import org.batfish.datamodel.isis.IsisInterfaceSettings;
 import org.batfish.datamodel.isis.IsisLevelSettings;
 import org.batfish.datamodel.isis.IsisProcess;
+import org.batfish.datamodel.isis.IsisTopology;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
 import org.batfish.datamodel.routing_policy.statement.SetDefaultPolicy;
 import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
 import org.batfish.dataplane.TracerouteEngineImpl;
+import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.batfish.main.Batfish;
 import org.batfish.main.BatfishTestUtils;
 import org.batfish.main.TestrigText;
@@ -106,6 +112,8 @@ import org.junit.rules.TemporaryFolder;
 public class IncrementalDataPlanePluginTest {
 
   private static final String TESTRIGS_PREFIX = "org/batfish/dataplane/ibdp/testrigs/";
+  private static final String CUMULUS_TESTRIGS_PREFIX =
+      "org/batfish/grammar/cumulus_concatenated/testrigs/";
 
   @Rule public TemporaryFolder _folder = new TemporaryFolder();
   @Rule public ExpectedException _thrown = ExpectedException.none();
@@ -1137,6 +1145,79 @@ public class IncrementalDataPlanePluginTest {
     assertNotNull(deserializedDataPlane.getForwardingAnalysis());
   }
 
+  /**
+   * Computes the data plane of the snapshot of {@code batfish} with {@code schedule}, from the same
+   * inputs the plugin uses.
+   */
+  private static DataPlane computeDataPlane(Batfish batfish, Schedule schedule) {
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    Map<String, Configuration> configurations = batfish.loadConfigurations(snapshot);
+    TopologyProvider topologyProvider = batfish.getTopologyProvider();
+    Topology initialLayer3Topology = topologyProvider.getInitialLayer3Topology(snapshot);
+    TopologyContext topologyContext =
+        TopologyContext.builder()
+            .setIpsecTopology(topologyProvider.getInitialIpsecTopology(snapshot))
+            .setIsisTopology(IsisTopology.initIsisTopology(configurations, initialLayer3Topology))
+            .setLayer3Topology(initialLayer3Topology)
+            .setLayer1Topologies(topologyProvider.getLayer1Topologies(snapshot))
+            .setL3Adjacencies(topologyProvider.getInitialL3Adjacencies(snapshot))
+            .setOspfTopology(topologyProvider.getInitialOspfTopology(snapshot))
+            .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
+            .build();
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings
+        .getConfig()
+        .setProperty(IncrementalDataPlaneSettings.PROP_SCHEDULE, schedule.toString());
+    return new IncrementalBdpEngine(settings)
+        .computeDataPlane(
+            configurations,
+            topologyContext,
+            batfish.loadExternalBgpAnnouncements(snapshot, configurations),
+            topologyProvider.getInitialIpOwners(snapshot))
+        ._dataPlane;
+  }
+
+  private static Map<String, Map<String, Set<FibEntry>>> fibEntries(DataPlane dp) {
+    return ImmutableMap.copyOf(
+        Maps.transformValues(
+            dp.getFibs(),
+            fibs -> ImmutableMap.copyOf(Maps.transformValues(fibs, Fib::allEntries))));
+  }
+
+  @Test
+  public void testWorklistScheduleMatchesOtherSchedules() throws IOException {
+    // eBGP between s0 and s1, and iBGP between s1 and s2 over OSPF.
+    String snapshotName = "gh_8588_advertise_inactive";
+    Batfish batfish =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationFiles(
+                    CUMULUS_TESTRIGS_PREFIX + snapshotName,
+                    ImmutableList.of("s0.cfg", "s1.cfg", "s2.cfg"))
+                .setHostsFiles(CUMULUS_TESTRIGS_PREFIX + snapshotName, ImmutableList.of("d1.json"))
+                .build(),
+            _folder);
+
+    DataPlane all = computeDataPlane(batfish, Schedule.ALL);
+    DataPlane nodeColored = computeDataPlane(batfish, Schedule.NODE_COLORED);
+    DataPlane worklist = computeDataPlane(batfish, Schedule.WORKLIST);
+
+    // The network exercises both protocols.
+    assertThat(
+        worklist.getRibs().get("s0", DEFAULT_VRF_NAME).getRoutes(Prefix.strict("10.2.10.0/24")),
+        contains(hasProtocol(RoutingProtocol.BGP)));
+    assertThat(
+        worklist.getRibs().get("s1", DEFAULT_VRF_NAME).getRoutes(Prefix.strict("192.168.19.3/32")),
+        contains(hasProtocol(RoutingProtocol.OSPF)));
+
+    assertThat(worklist.getRibs(), equalTo(all.getRibs()));
+    assertThat(worklist.getRibs(), equalTo(nodeColored.getRibs()));
+    assertThat(worklist.getBgpRoutes(), equalTo(all.getBgpRoutes()));
+    assertThat(worklist.getBgpRoutes(), equalTo(nodeColored.getBgpRoutes()));
+    assertThat(fibEntries(worklist), equalTo(fibEntries(all)));
+    assertThat(fibEntries(worklist), equalTo(fibEntries(nodeColored)));
+  }
+
   private static class TestIpOwners extends IpOwnersBaseImpl {
     protected TestIpOwners(
         Map<String, Configuration> configurations, L3Adjacencies initialL3Adjacencies) {
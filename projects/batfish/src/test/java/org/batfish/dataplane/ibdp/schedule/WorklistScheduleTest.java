@@ -0,0 +1,71 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Map;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Topology;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TestUtils;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.junit.Test;
+
+/** Tests for {@link WorklistSchedule} */
+public class WorklistScheduleTest {
+
+  private static final Map<String, Node> NODES =
+      ImmutableMap.of(
+          "r1",
+          TestUtils.makeIosRouter("r1"),
+          "r2",
+          TestUtils.makeIosRouter("r2"),
+          "r3",
+          TestUtils.makeIosRouter("r3"));
+
+  private static final TopologyContext R1_R2_CONNECTED =
+      TopologyContext.builder()
+          .setLayer3Topology(
+              new Topology(
+                  ImmutableSortedSet.of(
+                      Edge.of("r1", "i1", "r2", "i2"), Edge.of("r2", "i2", "r1", "i1"))))
+          .build();
+
+  @Test
+  public void testAllDirty() {
+    WorklistSchedule schedule =
+        new WorklistSchedule(NODES, NODES.keySet(), TopologyContext.builder().build());
+
+    assertThat(schedule.hasNext(), is(true));
+    assertThat(schedule.next(), equalTo(NODES));
+    assertThat(schedule.hasNext(), is(false));
+  }
+
+  @Test
+  public void testNoneDirty() {
+    WorklistSchedule schedule = new WorklistSchedule(NODES, ImmutableSet.of(), R1_R2_CONNECTED);
+
+    assertThat(schedule.getActiveNodes(), anEmptyMap());
+  }
+
+  @Test
+  public void testNeighborsOfDirtyAreActive() {
+    WorklistSchedule schedule = new WorklistSchedule(NODES, ImmutableSet.of("r1"), R1_R2_CONNECTED);
+
+    assertThat(
+        schedule.getActiveNodes(),
+        equalTo(ImmutableMap.of("r1", NODES.get("r1"), "r2", NODES.get("r2"))));
+  }
+
+  @Test
+  public void testIsolatedDirtyNode() {
+    WorklistSchedule schedule = new WorklistSchedule(NODES, ImmutableSet.of("r3"), R1_R2_CONNECTED);
+
+    assertThat(schedule.getActiveNodes(), equalTo(ImmutableMap.of("r3", NODES.get("r3"))));
+  }
+}
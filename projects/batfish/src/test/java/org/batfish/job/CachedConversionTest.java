@@ -0,0 +1,62 @@
+package org.batfish.job;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.ConvertStatus;
+import org.junit.Test;
+
+public class CachedConversionTest {
+
+  @Test
+  public void testRoundTrip() {
+    Warnings warnings = new Warnings(false, true, false);
+    warnings.redFlag("warning");
+    BatfishLogger jobLogger = new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false);
+    jobLogger.warn("conversion warning");
+    ConvertConfigurationResult result =
+        new ConvertConfigurationResult(
+            0,
+            jobLogger.getHistory(),
+            ImmutableMap.of("host", warnings),
+            "file.cfg",
+            ImmutableMap.of("host", new Configuration("host", ConfigurationFormat.CISCO_IOS)),
+            new ConvertConfigurationAnswerElement());
+
+    CachedConversion cached = SerializationUtils.clone(CachedConversion.of(result));
+    assertThat(cached.getName(), equalTo("file.cfg"));
+
+    Map<String, Configuration> configurations = new TreeMap<>();
+    ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
+    BatfishLogger logger = new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false);
+    cached.toResult(0).applyTo(configurations, logger, answerElement);
+
+    assertThat(configurations.keySet(), contains("host"));
+    assertThat(answerElement.getConvertStatus().get("file.cfg"), equalTo(ConvertStatus.WARNINGS));
+    assertThat(answerElement.getWarnings(), hasKey("host"));
+    assertThat(
+        logger.getHistory().toString(BatfishLogger.LEVEL_WARN),
+        containsString("conversion warning"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFailedConversionNotCached() {
+    CachedConversion.of(
+        new ConvertConfigurationResult(
+            0, new BatfishLoggerHistory(), "file.cfg", new BatfishException("failed")));
+  }
+}
@@ -2,6 +2,7 @@ package org.batfish.main;
 
 import static org.batfish.common.BfConsts.RELPATH_AWS_CONFIGS_FILE;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableMap;
@@ -40,4 +41,21 @@ public class AwsParseWarningsTest {
             new Warning(
                 String.format("Unrecognized element 'invalidKey' in AWS file %s", _key), "AWS")));
   }
+
+  @Test
+  public void testWarningsFromAllRegions() {
+    String otherKey =
+        Paths.get(BfConsts.RELPATH_AWS_CONFIGS_DIR, "other", "file.json").toString();
+    Batfish.parseAwsConfigurations(
+        ImmutableMap.of(_key, "{ \"invalidKey\": [1] }", otherKey, "{ \"otherKey\": [1] }"),
+        _pvcae);
+    assertThat(
+        _pvcae.getWarnings().get(RELPATH_AWS_CONFIGS_FILE).getUnimplementedWarnings(),
+        containsInAnyOrder(
+            new Warning(
+                String.format("Unrecognized element 'invalidKey' in AWS file %s", _key), "AWS"),
+            new Warning(
+                String.format("Unrecognized element 'otherKey' in AWS file %s", otherKey),
+                "AWS")));
+  }
 }
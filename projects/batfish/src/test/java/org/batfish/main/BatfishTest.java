@@ -29,10 +29,12 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -52,10 +54,15 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warnings;
 import org.batfish.common.plugin.IBatfish;
@@ -89,6 +96,7 @@ import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
@@ -181,6 +189,44 @@ public class BatfishTest {
         notNullValue());
   }
 
+  @Test
+  public void testConcurrentAnswerTasksParseOnce() throws Exception {
+    String testrigResourcePrefix = "org/batfish/main/snapshots/duplicate_hostnames";
+    Batfish batfish =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationFiles(testrigResourcePrefix, ImmutableList.of("rtr3"))
+                .build(),
+            _folder);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+
+    // Two answer tasks on the unparsed snapshot, both of which need it parsed and converted
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<SortedMap<String, Configuration>> configs =
+          executor.submit(
+              () -> {
+                barrier.await();
+                return batfish.loadConfigurations(snapshot);
+              });
+      Future<ConvertConfigurationAnswerElement> convertAnswer =
+          executor.submit(
+              () -> {
+                barrier.await();
+                return batfish.loadConvertConfigurationAnswerElementOrReparse(snapshot);
+              });
+      assertThat(configs.get().keySet(), contains("rtr3"));
+      assertThat(convertAnswer.get(), notNullValue());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // The snapshot was converted and stored only once
+    String history = batfish.getLogger().getHistory().toString(BatfishLogger.LEVEL_INFO);
+    assertThat(Splitter.on("CONVERTING VENDOR CONFIGURATIONS").splitToList(history), hasSize(2));
+  }
+
   @Test
   public void testInitTestrigWithDuplicateHostnames() throws IOException {
     // rtr1 and rtr2 have the same hostname
@@ -877,6 +923,36 @@ public class BatfishTest {
     }
   }
 
+  private static SortedMap<String, Configuration> singleNodeNetwork() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder().setHostname("c").setConfigurationFormat(CISCO_IOS).build();
+    nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    return ImmutableSortedMap.of("c", c);
+  }
+
+  /** Whether the snapshot's shared BDD reachability factory has already built its edges. */
+  private static boolean hasComputedReachabilityEdges(Batfish batfish, NetworkSnapshot snapshot) {
+    return batfish
+        .getBddContext(snapshot)
+        .compute(
+            ctx ->
+                batfish.getBddReachabilityAnalysisFactory(snapshot, ctx, false).hasComputedEdges());
+  }
+
+  @Test
+  public void testPrecomputeReachabilityEdges() throws IOException {
+    Batfish batfish = BatfishTestUtils.getBatfish(singleNodeNetwork(), _folder);
+    assertFalse(batfish.getSettings().getPrecomputeReachabilityEdges());
+    batfish.computeDataPlane(batfish.getSnapshot());
+    assertFalse(hasComputedReachabilityEdges(batfish, batfish.getSnapshot()));
+
+    Batfish precomputing = BatfishTestUtils.getBatfish(singleNodeNetwork(), _folder);
+    precomputing.getSettings().setPrecomputeReachabilityEdges(true);
+    precomputing.computeDataPlane(precomputing.getSnapshot());
+    assertTrue(hasComputedReachabilityEdges(precomputing, precomputing.getSnapshot()));
+  }
+
   @Test
   public void testProcessNodeBlacklist() {
     Configuration c1 =
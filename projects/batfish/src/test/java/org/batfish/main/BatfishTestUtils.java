@@ -27,6 +27,7 @@ import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.Configuration;
@@ -78,6 +79,10 @@ public class BatfishTestUtils {
     return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
   }
 
+  private static Cache<NetworkSnapshot, SnapshotBddContext> makeBddContextCache() {
+    return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
+  }
+
   private static void setNextTestNetworkSnapshot(Settings settings) {
     int cur = SNAPSHOT_COUNTER.incrementAndGet();
     NetworkId net = new NetworkId("net" + cur);
@@ -109,6 +114,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeBddContextCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     if (!configurations.isEmpty()) {
@@ -142,6 +148,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeBddContextCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     batfish.getSettings().setDiffQuestion(true);
@@ -218,6 +225,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeBddContextCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     StorageProvider storage = new FileBasedStorage(settings.getStorageBase(), batfish.getLogger());
@@ -319,6 +327,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeBddContextCache(),
             storageProvider,
             idResolver);
     registerDataPlanePlugins(batfish);
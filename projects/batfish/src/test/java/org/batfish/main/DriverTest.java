@@ -0,0 +1,43 @@
+package org.batfish.main;
+
+import static org.batfish.main.Driver.claimSlot;
+import static org.batfish.main.Driver.isSharedTask;
+import static org.batfish.main.Driver.releaseSlot;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.batfish.config.Settings;
+import org.junit.Test;
+
+/** Tests of {@link Driver}. */
+public class DriverTest {
+
+  @Test
+  public void testIsSharedTask() {
+    assertTrue(isSharedTask(new Settings(new String[] {"-answer"})));
+    assertTrue(isSharedTask(new Settings(new String[] {"-initinfo"})));
+    assertFalse(isSharedTask(new Settings(new String[] {"-sv"})));
+    assertFalse(isSharedTask(new Settings(new String[] {"-dp"})));
+    assertFalse(isSharedTask(new Settings(new String[] {"-answer", "-dp"})));
+  }
+
+  @Test
+  public void testClaimSlot() {
+    // shared tasks run together, up to the limit
+    assertTrue(claimSlot(true, 2));
+    assertTrue(claimSlot(true, 2));
+    assertFalse(claimSlot(true, 2));
+    // exclusive tasks wait for shared tasks to finish
+    assertFalse(claimSlot(false, 2));
+    releaseSlot(true);
+    assertFalse(claimSlot(false, 2));
+    releaseSlot(true);
+    assertTrue(claimSlot(false, 2));
+    // and nothing else runs alongside an exclusive task
+    assertFalse(claimSlot(true, 2));
+    assertFalse(claimSlot(false, 2));
+    releaseSlot(false);
+    assertTrue(claimSlot(true, 2));
+    releaseSlot(true);
+  }
+}
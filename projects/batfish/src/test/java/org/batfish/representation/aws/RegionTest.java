@@ -1,5 +1,7 @@
 package org.batfish.representation.aws;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.common.util.Resources.readResource;
 import static org.batfish.datamodel.IpProtocol.TCP;
 import static org.batfish.datamodel.matchers.TraceTreeMatchers.hasChildren;
 import static org.batfish.datamodel.matchers.TraceTreeMatchers.hasTraceElement;
@@ -14,15 +16,18 @@ import static org.batfish.representation.aws.Utils.traceElementForDstPorts;
 import static org.batfish.representation.aws.Utils.traceElementForProtocol;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.iterableWithSize;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -108,6 +113,60 @@ public class RegionTest {
     assertTrue(warning.getText().startsWith("Unrecognized element"));
   }
 
+  /** Test that a non-list under a known key is skipped with a warning */
+  @Test
+  public void testAddConfigElementKnownKeyNonList() throws IOException {
+
+    JsonNode json = BatfishObjectMapper.mapper().readTree("{ \"Vpcs\" :  {} }");
+
+    ParseVendorConfigurationAnswerElement pvcae = new ParseVendorConfigurationAnswerElement();
+    Region region = new Region("r1");
+    region.addConfigElement(json, null, pvcae);
+
+    Warning warning =
+        Iterables.getOnlyElement(
+            Iterables.getOnlyElement(pvcae.getWarnings().values()).getRedFlagWarnings());
+    assertTrue(warning.getText().startsWith("Unexpected JSON for element 'Vpcs'"));
+  }
+
+  private static JsonParser parser(String text) throws IOException {
+    return BatfishObjectMapper.mapper().getFactory().createParser(text);
+  }
+
+  /** Test that streaming a file gives the same region as reading it as a tree */
+  @Test
+  public void testAddConfigElementsMatchesTree() throws IOException {
+    String text = readResource("org/batfish/representation/aws/VpcTest.json", UTF_8);
+
+    ParseVendorConfigurationAnswerElement pvcae = new ParseVendorConfigurationAnswerElement();
+    Region treeRegion = new Region("r1");
+    treeRegion.addConfigElement(BatfishObjectMapper.mapper().readTree(text), null, pvcae);
+    Region streamedRegion = new Region("r1");
+    streamedRegion.addConfigElements(parser(text), null, pvcae);
+
+    assertThat(streamedRegion.getVpcs(), not(anEmptyMap()));
+    assertThat(streamedRegion.getVpcs(), equalTo(treeRegion.getVpcs()));
+    assertTrue(pvcae.getWarnings().isEmpty());
+  }
+
+  /** Test that streaming skips unknown and malformed elements with the same warnings */
+  @Test
+  public void testAddConfigElementsSkipsUnknownAndNonLists() throws IOException {
+    String text =
+        "{ \"empty\" : [], \"stranger\" : [1, [2], {\"a\" : [3]}], \"odd\" : {\"b\" : []},"
+            + " \"Vpcs\" : {\"c\" : [4]}, \"Tags\" : [{\"Key\" : \"k\"}] }";
+
+    ParseVendorConfigurationAnswerElement pvcae = new ParseVendorConfigurationAnswerElement();
+    Region region = new Region("r1");
+    JsonParser parser = parser(text);
+    region.addConfigElements(parser, null, pvcae);
+
+    assertThat(parser.nextToken(), nullValue());
+    Warnings warnings = Iterables.getOnlyElement(pvcae.getWarnings().values());
+    assertThat(warnings.getUnimplementedWarnings(), iterableWithSize(2));
+    assertThat(warnings.getRedFlagWarnings(), iterableWithSize(1));
+  }
+
   private static Region createTestRegion() {
     Region region = new Region("test");
 
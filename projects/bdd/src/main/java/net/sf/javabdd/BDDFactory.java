@@ -775,9 +775,9 @@ public abstract class BDDFactory {
     public int uniqueHit;
     public int uniqueMiss;
     public int uniqueTrivial;
-    public int opHit;
-    public int opMiss;
-    public int opOverwrite;
+    public long opHit;
+    public long opMiss;
+    public long opOverwrite;
     public int swapCount;
 
     protected CacheStats() {}
@@ -48,8 +48,6 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
-import java.util.function.IntFunction;
-import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -626,33 +624,35 @@ public class JFactory extends BDDFactory implements Serializable {
     }
   }
 
-  private abstract static class BddCacheData {
-    protected BddCacheData() {
-      a = -1;
-    }
-
-    int a, b, c;
-    int hash;
-  }
-
-  private static class BddCacheDataI extends BddCacheData {
-    int res;
-  }
-
-  // a = index, c = operator, value = value.
-  private static class BigIntegerBddCacheData extends BddCacheData {
-    BigInteger value;
-  }
-
-  // a = operator, b = result, c = unused
-  private static class MultiOpBddCacheData extends BddCacheData {
-    int[] operands;
-  }
-
-  private static class BddCache {
-    BddCacheData[] table;
+  /**
+   * An operator cache stored as parallel arrays (struct-of-arrays) indexed by slot, rather than as
+   * an array of per-entry objects. This avoids an object header and a pointer dereference per probe
+   * and keeps each field contiguous in memory.
+   *
+   * <p>Layout by cache kind:
+   *
+   * <ul>
+   *   <li>int caches: {@code a}, {@code b}, {@code c} = operands/operator, {@code res} = result.
+   *   <li>multiop cache: {@code a} = operator, {@code b} = result, {@code operands} = operands.
+   *   <li>count cache: {@code a} = index, {@code c} = operator, {@code value} = result.
+   * </ul>
+   *
+   * A slot is unused iff {@code a[slot] == -1}.
+   */
+  private static final class BddCache {
+    int[] a;
+    int[] b;
+    int[] c;
+    int[] res;
+    int[] hash;
+    @Nullable int[][] operands;
+    @Nullable BigInteger[] value;
     int tablesize;
 
+    long hits;
+    long misses;
+    long overwrites;
+
     /**
      * Returns the number of used entries in this cache.
      *
@@ -660,7 +660,7 @@ public class JFactory extends BDDFactory implements Serializable {
      */
     private int used() {
       // Array lengths in Java must be representable by a signed int.
-      return (int) Arrays.stream(table).parallel().filter(e -> e.a != -1).count();
+      return (int) Arrays.stream(a).parallel().filter(x -> x != -1).count();
     }
   }
 
@@ -1147,7 +1147,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int not_rec(int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (ISZERO(r)) {
@@ -1157,30 +1157,28 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = NOTHASH(r);
-    entry = BddCache_lookupI(applycache, hash);
+    slot = BddCache_lookup(applycache, hash);
 
-    if (entry.a == r && entry.c == bddop_not) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[slot] == r && applycache.c[slot] == bddop_not) {
+      applycache.hits++;
+      return applycache.res[slot];
     }
+    applycache.misses++;
 
     PUSHREF(not_rec(LOW(r)));
     PUSHREF(not_rec(HIGH(r)));
     res = bdd_makenode(LEVEL(r), READREF(2), READREF(1));
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = r;
-    entry.c = bddop_not;
-    entry.res = res;
-    entry.hash = hash;
+    applycache.a[slot] = r;
+    applycache.c[slot] = bddop_not;
+    applycache.res[slot] = res;
+    applycache.hash[slot] = hash;
 
     return res;
   }
@@ -1236,16 +1234,12 @@ public class JFactory extends BDDFactory implements Serializable {
     // ITE uses the multiop cache to be cleaned properly.
     int[] operands = new int[] {f, g, h};
     int hash = MULTIOPHASH(operands, bddop_ite);
-    MultiOpBddCacheData entry = BddCache_lookupMultiOp(multiopcache, hash);
-    if (entry.a == bddop_ite && Arrays.equals(operands, entry.operands)) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.b;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(multiopcache, hash);
+    if (multiopcache.a[slot] == bddop_ite && Arrays.equals(operands, multiopcache.operands[slot])) {
+      multiopcache.hits++;
+      return multiopcache.b[slot];
     }
+    multiopcache.misses++;
 
     if (LEVEL(f) == LEVEL(g)) {
       if (LEVEL(f) == LEVEL(h)) {
@@ -1293,13 +1287,15 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(multiopcache, hash);
+    if (multiopcache.a[slot] != -1) {
+      multiopcache.overwrites++;
     }
-    entry.operands = operands;
-    entry.a = bddop_ite;
-    entry.b = res;
-    entry.hash = hash;
+    multiopcache.operands[slot] = operands;
+    multiopcache.a[slot] = bddop_ite;
+    multiopcache.b[slot] = res;
+    multiopcache.hash[slot] = hash;
 
     return res;
   }
@@ -1322,7 +1318,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int replace_rec(int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (ISCONST(r) || LEVEL(r) > replacelast) {
@@ -1330,16 +1326,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = REPLACEHASH(replaceid, r);
-    entry = BddCache_lookupI(replacecache, hash);
-    if (entry.a == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] == r && replacecache.c[slot] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[slot];
     }
+    replacecache.misses++;
 
     PUSHREF(replace_rec(LOW(r)));
     PUSHREF(replace_rec(HIGH(r)));
@@ -1361,13 +1353,15 @@ public class JFactory extends BDDFactory implements Serializable {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] != -1) {
+      replacecache.overwrites++;
     }
-    entry.a = r;
-    entry.c = replaceid;
-    entry.res = res;
-    entry.hash = hash;
+    replacecache.a[slot] = r;
+    replacecache.c[slot] = replaceid;
+    replacecache.res[slot] = res;
+    replacecache.hash[slot] = hash;
 
     return res;
   }
@@ -1396,16 +1390,14 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = CORRECTIFYHASH(replaceid, l, r);
-    BddCacheDataI entry = BddCache_lookupI(replacecache, hash);
-    if (entry.a == l && entry.b == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] == l
+        && replacecache.b[slot] == r
+        && replacecache.c[slot] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[slot];
     }
+    replacecache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(bdd_correctify(level, LOW(l), LOW(r)));
@@ -1422,14 +1414,16 @@ public class JFactory extends BDDFactory implements Serializable {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] != -1) {
+      replacecache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = replaceid;
-    entry.res = res;
-    entry.hash = hash;
+    replacecache.a[slot] = l;
+    replacecache.b[slot] = r;
+    replacecache.c[slot] = replaceid;
+    replacecache.res[slot] = res;
+    replacecache.hash[slot] = hash;
 
     return res;
   }
@@ -1467,7 +1461,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int apply_rec(int l, int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (VERIFY_ASSERTIONS) {
@@ -1616,17 +1610,13 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = APPLYHASH(l, r, applyop);
-    entry = BddCache_lookupI(applycache, hash);
+    slot = BddCache_lookup(applycache, hash);
 
-    if (entry.a == l && entry.b == r && entry.c == applyop) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[slot] == l && applycache.b[slot] == r && applycache.c[slot] == applyop) {
+      applycache.hits++;
+      return applycache.res[slot];
     }
+    applycache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(apply_rec(LOW(l), LOW(r)));
@@ -1644,20 +1634,22 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = applyop;
-    entry.res = res;
-    entry.hash = hash;
+    applycache.a[slot] = l;
+    applycache.b[slot] = r;
+    applycache.c[slot] = applyop;
+    applycache.res[slot] = res;
+    applycache.hash[slot] = hash;
 
     return res;
   }
 
   private int and_rec(int l, int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (l == r) {
@@ -1675,17 +1667,13 @@ public class JFactory extends BDDFactory implements Serializable {
       r = t;
     }
     int hash = APPLYHASH(l, r, bddop_and);
-    entry = BddCache_lookupI(applycache, hash);
+    slot = BddCache_lookup(applycache, hash);
 
-    if (entry.a == l && entry.b == r && entry.c == bddop_and) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[slot] == l && applycache.b[slot] == r && applycache.c[slot] == bddop_and) {
+      applycache.hits++;
+      return applycache.res[slot];
     }
+    applycache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(and_rec(LOW(l), LOW(r)));
@@ -1703,14 +1691,16 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = bddop_and;
-    entry.res = res;
-    entry.hash = hash;
+    applycache.a[slot] = l;
+    applycache.b[slot] = r;
+    applycache.c[slot] = bddop_and;
+    applycache.res[slot] = res;
+    applycache.hash[slot] = hash;
 
     return res;
   }
@@ -1726,17 +1716,13 @@ public class JFactory extends BDDFactory implements Serializable {
 
     // TODO: should we also check for diff? For now, don't since diff_sat should be real fast.
     int hash = APPLYHASH(l, r, bddop_diffsat);
-    BddCacheDataI entry = BddCache_lookupI(applycache, hash);
-    if (entry.a == l && entry.b == r && entry.c == bddop_diffsat) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      // We set entry.res to BDDZERO for false and BDDONE for true.
-      return entry.res == BDDONE;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] == l && applycache.b[slot] == r && applycache.c[slot] == bddop_diffsat) {
+      applycache.hits++;
+      // We set applycache.res[slot] to BDDZERO for false and BDDONE for true.
+      return applycache.res[slot] == BDDONE;
     }
+    applycache.misses++;
 
     boolean res;
     if (LEVEL(l) == LEVEL(r)) {
@@ -1747,14 +1733,16 @@ public class JFactory extends BDDFactory implements Serializable {
       res = diffsat_rec(l, LOW(r)) || diffsat_rec(l, HIGH(r));
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = bddop_diffsat;
-    entry.res = res ? BDDONE : BDDZERO;
-    entry.hash = hash;
+    applycache.a[slot] = l;
+    applycache.b[slot] = r;
+    applycache.c[slot] = bddop_diffsat;
+    applycache.res[slot] = res ? BDDONE : BDDZERO;
+    applycache.hash[slot] = hash;
 
     return res;
   }
@@ -1775,17 +1763,13 @@ public class JFactory extends BDDFactory implements Serializable {
 
     // TODO: should we also check for and? For now, don't since and_sat should be real fast.
     int hash = APPLYHASH(l, r, bddop_andsat);
-    BddCacheDataI entry = BddCache_lookupI(applycache, hash);
-    if (entry.a == l && entry.b == r && entry.c == bddop_andsat) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      // We set entry.res to BDDZERO for false and BDDONE for true.
-      return entry.res == BDDONE;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] == l && applycache.b[slot] == r && applycache.c[slot] == bddop_andsat) {
+      applycache.hits++;
+      // We set applycache.res[slot] to BDDZERO for false and BDDONE for true.
+      return applycache.res[slot] == BDDONE;
     }
+    applycache.misses++;
 
     boolean res;
     if (LEVEL(l) == LEVEL(r)) {
@@ -1796,14 +1780,16 @@ public class JFactory extends BDDFactory implements Serializable {
       res = andsat_rec(l, LOW(r)) || andsat_rec(l, HIGH(r));
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = bddop_andsat;
-    entry.res = res ? BDDONE : BDDZERO;
-    entry.hash = hash;
+    applycache.a[slot] = l;
+    applycache.b[slot] = r;
+    applycache.c[slot] = bddop_andsat;
+    applycache.res[slot] = res ? BDDONE : BDDZERO;
+    applycache.hash[slot] = hash;
 
     return res;
   }
@@ -1849,16 +1835,12 @@ public class JFactory extends BDDFactory implements Serializable {
     operands = dedupSorted(operands, operands.length);
 
     int hash = MULTIOPHASH(operands, bddop_and);
-    MultiOpBddCacheData entry = BddCache_lookupMultiOp(multiopcache, hash);
-    if (entry.a == bddop_and && Arrays.equals(operands, entry.operands)) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.b;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(multiopcache, hash);
+    if (multiopcache.a[slot] == bddop_and && Arrays.equals(operands, multiopcache.operands[slot])) {
+      multiopcache.hits++;
+      return multiopcache.b[slot];
     }
+    multiopcache.misses++;
 
     /* Compute the result in a way that generalizes and_rec. Identify the variable to branch on, and
      * make two recursive calls (for when that variable is high or low).
@@ -1972,13 +1954,15 @@ public class JFactory extends BDDFactory implements Serializable {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(multiopcache, hash);
+    if (multiopcache.a[slot] != -1) {
+      multiopcache.overwrites++;
     }
-    entry.a = bddop_and;
-    entry.b = res;
-    entry.operands = operands;
-    entry.hash = hash;
+    multiopcache.a[slot] = bddop_and;
+    multiopcache.b[slot] = res;
+    multiopcache.operands[slot] = operands;
+    multiopcache.hash[slot] = hash;
     return res;
   }
 
@@ -1996,16 +1980,12 @@ public class JFactory extends BDDFactory implements Serializable {
     operands = dedupSorted(operands, operands.length);
 
     int hash = MULTIOPHASH(operands, bddop_or);
-    MultiOpBddCacheData entry = BddCache_lookupMultiOp(multiopcache, hash);
-    if (entry.a == bddop_or && Arrays.equals(operands, entry.operands)) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.b;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(multiopcache, hash);
+    if (multiopcache.a[slot] == bddop_or && Arrays.equals(operands, multiopcache.operands[slot])) {
+      multiopcache.hits++;
+      return multiopcache.b[slot];
     }
+    multiopcache.misses++;
 
     /* Compute the result in a way that generalizes or_rec. Identify the variable to branch on, and
      * make two recursive calls (for when that variable is high or low).
@@ -2119,18 +2099,20 @@ public class JFactory extends BDDFactory implements Serializable {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(multiopcache, hash);
+    if (multiopcache.a[slot] != -1) {
+      multiopcache.overwrites++;
     }
-    entry.a = bddop_or;
-    entry.b = res;
-    entry.operands = operands;
-    entry.hash = hash;
+    multiopcache.a[slot] = bddop_or;
+    multiopcache.b[slot] = res;
+    multiopcache.operands[slot] = operands;
+    multiopcache.hash[slot] = hash;
     return res;
   }
 
   private int or_rec(int l, int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (l == r) {
@@ -2148,17 +2130,13 @@ public class JFactory extends BDDFactory implements Serializable {
       r = t;
     }
     int hash = APPLYHASH(l, r, bddop_or);
-    entry = BddCache_lookupI(applycache, hash);
+    slot = BddCache_lookup(applycache, hash);
 
-    if (entry.a == l && entry.b == r && entry.c == bddop_or) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[slot] == l && applycache.b[slot] == r && applycache.c[slot] == bddop_or) {
+      applycache.hits++;
+      return applycache.res[slot];
     }
+    applycache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(or_rec(LOW(l), LOW(r)));
@@ -2176,20 +2154,22 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = bddop_or;
-    entry.res = res;
-    entry.hash = hash;
+    applycache.a[slot] = l;
+    applycache.b[slot] = r;
+    applycache.c[slot] = bddop_or;
+    applycache.res[slot] = res;
+    applycache.hash[slot] = hash;
 
     return res;
   }
 
   private int relprod_rec(int l, int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (l == BDDZERO || r == BDDZERO) {
@@ -2210,16 +2190,12 @@ public class JFactory extends BDDFactory implements Serializable {
       applyop = bddop_or;
     } else {
       int hash = APPEXHASH(l, r, bddop_and);
-      entry = BddCache_lookupI(appexcache, hash);
-      if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
-        }
-        return entry.res;
-      }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      slot = BddCache_lookup(appexcache, hash);
+      if (appexcache.a[slot] == l && appexcache.b[slot] == r && appexcache.c[slot] == appexid) {
+        appexcache.hits++;
+        return appexcache.res[slot];
       }
+      appexcache.misses++;
 
       if (LEVEL_l == LEVEL_r) {
         PUSHREF(relprod_rec(LOW(l), LOW(r)));
@@ -2249,14 +2225,16 @@ public class JFactory extends BDDFactory implements Serializable {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
-        cachestats.opOverwrite++;
+      // The cache may have been resized during the recursive calls above.
+      slot = BddCache_lookup(appexcache, hash);
+      if (appexcache.a[slot] != -1) {
+        appexcache.overwrites++;
       }
-      entry.a = l;
-      entry.b = r;
-      entry.c = appexid;
-      entry.res = res;
-      entry.hash = hash;
+      appexcache.a[slot] = l;
+      appexcache.b[slot] = r;
+      appexcache.c[slot] = appexid;
+      appexcache.res[slot] = res;
+      appexcache.hash[slot] = hash;
     }
 
     return res;
@@ -2331,7 +2309,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int transform_rec(int l, int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (ISZERO(l) || ISZERO(r)) {
@@ -2341,16 +2319,14 @@ public class JFactory extends BDDFactory implements Serializable {
       return and_rec(l, r);
     }
     int hash = TRANSFORMHASH(replaceid, l, r);
-    entry = BddCache_lookupI(replacecache, hash);
-    if (entry.a == l && entry.b == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss--;
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] == l
+        && replacecache.b[slot] == r
+        && replacecache.c[slot] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[slot];
     }
+    replacecache.misses++;
 
     int level;
     if (LEVEL(l) == LEVEL(r)) {
@@ -2388,14 +2364,16 @@ public class JFactory extends BDDFactory implements Serializable {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] != -1) {
+      replacecache.overwrites++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = replaceid;
-    entry.res = res;
-    entry.hash = hash;
+    replacecache.a[slot] = l;
+    replacecache.b[slot] = r;
+    replacecache.c[slot] = replaceid;
+    replacecache.res[slot] = res;
+    replacecache.hash[slot] = hash;
 
     return res;
   }
@@ -2461,7 +2439,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int appquant_rec(int l, int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (VERIFY_ASSERTIONS) {
@@ -2520,16 +2498,12 @@ public class JFactory extends BDDFactory implements Serializable {
       applyop = oldop;
     } else {
       int hash = APPEXHASH(l, r, appexop);
-      entry = BddCache_lookupI(appexcache, hash);
-      if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
-        }
-        return entry.res;
-      }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      slot = BddCache_lookup(appexcache, hash);
+      if (appexcache.a[slot] == l && appexcache.b[slot] == r && appexcache.c[slot] == appexid) {
+        appexcache.hits++;
+        return appexcache.res[slot];
       }
+      appexcache.misses++;
 
       int lev;
       if (LEVEL(l) == LEVEL(r)) {
@@ -2564,21 +2538,23 @@ public class JFactory extends BDDFactory implements Serializable {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
-        cachestats.opOverwrite++;
+      // The cache may have been resized during the recursive calls above.
+      slot = BddCache_lookup(appexcache, hash);
+      if (appexcache.a[slot] != -1) {
+        appexcache.overwrites++;
       }
-      entry.a = l;
-      entry.b = r;
-      entry.c = appexid;
-      entry.res = res;
-      entry.hash = hash;
+      appexcache.a[slot] = l;
+      appexcache.b[slot] = r;
+      appexcache.c[slot] = appexid;
+      appexcache.res[slot] = res;
+      appexcache.hash[slot] = hash;
     }
 
     return res;
   }
 
   private int appuni_rec(int l, int r, int var) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     int LEVEL_l, LEVEL_r, LEVEL_var;
@@ -2610,16 +2586,12 @@ public class JFactory extends BDDFactory implements Serializable {
       applyop = oldop;
     } else {
       int hash = APPEXHASH(l, r, appexop);
-      entry = BddCache_lookupI(appexcache, hash);
-      if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
-        }
-        return entry.res;
-      }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      slot = BddCache_lookup(appexcache, hash);
+      if (appexcache.a[slot] == l && appexcache.b[slot] == r && appexcache.c[slot] == appexid) {
+        appexcache.hits++;
+        return appexcache.res[slot];
       }
+      appexcache.misses++;
 
       int lev;
       if (LEVEL_l == LEVEL_r) {
@@ -2670,21 +2642,23 @@ public class JFactory extends BDDFactory implements Serializable {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
-        cachestats.opOverwrite++;
+      // The cache may have been resized during the recursive calls above.
+      slot = BddCache_lookup(appexcache, hash);
+      if (appexcache.a[slot] != -1) {
+        appexcache.overwrites++;
       }
-      entry.a = l;
-      entry.b = r;
-      entry.c = appexid;
-      entry.res = res;
-      entry.hash = hash;
+      appexcache.a[slot] = l;
+      appexcache.b[slot] = r;
+      appexcache.c[slot] = appexid;
+      appexcache.res[slot] = res;
+      appexcache.hash[slot] = hash;
     }
 
     return res;
   }
 
   private int unique_rec(int r, int q) {
-    BddCacheDataI entry;
+    int slot;
     int res;
     int LEVEL_r, LEVEL_q;
 
@@ -2700,16 +2674,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = QUANTHASH(r);
-    entry = BddCache_lookupI(quantcache, hash);
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] == r && quantcache.c[slot] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[slot];
     }
+    quantcache.misses++;
 
     if (LEVEL_r == LEVEL_q) {
       PUSHREF(unique_rec(LOW(r), HIGH(q)));
@@ -2723,13 +2693,15 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] != -1) {
+      quantcache.overwrites++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res;
-    entry.hash = hash;
+    quantcache.a[slot] = r;
+    quantcache.c[slot] = quantid;
+    quantcache.res[slot] = res;
+    quantcache.hash[slot] = hash;
 
     return res;
   }
@@ -2744,16 +2716,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = QUANTHASH(r);
-    BddCacheDataI entry = BddCache_lookupI(quantcache, hash);
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] == r && quantcache.c[slot] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[slot];
     }
+    quantcache.misses++;
 
     int res = -1; // indicates that it has not been set.
 
@@ -2821,19 +2789,21 @@ public class JFactory extends BDDFactory implements Serializable {
       POPREF(2);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] != -1) {
+      quantcache.overwrites++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res;
-    entry.hash = hash;
+    quantcache.a[slot] = r;
+    quantcache.c[slot] = quantid;
+    quantcache.res[slot] = res;
+    quantcache.hash[slot] = hash;
 
     return res;
   }
 
   private int quant_rec(int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (r < 2 || LEVEL(r) > quantlast) {
@@ -2841,16 +2811,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = QUANTHASH(r);
-    entry = BddCache_lookupI(quantcache, hash);
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] == r && quantcache.c[slot] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[slot];
     }
+    quantcache.misses++;
 
     PUSHREF(quant_rec(LOW(r)));
     PUSHREF(quant_rec(HIGH(r)));
@@ -2874,19 +2840,21 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] != -1) {
+      quantcache.overwrites++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res;
-    entry.hash = hash;
+    quantcache.a[slot] = r;
+    quantcache.c[slot] = quantid;
+    quantcache.res[slot] = res;
+    quantcache.hash[slot] = hash;
 
     return res;
   }
 
   private boolean testsVars_rec(int r) {
-    BddCacheDataI entry;
+    int slot;
 
     if (r < 2 || LEVEL(r) > quantlast) {
       return false;
@@ -2895,32 +2863,30 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = QUANTHASH(r);
-    entry = BddCache_lookupI(quantcache, hash);
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res == BDDONE;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] == r && quantcache.c[slot] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[slot] == BDDONE;
     }
+    quantcache.misses++;
 
     boolean res = testsVars_rec(LOW(r)) || testsVars_rec(HIGH(r));
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] != -1) {
+      quantcache.overwrites++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res ? BDDONE : BDDZERO;
-    entry.hash = hash;
+    quantcache.a[slot] = r;
+    quantcache.c[slot] = quantid;
+    quantcache.res[slot] = res ? BDDONE : BDDZERO;
+    quantcache.hash[slot] = hash;
 
     return res;
   }
 
   private int project_rec(int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (r < 2) {
@@ -2934,16 +2900,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = QUANTHASH(r);
-    entry = BddCache_lookupI(quantcache, hash);
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] == r && quantcache.c[slot] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[slot];
     }
+    quantcache.misses++;
 
     int low = PUSHREF(project_rec(LOW(r)));
     int high = PUSHREF(project_rec(HIGH(r)));
@@ -2957,13 +2919,15 @@ public class JFactory extends BDDFactory implements Serializable {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(quantcache, hash);
+    if (quantcache.a[slot] != -1) {
+      quantcache.overwrites++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res;
-    entry.hash = hash;
+    quantcache.a[slot] = r;
+    quantcache.c[slot] = quantid;
+    quantcache.res[slot] = res;
+    quantcache.hash[slot] = hash;
 
     return res;
   }
@@ -2985,7 +2949,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int constrain_rec(int f, int c) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (ISONE(c)) {
@@ -2999,16 +2963,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = CONSTRAINHASH(f, c);
-    entry = BddCache_lookupI(misccache, hash);
-    if (entry.a == f && entry.b == c && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(misccache, hash);
+    if (misccache.a[slot] == f && misccache.b[slot] == c && misccache.c[slot] == miscid) {
+      misccache.hits++;
+      return misccache.res[slot];
     }
+    misccache.misses++;
 
     if (LEVEL(f) == LEVEL(c)) {
       if (ISZERO(LOW(c))) {
@@ -3039,14 +2999,16 @@ public class JFactory extends BDDFactory implements Serializable {
       }
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(misccache, hash);
+    if (misccache.a[slot] != -1) {
+      misccache.overwrites++;
     }
-    entry.a = f;
-    entry.b = c;
-    entry.c = miscid;
-    entry.res = res;
-    entry.hash = hash;
+    misccache.a[slot] = f;
+    misccache.b[slot] = c;
+    misccache.c[slot] = miscid;
+    misccache.res[slot] = res;
+    misccache.hash[slot] = hash;
 
     return res;
   }
@@ -3077,7 +3039,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int compose_rec(int f, int g) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (LEVEL(f) > composelevel) {
@@ -3085,16 +3047,14 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = COMPOSEHASH(replaceid, f, g);
-    entry = BddCache_lookupI(replacecache, hash);
-    if (entry.a == f && entry.b == g && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] == f
+        && replacecache.b[slot] == g
+        && replacecache.c[slot] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[slot];
     }
+    replacecache.misses++;
 
     if (LEVEL(f) < composelevel) {
       if (LEVEL(f) == LEVEL(g)) {
@@ -3116,14 +3076,16 @@ public class JFactory extends BDDFactory implements Serializable {
       res = ite_rec(g, HIGH(f), LOW(f));
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] != -1) {
+      replacecache.overwrites++;
     }
-    entry.a = f;
-    entry.b = g;
-    entry.c = replaceid;
-    entry.res = res;
-    entry.hash = hash;
+    replacecache.a[slot] = f;
+    replacecache.b[slot] = g;
+    replacecache.c[slot] = replaceid;
+    replacecache.res[slot] = res;
+    replacecache.hash[slot] = hash;
 
     return res;
   }
@@ -3149,7 +3111,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int veccompose_rec(int f) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (LEVEL(f) > replacelast) {
@@ -3157,29 +3119,27 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = VECCOMPOSEHASH(replaceid, f);
-    entry = BddCache_lookupI(replacecache, hash);
-    if (entry.a == f && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] == f && replacecache.c[slot] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[slot];
     }
+    replacecache.misses++;
 
     PUSHREF(veccompose_rec(LOW(f)));
     PUSHREF(veccompose_rec(HIGH(f)));
     res = ite_rec(replacepair[LEVEL(f)], READREF(1), READREF(2));
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(replacecache, hash);
+    if (replacecache.a[slot] != -1) {
+      replacecache.overwrites++;
     }
-    entry.a = f;
-    entry.c = replaceid;
-    entry.res = res;
-    entry.hash = hash;
+    replacecache.a[slot] = f;
+    replacecache.c[slot] = replaceid;
+    replacecache.res[slot] = res;
+    replacecache.hash[slot] = hash;
 
     return res;
   }
@@ -3334,7 +3294,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int restrict_rec(int r) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (ISCONST(r) || LEVEL(r) > quantlast) {
@@ -3342,16 +3302,12 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = RESTRHASH(r, miscid);
-    entry = BddCache_lookupI(misccache, hash);
-    if (entry.a == r && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    slot = BddCache_lookup(misccache, hash);
+    if (misccache.a[slot] == r && misccache.c[slot] == miscid) {
+      misccache.hits++;
+      return misccache.res[slot];
     }
+    misccache.misses++;
 
     if (INSVARSET(LEVEL(r))) {
       if (quantvarset[LEVEL(r)] > 0) {
@@ -3366,13 +3322,15 @@ public class JFactory extends BDDFactory implements Serializable {
       POPREF(2);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(misccache, hash);
+    if (misccache.a[slot] != -1) {
+      misccache.overwrites++;
     }
-    entry.a = r;
-    entry.c = miscid;
-    entry.res = res;
-    entry.hash = hash;
+    misccache.a[slot] = r;
+    misccache.c[slot] = miscid;
+    misccache.res[slot] = res;
+    misccache.hash[slot] = hash;
 
     return res;
   }
@@ -3394,7 +3352,7 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private int simplify_rec(int f, int d) {
-    BddCacheDataI entry;
+    int slot;
     int res;
 
     if (ISONE(d) || ISCONST(f)) {
@@ -3406,17 +3364,15 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = APPLYHASH(f, d, bddop_simplify);
-    entry = BddCache_lookupI(applycache, hash);
+    slot = BddCache_lookup(applycache, hash);
 
-    if (entry.a == f && entry.b == d && entry.c == bddop_simplify) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[slot] == f
+        && applycache.b[slot] == d
+        && applycache.c[slot] == bddop_simplify) {
+      applycache.hits++;
+      return applycache.res[slot];
     }
+    applycache.misses++;
 
     if (LEVEL(f) == LEVEL(d)) {
       if (ISZERO(LOW(d))) {
@@ -3440,14 +3396,16 @@ public class JFactory extends BDDFactory implements Serializable {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(applycache, hash);
+    if (applycache.a[slot] != -1) {
+      applycache.overwrites++;
     }
-    entry.a = f;
-    entry.b = d;
-    entry.c = bddop_simplify;
-    entry.res = res;
-    entry.hash = hash;
+    applycache.a[slot] = f;
+    applycache.b[slot] = d;
+    applycache.c[slot] = bddop_simplify;
+    applycache.res[slot] = res;
+    applycache.hash[slot] = hash;
 
     return res;
   }
@@ -3901,26 +3859,24 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = PATHCOUHASH(r, miscid);
-    BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, hash);
-    if (entry.a == r && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.value;
+    int slot = BddCache_lookup(countcache, hash);
+    if (countcache.a[slot] == r && countcache.c[slot] == miscid) {
+      countcache.hits++;
+      return countcache.value[slot];
     }
 
-    if (CACHESTATS) {
-      cachestats.opMiss++;
-    }
+    countcache.misses++;
     BigInteger size = bdd_pathcount_rec(LOW(r)).add(bdd_pathcount_rec(HIGH(r)));
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(countcache, hash);
+    if (countcache.a[slot] != -1) {
+      countcache.overwrites++;
     }
-    entry.a = r;
-    entry.c = miscid;
-    entry.value = size;
-    entry.hash = hash;
+    countcache.a[slot] = r;
+    countcache.c[slot] = miscid;
+    countcache.value[slot] = size;
+    countcache.hash[slot] = hash;
 
     return size;
   }
@@ -3944,17 +3900,13 @@ public class JFactory extends BDDFactory implements Serializable {
     }
 
     int hash = SATCOUHASH(root, miscid);
-    BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, hash);
-    if (entry.a == root && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.value;
+    int slot = BddCache_lookup(countcache, hash);
+    if (countcache.a[slot] == root && countcache.c[slot] == miscid) {
+      countcache.hits++;
+      return countcache.value[slot];
     }
 
-    if (CACHESTATS) {
-      cachestats.opMiss++;
-    }
+    countcache.misses++;
 
     int low = LOW(root);
     int high = HIGH(root);
@@ -3963,13 +3915,15 @@ public class JFactory extends BDDFactory implements Serializable {
             .shiftLeft(LEVEL(low) - LEVEL(root) - 1)
             .add(satcount_rec(high).shiftLeft(LEVEL(high) - LEVEL(root) - 1));
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    // The cache may have been resized during the recursive calls above.
+    slot = BddCache_lookup(countcache, hash);
+    if (countcache.a[slot] != -1) {
+      countcache.overwrites++;
     }
-    entry.a = root;
-    entry.c = miscid;
-    entry.value = size;
-    entry.hash = hash;
+    countcache.a[slot] = root;
+    countcache.c[slot] = miscid;
+    countcache.value[slot] = size;
+    countcache.hash[slot] = hash;
 
     return size;
   }
@@ -4472,36 +4426,34 @@ public class JFactory extends BDDFactory implements Serializable {
     }
   }
 
-  private BddCache BddCacheI_init(int size) {
+  private BddCache BddCache_init(int size) {
     size = bdd_prime_gte(size);
 
     BddCache cache = new BddCache();
-    cache.table = new BddCacheDataI[size];
-    Arrays.parallelSetAll(cache.table, i -> new BddCacheDataI());
+    cache.a = new int[size];
+    Arrays.fill(cache.a, -1);
+    cache.b = new int[size];
+    cache.c = new int[size];
+    cache.res = new int[size];
+    cache.hash = new int[size];
     cache.tablesize = size;
 
     return cache;
   }
 
-  private BddCache BddCacheMultiOp_init(int size) {
-    size = bdd_prime_gte(size);
-
-    BddCache cache = new BddCache();
-    cache.table = new MultiOpBddCacheData[size];
-    Arrays.parallelSetAll(cache.table, i -> new MultiOpBddCacheData());
-    cache.tablesize = size;
+  private BddCache BddCacheI_init(int size) {
+    return BddCache_init(size);
+  }
 
+  private BddCache BddCacheMultiOp_init(int size) {
+    BddCache cache = BddCache_init(size);
+    cache.operands = new int[cache.tablesize][];
     return cache;
   }
 
   private BddCache BddCacheBigInteger_init(int size) {
-    size = bdd_prime_gte(size);
-
-    BddCache cache = new BddCache();
-    cache.table = new BigIntegerBddCacheData[size];
-    Arrays.parallelSetAll(cache.table, i -> new BigIntegerBddCacheData());
-    cache.tablesize = size;
-
+    BddCache cache = BddCache_init(size);
+    cache.value = new BigInteger[cache.tablesize];
     return cache;
   }
 
@@ -4510,7 +4462,13 @@ public class JFactory extends BDDFactory implements Serializable {
       return;
     }
 
-    cache.table = null;
+    cache.a = null;
+    cache.b = null;
+    cache.c = null;
+    cache.res = null;
+    cache.hash = null;
+    cache.operands = null;
+    cache.value = null;
     cache.tablesize = 0;
   }
 
@@ -4539,24 +4497,6 @@ public class JFactory extends BDDFactory implements Serializable {
     }
   }
 
-  private static <T extends BddCacheData> T[] reallocateAndResize(
-      T[] oldTable, int newsize, IntFunction<T[]> newTable, Supplier<T> constructor) {
-    T[] ret = newTable.apply(newsize);
-    Arrays.stream(oldTable)
-        .parallel()
-        .forEach(entry -> ret[Math.floorMod(entry.hash, newsize)] = entry);
-    IntStream.range(0, newsize)
-        .parallel()
-        .forEach(
-            i -> {
-              if (ret[i] != null) {
-                return;
-              }
-              ret[i] = constructor.get();
-            });
-    return ret;
-  }
-
   private int BddCache_resize(BddCache cache, int newsize) {
     if (cache == null) {
       return 0;
@@ -4564,44 +4504,53 @@ public class JFactory extends BDDFactory implements Serializable {
 
     if (CACHESTATS) {
       LOGGER.info(
-          "Cache {} resize: {}/{} slots used",
-          getCacheName(cache),
-          cache.used(),
-          cache.table.length);
+          "Cache {} resize: {}/{} slots used", getCacheName(cache), cache.used(), cache.tablesize);
     }
 
     newsize = bdd_prime_gte(newsize);
 
-    if (cache.table instanceof BddCacheDataI[]) {
-      cache.table =
-          reallocateAndResize(cache.table, newsize, BddCacheDataI[]::new, BddCacheDataI::new);
-    } else if (cache.table instanceof BigIntegerBddCacheData[]) {
-      cache.table =
-          reallocateAndResize(
-              cache.table, newsize, BigIntegerBddCacheData[]::new, BigIntegerBddCacheData::new);
-    } else if (cache.table instanceof MultiOpBddCacheData[]) {
-      cache.table =
-          reallocateAndResize(
-              cache.table, newsize, MultiOpBddCacheData[]::new, MultiOpBddCacheData::new);
-    } else {
-      throw new IllegalStateException("unknown cache table type");
+    int[] a = new int[newsize];
+    Arrays.fill(a, -1);
+    int[] b = new int[newsize];
+    int[] c = new int[newsize];
+    int[] res = new int[newsize];
+    int[] hash = new int[newsize];
+    int[][] operands = cache.operands == null ? null : new int[newsize][];
+    BigInteger[] value = cache.value == null ? null : new BigInteger[newsize];
+    // Sequential so that colliding entries cannot interleave their fields; later entries win.
+    for (int i = 0; i < cache.tablesize; i++) {
+      if (cache.a[i] == -1) {
+        continue;
+      }
+      int slot = Math.floorMod(cache.hash[i], newsize);
+      a[slot] = cache.a[i];
+      b[slot] = cache.b[i];
+      c[slot] = cache.c[i];
+      res[slot] = cache.res[i];
+      hash[slot] = cache.hash[i];
+      if (operands != null) {
+        operands[slot] = cache.operands[i];
+      }
+      if (value != null) {
+        value[slot] = cache.value[i];
+      }
     }
 
+    cache.a = a;
+    cache.b = b;
+    cache.c = c;
+    cache.res = res;
+    cache.hash = hash;
+    cache.operands = operands;
+    cache.value = value;
     cache.tablesize = newsize;
 
     return 0;
   }
 
-  private static BddCacheDataI BddCache_lookupI(BddCache cache, int hash) {
-    return (BddCacheDataI) cache.table[Math.floorMod(hash, cache.tablesize)];
-  }
-
-  private static BigIntegerBddCacheData BddCache_lookupBigInteger(BddCache cache, int hash) {
-    return (BigIntegerBddCacheData) cache.table[Math.floorMod(hash, cache.tablesize)];
-  }
-
-  private static MultiOpBddCacheData BddCache_lookupMultiOp(BddCache cache, int hash) {
-    return (MultiOpBddCacheData) cache.table[Math.floorMod(hash, cache.tablesize)];
+  /** Returns the slot of {@code cache} in which an entry with the given {@code hash} is stored. */
+  private static int BddCache_lookup(BddCache cache, int hash) {
+    return Math.floorMod(hash, cache.tablesize);
   }
 
   private void BddCache_reset(BddCache cache) {
@@ -4610,26 +4559,31 @@ public class JFactory extends BDDFactory implements Serializable {
     }
     if (CACHESTATS) {
       LOGGER.info(
-          "Cache {} reset: {}/{} slots used",
-          getCacheName(cache),
-          cache.used(),
-          cache.table.length);
+          "Cache {} reset: {}/{} slots used", getCacheName(cache), cache.used(), cache.tablesize);
     }
 
-    Arrays.stream(cache.table).parallel().forEach(e -> e.a = -1);
+    Arrays.fill(cache.a, -1);
+    if (cache.operands != null) {
+      Arrays.fill(cache.operands, null);
+    }
+    if (cache.value != null) {
+      Arrays.fill(cache.value, null);
+    }
   }
 
   private void BddCache_clean_d(BddCache cache) {
     if (cache == null) {
       return;
     }
-    Arrays.stream(cache.table)
+    int[] as = cache.a;
+    IntStream.range(0, cache.tablesize)
         .parallel()
         .forEach(
-            entry -> {
-              int a = entry.a;
+            i -> {
+              int a = as[i];
               if (a >= 0 && LOW(a) == INVALID_BDD) {
-                entry.a = -1;
+                as[i] = -1;
+                cache.value[i] = null;
               }
             });
   }
@@ -4638,16 +4592,18 @@ public class JFactory extends BDDFactory implements Serializable {
     if (cache == null) {
       return;
     }
-    Arrays.stream(cache.table)
+    int[] as = cache.a;
+    int[] res = cache.res;
+    IntStream.range(0, cache.tablesize)
         .parallel()
         .forEach(
-            entry -> {
-              int a = entry.a;
+            i -> {
+              int a = as[i];
               if (a < 0) {
                 return;
               }
-              if (LOW(a) == INVALID_BDD || LOW(((BddCacheDataI) entry).res) == INVALID_BDD) {
-                entry.a = -1;
+              if (LOW(a) == INVALID_BDD || LOW(res[i]) == INVALID_BDD) {
+                as[i] = -1;
               }
             });
   }
@@ -4656,33 +4612,38 @@ public class JFactory extends BDDFactory implements Serializable {
     if (cache == null) {
       return;
     }
-    Arrays.stream(cache.table)
+    int[] as = cache.a;
+    int[] bs = cache.b;
+    int[] res = cache.res;
+    IntStream.range(0, cache.tablesize)
         .parallel()
         .forEach(
-            entry -> {
-              int a = entry.a;
+            i -> {
+              int a = as[i];
               if (a < 0) {
                 return;
               }
+              int b = bs[i];
               if (LOW(a) == INVALID_BDD
-                  || (entry.b != 0 && LOW(entry.b) == INVALID_BDD)
-                  || LOW(((BddCacheDataI) entry).res) == INVALID_BDD) {
-                entry.a = -1;
+                  || (b != 0 && LOW(b) == INVALID_BDD)
+                  || LOW(res[i]) == INVALID_BDD) {
+                as[i] = -1;
               }
             });
   }
 
-  private boolean invalidEntry(MultiOpBddCacheData entry) {
-    if (entry.a == -1) {
+  private boolean invalidEntry(BddCache cache, int slot) {
+    if (cache.a[slot] == -1) {
       // unused entry
       return false;
     }
-    if (LOW(entry.b) == INVALID_BDD) {
+    if (LOW(cache.b[slot]) == INVALID_BDD) {
       // invalid result
       return true;
     }
-    for (int i = 0; i < entry.operands.length; i++) {
-      if (LOW(entry.operands[i]) == INVALID_BDD) {
+    int[] operands = cache.operands[slot];
+    for (int i = 0; i < operands.length; i++) {
+      if (LOW(operands[i]) == INVALID_BDD) {
         // invalid operand
         return true;
       }
@@ -4695,14 +4656,13 @@ public class JFactory extends BDDFactory implements Serializable {
     if (cache == null) {
       return;
     }
-    Arrays.stream(cache.table)
+    IntStream.range(0, cache.tablesize)
         .parallel()
         .forEach(
-            e -> {
-              MultiOpBddCacheData entry = (MultiOpBddCacheData) e;
-              if (invalidEntry(entry)) {
-                entry.a = -1;
-                entry.operands = null;
+            i -> {
+              if (invalidEntry(cache, i)) {
+                cache.a[i] = -1;
+                cache.operands[i] = null;
               }
             });
   }
@@ -5930,10 +5890,38 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private void bdd_fprintstat(PrintStream out) {
-    CacheStats s = cachestats;
+    CacheStats s = getCacheStats();
     out.print(s.toString());
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The operator hit, miss, and overwrite counts are always collected, and are summed over all
+   * operator caches.
+   */
+  @Override
+  public CacheStats getCacheStats() {
+    long hits = 0;
+    long misses = 0;
+    long overwrites = 0;
+    for (BddCache cache :
+        new BddCache[] {
+          applycache, quantcache, appexcache, replacecache, misccache, multiopcache, countcache
+        }) {
+      if (cache == null) {
+        continue;
+      }
+      hits += cache.hits;
+      misses += cache.misses;
+      overwrites += cache.overwrites;
+    }
+    cachestats.opHit = hits;
+    cachestats.opMiss = misses;
+    cachestats.opOverwrite = overwrites;
+    return cachestats;
+  }
+
   @Override
   protected BDDDomain createDomain(int a, BigInteger b) {
     return new bddDomain(a, b);
@@ -2,6 +2,7 @@ package net.sf.javabdd;
 
 import static net.sf.javabdd.JFactory.toIntOperands;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
@@ -677,4 +678,24 @@ public class JFactoryTest {
     bddClone.not(); // can do operations after deserialization
     assertEquals(bdd.not().toReprString(), bddClone.not().toReprString());
   }
+
+  @Test
+  public void testOperatorCacheStats() {
+    _factory.setVarNum(10);
+    BDD x = _factory.ithVar(0).or(_factory.ithVar(1));
+    BDD y = _factory.ithVar(2).or(_factory.ithVar(3));
+    BDDFactory.CacheStats before = new BDDFactory.CacheStats();
+    before.copyFrom(_factory.getCacheStats());
+
+    BDD xy = x.and(y);
+    BDDFactory.CacheStats afterMiss = new BDDFactory.CacheStats();
+    afterMiss.copyFrom(_factory.getCacheStats());
+    assertThat(afterMiss.opMiss, greaterThan(before.opMiss));
+
+    // The same operation again is answered from the apply cache.
+    assertThat(x.and(y), equalTo(xy));
+    BDDFactory.CacheStats afterHit = _factory.getCacheStats();
+    assertThat(afterHit.opHit, greaterThan(afterMiss.opHit));
+    assertThat(afterHit.opMiss, equalTo(afterMiss.opMiss));
+  }
 }
@@ -0,0 +1,146 @@
+package org.batfish.coordinator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BatfishWorkerService;
+import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Task;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
+
+/**
+ * {@link WorkExecutor} that distributes work among several {@link BatfishWorkerService workers}.
+ *
+ * <p>Work is preferably submitted to a worker that advertises the snapshots of the work as cached,
+ * so that the worker does not load them from storage again. Among equally good workers, and for
+ * work no worker has cached, the worker with the fewest active tasks is preferred. If a worker is
+ * busy, the next best worker is tried.
+ */
+@ParametersAreNonnullByDefault
+public final class AffinityWorkExecutor implements WorkExecutor {
+
+  public AffinityWorkExecutor(
+      BatfishLogger logger, Path containersLocation, List<BatfishWorkerService> workers) {
+    checkArgument(!workers.isEmpty(), "At least one worker is required");
+    _logger = logger;
+    _workers =
+        workers.stream()
+            .map(
+                service ->
+                    new Worker(
+                        service,
+                        new BatfishWorkerServiceWorkExecutor(logger, containersLocation, service)))
+            .collect(toImmutableList());
+  }
+
+  @Override
+  public synchronized SubmissionResult submit(QueuedWork work) {
+    Set<NetworkSnapshot> snapshots = getInputSnapshots(work.getDetails());
+    _workers.forEach(this::refreshCachedSnapshots);
+    for (Worker worker : rankWorkers(_workers, snapshots)) {
+      SubmissionResult result = worker._executor.submit(work);
+      switch (result.getType()) {
+        case BUSY:
+          worker._status.updateStatus(StatusCode.BUSY);
+          continue;
+        case SUCCESS:
+          worker._status.updateStatus(StatusCode.IDLE);
+          worker._status.taskStarted();
+          return SubmissionResult.success(trackTermination(worker, result.getTaskHandle()));
+        case ERROR:
+          return result;
+        default:
+          throw new IllegalArgumentException(
+              String.format("Invalid SubmissionResult.Type: %s", result.getType()));
+      }
+    }
+    return SubmissionResult.busy();
+  }
+
+  /** Returns the status of each worker, in the order the workers were given. */
+  public @Nonnull List<WorkerStatus> getWorkerStatuses() {
+    return _workers.stream().map(worker -> worker._status).collect(toImmutableList());
+  }
+
+  /** Returns the snapshots that {@code work} reads. */
+  @VisibleForTesting
+  static @Nonnull Set<NetworkSnapshot> getInputSnapshots(WorkDetails work) {
+    ImmutableSet.Builder<NetworkSnapshot> snapshots = ImmutableSet.builder();
+    snapshots.add(new NetworkSnapshot(work.getNetworkId(), work.getSnapshotId()));
+    if (work.isDifferential() && work.getReferenceSnapshotId() != null) {
+      snapshots.add(new NetworkSnapshot(work.getNetworkId(), work.getReferenceSnapshotId()));
+    }
+    return snapshots.build();
+  }
+
+  /**
+   * Returns {@code workers} ordered by preference for work on {@code snapshots}: most snapshots
+   * cached first, then fewest active tasks.
+   */
+  private static @Nonnull List<Worker> rankWorkers(
+      List<Worker> workers, Set<NetworkSnapshot> snapshots) {
+    return workers.stream()
+        .sorted(
+            Comparator.comparingLong(
+                    (Worker worker) ->
+                        -snapshots.stream()
+                            .filter(worker._status.getCachedSnapshots()::contains)
+                            .count())
+                .thenComparingInt(worker -> worker._status.getNumActiveTasks()))
+        .collect(toImmutableList());
+  }
+
+  private void refreshCachedSnapshots(Worker worker) {
+    try {
+      worker._status.updateCachedSnapshots(worker._service.getCachedSnapshots());
+    } catch (Exception e) {
+      _logger.warnf(
+          "Could not get cached snapshots of worker: %s\n", Throwables.getStackTraceAsString(e));
+      worker._status.updateCachedSnapshots(ImmutableSet.of());
+    }
+  }
+
+  /**
+   * Returns a handle that delegates to {@code handle}, and records when the task is no longer
+   * running on {@code worker}.
+   */
+  private static @Nonnull TaskHandle trackTermination(Worker worker, TaskHandle handle) {
+    AtomicBoolean done = new AtomicBoolean();
+    return () -> {
+      Task task = handle.checkTask();
+      // an unknown task will be reassigned, possibly to another worker
+      if ((task.getStatus().isTerminated() || task.getStatus() == TaskStatus.Unknown)
+          && done.compareAndSet(false, true)) {
+        worker._status.taskFinished();
+      }
+      return task;
+    };
+  }
+
+  private static final class Worker {
+    private final @Nonnull BatfishWorkerService _service;
+    private final @Nonnull WorkExecutor _executor;
+    private final @Nonnull WorkerStatus _status;
+
+    private Worker(BatfishWorkerService service, WorkExecutor executor) {
+      _service = service;
+      _executor = executor;
+      _status = new WorkerStatus(StatusCode.IDLE);
+    }
+  }
+
+  private final @Nonnull BatfishLogger _logger;
+  private final @Nonnull List<Worker> _workers;
+}
@@ -25,6 +25,13 @@ public class QueuedWork {
   WorkDetails _details;
 
   Task _lastTaskCheckResult;
+
+  /** Position of this work in the incomplete work queue, set by {@link WorkQueueMgr}. */
+  long _queueSequence;
+
+  /** {@link System#nanoTime()} at which this work last became ready to be assigned. */
+  long _readyNanos;
+
   WorkStatusCode _status;
   WorkItem _workItem;
 
@@ -33,6 +40,7 @@ public class QueuedWork {
     _status = WorkStatusCode.UNASSIGNED;
     _dateCreated = new Date();
     _details = details;
+    _readyNanos = System.nanoTime();
   }
 
   public synchronized void clearAssignment() {
@@ -75,6 +83,24 @@ public class QueuedWork {
     return _workItem;
   }
 
+  long getQueueSequence() {
+    return _queueSequence;
+  }
+
+  long getReadyNanos() {
+    return _readyNanos;
+  }
+
+  /** Records that this work is at position {@code queueSequence} in the incomplete work queue. */
+  void setQueueSequence(long queueSequence) {
+    _queueSequence = queueSequence;
+  }
+
+  /** Records that this work has just become ready to be assigned. */
+  void setReady() {
+    _readyNanos = System.nanoTime();
+  }
+
   public synchronized void recordTaskCheckResult(Task task) {
     _lastTaskCheckResult = task;
     _dateLastTaskCheckedStatus = new Date();
@@ -15,6 +15,7 @@ public final class WorkDetails {
 
   public static final class Builder {
 
+    private @Nullable String _answerKey;
     private boolean _isDifferential;
     private @Nullable NetworkId _networkId;
     private @Nullable QuestionId _questionId;
@@ -29,7 +30,18 @@ public final class WorkDetails {
       checkState(_snapshotId != null, "Missing snapshotId");
       checkState(_workType != null, "Missing workType");
       return new WorkDetails(
-          _networkId, _snapshotId, _isDifferential, _workType, _referenceSnapshotId, _questionId);
+          _networkId,
+          _snapshotId,
+          _isDifferential,
+          _workType,
+          _referenceSnapshotId,
+          _questionId,
+          _answerKey);
+    }
+
+    public @Nonnull Builder setAnswerKey(@Nullable String answerKey) {
+      _answerKey = answerKey;
+      return this;
     }
 
     public @Nonnull Builder setIsDifferential(boolean isDifferential) {
@@ -76,6 +88,7 @@ public final class WorkDetails {
     return new Builder();
   }
 
+  private final @Nullable String _answerKey;
   private final boolean _isDifferential;
   private final @Nonnull NetworkId _networkId;
   private final @Nullable QuestionId _questionId;
@@ -90,6 +103,18 @@ public final class WorkDetails {
       WorkType workType,
       @Nullable SnapshotId referenceSnapshotId,
       @Nullable QuestionId questionId) {
+    this(networkId, snapshotId, isDifferential, workType, referenceSnapshotId, questionId, null);
+  }
+
+  private WorkDetails(
+      NetworkId networkId,
+      SnapshotId snapshotId,
+      boolean isDifferential,
+      WorkType workType,
+      @Nullable SnapshotId referenceSnapshotId,
+      @Nullable QuestionId questionId,
+      @Nullable String answerKey) {
+    _answerKey = answerKey;
     _networkId = networkId;
     _snapshotId = snapshotId;
     _isDifferential = isDifferential;
@@ -98,6 +123,14 @@ public final class WorkDetails {
     _questionId = questionId;
   }
 
+  /**
+   * Key derived from the content of everything the answer of this work depends on, or {@code null}
+   * if this work does not answer a question. Work with equal keys produces equal answers.
+   */
+  public @Nullable String getAnswerKey() {
+    return _answerKey;
+  }
+
   public boolean isDifferential() {
     return _isDifferential;
   }
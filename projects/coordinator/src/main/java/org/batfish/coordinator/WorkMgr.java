@@ -5,6 +5,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Comparators.lexicographical;
 import static com.google.common.io.MoreFiles.createParentDirectories;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Comparator.comparing;
 import static java.util.Comparator.naturalOrder;
 import static java.util.Comparator.nullsFirst;
@@ -15,12 +16,15 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 import com.google.errorprone.annotations.MustBeClosed;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -37,6 +41,7 @@ import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -56,9 +61,11 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor.DiscardOldestPolicy;
+import java.util.concurrent.ThreadPoolExecutor.DiscardPolicy;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -69,6 +76,8 @@ import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.ColumnFilter;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.Container;
@@ -123,6 +132,7 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.referencelibrary.ReferenceLibrary;
 import org.batfish.role.NodeRolesData;
+import org.batfish.storage.ColumnarAnswer;
 import org.batfish.storage.StorageProvider;
 import org.batfish.storage.StoredObjectMetadata;
 
@@ -168,7 +178,8 @@ public class WorkMgr extends AbstractCoordinator {
     @Override
     public void run() {
       Main.getWorkMgr().checkTasks();
-      Main.getWorkMgr().assignWork();
+      // also retries work the workers were too busy to accept
+      Main.getWorkMgr().triggerAssignWork();
     }
   }
 
@@ -178,12 +189,20 @@ public class WorkMgr extends AbstractCoordinator {
   private static final String SNAPSHOT_PACKAGING_INSTRUCTIONS_URL =
       "https://batfish.readthedocs.io/en/latest/notebooks/interacting.html#Packaging-snapshot-data";
 
+  /** Maximum number of successfully answered questions remembered for reuse. */
+  private static final long MAX_REMEMBERED_ANSWERS = 10_000L;
+
+  /** Locations of successful answers, by {@link WorkDetails#getAnswerKey() answer key}. */
+  private final Cache<String, StoredAnswerId> _answersByKey;
+
   private final IdManager _idManager;
   private final BatfishLogger _logger;
   private final SnapshotMetadataMgr _snapshotMetadataManager;
   private WorkQueueMgr _workQueueMgr;
   private final StorageProvider _storage;
   private final ExecutorService _gcExecutor;
+  private final ExecutorService _assignWorkExecutor;
+  private final WorkQueueMetrics _workQueueMetrics;
 
   public WorkMgr(
       Settings settings,
@@ -191,6 +210,7 @@ public class WorkMgr extends AbstractCoordinator {
       @Nonnull IdManager idManager,
       @Nonnull StorageProvider storage,
       @Nonnull WorkExecutorCreator workExecutorCreator) {
+    _answersByKey = CacheBuilder.newBuilder().maximumSize(MAX_REMEMBERED_ANSWERS).build();
     _idManager = idManager;
     _storage = storage;
     _snapshotMetadataManager = new SnapshotMetadataMgr(_storage);
@@ -201,6 +221,13 @@ public class WorkMgr extends AbstractCoordinator {
     _gcExecutor =
         new ThreadPoolExecutor(
             0, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), new DiscardOldestPolicy());
+    // Work is assigned in passes on a single thread, each triggered by an event that may make work
+    // assignable. A pass assigns all the work it can, so at most one pass needs to be queued behind
+    // a running one; further triggers are discarded.
+    _assignWorkExecutor =
+        new ThreadPoolExecutor(
+            0, 1, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), new DiscardPolicy());
+    _workQueueMetrics = new WorkQueueMetrics();
     _workExecutor = workExecutorCreator.apply(logger, settings);
   }
 
@@ -209,41 +236,62 @@ public class WorkMgr extends AbstractCoordinator {
     return _storage;
   }
 
+  /** Assigns queued work until none is left or the workers are busy. */
   private void assignWork() {
-
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
-
-      // get out if no work was found
-      if (work == null) {
-        // _logger.info("WM:AssignWork: No unassigned work\n");
-        return;
-      }
-      SubmissionResult result = _workExecutor.submit(work);
-      switch (result.getType()) {
-        case ERROR:
-          _logger.error(String.format("Error submitting work: %s\n", result.getMessage()));
-          _workQueueMgr.markAssignmentError(work);
-          break;
-        case SUCCESS:
-          _logger.info(String.format("Work submitted with ID: %s\n", work.getId()));
-          TaskHandle handle = result.getTaskHandle();
-          _workQueueMgr.markAssignmentSuccess(work, handle);
-          break;
-        case BUSY:
-          _logger.warn(
-              String.format("Work with ID: %s requeued because worker is busy\n", work.getId()));
-          _workQueueMgr.markAssignmentFailure(work);
-          break;
-        default:
-          throw new IllegalArgumentException(
-              String.format("Invalid SubmissionResult.Type: %s", result.getType()));
+      QueuedWork work;
+      while ((work = _workQueueMgr.getWorkForAssignment()) != null) {
+        if (!assignWork(work)) {
+          // get out if the workers are busy; AssignWorkTask retries periodically
+          return;
+        }
       }
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
     }
   }
 
+  /**
+   * Attempts to assign {@code work}. Returns {@code false} iff the attempt failed because the
+   * workers are busy.
+   */
+  private boolean assignWork(QueuedWork work) throws IOException {
+    long startNanos = System.nanoTime();
+    SubmissionResult result = _workExecutor.submit(work);
+    switch (result.getType()) {
+      case ERROR:
+        _logger.error(String.format("Error submitting work: %s\n", result.getMessage()));
+        _workQueueMgr.markAssignmentError(work);
+        return true;
+      case SUCCESS:
+        _logger.info(String.format("Work submitted with ID: %s\n", work.getId()));
+        _workQueueMetrics.recordAssignment(
+            startNanos - work.getReadyNanos(), System.nanoTime() - startNanos);
+        TaskHandle handle = result.getTaskHandle();
+        _workQueueMgr.markAssignmentSuccess(work, handle);
+        return true;
+      case BUSY:
+        _logger.warn(
+            String.format("Work with ID: %s requeued because worker is busy\n", work.getId()));
+        _workQueueMetrics.recordBusy();
+        _workQueueMgr.markAssignmentFailure(work);
+        return false;
+      default:
+        throw new IllegalArgumentException(
+            String.format("Invalid SubmissionResult.Type: %s", result.getType()));
+    }
+  }
+
+  /** Schedules a pass assigning queued work, if one is not already pending. */
+  private void triggerAssignWork() {
+    _assignWorkExecutor.execute(this::assignWork);
+  }
+
+  /** Returns the latency metrics of assigning queued work. */
+  public @Nonnull WorkQueueMetrics getWorkQueueMetrics() {
+    return _workQueueMetrics;
+  }
+
   private void checkTasks() {
     try {
       List<QueuedWork> workToCheck = _workQueueMgr.getWorkForChecking();
@@ -255,17 +303,47 @@ public class WorkMgr extends AbstractCoordinator {
           continue;
         }
         Task task = assignedHandle.checkTask();
-        try {
-          _workQueueMgr.processTaskCheckResult(work, task);
-        } catch (Exception e) {
-          _logger.errorf("exception: %s\n", Throwables.getStackTraceAsString(e));
-        }
+        processTaskCheckResult(work, task);
       }
     } catch (Exception e) {
       _logger.errorf("Got exception in checkTasks: %s\n", Throwables.getStackTraceAsString(e));
     }
   }
 
+  /**
+   * Updates the work queues with the result of checking the task of {@code work}. If the work
+   * answered a question, remembers the answer and copies it to the work coalesced into it, outside
+   * the lock of the work queues.
+   */
+  @VisibleForTesting
+  void processTaskCheckResult(QueuedWork work, Task task) {
+    List<QueuedWork> awaitingAnswer;
+    try {
+      awaitingAnswer = _workQueueMgr.processTaskCheckResult(work, task);
+    } catch (Exception e) {
+      _logger.errorf("exception: %s\n", Throwables.getStackTraceAsString(e));
+      return;
+    }
+    if (task.getStatus() == TaskStatus.TerminatedNormally) {
+      recordAnswer(work);
+    }
+    for (QueuedWork coalescedWork : awaitingAnswer) {
+      Task coalescedTask = task;
+      try {
+        copyAnswer(work, coalescedWork);
+      } catch (Exception e) {
+        _logger.errorf(
+            "Could not copy answer of %s to %s: %s\n",
+            work.getId(), coalescedWork.getId(), Throwables.getStackTraceAsString(e));
+        coalescedTask =
+            new Task(
+                TaskStatus.TerminatedAbnormally,
+                String.format("Could not copy answer of %s: %s", work.getId(), e.getMessage()));
+      }
+      _workQueueMgr.completeCoalescedWork(coalescedWork, coalescedTask);
+    }
+  }
+
   private @Nullable CompletionMetadata getCompletionMetadata(
       String network, @Nullable String snapshot) throws IOException {
     checkArgument(!isNullOrEmpty(network), "Network name should be supplied");
@@ -310,6 +388,7 @@ public class WorkMgr extends AbstractCoordinator {
   WorkDetails computeWorkDetails(WorkItem workItem) throws IOException {
     String referenceSnapshotName = WorkItemBuilder.getReferenceSnapshotName(workItem);
     String questionName = WorkItemBuilder.getQuestionName(workItem);
+    String questionJson = null;
 
     WorkType workType = WorkType.UNKNOWN;
 
@@ -328,7 +407,8 @@ public class WorkMgr extends AbstractCoordinator {
       if (workType != WorkType.UNKNOWN) {
         throw new BatfishException("Cannot do composite work. Separate ANSWER from other work.");
       }
-      Question question = Question.parseQuestion(getQuestion(workItem.getNetwork(), questionName));
+      questionJson = getQuestion(workItem.getNetwork(), questionName);
+      Question question = Question.parseQuestion(questionJson);
       workType =
           question.getIndependent()
               ? WorkType.INDEPENDENT_ANSWERING
@@ -339,22 +419,147 @@ public class WorkMgr extends AbstractCoordinator {
 
     // TODO: grab IDs once, and earlier; validate resolvable names
     NetworkId networkId = _idManager.getNetworkId(workItem.getNetwork()).get();
+    SnapshotId snapshotId = _idManager.getSnapshotId(workItem.getSnapshot(), networkId).get();
+    boolean isDifferential = WorkItemBuilder.isDifferential(workItem);
     WorkDetails.Builder builder =
         WorkDetails.builder()
             .setNetworkId(networkId)
-            .setSnapshotId(_idManager.getSnapshotId(workItem.getSnapshot(), networkId).get())
+            .setSnapshotId(snapshotId)
             .setWorkType(workType)
-            .setIsDifferential(WorkItemBuilder.isDifferential(workItem));
+            .setIsDifferential(isDifferential);
+    SnapshotId referenceSnapshotId = null;
     if (referenceSnapshotName != null) {
-      builder.setReferenceSnapshotId(
-          _idManager.getSnapshotId(referenceSnapshotName, networkId).get());
+      referenceSnapshotId = _idManager.getSnapshotId(referenceSnapshotName, networkId).get();
+      builder.setReferenceSnapshotId(referenceSnapshotId);
     }
     if (questionName != null) {
       builder.setQuestionId(_idManager.getQuestionId(questionName, networkId).get());
     }
+    if (questionJson != null) {
+      builder.setAnswerKey(
+          computeAnswerKey(
+              networkId, snapshotId, isDifferential ? referenceSnapshotId : null, questionJson));
+    }
     return builder.build();
   }
 
+  /**
+   * Returns a key of the answer to {@code questionJson}. Unlike {@link AnswerId}, the key depends
+   * on the content of the question rather than on the ID under which it was uploaded, so questions
+   * uploaded repeatedly under different names have the same key.
+   */
+  private @Nonnull String computeAnswerKey(
+      NetworkId networkId,
+      SnapshotId snapshotId,
+      @Nullable SnapshotId referenceSnapshotId,
+      String questionJson)
+      throws IOException {
+    // normalize formatting
+    String question = BatfishObjectMapper.mapper().readTree(questionJson).toString();
+    return Hashing.murmur3_128()
+        .hashString(
+            ImmutableList.of(
+                    networkId,
+                    snapshotId,
+                    getOrDefaultNodeRolesId(networkId),
+                    Optional.ofNullable(referenceSnapshotId),
+                    question)
+                .toString(),
+            UTF_8)
+        .toString();
+  }
+
+  /** Returns the IDs under which the answer of answering {@code details} is stored. */
+  private @Nonnull StoredAnswerId getStoredAnswerId(WorkDetails details) {
+    NetworkId networkId = details.getNetworkId();
+    return new StoredAnswerId(
+        networkId,
+        details.getSnapshotId(),
+        _idManager.getAnswerId(
+            networkId,
+            details.getSnapshotId(),
+            requireNonNull(details.getQuestionId()),
+            getOrDefaultNodeRolesId(networkId),
+            details.isDifferential() ? details.getReferenceSnapshotId() : null));
+  }
+
+  /** Returns {@code true} iff a successful answer is stored under {@code id}. */
+  private boolean isSuccessfulAnswer(StoredAnswerId id) throws IOException {
+    return _storage.hasAnswerMetadata(id._networkId, id._snapshotId, id._answerId)
+        && _storage.loadAnswerMetadata(id._networkId, id._snapshotId, id._answerId).getStatus()
+            == AnswerStatus.SUCCESS;
+  }
+
+  /**
+   * Remembers the answer of answering {@code work}, which terminated normally, so that identical
+   * work queued later is answered without being assigned.
+   */
+  void recordAnswer(QueuedWork work) {
+    String answerKey = work.getDetails().getAnswerKey();
+    if (answerKey == null) {
+      return;
+    }
+    try {
+      StoredAnswerId id = getStoredAnswerId(work.getDetails());
+      if (isSuccessfulAnswer(id)) {
+        _answersByKey.put(answerKey, id);
+      }
+    } catch (Exception e) {
+      _logger.warnf(
+          "Could not read answer metadata of %s: %s\n",
+          work.getId(), Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  /** Stores the answer of answering work {@code from} as the answer of identical {@code to}. */
+  void copyAnswer(QueuedWork from, QueuedWork to) throws IOException {
+    copyAnswer(getStoredAnswerId(from.getDetails()), getStoredAnswerId(to.getDetails()));
+  }
+
+  private void copyAnswer(StoredAnswerId from, StoredAnswerId to) throws IOException {
+    if (from._answerId.equals(to._answerId)) {
+      return;
+    }
+    _storage.storeAnswer(
+        to._networkId,
+        to._snapshotId,
+        _storage.loadAnswer(from._networkId, from._snapshotId, from._answerId),
+        to._answerId);
+    // metadata last, since it marks the question as answered
+    _storage.storeAnswerMetadata(
+        to._networkId,
+        to._snapshotId,
+        _storage.loadAnswerMetadata(from._networkId, from._snapshotId, from._answerId),
+        to._answerId);
+  }
+
+  /**
+   * Queues answering {@code work} as completed if the same question was already answered
+   * successfully, under the ID of this work or identically under another ID. Returns {@code true}
+   * iff the work was queued.
+   */
+  private boolean queueAnsweredWork(QueuedWork work) throws IOException {
+    String answerKey = work.getDetails().getAnswerKey();
+    if (answerKey == null) {
+      return false;
+    }
+    StoredAnswerId id = getStoredAnswerId(work.getDetails());
+    if (!isSuccessfulAnswer(id)) {
+      StoredAnswerId answeredId = _answersByKey.getIfPresent(answerKey);
+      if (answeredId == null) {
+        return false;
+      }
+      if (!isSuccessfulAnswer(answeredId)) {
+        // e.g., the snapshot was deleted
+        _answersByKey.invalidate(answerKey);
+        return false;
+      }
+      copyAnswer(answeredId, id);
+    }
+    return _workQueueMgr.queueCompletedWork(
+        work, new Task(TaskStatus.TerminatedNormally, "Answered with stored answer"));
+  }
+
   /**
    * Delete the specified network. Returns {@code true} if deletion is successful. Returns {@code
    * false} if network does not exist.
@@ -452,6 +657,42 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
+  /**
+   * Get the answer for the specified question, filtered according to {@code options}. Returns
+   * {@code null} if the question is not answered.
+   *
+   * <p>If the answer is stored in columnar form, only the columns needed to filter, sort, and
+   * return the requested rows are read.
+   *
+   * @throws IllegalArgumentException if the network, question, or snapshots cannot be found
+   * @throws IOException if there are any other errors
+   */
+  public @Nullable Answer getFilteredAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      AnswerRowsOptions options)
+      throws IOException {
+    StoredAnswerId id = getStoredAnswerId(network, snapshot, question, referenceSnapshot);
+    if (id == null) {
+      return null;
+    }
+    Optional<ColumnarAnswer> columnarAnswer =
+        _storage.loadColumnarAnswer(id._networkId, id._snapshotId, id._answerId);
+    if (columnarAnswer.isPresent()) {
+      Answer answer = new Answer();
+      answer.setStatus(columnarAnswer.get().getHeader().getStatus());
+      answer.addAnswerElement(processAnswerTable2(columnarAnswer.get(), options));
+      return answer;
+    }
+    Answer rawAnswer =
+        BatfishObjectMapper.mapper()
+            .readValue(
+                _storage.loadAnswer(id._networkId, id._snapshotId, id._answerId), Answer.class);
+    return filterAnswer(rawAnswer, options);
+  }
+
   /**
    * Get the answer string for the specified question. Returns {@code null} if the question is not
    * answered.
@@ -459,6 +700,29 @@ public class WorkMgr extends AbstractCoordinator {
   private @Nullable String loadAnswer(
       String network, String snapshot, String question, @Nullable String referenceSnapshot)
       throws IOException {
+    StoredAnswerId id = getStoredAnswerId(network, snapshot, question, referenceSnapshot);
+    return id == null ? null : _storage.loadAnswer(id._networkId, id._snapshotId, id._answerId);
+  }
+
+  /** The IDs under which an answer is stored. */
+  private static final class StoredAnswerId {
+    private final @Nonnull NetworkId _networkId;
+    private final @Nonnull SnapshotId _snapshotId;
+    private final @Nonnull AnswerId _answerId;
+
+    private StoredAnswerId(NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
+      _networkId = networkId;
+      _snapshotId = snapshotId;
+      _answerId = answerId;
+    }
+  }
+
+  /**
+   * Get the IDs under which the answer to the specified question is stored. Returns {@code null}
+   * if the question is not answered.
+   */
+  private @Nullable StoredAnswerId getStoredAnswerId(
+      String network, String snapshot, String question, @Nullable String referenceSnapshot) {
     Optional<NetworkId> networkIdOpt = _idManager.getNetworkId(network);
     checkArgument(networkIdOpt.isPresent(), "Missing network: '%s'", network);
     NetworkId networkId = networkIdOpt.get();
@@ -489,7 +753,7 @@ public class WorkMgr extends AbstractCoordinator {
     if (!_storage.hasAnswerMetadata(networkId, snapshotId, answerId)) {
       return null;
     }
-    return _storage.loadAnswer(networkId, snapshotId, answerId);
+    return new StoredAnswerId(networkId, snapshotId, answerId);
   }
 
   /**
@@ -1337,14 +1601,17 @@ public class WorkMgr extends AbstractCoordinator {
         _snapshotMetadataManager.getInitializationMetadata(
             networkId, workDetails.getReferenceSnapshotId());
       }
-      success = _workQueueMgr.queueUnassignedWork(new QueuedWork(workItem, workDetails));
+      QueuedWork work = new QueuedWork(workItem, workDetails);
+      if (queueAnsweredWork(work)) {
+        return true;
+      }
+      success = _workQueueMgr.queueUnassignedWork(work);
     } catch (Exception e) {
       throw new BatfishException(String.format("Failed to queue work: %s", e.getMessage()), e);
     }
     // as an optimization trigger AssignWork to see if we can schedule this (or another) work
     if (success) {
-      Thread thread = new Thread(this::assignWork);
-      thread.start();
+      triggerAssignWork();
     }
     return success;
   }
@@ -1576,8 +1843,32 @@ public class WorkMgr extends AbstractCoordinator {
   @VisibleForTesting
   @Nonnull
   TableView processAnswerTable2(TableAnswerElement rawTable, AnswerRowsOptions options) {
-    Map<Row, Integer> rowIds = Maps.newIdentityHashMap();
-    CommonUtil.forEachWithIndex(rawTable.getRowsList(), (i, row) -> rowIds.put(row, i));
+    List<Row> rawRows = rawTable.getRowsList();
+    return processAnswerTable2(
+        rawTable, rawRows.size(), (index, columns) -> rawRows.get(index), options);
+  }
+
+  /**
+   * Like {@link #processAnswerTable2(TableAnswerElement, AnswerRowsOptions)}, but reads only the
+   * columns needed to filter, sort, and return the requested rows.
+   */
+  @VisibleForTesting
+  @Nonnull
+  TableView processAnswerTable2(ColumnarAnswer columnarAnswer, AnswerRowsOptions options) {
+    return processAnswerTable2(
+        columnarAnswer.getTable(), columnarAnswer.getNumRows(), columnarAnswer::getRow, options);
+  }
+
+  /** Random access to the rows of a table answer. */
+  @FunctionalInterface
+  private interface RowReader {
+    /** Returns the row at {@code index}, with at least the specified {@code columns}. */
+    @Nonnull
+    Row read(int index, Collection<String> columns);
+  }
+
+  private @Nonnull TableView processAnswerTable2(
+      TableAnswerElement rawTable, int numRows, RowReader rows, AnswerRowsOptions options) {
     Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
 
     for (String c : options.getColumns()) {
@@ -1588,28 +1879,49 @@ public class WorkMgr extends AbstractCoordinator {
       }
     }
 
-    List<Row> filteredRows =
-        rawTable.getRowsList().stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)))
-            .collect(ImmutableList.toImmutableList());
+    Set<String> filterColumns =
+        options.getFilters().stream()
+            .map(ColumnFilter::getColumn)
+            .collect(ImmutableSet.toImmutableSet());
+    int[] filteredRowIds =
+        IntStream.range(0, numRows)
+            .filter(
+                i -> {
+                  Row row = rows.read(i, filterColumns);
+                  return options.getFilters().stream().allMatch(filter -> filter.matches(row));
+                })
+            .toArray();
 
-    Stream<Row> rowStream = filteredRows.stream();
+    IntStream rowIdStream = Arrays.stream(filteredRowIds);
     if (!options.getSortOrder().isEmpty()) {
-      // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    }
+      // sort using specified sort order, reading the sort columns of each row only once
+      Set<String> sortColumns =
+          options.getSortOrder().stream()
+              .map(ColumnSortOption::getColumn)
+              .collect(ImmutableSet.toImmutableSet());
+      Comparator<Row> comparator = buildComparator(rawColumnMap, options.getSortOrder());
+      rowIdStream =
+          Arrays.stream(filteredRowIds)
+              .mapToObj(i -> new TableViewRow(i, rows.read(i, sortColumns)))
+              .sorted(comparing(TableViewRow::getRow, comparator))
+              .mapToInt(TableViewRow::getId);
+    }
+    Stream<TableViewRow> rowStream;
     TableMetadata tableMetadata;
     if (options.getColumns().isEmpty()) {
+      Set<String> columns = rawColumnMap.keySet();
+      rowStream = rowIdStream.mapToObj(i -> new TableViewRow(i, rows.read(i, columns)));
       tableMetadata = rawTable.getMetadata();
     } else {
       // project to desired columns
       rowStream =
-          rowStream.map(
-              rawRow -> {
-                Row row = Row.builder().putAll(rawRow, options.getColumns()).build();
-                rowIds.put(row, rowIds.get(rawRow));
-                return row;
-              });
+          rowIdStream.mapToObj(
+              i ->
+                  new TableViewRow(
+                      i,
+                      Row.builder()
+                          .putAll(rows.read(i, options.getColumns()), options.getColumns())
+                          .build()));
       // TableMetadata requires at least one key. For simplicity, make them all keys.
       Map<String, ColumnMetadata> columnMap =
           options.getColumns().stream()
@@ -1631,8 +1943,9 @@ public class WorkMgr extends AbstractCoordinator {
       tableMetadata = new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc());
     }
     if (options.getUniqueRows()) {
-      // uniquify if desired
-      rowStream = rowStream.distinct();
+      // uniquify if desired, keeping the first of equal rows
+      Set<Row> seenRows = new HashSet<>();
+      rowStream = rowStream.filter(row -> seenRows.add(row.getRow()));
     }
     // offset, truncate, and add to table
     TableView tableView =
@@ -1641,13 +1954,12 @@ public class WorkMgr extends AbstractCoordinator {
             rowStream
                 .skip(options.getRowOffset())
                 .limit(options.getMaxRows())
-                .map(row -> new TableViewRow(rowIds.get(row), row))
                 .collect(ImmutableList.toImmutableList()),
             tableMetadata,
             rawTable.getWarnings());
     tableView.setSummary(
         rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
-    tableView.getSummary().setNumResults(filteredRows.size());
+    tableView.getSummary().setNumResults(filteredRowIds.length);
     return tableView;
   }
 
@@ -133,6 +133,13 @@ public class WorkMgrServiceV2 {
     return Response.ok().entity(Versioned.getVersions()).build();
   }
 
+  /** Handle request for the latency metrics of assigning queued work */
+  @GET
+  @Path(CoordConstsV2.RSC_WORK_QUEUE_METRICS)
+  public Response getWorkQueueMetrics() {
+    return Response.ok().entity(Main.getWorkMgr().getWorkQueueMetrics()).build();
+  }
+
   @POST
   @Path(CoordConstsV2.RSC_NETWORKS)
   public Response initNetwork(
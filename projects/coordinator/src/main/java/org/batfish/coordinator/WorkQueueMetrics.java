@@ -0,0 +1,108 @@
+package org.batfish.coordinator;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Latency metrics of assigning queued work to workers.
+ *
+ * <ul>
+ *   <li>Queue wait is the time from when work last became ready to be assigned (when it was
+ *       queued without blockers, was unblocked, or was returned to the queue) until the attempt
+ *       to assign it started.
+ *   <li>Dispatch latency is the time taken to submit work to a worker.
+ * </ul>
+ *
+ * Only successful assignments are recorded.
+ */
+@ThreadSafe
+public final class WorkQueueMetrics {
+
+  private static final String PROP_ASSIGNED_WORK = "assignedWork";
+  private static final String PROP_BUSY_REJECTIONS = "busyRejections";
+  private static final String PROP_MAX_DISPATCH_LATENCY_MS = "maxDispatchLatencyMs";
+  private static final String PROP_MAX_QUEUE_WAIT_MS = "maxQueueWaitMs";
+  private static final String PROP_MEAN_DISPATCH_LATENCY_MS = "meanDispatchLatencyMs";
+  private static final String PROP_MEAN_QUEUE_WAIT_MS = "meanQueueWaitMs";
+
+  @GuardedBy("this")
+  private long _assignedWork;
+
+  @GuardedBy("this")
+  private long _busyRejections;
+
+  @GuardedBy("this")
+  private long _maxDispatchLatencyNanos;
+
+  @GuardedBy("this")
+  private long _maxQueueWaitNanos;
+
+  @GuardedBy("this")
+  private long _totalDispatchLatencyNanos;
+
+  @GuardedBy("this")
+  private long _totalQueueWaitNanos;
+
+  /** Records a successful assignment of work. */
+  synchronized void recordAssignment(long queueWaitNanos, long dispatchLatencyNanos) {
+    _assignedWork++;
+    _totalQueueWaitNanos += queueWaitNanos;
+    _maxQueueWaitNanos = Math.max(_maxQueueWaitNanos, queueWaitNanos);
+    _totalDispatchLatencyNanos += dispatchLatencyNanos;
+    _maxDispatchLatencyNanos = Math.max(_maxDispatchLatencyNanos, dispatchLatencyNanos);
+  }
+
+  /** Records that an attempt to assign work was rejected because the worker was busy. */
+  synchronized void recordBusy() {
+    _busyRejections++;
+  }
+
+  @JsonProperty(PROP_ASSIGNED_WORK)
+  public synchronized long getAssignedWork() {
+    return _assignedWork;
+  }
+
+  @JsonProperty(PROP_BUSY_REJECTIONS)
+  public synchronized long getBusyRejections() {
+    return _busyRejections;
+  }
+
+  @JsonProperty(PROP_MAX_DISPATCH_LATENCY_MS)
+  public synchronized long getMaxDispatchLatencyMs() {
+    return TimeUnit.NANOSECONDS.toMillis(_maxDispatchLatencyNanos);
+  }
+
+  @JsonProperty(PROP_MAX_QUEUE_WAIT_MS)
+  public synchronized long getMaxQueueWaitMs() {
+    return TimeUnit.NANOSECONDS.toMillis(_maxQueueWaitNanos);
+  }
+
+  @JsonProperty(PROP_MEAN_DISPATCH_LATENCY_MS)
+  public synchronized long getMeanDispatchLatencyMs() {
+    return _assignedWork == 0
+        ? 0
+        : TimeUnit.NANOSECONDS.toMillis(_totalDispatchLatencyNanos / _assignedWork);
+  }
+
+  @JsonProperty(PROP_MEAN_QUEUE_WAIT_MS)
+  public synchronized long getMeanQueueWaitMs() {
+    return _assignedWork == 0
+        ? 0
+        : TimeUnit.NANOSECONDS.toMillis(_totalQueueWaitNanos / _assignedWork);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "assigned: %s, busy rejections: %s, queue wait mean/max: %s/%s ms,"
+            + " dispatch latency mean/max: %s/%s ms",
+        _assignedWork,
+        _busyRejections,
+        getMeanQueueWaitMs(),
+        getMaxQueueWaitMs(),
+        getMeanDispatchLatencyMs(),
+        getMaxDispatchLatencyMs());
+  }
+}
@@ -1,13 +1,24 @@
 package org.batfish.coordinator;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.SetMultimap;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -30,6 +41,10 @@ import org.batfish.identifiers.SnapshotId;
 
 // the design of this WorkQueueMgr is such that all synchronization sits here
 // individual queues do not need to be synchronized
+// incomplete work is additionally indexed by snapshot and by assignability, so that lookups and
+// assignment do not need to scan the queues
+// answering work identical to incomplete answering work is coalesced into it: it is never assigned,
+// and completes when the work it was coalesced into completes and WorkMgr has copied its answer
 
 public class WorkQueueMgr {
 
@@ -50,12 +65,45 @@ public class WorkQueueMgr {
   @GuardedBy("this")
   private WorkQueue _queueIncompleteWork;
 
+  /** Completed work by snapshot, in order of completion. */
+  @GuardedBy("this")
+  private final ListMultimap<SnapshotId, QueuedWork> _completedWorkBySnapshot;
+
+  /** Incomplete work by each snapshot it reads, in queue order. */
+  @GuardedBy("this")
+  private final SetMultimap<SnapshotId, QueuedWork> _incompleteWorkBySnapshot;
+
+  /** Incomplete work that may be assigned, by position in the incomplete queue. */
+  @GuardedBy("this")
+  private final NavigableMap<Long, QueuedWork> _unassignedWork;
+
+  @GuardedBy("this")
+  private long _nextQueueSequence;
+
+  /** Incomplete answering work that other work may be coalesced into, by answer key. */
+  @GuardedBy("this")
+  private final Map<String, QueuedWork> _answeringWorkByKey;
+
+  /** Work coalesced into incomplete answering work, by ID of the work it was coalesced into. */
+  @GuardedBy("this")
+  private final ListMultimap<UUID, QueuedWork> _coalescedWork;
+
+  /** IDs of all work in {@link #_coalescedWork}. */
+  @GuardedBy("this")
+  private final Set<UUID> _coalescedWorkIds;
+
   WorkQueueMgr(BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
     this(Main.getSettings().getQueueType(), logger, snapshotMetadataManager);
   }
 
   WorkQueueMgr(Type wqType, BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
+    _answeringWorkByKey = new HashMap<>();
     _blockingWork = new HashSet<>();
+    _coalescedWork = ArrayListMultimap.create();
+    _coalescedWorkIds = new HashSet<>();
+    _completedWorkBySnapshot = ArrayListMultimap.create();
+    _incompleteWorkBySnapshot = LinkedHashMultimap.create();
+    _unassignedWork = new TreeMap<>();
     _logger = logger;
     _snapshotMetadataManager = snapshotMetadataManager;
     switch (wqType) {
@@ -68,6 +116,91 @@ public class WorkQueueMgr {
     }
   }
 
+  /** Returns the snapshots that {@code work} reads. */
+  private static Set<SnapshotId> getInputSnapshots(WorkDetails work) {
+    return work.isDifferential() && work.getReferenceSnapshotId() != null
+        ? ImmutableSet.of(work.getSnapshotId(), work.getReferenceSnapshotId())
+        : ImmutableSet.of(work.getSnapshotId());
+  }
+
+  private synchronized void deleteIncompleteWork(QueuedWork work) {
+    if (!_queueIncompleteWork.delete(work)) {
+      return;
+    }
+    for (SnapshotId snapshotId : getInputSnapshots(work.getDetails())) {
+      _incompleteWorkBySnapshot.remove(snapshotId, work);
+    }
+    _unassignedWork.remove(work.getQueueSequence(), work);
+    String answerKey = work.getDetails().getAnswerKey();
+    if (answerKey != null) {
+      _answeringWorkByKey.remove(answerKey, work);
+    }
+  }
+
+  private synchronized boolean enqueCompletedWork(QueuedWork work) {
+    if (!_queueCompletedWork.enque(work)) {
+      return false;
+    }
+    _completedWorkBySnapshot.put(work.getDetails().getSnapshotId(), work);
+    return true;
+  }
+
+  private synchronized boolean enqueIncompleteWork(QueuedWork work) {
+    if (!_queueIncompleteWork.enque(work)) {
+      return false;
+    }
+    work.setQueueSequence(_nextQueueSequence++);
+    for (SnapshotId snapshotId : getInputSnapshots(work.getDetails())) {
+      _incompleteWorkBySnapshot.put(snapshotId, work);
+    }
+    if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
+      work.setReady();
+      _unassignedWork.put(work.getQueueSequence(), work);
+    }
+    String answerKey = work.getDetails().getAnswerKey();
+    if (answerKey != null && !_coalescedWorkIds.contains(work.getId())) {
+      _answeringWorkByKey.putIfAbsent(answerKey, work);
+    }
+    return true;
+  }
+
+  /**
+   * Completes {@code coalescedWork}, which was coalesced into work that terminated. {@code task} is
+   * the result of that work, or a failure if its answer could not be copied to {@code
+   * coalescedWork}.
+   */
+  public synchronized void completeCoalescedWork(QueuedWork coalescedWork, Task task) {
+    _coalescedWorkIds.remove(coalescedWork.getId());
+    deleteIncompleteWork(coalescedWork);
+    enqueCompletedWork(coalescedWork);
+    coalescedWork.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
+    coalescedWork.recordTaskCheckResult(task);
+  }
+
+  /**
+   * Removes and returns the work coalesced into {@code work}. The returned work stays incomplete
+   * and is never assigned, until it is passed to {@link #completeCoalescedWork}.
+   */
+  private synchronized List<QueuedWork> takeCoalescedWork(QueuedWork work) {
+    return _coalescedWork.removeAll(work.getId());
+  }
+
+  /** Removes and returns the work coalesced into {@code work}. */
+  private synchronized List<QueuedWork> removeCoalescedWork(QueuedWork work) {
+    List<QueuedWork> coalescedWork = _coalescedWork.removeAll(work.getId());
+    coalescedWork.forEach(w -> _coalescedWorkIds.remove(w.getId()));
+    return coalescedWork;
+  }
+
+  /** Marks incomplete {@code work} unassigned, making it available for assignment again. */
+  private synchronized void setUnassigned(QueuedWork work) {
+    work.setStatus(WorkStatusCode.UNASSIGNED);
+    if (_queueIncompleteWork.getWork(work.getId()) == work) {
+      work.setReady();
+      _unassignedWork.put(work.getQueueSequence(), work);
+    }
+  }
+
   private void cleanUpInitMetaDataIfNeeded(NetworkId networkId, SnapshotId snapshotId)
       throws IOException {
     InitializationMetadata metadata =
@@ -246,9 +379,8 @@ public class WorkQueueMgr {
   public synchronized List<QueuedWork> getCompletedWork(
       NetworkId networkId, SnapshotId snapshotId) {
     ImmutableList.Builder<QueuedWork> b = ImmutableList.builder();
-    for (QueuedWork work : _queueCompletedWork) {
-      if (work.getDetails().getNetworkId().equals(networkId)
-          && work.getDetails().getSnapshotId().equals(snapshotId)) {
+    for (QueuedWork work : _completedWorkBySnapshot.get(snapshotId)) {
+      if (work.getDetails().getNetworkId().equals(networkId)) {
         b.add(work);
       }
     }
@@ -257,12 +389,10 @@ public class WorkQueueMgr {
 
   private synchronized QueuedWork getIncompleteWork(
       NetworkId networkId, SnapshotId snapshotId, WorkType wType) {
-    for (QueuedWork work : _queueIncompleteWork) {
+    // the index holds work under both its snapshot and its reference snapshot
+    for (QueuedWork work : _incompleteWorkBySnapshot.get(snapshotId)) {
       WorkDetails wDetails = work.getDetails();
-      if (networkId.equals(work.getDetails().getNetworkId())
-          && ((snapshotId.equals(wDetails.getSnapshotId()))
-              || (wDetails.isDifferential()
-                  && snapshotId.equals(wDetails.getReferenceSnapshotId())))
+      if (networkId.equals(wDetails.getNetworkId())
           && (wType == null || wDetails.getWorkType() == wType)) {
         return work;
       }
@@ -323,17 +453,23 @@ public class WorkQueueMgr {
 
   @Nullable
   public synchronized QueuedWork getWorkForAssignment() {
-
-    for (QueuedWork work : _queueIncompleteWork) {
+    Entry<Long, QueuedWork> entry;
+    while ((entry = _unassignedWork.pollFirstEntry()) != null) {
+      QueuedWork work = entry.getValue();
+      // skip work whose status was changed since it was made available
       if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
         work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
         return work;
       }
     }
-
     return null;
   }
 
+  /** Returns {@code true} iff there is incomplete work that may be assigned. */
+  public synchronized boolean hasWorkForAssignment() {
+    return !_unassignedWork.isEmpty();
+  }
+
   @Nonnull
   public synchronized List<QueuedWork> getWorkForChecking() {
     List<QueuedWork> workToCheck = new ArrayList<>();
@@ -349,7 +485,9 @@ public class WorkQueueMgr {
   public synchronized List<QueuedWork> listIncompleteWork(
       NetworkId networkId, @Nullable SnapshotId snapshotId, @Nullable WorkType workType) {
     List<QueuedWork> retList = new LinkedList<>();
-    for (QueuedWork work : _queueIncompleteWork) {
+    Iterable<QueuedWork> candidates =
+        snapshotId == null ? _queueIncompleteWork : _incompleteWorkBySnapshot.get(snapshotId);
+    for (QueuedWork work : candidates) {
       // Add to queue if it matches container, testrig if provided, and work type if provided
       if (work.getDetails().getNetworkId().equals(networkId)
           && (snapshotId == null || work.getDetails().getSnapshotId().equals(snapshotId))
@@ -361,18 +499,23 @@ public class WorkQueueMgr {
   }
 
   public synchronized void makeWorkUnassigned(QueuedWork work) {
-    work.setStatus(WorkStatusCode.UNASSIGNED);
+    setUnassigned(work);
   }
 
   // when assignment attempt ends in error, we do not try to reassign
   public synchronized void markAssignmentError(QueuedWork work) {
-    _queueIncompleteWork.delete(work);
-    _queueCompletedWork.enque(work);
+    deleteIncompleteWork(work);
+    enqueCompletedWork(work);
     work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+    for (QueuedWork coalescedWork : removeCoalescedWork(work)) {
+      deleteIncompleteWork(coalescedWork);
+      enqueCompletedWork(coalescedWork);
+      coalescedWork.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+    }
   }
 
   public synchronized void markAssignmentFailure(QueuedWork work) {
-    work.setStatus(WorkStatusCode.UNASSIGNED);
+    setUnassigned(work);
   }
 
   public synchronized void markAssignmentSuccess(QueuedWork work, TaskHandle taskHandle)
@@ -390,7 +533,16 @@ public class WorkQueueMgr {
     }
   }
 
-  public synchronized void processTaskCheckResult(QueuedWork work, Task task) throws Exception {
+  /**
+   * Updates the queues with the result of checking the task of {@code work}.
+   *
+   * <p>If {@code work} terminated normally, returns the work coalesced into it. The caller copies
+   * the answer of {@code work} to each and then completes it with {@link #completeCoalescedWork},
+   * so that queue operations never wait on answer storage. Otherwise, returns an empty list.
+   */
+  public synchronized List<QueuedWork> processTaskCheckResult(QueuedWork work, Task task)
+      throws Exception {
+    List<QueuedWork> awaitingAnswer = ImmutableList.of();
 
     // {Unscheduled, InProgress, TerminatedNormally, TerminatedAbnormally, TerminatedByUser
     // Unknown, UnreachableOrBadResponse}
@@ -407,10 +559,17 @@ public class WorkQueueMgr {
       case RequeueFailure:
         {
           // move the work to completed queue
-          _queueIncompleteWork.delete(work);
-          _queueCompletedWork.enque(work);
+          deleteIncompleteWork(work);
+          enqueCompletedWork(work);
           work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
           work.recordTaskCheckResult(task);
+          if (task.getStatus() == TaskStatus.TerminatedNormally) {
+            awaitingAnswer = takeCoalescedWork(work);
+          } else {
+            for (QueuedWork coalescedWork : takeCoalescedWork(work)) {
+              completeCoalescedWork(coalescedWork, task);
+            }
+          }
 
           // update testrig metadata
           WorkItem wItem = work.getWorkItem();
@@ -447,15 +606,21 @@ public class WorkQueueMgr {
           // check if we unblocked anything
           if (_blockingWork.contains(wItem.getId())) {
             _blockingWork.remove(wItem.getId());
-            List<QueuedWork> requeueWorks = new LinkedList<>();
-            for (QueuedWork incompleteWork : _queueIncompleteWork) {
-              if (incompleteWork.getStatus() == WorkStatusCode.BLOCKED
-                  && wDetails.isOverlappingInput(incompleteWork.getDetails())) {
-                requeueWorks.add(incompleteWork);
+            // overlapping work is indexed under one of the snapshots of this work; requeue it in
+            // queue order
+            SortedMap<Long, QueuedWork> requeueWorksBySequence = new TreeMap<>();
+            for (SnapshotId snapshotId : getInputSnapshots(wDetails)) {
+              for (QueuedWork incompleteWork : _incompleteWorkBySnapshot.get(snapshotId)) {
+                if (incompleteWork.getStatus() == WorkStatusCode.BLOCKED
+                    && !_coalescedWorkIds.contains(incompleteWork.getId())
+                    && wDetails.isOverlappingInput(incompleteWork.getDetails())) {
+                  requeueWorksBySequence.put(incompleteWork.getQueueSequence(), incompleteWork);
+                }
               }
             }
+            List<QueuedWork> requeueWorks = ImmutableList.copyOf(requeueWorksBySequence.values());
             for (QueuedWork requeueWork : requeueWorks) {
-              _queueIncompleteWork.delete(requeueWork);
+              deleteIncompleteWork(requeueWork);
               requeueWork.setStatus(WorkStatusCode.UNASSIGNED);
             }
             for (QueuedWork requeueWork : requeueWorks) {
@@ -470,7 +635,7 @@ public class WorkQueueMgr {
                 _logger.errorf("exception: %s\n", stackTrace);
                 // put this work back on incomplete queue and process as if it terminatedabnormally
                 // people may be checking its status and this work may be blocking others
-                _queueIncompleteWork.enque(requeueWork);
+                enqueIncompleteWork(requeueWork);
                 Task fakeTask =
                     new Task(
                         TaskStatus.RequeueFailure,
@@ -483,14 +648,14 @@ public class WorkQueueMgr {
         break;
       case Unknown:
         // we mark this unassigned, so we try to schedule it again
-        work.setStatus(WorkStatusCode.UNASSIGNED);
+        setUnassigned(work);
         work.clearAssignment();
         break;
       case UnreachableOrBadResponse:
         {
           if (work.getLastTaskCheckResult().getStatus() == TaskStatus.UnreachableOrBadResponse) {
             // if we saw the same thing last time around, free the task to be scheduled elsewhere
-            work.setStatus(WorkStatusCode.UNASSIGNED);
+            setUnassigned(work);
             work.clearAssignment();
             work.recordTaskCheckResult(task);
 
@@ -537,6 +702,7 @@ public class WorkQueueMgr {
         throw new BatfishException(
             "Unhandled " + TaskStatus.class.getCanonicalName() + ": " + task.getStatus());
     }
+    return awaitingAnswer;
   }
 
   private synchronized boolean queueDependentAnsweringWork(
@@ -567,13 +733,13 @@ public class WorkQueueMgr {
         return queueBlockedWork(work, deltaBlocker);
       }
     }
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
   private synchronized boolean queueBlockedWork(QueuedWork work, QueuedWork blocker) {
     _blockingWork.add(blocker.getId());
     work.setStatus(WorkStatusCode.BLOCKED);
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
   private synchronized boolean queueDataplaningWork(QueuedWork work) throws Exception {
@@ -596,7 +762,7 @@ public class WorkQueueMgr {
 
     QueuedWork blocker = getBlockerForDataplaningWork(work);
     if (blocker == null) {
-      return _queueIncompleteWork.enque(work);
+      return enqueIncompleteWork(work);
     } else {
       return queueBlockedWork(work, blocker);
     }
@@ -633,7 +799,38 @@ public class WorkQueueMgr {
       }
     }
 
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
+  }
+
+  /**
+   * Queues {@code work} as completed with {@code task}, without assigning it. Used for work whose
+   * answer is already available.
+   */
+  public synchronized boolean queueCompletedWork(QueuedWork work, Task task) {
+    if (getWork(work.getId()) != null) {
+      throw new BatfishException("Duplicate work item");
+    }
+    if (!enqueCompletedWork(work)) {
+      return false;
+    }
+    work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
+    work.recordTaskCheckResult(task);
+    return true;
+  }
+
+  /**
+   * Queues {@code work} as coalesced into the incomplete answering work {@code target}, which
+   * produces the same answer.
+   */
+  private synchronized boolean queueCoalescedWork(QueuedWork work, QueuedWork target) {
+    work.setStatus(WorkStatusCode.BLOCKED);
+    _coalescedWorkIds.add(work.getId());
+    if (!enqueIncompleteWork(work)) {
+      _coalescedWorkIds.remove(work.getId());
+      return false;
+    }
+    _coalescedWork.put(target.getId(), work);
+    return true;
   }
 
   public synchronized boolean queueUnassignedWork(QueuedWork work) throws Exception {
@@ -641,6 +838,11 @@ public class WorkQueueMgr {
     if (previouslyQueuedWork != null) {
       throw new BatfishException("Duplicate work item");
     }
+    String answerKey = work.getDetails().getAnswerKey();
+    QueuedWork identicalWork = answerKey == null ? null : _answeringWorkByKey.get(answerKey);
+    if (identicalWork != null) {
+      return queueCoalescedWork(work, identicalWork);
+    }
     WorkDetails wDetails = work.getDetails();
     cleanUpInitMetaDataIfNeeded(work.getDetails().getNetworkId(), wDetails.getSnapshotId());
     if (work.getDetails().isDifferential()) {
@@ -654,13 +856,13 @@ public class WorkQueueMgr {
         return queueDataplaningWork(work);
       case INDEPENDENT_ANSWERING:
         // assume that this type of work shouldn't be blocked at all
-        return _queueIncompleteWork.enque(work);
+        return enqueIncompleteWork(work);
       case PARSING_DEPENDENT_ANSWERING:
         return queueDependentAnsweringWork(work, false);
       case DATAPLANE_DEPENDENT_ANSWERING:
         return queueDependentAnsweringWork(work, true);
       case UNKNOWN:
-        return _queueIncompleteWork.enque(work);
+        return enqueIncompleteWork(work);
       default:
         throw new BatfishException("Unknown WorkType " + work.getDetails().getWorkType());
     }
@@ -1,6 +1,9 @@
 package org.batfish.coordinator;
 
+import com.google.common.collect.ImmutableSet;
 import java.util.Date;
+import java.util.Set;
+import org.batfish.common.NetworkSnapshot;
 
 public class WorkerStatus {
 
@@ -12,28 +15,58 @@ public class WorkerStatus {
     UNREACHABLE
   }
 
+  private Set<NetworkSnapshot> _cachedSnapshots;
   private Date _lastUpdated;
+  private int _numActiveTasks;
   private StatusCode _statusCode;
 
   public WorkerStatus(StatusCode statusCode) {
+    _cachedSnapshots = ImmutableSet.of();
     _statusCode = statusCode;
     _lastUpdated = new Date();
   }
 
-  public Date getLastUpdateTime() {
+  /** Returns the snapshots the worker last advertised as cached. */
+  public synchronized Set<NetworkSnapshot> getCachedSnapshots() {
+    return _cachedSnapshots;
+  }
+
+  public synchronized Date getLastUpdateTime() {
     return _lastUpdated;
   }
 
-  public StatusCode getStatus() {
+  /** Returns the number of tasks assigned to the worker that have not terminated. */
+  public synchronized int getNumActiveTasks() {
+    return _numActiveTasks;
+  }
+
+  public synchronized StatusCode getStatus() {
     return _statusCode;
   }
 
   @Override
-  public String toString() {
-    return String.format("%s (%s)", _statusCode, _lastUpdated);
+  public synchronized String toString() {
+    return String.format(
+        "%s (%s) active tasks: %s cached snapshots: %s",
+        _statusCode, _lastUpdated, _numActiveTasks, _cachedSnapshots);
+  }
+
+  public synchronized void taskFinished() {
+    _numActiveTasks = Math.max(0, _numActiveTasks - 1);
+    _lastUpdated = new Date();
+  }
+
+  public synchronized void taskStarted() {
+    _numActiveTasks++;
+    _lastUpdated = new Date();
+  }
+
+  public synchronized void updateCachedSnapshots(Set<NetworkSnapshot> cachedSnapshots) {
+    _cachedSnapshots = ImmutableSet.copyOf(cachedSnapshots);
+    _lastUpdated = new Date();
   }
 
-  public void updateStatus(StatusCode statusCode) {
+  public synchronized void updateStatus(StatusCode statusCode) {
     _statusCode = statusCode;
     _lastUpdated = new Date();
   }
@@ -1,49 +1,60 @@
 package org.batfish.coordinator.queues;
 
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.coordinator.QueuedWork;
 
 // we don't synchronize on this queue
 // all synchronization is in inside WorkQueueMgr
 
-public class MemoryQueue extends LinkedList<QueuedWork> implements WorkQueue {
+/** A FIFO {@link WorkQueue} in memory, indexed by work id. */
+public class MemoryQueue implements WorkQueue {
+
+  private final Map<UUID, QueuedWork> _works = new LinkedHashMap<>();
 
   @Override
   public boolean delete(QueuedWork qWork) {
-    return remove(qWork);
+    return _works.remove(qWork.getId(), qWork);
   }
 
   @Nullable
   @Override
   public QueuedWork deque() {
-    if (size() == 0) {
+    Iterator<QueuedWork> iterator = _works.values().iterator();
+    if (!iterator.hasNext()) {
       return null;
     }
-
-    return pop();
+    QueuedWork work = iterator.next();
+    iterator.remove();
+    return work;
   }
 
   @Override
   public boolean enque(QueuedWork work) {
-    return add(work);
+    if (_works.containsKey(work.getId())) {
+      return false;
+    }
+    _works.put(work.getId(), work);
+    return true;
   }
 
   @Override
   public long getLength() {
-    return size();
+    return _works.size();
   }
 
   @Nullable
   @Override
   public QueuedWork getWork(UUID workItemId) {
-    for (QueuedWork work : this) {
-      if (work.getWorkItem().getId().equals(workItemId)) {
-        return work;
-      }
-    }
+    return _works.get(workItemId);
+  }
 
-    return null;
+  @Override
+  public @Nonnull Iterator<QueuedWork> iterator() {
+    return _works.values().iterator();
   }
 }
@@ -0,0 +1,155 @@
+package org.batfish.coordinator;
+
+import static org.batfish.coordinator.AffinityWorkExecutor.getInputSnapshots;
+import static org.batfish.coordinator.SubmissionResult.Type.BUSY;
+import static org.batfish.coordinator.SubmissionResult.Type.SUCCESS;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BatfishWorkerService;
+import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.LaunchResult;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Task;
+import org.batfish.common.WorkItem;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.junit.Test;
+
+/** Tests of {@link AffinityWorkExecutor}. */
+public final class AffinityWorkExecutorTest {
+
+  private static final NetworkId NETWORK = new NetworkId("n");
+
+  private static final class TestWorker implements BatfishWorkerService {
+    private final @Nonnull Set<NetworkSnapshot> _cachedSnapshots;
+    private boolean _busy;
+    private final @Nonnull List<String> _taskIds = new ArrayList<>();
+    private @Nonnull TaskStatus _taskStatus = TaskStatus.InProgress;
+
+    private TestWorker(NetworkSnapshot... cachedSnapshots) {
+      _cachedSnapshots = ImmutableSet.copyOf(cachedSnapshots);
+    }
+
+    @Override
+    public @Nonnull Set<NetworkSnapshot> getCachedSnapshots() {
+      return _cachedSnapshots;
+    }
+
+    @Nullable
+    @Override
+    public Task getTaskStatus(String taskId) {
+      return new Task(_taskStatus);
+    }
+
+    @Override
+    public LaunchResult runTask(String taskId, String[] args) {
+      if (_busy) {
+        return LaunchResult.busy();
+      }
+      _taskIds.add(taskId);
+      return LaunchResult.launched();
+    }
+  }
+
+  private static @Nonnull NetworkSnapshot snapshot(String snapshot) {
+    return new NetworkSnapshot(NETWORK, new SnapshotId(snapshot));
+  }
+
+  private static @Nonnull QueuedWork work(String snapshot) {
+    return new QueuedWork(
+        new WorkItem(UUID.randomUUID(), NETWORK.getId(), snapshot, ImmutableMap.of()),
+        WorkDetails.builder()
+            .setNetworkId(NETWORK)
+            .setSnapshotId(new SnapshotId(snapshot))
+            .setWorkType(WorkType.PARSING_DEPENDENT_ANSWERING)
+            .build());
+  }
+
+  private static @Nonnull AffinityWorkExecutor executor(BatfishWorkerService... workers) {
+    return new AffinityWorkExecutor(
+        new BatfishLogger(BatfishLogger.LEVELSTR_ERROR, false),
+        Paths.get("/dev/null"),
+        ImmutableList.copyOf(workers));
+  }
+
+  @Test
+  public void testGetInputSnapshots() {
+    WorkDetails differential =
+        WorkDetails.builder()
+            .setNetworkId(NETWORK)
+            .setSnapshotId(new SnapshotId("s"))
+            .setReferenceSnapshotId(new SnapshotId("r"))
+            .setIsDifferential(true)
+            .setWorkType(WorkType.DATAPLANE_DEPENDENT_ANSWERING)
+            .build();
+    assertThat(getInputSnapshots(differential), containsInAnyOrder(snapshot("s"), snapshot("r")));
+    assertThat(getInputSnapshots(work("s").getDetails()), contains(snapshot("s")));
+  }
+
+  @Test
+  public void testPrefersAffinity() {
+    TestWorker cold = new TestWorker();
+    TestWorker warm = new TestWorker(snapshot("s"));
+    AffinityWorkExecutor executor = executor(cold, warm);
+
+    // Affinity wins even though the warm worker is more loaded
+    QueuedWork first = work("s");
+    QueuedWork second = work("s");
+    assertThat(executor.submit(first).getType(), equalTo(SUCCESS));
+    assertThat(executor.submit(second).getType(), equalTo(SUCCESS));
+    assertThat(warm._taskIds, contains(first.getId().toString(), second.getId().toString()));
+    assertThat(cold._taskIds, equalTo(ImmutableList.of()));
+
+    // Without affinity, the least loaded worker is used
+    QueuedWork other = work("other");
+    assertThat(executor.submit(other).getType(), equalTo(SUCCESS));
+    assertThat(cold._taskIds, contains(other.getId().toString()));
+  }
+
+  @Test
+  public void testFallsBackWhenBusy() {
+    TestWorker cold = new TestWorker();
+    TestWorker warm = new TestWorker(snapshot("s"));
+    warm._busy = true;
+    AffinityWorkExecutor executor = executor(cold, warm);
+
+    QueuedWork work = work("s");
+    assertThat(executor.submit(work).getType(), equalTo(SUCCESS));
+    assertThat(cold._taskIds, contains(work.getId().toString()));
+
+    cold._busy = true;
+    assertThat(executor.submit(work("s")).getType(), equalTo(BUSY));
+  }
+
+  @Test
+  public void testTracksActiveTasks() {
+    TestWorker worker = new TestWorker();
+    AffinityWorkExecutor executor = executor(worker);
+
+    SubmissionResult result = executor.submit(work("s"));
+    assertThat(executor.getWorkerStatuses().get(0).getNumActiveTasks(), equalTo(1));
+
+    result.getTaskHandle().checkTask();
+    assertThat(executor.getWorkerStatuses().get(0).getNumActiveTasks(), equalTo(1));
+
+    worker._taskStatus = TaskStatus.TerminatedNormally;
+    result.getTaskHandle().checkTask();
+    result.getTaskHandle().checkTask();
+    assertThat(executor.getWorkerStatuses().get(0).getNumActiveTasks(), equalTo(0));
+  }
+}
@@ -20,6 +20,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.iterableWithSize;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -57,25 +58,31 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import javax.annotation.Nonnull;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.ColumnFilter;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.Container;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.common.runtime.RuntimeData;
 import org.batfish.common.runtime.SnapshotRuntimeData;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.WorkItemBuilder;
 import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.coordinator.id.IdManager;
 import org.batfish.coordinator.resources.ForkSnapshotBean;
 import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.SnapshotMetadata;
@@ -1194,6 +1201,71 @@ public final class WorkMgrTest {
     assertThat(ansString, equalTo(expectedAnswerString));
   }
 
+  @Test
+  public void testGetFilteredAnswer() throws IOException {
+    String network = "network";
+    String snapshot = "snapshot";
+    String questionName = "question";
+
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata("key", Schema.STRING, "the key column", true, false),
+                    new ColumnMetadata("value", Schema.INTEGER, "the value column", false, true))));
+    table.addRow(Row.of("key", "a", "value", 3));
+    table.addRow(Row.of("key", "b", "value", 1));
+    table.addRow(Row.of("key", "a", "value", 2));
+    table.addRow(Row.of("key", "c", "value", 2));
+    table.addRow(Row.of("key", "a", "value", 2));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, questionName, answer);
+
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of("value"),
+            ImmutableList.of(new ColumnFilter("key", "a", false)),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(new ColumnSortOption("value", true)),
+            true);
+    Answer filtered = _manager.getFilteredAnswer(network, snapshot, questionName, null, options);
+    TableView view = (TableView) filtered.getAnswerElements().get(0);
+
+    // The stored answer is read in columnar form, with the same result as filtering in memory.
+    TableView expected =
+        (TableView) _manager.filterAnswer(answer, options).getAnswerElements().get(0);
+    assertThat(filtered.getStatus(), equalTo(AnswerStatus.SUCCESS));
+    assertThat(view.getRows(), equalTo(expected.getRows()));
+    assertThat(view.getTableMetadata(), equalTo(expected.getTableMetadata()));
+    assertThat(view.getSummary().getNumResults(), equalTo(3));
+    assertThat(
+        view.getRows(),
+        equalTo(
+            ImmutableList.of(
+                new TableViewRow(0, Row.of("value", 3)), new TableViewRow(2, Row.of("value", 2)))));
+  }
+
+  @Test
+  public void testGetFilteredAnswerNotAnswered() throws IOException {
+    String network = "network";
+    String snapshot = "snapshot";
+    String questionName = "question";
+
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, questionName, null, null);
+
+    assertThat(
+        _manager.getFilteredAnswer(
+            network, snapshot, questionName, null, AnswerRowsOptions.NO_FILTER),
+        nullValue());
+  }
+
   @Test
   public void testGetAnswerNotFound() throws IOException {
     String network = "network";
@@ -2752,4 +2824,133 @@ public final class WorkMgrTest {
     // Confirm filter options were applied correctly
     assertThat(processedRows, equalTo(table.getRowsList()));
   }
+
+  private @Nonnull WorkItem answerWorkItem(String network, String snapshot, String question) {
+    return new WorkItem(
+        UUID.randomUUID(),
+        network,
+        snapshot,
+        ImmutableMap.of(BfConsts.COMMAND_ANSWER, "", BfConsts.ARG_QUESTION_NAME, question));
+  }
+
+  @Test
+  public void testComputeWorkDetailsAnswerKey() throws IOException {
+    String network = "network1";
+    String snapshot = "snapshot1";
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    _manager.uploadQuestion(network, "q1", BatfishObjectMapper.writeString(new TestQuestion()));
+    // same content, different formatting
+    _manager.uploadQuestion(
+        network, "q2", BatfishObjectMapper.writePrettyString(new TestQuestion()));
+    _manager.uploadQuestion(
+        network, "q3", BatfishObjectMapper.writeString(new TestQuestion("other", false)));
+
+    String key1 =
+        _manager.computeWorkDetails(answerWorkItem(network, snapshot, "q1")).getAnswerKey();
+    String key2 =
+        _manager.computeWorkDetails(answerWorkItem(network, snapshot, "q2")).getAnswerKey();
+    String key3 =
+        _manager.computeWorkDetails(answerWorkItem(network, snapshot, "q3")).getAnswerKey();
+
+    assertThat(key1, notNullValue());
+    assertThat(key2, equalTo(key1));
+    assertThat(key3, not(equalTo(key1)));
+    assertThat(
+        _manager
+            .computeWorkDetails(WorkItemBuilder.getWorkItemParse(network, snapshot))
+            .getAnswerKey(),
+        nullValue());
+  }
+
+  @Test
+  public void testQueueWorkServesStoredAnswer() throws IOException {
+    String network = "network1";
+    String snapshot = "snapshot1";
+    String questionContent = BatfishObjectMapper.writeString(new TestQuestion());
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    _manager.uploadQuestion(network, "q1", questionContent);
+    _manager.uploadQuestion(network, "q2", questionContent);
+    storeSuccessfulAnswer(network, snapshot, "q1");
+
+    // The question was answered under its own ID
+    WorkItem workItem1 = answerWorkItem(network, snapshot, "q1");
+    assertTrue(_manager.queueWork(workItem1));
+    QueuedWork work1 = _manager.getWork(workItem1.getId());
+    assertThat(work1.getStatus(), equalTo(WorkStatusCode.TERMINATEDNORMALLY));
+
+    // An identical question uploaded under another name is answered once the answer is remembered
+    _manager.recordAnswer(work1);
+    WorkItem workItem2 = answerWorkItem(network, snapshot, "q2");
+    assertTrue(_manager.queueWork(workItem2));
+    assertThat(
+        _manager.getWork(workItem2.getId()).getStatus(),
+        equalTo(WorkStatusCode.TERMINATEDNORMALLY));
+    assertThat(
+        BatfishObjectMapper.mapper()
+            .readValue(_manager.getAnswerString(network, snapshot, "q2", null), Answer.class)
+            .getStatus(),
+        equalTo(AnswerStatus.SUCCESS));
+  }
+
+  @Test
+  public void testCoalescedWorkGetsCopiedAnswer() throws Exception {
+    String network = "network1";
+    String snapshot = "snapshot1";
+    String questionContent = BatfishObjectMapper.writeString(new TestQuestion());
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    NetworkId networkId = _idManager.getNetworkId(network).get();
+    _snapshotMetadataManager.updateInitializationStatus(
+        networkId,
+        _idManager.getSnapshotId(snapshot, networkId).get(),
+        ProcessingStatus.DATAPLANED,
+        null);
+    // identical questions with distinct question IDs
+    _manager.uploadQuestion(network, "q1", questionContent);
+    _manager.uploadQuestion(network, "q2", questionContent);
+
+    WorkItem workItem1 = answerWorkItem(network, snapshot, "q1");
+    WorkItem workItem2 = answerWorkItem(network, snapshot, "q2");
+    assertTrue(_manager.queueWork(workItem1));
+    assertTrue(_manager.queueWork(workItem2));
+    QueuedWork work1 = _manager.getWork(workItem1.getId());
+    QueuedWork work2 = _manager.getWork(workItem2.getId());
+    assertThat(work2.getStatus(), equalTo(WorkStatusCode.BLOCKED));
+
+    // the worker answers q1, and the answer is copied to the work coalesced into it
+    storeSuccessfulAnswer(network, snapshot, "q1");
+    _manager.processTaskCheckResult(work1, new Task(TaskStatus.TerminatedNormally, "Fake"));
+
+    assertThat(work2.getStatus(), equalTo(WorkStatusCode.TERMINATEDNORMALLY));
+    assertThat(
+        BatfishObjectMapper.mapper()
+            .readValue(_manager.getAnswerString(network, snapshot, "q2", null), Answer.class)
+            .getStatus(),
+        equalTo(AnswerStatus.SUCCESS));
+  }
+
+  /** Stores a successful answer to {@code question} on {@code snapshot}. */
+  private void storeSuccessfulAnswer(String network, String snapshot, String question)
+      throws IOException {
+    NetworkId networkId = _idManager.getNetworkId(network).get();
+    SnapshotId snapshotId = _idManager.getSnapshotId(snapshot, networkId).get();
+    AnswerId answerId =
+        _idManager.getAnswerId(
+            networkId,
+            snapshotId,
+            _idManager.getQuestionId(question, networkId).get(),
+            DEFAULT_NETWORK_NODE_ROLES_ID,
+            null);
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(new TableAnswerElement(MOCK_TABLE_METADATA));
+    _storage.storeAnswer(networkId, snapshotId, BatfishObjectMapper.writeString(answer), answerId);
+    _storage.storeAnswerMetadata(
+        networkId,
+        snapshotId,
+        AnswerMetadataUtil.computeAnswerMetadata(answer, Main.getLogger()),
+        answerId);
+  }
 }
@@ -0,0 +1,34 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/** Tests of {@link WorkQueueMetrics}. */
+public final class WorkQueueMetricsTest {
+
+  @Test
+  public void testEmpty() {
+    WorkQueueMetrics metrics = new WorkQueueMetrics();
+    assertThat(metrics.getAssignedWork(), equalTo(0L));
+    assertThat(metrics.getMeanQueueWaitMs(), equalTo(0L));
+    assertThat(metrics.getMeanDispatchLatencyMs(), equalTo(0L));
+  }
+
+  @Test
+  public void testRecord() {
+    WorkQueueMetrics metrics = new WorkQueueMetrics();
+    metrics.recordAssignment(TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(2));
+    metrics.recordAssignment(TimeUnit.MILLISECONDS.toNanos(30), TimeUnit.MILLISECONDS.toNanos(4));
+    metrics.recordBusy();
+
+    assertThat(metrics.getAssignedWork(), equalTo(2L));
+    assertThat(metrics.getBusyRejections(), equalTo(1L));
+    assertThat(metrics.getMeanQueueWaitMs(), equalTo(20L));
+    assertThat(metrics.getMaxQueueWaitMs(), equalTo(30L));
+    assertThat(metrics.getMeanDispatchLatencyMs(), equalTo(3L));
+    assertThat(metrics.getMaxDispatchLatencyMs(), equalTo(4L));
+  }
+}
@@ -9,6 +9,7 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -16,6 +17,8 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nonnull;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts.TaskStatus;
@@ -30,6 +33,7 @@ import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.NodeRolesId;
+import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.role.NodeRolesData;
 import org.junit.Before;
@@ -1227,6 +1231,39 @@ public final class WorkQueueMgrTest {
     assertThat(_workQueueMgr.getLength(QueueType.INCOMPLETE), equalTo(1L));
   }
 
+  @Test
+  public void testGetWorkForAssignment() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    WorkDetails details =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+            .setWorkType(WorkType.UNKNOWN)
+            .build();
+    QueuedWork work1 = new QueuedWork(new WorkItem(NETWORK, snapshot), details);
+    QueuedWork work2 = new QueuedWork(new WorkItem(NETWORK, snapshot), details);
+    QueuedWork work3 = new QueuedWork(new WorkItem(NETWORK, snapshot), details);
+    _workQueueMgr.queueUnassignedWork(work1);
+    _workQueueMgr.queueUnassignedWork(work2);
+    _workQueueMgr.queueUnassignedWork(work3);
+
+    assertSame(_workQueueMgr.getWorkForAssignment(), work1);
+    _workQueueMgr.markAssignmentSuccess(work1, () -> new Task(TaskStatus.InProgress));
+    assertSame(_workQueueMgr.getWorkForAssignment(), work2);
+    _workQueueMgr.markAssignmentError(work2);
+
+    // Work made unassigned again keeps its place in the queue
+    _workQueueMgr.processTaskCheckResult(work1, new Task(TaskStatus.Unknown));
+    assertTrue(_workQueueMgr.hasWorkForAssignment());
+    assertSame(_workQueueMgr.getWorkForAssignment(), work1);
+
+    // Work whose status is changed elsewhere is skipped
+    work3.setStatus(WorkStatusCode.ASSIGNED);
+    assertThat(_workQueueMgr.getWorkForAssignment(), equalTo(null));
+    assertFalse(_workQueueMgr.hasWorkForAssignment());
+  }
+
   @Test
   public void testGetWorkForChecking() throws Exception {
     String snapshot = "snapshot1";
@@ -1501,4 +1538,92 @@ public final class WorkQueueMgrTest {
 
     assertThat(_idManager.getNetworkNodeRolesId(_networkId).get(), equalTo(oldNodeRolesId));
   }
+
+  private @Nonnull QueuedWork answeringWork(String snapshot, String answerKey) {
+    return new QueuedWork(
+        new WorkItem(NETWORK, snapshot),
+        WorkDetails.builder()
+            .setWorkType(WorkType.PARSING_DEPENDENT_ANSWERING)
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+            .setQuestionId(new QuestionId(UUID.randomUUID().toString()))
+            .setAnswerKey(answerKey)
+            .build());
+  }
+
+  @Test
+  public void testIdenticalAnsweringWorkIsCoalesced() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.PARSED);
+    QueuedWork work1 = answeringWork(snapshot, "key");
+    QueuedWork work2 = answeringWork(snapshot, "key");
+    QueuedWork otherWork = answeringWork(snapshot, "otherKey");
+
+    doAction(new Action(ActionType.QUEUE, work1));
+    doAction(new Action(ActionType.QUEUE, work2));
+    doAction(new Action(ActionType.QUEUE, otherWork));
+
+    // only work that is not coalesced is assigned
+    assertSame(doAction(new Action(ActionType.ASSIGN_SUCCESS, null)), work1);
+    assertSame(doAction(new Action(ActionType.ASSIGN_SUCCESS, null)), otherWork);
+    assertThat(_workQueueMgr.getWorkForAssignment(), equalTo(null));
+    assertThat(work2.getStatus(), equalTo(WorkStatusCode.BLOCKED));
+
+    Task task = new Task(TaskStatus.TerminatedNormally, "Fake");
+    List<QueuedWork> awaitingAnswer = _workQueueMgr.processTaskCheckResult(work1, task);
+
+    // the coalesced work waits for its answer to be copied
+    assertThat(awaitingAnswer, contains(work2));
+    assertThat(work2.getStatus(), equalTo(WorkStatusCode.BLOCKED));
+    assertThat(_workQueueMgr.getWorkForAssignment(), equalTo(null));
+
+    _workQueueMgr.completeCoalescedWork(work2, task);
+    assertThat(work2.getStatus(), equalTo(WorkStatusCode.TERMINATEDNORMALLY));
+    assertThat(_workQueueMgr.getLength(QueueType.COMPLETED), equalTo(2L));
+    assertThat(_workQueueMgr.getLength(QueueType.INCOMPLETE), equalTo(1L));
+
+    // once the work completes, identical work is assigned again
+    QueuedWork work3 = answeringWork(snapshot, "key");
+    doAction(new Action(ActionType.QUEUE, work3));
+    assertSame(doAction(new Action(ActionType.ASSIGN_SUCCESS, null)), work3);
+  }
+
+  @Test
+  public void testCoalescedWorkSharesFailure() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.PARSED);
+    QueuedWork work1 = answeringWork(snapshot, "key");
+    QueuedWork work2 = answeringWork(snapshot, "key");
+    QueuedWork work3 = answeringWork(snapshot, "key");
+
+    doAction(new Action(ActionType.QUEUE, work1));
+    doAction(new Action(ActionType.QUEUE, work2));
+    doAction(new Action(ActionType.ASSIGN_SUCCESS, null));
+    doAction(new Action(ActionType.STATUS_TERMINATED_ABNORMALLY, work1));
+
+    assertThat(work2.getStatus(), equalTo(WorkStatusCode.TERMINATEDABNORMALLY));
+
+    doAction(new Action(ActionType.QUEUE, work3));
+    QueuedWork work4 = answeringWork(snapshot, "key");
+    doAction(new Action(ActionType.QUEUE, work4));
+    doAction(new Action(ActionType.ASSIGN_ERROR, null));
+
+    assertThat(work3.getStatus(), equalTo(WorkStatusCode.ASSIGNMENTERROR));
+    assertThat(work4.getStatus(), equalTo(WorkStatusCode.ASSIGNMENTERROR));
+    assertThat(_workQueueMgr.getLength(QueueType.INCOMPLETE), equalTo(0L));
+  }
+
+  @Test
+  public void testQueueCompletedWork() throws IOException {
+    String snapshot = "snapshot1";
+    WorkMgrTestUtils.initSnapshotWithTopology(NETWORK, snapshot, ImmutableSet.of());
+    QueuedWork work = answeringWork(snapshot, "key");
+
+    assertTrue(
+        _workQueueMgr.queueCompletedWork(work, new Task(TaskStatus.TerminatedNormally, "Fake")));
+
+    assertThat(work.getStatus(), equalTo(WorkStatusCode.TERMINATEDNORMALLY));
+    assertSame(_workQueueMgr.getWork(work.getId()), work);
+    assertThat(_workQueueMgr.getWorkForAssignment(), equalTo(null));
+  }
 }
@@ -65,6 +65,13 @@ public final class CommunityVar extends SymbolicRegex implements Comparable<Comm
    */
   @Nonnull static final Automaton COMMUNITY_FSM = new RegExp(COMMUNITY_REGEX).toAutomaton();
 
+  /**
+   * A copy of {@link #COMMUNITY_FSM} per thread. Automaton operations renumber the states of their
+   * operands, and route policies are analyzed in parallel, so threads must not share one.
+   */
+  private static final ThreadLocal<Automaton> THREAD_COMMUNITY_FSM =
+      ThreadLocal.withInitial(COMMUNITY_FSM::clone);
+
   private CommunityVar(Type type, String regex, @Nullable Community literalValue) {
     super(regex);
     _type = type;
@@ -118,7 +125,7 @@ public final class CommunityVar extends SymbolicRegex implements Comparable<Comm
        * intersecting with COMMUNITY_FSM accepts the language of the regex "^40:[0-9]+$" as desired.
        */
       regex = ".*" + "(" + regex + ")" + ".*";
-      return new RegExp(regex).toAutomaton().intersection(COMMUNITY_FSM);
+      return new RegExp(regex).toAutomaton().intersection(THREAD_COMMUNITY_FSM.get());
     }
   }
 
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
@@ -124,20 +125,20 @@ public final class ConfigAtomicPredicates {
       @Nullable Set<String> asPathRegexes,
       @Nonnull Collection<RoutingPolicy> policies,
       @Nullable Collection<RoutingPolicy> referencePolicies) {
-    Configuration configuration = batfish.loadConfigurations(snapshot).get(router);
-    Configuration referenceConfiguration = null;
-    if (reference != null) {
-      referenceConfiguration = batfish.loadConfigurations(reference).get(router);
-    }
-
-    // Gather the communities from both (if differential) configs + any user provided communities.
-    Set<CommunityVar> allCommunities = findAllCommunities(communities, policies, configuration);
-
-    if (reference != null) {
-      allCommunities.addAll(
-          findAllCommunities(Collections.emptySet(), referencePolicies, referenceConfiguration));
-    }
+    this(
+        inputs(
+            batfish,
+            snapshot,
+            reference,
+            router,
+            communities,
+            asPathRegexes,
+            policies,
+            referencePolicies));
+  }
 
+  /** Compute atomic predicates for the given inputs. */
+  public ConfigAtomicPredicates(Inputs inputs) {
     // currently we only support regex matching for standard communities
     Predicate<CommunityVar> isStandardCommunity =
         cvar ->
@@ -147,20 +148,84 @@ public final class ConfigAtomicPredicates {
     // compute atomic predicates for all regexes and standard community literals
     _standardCommunityAtomicPredicates =
         new RegexAtomicPredicates<>(
-            allCommunities.stream()
+            inputs._communities.stream()
                 .filter(isStandardCommunity)
                 .collect(ImmutableSet.toImmutableSet()),
             CommunityVar.ALL_STANDARD_COMMUNITIES);
 
     // assign an atomic predicate to each extended/large community literal
     CommunityVar[] nonStandardCommunityVars =
-        allCommunities.stream().filter(isStandardCommunity.negate()).toArray(CommunityVar[]::new);
+        inputs._communities.stream()
+            .filter(isStandardCommunity.negate())
+            .toArray(CommunityVar[]::new);
     int numAPs = _standardCommunityAtomicPredicates.getNumAtomicPredicates();
     _nonStandardCommunityLiterals = new HashMap<>();
     for (int i = 0; i < nonStandardCommunityVars.length; i++) {
       _nonStandardCommunityLiterals.put(i + numAPs, nonStandardCommunityVars[i]);
     }
 
+    _asPathRegexAtomicPredicates = new AsPathRegexAtomicPredicates(inputs._asPathRegexes);
+  }
+
+  /**
+   * The community literals and regexes and the AS-path regexes that atomic predicates are computed
+   * for. Equal inputs give equivalent atomic predicates, so an analysis of many routers only needs
+   * to compute atomic predicates once for each distinct inputs.
+   */
+  public static final class Inputs {
+    private final @Nonnull Set<CommunityVar> _communities;
+    private final @Nonnull Set<SymbolicAsPathRegex> _asPathRegexes;
+
+    private Inputs(Set<CommunityVar> communities, Set<SymbolicAsPathRegex> asPathRegexes) {
+      _communities = ImmutableSet.copyOf(communities);
+      _asPathRegexes = ImmutableSet.copyOf(asPathRegexes);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Inputs)) {
+        return false;
+      }
+      Inputs that = (Inputs) o;
+      return _communities.equals(that._communities) && _asPathRegexes.equals(that._asPathRegexes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_communities, _asPathRegexes);
+    }
+  }
+
+  /**
+   * Collect the inputs of the atomic predicates for the given router's configuration. The
+   * parameters are as in {@link #ConfigAtomicPredicates(IBatfish, NetworkSnapshot,
+   * NetworkSnapshot, String, Set, Set, Collection, Collection)}.
+   */
+  public static @Nonnull Inputs inputs(
+      IBatfish batfish,
+      NetworkSnapshot snapshot,
+      @Nullable NetworkSnapshot reference,
+      String router,
+      @Nullable Set<CommunityVar> communities,
+      @Nullable Set<String> asPathRegexes,
+      Collection<RoutingPolicy> policies,
+      @Nullable Collection<RoutingPolicy> referencePolicies) {
+    Configuration configuration = batfish.loadConfigurations(snapshot).get(router);
+    Configuration referenceConfiguration = null;
+    if (reference != null) {
+      referenceConfiguration = batfish.loadConfigurations(reference).get(router);
+    }
+
+    // Gather the communities from both (if differential) configs + any user provided communities.
+    Set<CommunityVar> allCommunities = findAllCommunities(communities, policies, configuration);
+
+    if (reference != null) {
+      allCommunities.addAll(
+          findAllCommunities(Collections.emptySet(), referencePolicies, referenceConfiguration));
+    }
+
     // Collect as path regexes from both (if differential) configs
     Set<SymbolicAsPathRegex> asPathAps =
         new HashSet<>(findAllAsPathRegexes(asPathRegexes, policies, configuration));
@@ -168,7 +233,7 @@ public final class ConfigAtomicPredicates {
       asPathAps.addAll(
           findAllAsPathRegexes(Collections.emptySet(), referencePolicies, referenceConfiguration));
     }
-    _asPathRegexAtomicPredicates = new AsPathRegexAtomicPredicates(ImmutableSet.copyOf(asPathAps));
+    return new Inputs(allCommunities, asPathAps);
   }
 
   public ConfigAtomicPredicates(ConfigAtomicPredicates other) {
@@ -1,14 +1,26 @@
 package org.batfish.minesweeper;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import dk.brics.automaton.Automaton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.BatfishException;
 
@@ -33,6 +45,24 @@ import org.batfish.common.BatfishException;
 @ParametersAreNonnullByDefault
 public class RegexAtomicPredicates<T extends SymbolicRegex> {
 
+  /**
+   * The analyses of a network compute atomic predicates for many similar sets of regexes, e.g. one
+   * per router, so recent partitions are kept to be reused or refined.
+   */
+  private static final int MAX_CACHED_PARTITIONS = 32;
+
+  private static final Cache<List<Object>, Partition<?>> PARTITIONS =
+      CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_PARTITIONS).build();
+
+  /**
+   * Converting a regex to an automaton intersects it with the automaton of all valid strings, and
+   * the same regexes recur across refinements, so recent conversions are kept.
+   */
+  private static final int MAX_CACHED_AUTOMATA = 4096;
+
+  private static final Cache<SymbolicRegex, Automaton> AUTOMATA =
+      CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_AUTOMATA).build();
+
   @Nonnull private final Set<T> _regexes;
 
   // a regex representing logical "true", or all possible valid strings
@@ -49,6 +79,10 @@ public class RegexAtomicPredicates<T extends SymbolicRegex> {
   // automaton
   @Nonnull private Map<Integer, Automaton> _atomicPredicateAutomata;
 
+  // the number of regexes the atomic predicates were refined with, after starting from a cached
+  // partition of the others
+  private int _numRefinedRegexes;
+
   /**
    * Create atomic predicates for the given set of regexes.
    *
@@ -65,23 +99,109 @@ public class RegexAtomicPredicates<T extends SymbolicRegex> {
     _regexes = ImmutableSet.<T>builder().addAll(other._regexes).build();
     _trueRegex = other._trueRegex;
     _numAtomicPredicates = other._numAtomicPredicates;
+    _numRefinedRegexes = other._numRefinedRegexes;
     _regexAtomicPredicates = other._regexAtomicPredicates;
     _atomicPredicateAutomata = other._atomicPredicateAutomata;
   }
 
   private void initAtomicPredicates() {
-    SetMultimap<Automaton, T> mmap = HashMultimap.create();
-    mmap.put(_trueRegex.toAutomaton(), _trueRegex);
-    // key loop invariants:
+    // key invariants of mmap:
     // the automata that are in mmap are pairwise disjoint;
     // the union of those automata is complete (all possible valid strings)
-    for (T regex : _regexes) {
-      Automaton rAuto = regex.toAutomaton();
+    SetMultimap<Automaton, T> mmap;
+    Set<T> newRegexes;
+    Partition<T> base = findCachedPartition(_trueRegex, _regexes);
+    if (base == null) {
+      mmap = HashMultimap.create();
+      mmap.put(toAutomaton(_trueRegex), _trueRegex);
+      newRegexes = _regexes;
+    } else {
+      // start from the atomic predicates of a subset of the regexes, and only refine them with the
+      // regexes that are not in that subset
+      mmap = base.toMultimap();
+      newRegexes = Sets.difference(_regexes, base._regexes);
+    }
+    _numRefinedRegexes = newRegexes.size();
+    if (!newRegexes.isEmpty()) {
+      mmap = refine(mmap, newRegexes);
+      PARTITIONS.put(
+          ImmutableList.<Object>of(_trueRegex, _regexes),
+          new Partition<>(_trueRegex, _regexes, mmap));
+    }
+
+    // assign a unique integer to each automaton.
+    // create a mapping from each integer to its corresponding automaton
+    // and a mapping from each regex to its corresponding set of integers.
+    ImmutableMap.Builder<Integer, Automaton> builder = ImmutableMap.builder();
+    SetMultimap<Integer, T> iToR = HashMultimap.create();
+    int i = 0;
+    for (Automaton a : canonicalOrder(mmap, _regexes)) {
+      builder.put(i, a);
+      iToR.putAll(i, mmap.get(a));
+      i++;
+    }
+    _numAtomicPredicates = i;
+    _atomicPredicateAutomata = builder.build();
+    _regexAtomicPredicates =
+        ImmutableMap.<T, Set<Integer>>builder()
+            .putAll(Multimaps.asMap(Multimaps.invertFrom(iToR, HashMultimap.create())))
+            .build();
+  }
+
+  /**
+   * Returns the atomic predicates in {@code mmap} in an order that only depends on the regexes each
+   * of them is part of, and not on how they were computed. Each atomic predicate is part of a
+   * distinct set of regexes, so ordering the sets of positions in {@code regexes} is a total order.
+   */
+  private static <T extends SymbolicRegex> List<Automaton> canonicalOrder(
+      SetMultimap<Automaton, T> mmap, Set<T> regexes) {
+    Map<T, Integer> positions = new HashMap<>();
+    for (T regex : regexes) {
+      positions.putIfAbsent(regex, positions.size());
+    }
+    Map<Automaton, int[]> keys = new HashMap<>();
+    for (Automaton a : mmap.keySet()) {
+      keys.put(
+          a,
+          mmap.get(a).stream()
+              .map(positions::get)
+              .filter(Objects::nonNull)
+              .mapToInt(Integer::intValue)
+              .sorted()
+              .toArray());
+    }
+    List<Automaton> automata = new ArrayList<>(mmap.keySet());
+    automata.sort((a1, a2) -> Arrays.compare(keys.get(a1), keys.get(a2)));
+    return automata;
+  }
+
+  /**
+   * Refines the atomic predicates in {@code mmap} so that each of the given regexes is also a
+   * disjunction of some of them.
+   */
+  private static <T extends SymbolicRegex> SetMultimap<Automaton, T> refine(
+      SetMultimap<Automaton, T> mmap, Set<T> regexes) {
+    // the first regex added for each distinct language
+    Map<Automaton, T> added = new HashMap<>();
+    for (T regex : regexes) {
+      Automaton rAuto = toAutomaton(regex);
       if (rAuto.isEmpty()) {
         // regex doesn't match any communities; give up
         throw new BatfishException("Regex " + regex + " does not match any strings");
       }
 
+      T equivalent = added.putIfAbsent(rAuto, regex);
+      if (equivalent != null) {
+        // the regex matches the same strings as one that was already added, so it has the same
+        // atomic predicates and no refinement is needed
+        for (Automaton a : ImmutableList.copyOf(mmap.keySet())) {
+          if (mmap.containsEntry(a, equivalent)) {
+            mmap.put(a, regex);
+          }
+        }
+        continue;
+      }
+
       SetMultimap<Automaton, T> newMMap = HashMultimap.create(mmap);
       for (Automaton a : mmap.keySet()) {
         Automaton inter = a.intersection(rAuto);
@@ -91,34 +211,105 @@ public class RegexAtomicPredicates<T extends SymbolicRegex> {
         }
         // replace automaton a with two new atomic predicates, representing the intersection
         // and difference with regex's automaton
-        Set<T> regexes = newMMap.removeAll(a);
+        Set<T> aRegexes = newMMap.removeAll(a);
         Automaton diff = a.minus(rAuto);
-        newMMap.putAll(inter, regexes);
+        newMMap.putAll(inter, aRegexes);
         if (!diff.isEmpty()) {
-          newMMap.putAll(diff, regexes);
+          newMMap.putAll(diff, aRegexes);
         }
         // add regex to the intersection
         newMMap.put(inter, regex);
       }
       mmap = newMMap;
     }
-    // assign a unique integer to each automaton.
-    // create a mapping from each integer to its corresponding automaton
-    // and a mapping from each regex to its corresponding set of integers.
-    ImmutableMap.Builder<Integer, Automaton> builder = ImmutableMap.builder();
-    SetMultimap<Integer, T> iToR = HashMultimap.create();
-    int i = 0;
-    for (Automaton a : mmap.keySet()) {
-      builder.put(i, a);
-      iToR.putAll(i, mmap.get(a));
-      i++;
+    return mmap;
+  }
+
+  /**
+   * Returns the automaton of {@code regex}. Automaton operations are not thread-safe, so the cached
+   * automaton is never handed out, only a copy of it.
+   */
+  private static @Nonnull Automaton toAutomaton(SymbolicRegex regex) {
+    try {
+      return AUTOMATA.get(regex, regex::toAutomaton).clone();
+    } catch (ExecutionException e) {
+      throw new BatfishException("Could not convert regex " + regex + " to an automaton", e);
     }
-    _numAtomicPredicates = i;
-    _atomicPredicateAutomata = builder.build();
-    _regexAtomicPredicates =
-        ImmutableMap.<T, Set<Integer>>builder()
-            .putAll(Multimaps.asMap(Multimaps.invertFrom(iToR, HashMultimap.create())))
-            .build();
+  }
+
+  /**
+   * Returns the cached partition for the given true regex whose regexes are the largest subset of
+   * {@code regexes}, if any.
+   */
+  @SuppressWarnings("unchecked")
+  private static @Nullable <T extends SymbolicRegex> Partition<T> findCachedPartition(
+      T trueRegex, Set<T> regexes) {
+    Partition<?> best = PARTITIONS.getIfPresent(ImmutableList.<Object>of(trueRegex, regexes));
+    if (best != null) {
+      // the same regexes as before, so nothing can be larger
+      return (Partition<T>) best;
+    }
+    for (Partition<?> partition : PARTITIONS.asMap().values()) {
+      // check sizes first, since they rule out most partitions without the subset check
+      int size = partition._regexes.size();
+      if (size < regexes.size()
+          && (best == null || size > best._regexes.size())
+          && partition._trueRegex.equals(trueRegex)
+          && regexes.containsAll(partition._regexes)) {
+        best = partition;
+      }
+    }
+    // the true regexes are equal, so the partition's regexes have the same type as the given ones
+    return (Partition<T>) best;
+  }
+
+  /**
+   * Atomic predicates computed for a set of regexes, kept so that later computations for the same
+   * regexes, or for more regexes, can start from them. The automata are private copies, since
+   * automaton operations are not thread-safe.
+   */
+  private static final class Partition<T extends SymbolicRegex> {
+    private final @Nonnull T _trueRegex;
+    private final @Nonnull Set<T> _regexes;
+    private final @Nonnull List<Automaton> _automata;
+    private final @Nonnull List<Set<T>> _automatonRegexes;
+
+    private Partition(T trueRegex, Set<T> regexes, SetMultimap<Automaton, T> mmap) {
+      _trueRegex = trueRegex;
+      _regexes = ImmutableSet.copyOf(regexes);
+      ImmutableList.Builder<Automaton> automata = ImmutableList.builder();
+      ImmutableList.Builder<Set<T>> automatonRegexes = ImmutableList.builder();
+      for (Automaton a : mmap.keySet()) {
+        automata.add(a.clone());
+        automatonRegexes.add(ImmutableSet.copyOf(mmap.get(a)));
+      }
+      _automata = automata.build();
+      _automatonRegexes = automatonRegexes.build();
+    }
+
+    /** Returns a copy of the atomic predicates, mapping each to the regexes it is part of. */
+    private synchronized SetMultimap<Automaton, T> toMultimap() {
+      SetMultimap<Automaton, T> mmap = HashMultimap.create();
+      for (int i = 0; i < _automata.size(); i++) {
+        mmap.putAll(_automata.get(i).clone(), _automatonRegexes.get(i));
+      }
+      return mmap;
+    }
+  }
+
+  /** Clears the atomic predicates kept for reuse by later computations. */
+  @VisibleForTesting
+  static void clearCachedPartitions() {
+    PARTITIONS.invalidateAll();
+  }
+
+  /**
+   * Returns the number of regexes that atomic predicates were computed for, rather than reused
+   * from an earlier computation.
+   */
+  @VisibleForTesting
+  int getNumRefinedRegexes() {
+    return _numRefinedRegexes;
   }
 
   public int getNumAtomicPredicates() {
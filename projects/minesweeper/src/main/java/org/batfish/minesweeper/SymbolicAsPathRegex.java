@@ -52,6 +52,13 @@ public class SymbolicAsPathRegex extends SymbolicRegex implements Comparable<Sym
    */
   @Nonnull private static final Automaton AS_PATH_FSM = new RegExp(AS_PATH_REGEX).toAutomaton();
 
+  /**
+   * A copy of {@link #AS_PATH_FSM} per thread. Automaton operations renumber the states of their
+   * operands, and route policies are analyzed in parallel, so threads must not share one.
+   */
+  private static final ThreadLocal<Automaton> THREAD_AS_PATH_FSM =
+      ThreadLocal.withInitial(AS_PATH_FSM::clone);
+
   public SymbolicAsPathRegex(String regex) {
     super(regex);
   }
@@ -74,7 +81,7 @@ public class SymbolicAsPathRegex extends SymbolicRegex implements Comparable<Sym
      * these as ordinary characters.
      */
     String regex = ".*" + "(" + _regex + ")" + ".*";
-    return new RegExp(regex).toAutomaton().intersection(AS_PATH_FSM);
+    return new RegExp(regex).toAutomaton().intersection(THREAD_AS_PATH_FSM.get());
   }
 
   @Override
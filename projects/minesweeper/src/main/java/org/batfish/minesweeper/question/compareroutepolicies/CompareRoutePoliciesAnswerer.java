@@ -8,10 +8,16 @@ import static org.batfish.specifier.NameRegexRoutingPolicySpecifier.ALL_ROUTING_
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -22,6 +28,8 @@ import javax.annotation.ParametersAreNonnullByDefault;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
 import net.sf.javabdd.JFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.NetworkSnapshot;
@@ -51,6 +59,7 @@ import org.batfish.specifier.SpecifierFactories;
 @SuppressWarnings("DuplicatedCode")
 @ParametersAreNonnullByDefault
 public final class CompareRoutePoliciesAnswerer extends Answerer {
+  private static final Logger LOGGER = LogManager.getLogger(CompareRoutePoliciesAnswerer.class);
 
   @Nonnull private final Environment.Direction _direction;
 
@@ -269,27 +278,22 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
   }
 
   /**
-   * Search all of the route policies of a particular node for behaviors of interest.
+   * Pairs up the route policies of a particular node that should be compared.
    *
    * @param node the node - for now assuming a single config, might lift that assumption later.
-   * @param policies all route policies in the given node for the new snapshot
-   * @param referencePolicies all route policies in the given node for the reference snapshot.
+   * @param currentPoliciesList all route policies in the given node for the new snapshot. If not
+   *     {@code crossPolicies}, policies without a match in the reference snapshot are removed.
+   * @param referencePoliciesList all route policies in the given node for the reference snapshot.
+   *     If not {@code crossPolicies}, policies without a match in the new snapshot are removed.
    * @param crossPolicies if true then policies and referencePolicies are all compared with each
    *     other. Otherwise we use a one-to-one mapping where names must match in order to compare.
-   * @param snapshot the snapshot of the proposed change
-   * @param reference the reference snapshot
-   * @return all results from analyzing those route policies
+   * @return the pairs of reference and current policies to compare
    */
-  private Stream<Row> comparePoliciesForNode(
+  private List<Tuple<RoutingPolicy, RoutingPolicy>> policiesToCompare(
       String node,
-      Stream<RoutingPolicy> policies,
-      Stream<RoutingPolicy> referencePolicies,
-      boolean crossPolicies,
-      NetworkSnapshot snapshot,
-      NetworkSnapshot reference) {
-    List<RoutingPolicy> referencePoliciesList = referencePolicies.collect(Collectors.toList());
-    List<RoutingPolicy> currentPoliciesList = policies.collect(Collectors.toList());
-
+      List<RoutingPolicy> currentPoliciesList,
+      List<RoutingPolicy> referencePoliciesList,
+      boolean crossPolicies) {
     if (referencePoliciesList.isEmpty()) {
       throw new IllegalArgumentException(
           String.format(
@@ -302,39 +306,6 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
               "Could not find policy matching %s in current snapshot", _policySpecifierString));
     }
 
-    if (!crossPolicies) {
-      // In this case we are comparing all route-maps with the same name.
-      Set<String> referencePoliciesNames =
-          referencePoliciesList.stream().map(RoutingPolicy::getName).collect(Collectors.toSet());
-      Set<String> policiesNames =
-          currentPoliciesList.stream().map(RoutingPolicy::getName).collect(Collectors.toSet());
-      Set<String> intersection =
-          referencePoliciesNames.stream()
-              .filter(policiesNames::contains)
-              .collect(Collectors.toSet());
-      if (intersection.isEmpty()) {
-        throw new IllegalArgumentException(
-            String.format(
-                "No common policies described by %s in %s", _policySpecifierString, node));
-      }
-      // Filter down the lists such that they include policies with the same name only
-      referencePoliciesList.removeIf(p -> !intersection.contains(p.getName()));
-      currentPoliciesList.removeIf(p -> !intersection.contains(p.getName()));
-    }
-
-    ConfigAtomicPredicates configAPs =
-        new ConfigAtomicPredicates(
-            _batfish,
-            snapshot,
-            reference,
-            node,
-            _communityRegexes.stream()
-                .map(CommunityVar::from)
-                .collect(ImmutableSet.toImmutableSet()),
-            _asPathRegexes,
-            currentPoliciesList,
-            referencePoliciesList);
-
     if (crossPolicies) {
       // In this case we cross-compare all routing policies in the two sets regardless of their
       // names.
@@ -342,36 +313,69 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
           .flatMap(
               referencePolicy ->
                   currentPoliciesList.stream()
-                      .flatMap(
-                          currentPolicy ->
-                              comparePolicies(referencePolicy, currentPolicy, configAPs).stream()));
-    } else {
-      // In this case we only compare policies with the same name.
-      // Create a stream of policy tuples (referencePolicy, currentPolicy) for policies with the
-      // same name.
-      currentPoliciesList.sort(Comparator.comparing(RoutingPolicy::getName));
-      referencePoliciesList.sort(Comparator.comparing(RoutingPolicy::getName));
-
-      // Since the two lists have been filtered to include only elements in their intersection they
-      // should have the same
-      // length.
-      assert (currentPoliciesList.size() == referencePoliciesList.size());
-
-      // Since they have been sorted by name the policies at each index should have the same name.
-      return IntStream.range(0, currentPoliciesList.size())
-          .mapToObj(
-              i -> {
-                assert (referencePoliciesList
-                    .get(i)
-                    .getName()
-                    .equals(currentPoliciesList.get(i).getName()));
-                return new Tuple<>(referencePoliciesList.get(i), currentPoliciesList.get(i));
-              })
-          .flatMap(
-              policyTuple ->
-                  comparePolicies(policyTuple.getFirst(), policyTuple.getSecond(), configAPs)
-                      .stream());
+                      .map(currentPolicy -> new Tuple<>(referencePolicy, currentPolicy)))
+          .collect(ImmutableList.toImmutableList());
+    }
+
+    // In this case we are comparing all route-maps with the same name.
+    Set<String> referencePoliciesNames =
+        referencePoliciesList.stream().map(RoutingPolicy::getName).collect(Collectors.toSet());
+    Set<String> policiesNames =
+        currentPoliciesList.stream().map(RoutingPolicy::getName).collect(Collectors.toSet());
+    Set<String> intersection =
+        referencePoliciesNames.stream().filter(policiesNames::contains).collect(Collectors.toSet());
+    if (intersection.isEmpty()) {
+      throw new IllegalArgumentException(
+          String.format("No common policies described by %s in %s", _policySpecifierString, node));
+    }
+    // Filter down the lists such that they include policies with the same name only
+    referencePoliciesList.removeIf(p -> !intersection.contains(p.getName()));
+    currentPoliciesList.removeIf(p -> !intersection.contains(p.getName()));
+
+    // Create a list of policy tuples (referencePolicy, currentPolicy) for policies with the
+    // same name.
+    currentPoliciesList.sort(Comparator.comparing(RoutingPolicy::getName));
+    referencePoliciesList.sort(Comparator.comparing(RoutingPolicy::getName));
+
+    // Since the two lists have been filtered to include only elements in their intersection they
+    // should have the same
+    // length.
+    assert (currentPoliciesList.size() == referencePoliciesList.size());
+
+    // Since they have been sorted by name the policies at each index should have the same name.
+    return IntStream.range(0, currentPoliciesList.size())
+        .mapToObj(
+            i -> {
+              assert (referencePoliciesList
+                  .get(i)
+                  .getName()
+                  .equals(currentPoliciesList.get(i).getName()));
+              return new Tuple<>(referencePoliciesList.get(i), currentPoliciesList.get(i));
+            })
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Compare pairs of route policies of a particular node for behavioral differences.
+   *
+   * @param policyPairs the pairs of reference and current policies to compare
+   * @param configAPs an object providing the atomic predicates for the policies
+   * @return all differences found
+   */
+  private List<Row> comparePoliciesForNode(
+      List<Tuple<RoutingPolicy, RoutingPolicy>> policyPairs, ConfigAtomicPredicates configAPs) {
+    ImmutableList.Builder<Row> rows = ImmutableList.builder();
+    for (Tuple<RoutingPolicy, RoutingPolicy> policyPair : policyPairs) {
+      long start = System.currentTimeMillis();
+      rows.addAll(comparePolicies(policyPair.getFirst(), policyPair.getSecond(), configAPs));
+      LOGGER.debug(
+          "Compared policy {} to {} in node {} in {}ms",
+          policyPair.getSecond().getName(),
+          policyPair.getFirst().getName(),
+          policyPair.getSecond().getOwner().getHostname(),
+          System.currentTimeMillis() - start);
     }
+    return rows.build();
   }
 
   @Override
@@ -401,34 +405,71 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
     // Only compare nodes that are in both snapshots.
     Stream<String> nodes = currentNodes.stream().filter(referenceNodes::contains);
 
+    Set<CommunityVar> communities =
+        _communityRegexes.stream().map(CommunityVar::from).collect(ImmutableSet.toImmutableSet());
+
+    // Atomic predicates are expensive to compute, so nodes whose policies need the same ones share
+    // them. Each group of such nodes is compared sequentially, since TransferBDD reads their
+    // automata, but the groups are compared in parallel: every pair of policies gets its own BDD
+    // factory.
+    Map<String, List<Tuple<RoutingPolicy, RoutingPolicy>>> pairsByNode = new LinkedHashMap<>();
+    Map<ConfigAtomicPredicates.Inputs, List<String>> nodesByInputs = new HashMap<>();
     // Using stream.sorted() to ensure consistent order.
-    List<Row> rows =
-        nodes
-            .sorted()
+    nodes
+        .sorted()
+        .forEachOrdered(
+            node -> {
+              // If the referencePolicySpecifier is null then use the policies from
+              // policySpecifier and do a 1-1 comparison based on policy name equality.
+              // Otherwise cross-compare all policies in each set (policySpecifier and
+              // referencePolicySpecifier)
+              boolean crossPolicies = _referencePolicySpecifier != null;
+              RoutingPolicySpecifier referencePolicySpecifier =
+                  crossPolicies ? _referencePolicySpecifier : _policySpecifier;
+              List<RoutingPolicy> currentPolicies =
+                  _policySpecifier.resolve(node, currentContext).stream()
+                      .sorted()
+                      .collect(Collectors.toList());
+              List<RoutingPolicy> referencePolicies =
+                  referencePolicySpecifier.resolve(node, referenceContext).stream()
+                      .sorted()
+                      .collect(Collectors.toList());
+              pairsByNode.put(
+                  node,
+                  policiesToCompare(node, currentPolicies, referencePolicies, crossPolicies));
+              nodesByInputs
+                  .computeIfAbsent(
+                      ConfigAtomicPredicates.inputs(
+                          _batfish,
+                          snapshot,
+                          reference,
+                          node,
+                          communities,
+                          _asPathRegexes,
+                          currentPolicies,
+                          referencePolicies),
+                      k -> new ArrayList<>())
+                  .add(node);
+            });
+
+    // Materialized for efficient parallelism.
+    List<Entry<ConfigAtomicPredicates.Inputs, List<String>>> groups =
+        ImmutableList.copyOf(nodesByInputs.entrySet());
+    Map<String, List<Row>> rowsByNode =
+        groups.parallelStream()
             .flatMap(
-                node -> {
-                  // If the referencePolicySpecifier is null then use the policies from
-                  // policySpecifier and do a 1-1 comparison based on policy name equality.
-                  if (_referencePolicySpecifier == null) {
-                    return comparePoliciesForNode(
-                        node,
-                        _policySpecifier.resolve(node, currentContext).stream().sorted(),
-                        _policySpecifier.resolve(node, referenceContext).stream().sorted(),
-                        false,
-                        snapshot,
-                        reference);
-                  } else {
-                    // Otherwise cross-compare all policies in each set (policySpecifier and
-                    // referencePolicySpecifier)
-                    return comparePoliciesForNode(
-                        node,
-                        _policySpecifier.resolve(node, currentContext).stream().sorted(),
-                        _referencePolicySpecifier.resolve(node, referenceContext).stream().sorted(),
-                        true,
-                        snapshot,
-                        reference);
-                  }
+                group -> {
+                  ConfigAtomicPredicates configAPs = new ConfigAtomicPredicates(group.getKey());
+                  return group.getValue().stream()
+                      .map(
+                          node ->
+                              Maps.immutableEntry(
+                                  node, comparePoliciesForNode(pairsByNode.get(node), configAPs)));
                 })
+            .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
+    List<Row> rows =
+        pairsByNode.keySet().stream()
+            .flatMap(node -> rowsByNode.get(node).stream())
             .collect(ImmutableList.toImmutableList());
     TableAnswerElement answerElement =
         new TableAnswerElement(TestRoutePoliciesAnswerer.compareMetadata());
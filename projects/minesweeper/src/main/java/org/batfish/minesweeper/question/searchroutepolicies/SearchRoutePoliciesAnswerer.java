@@ -8,20 +8,27 @@ import static org.batfish.specifier.NameRegexRoutingPolicySpecifier.ALL_ROUTING_
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
 import dk.brics.automaton.Automaton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.NetworkSnapshot;
@@ -61,6 +68,7 @@ import org.batfish.specifier.SpecifierFactories;
 /** An answerer for {@link SearchRoutePoliciesQuestion}. */
 @ParametersAreNonnullByDefault
 public final class SearchRoutePoliciesAnswerer extends Answerer {
+  private static final Logger LOGGER = LogManager.getLogger(SearchRoutePoliciesAnswerer.class);
 
   @Nonnull private final Environment.Direction _direction;
   @Nonnull private final BgpRouteConstraints _inputConstraints;
@@ -414,34 +422,66 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
   /**
    * Search all of the route policies of a particular node for behaviors of interest.
    *
-   * @param node the node
    * @param policies all route policies in that node
+   * @param configAPs an object providing the atomic predicates for the policies
    * @return all results from analyzing those route policies
    */
-  private Stream<Row> searchPoliciesForNode(
-      String node, Set<RoutingPolicy> policies, NetworkSnapshot snapshot) {
-    ConfigAtomicPredicates configAPs =
-        new ConfigAtomicPredicates(
-            _batfish,
-            snapshot,
-            node,
-            _communityRegexes.stream()
-                .map(CommunityVar::from)
-                .collect(ImmutableSet.toImmutableSet()),
-            _asPathRegexes,
-            policies);
-
-    return policies.stream().flatMap(policy -> searchPolicy(policy, configAPs).stream());
+  private List<Row> searchPoliciesForNode(
+      Set<RoutingPolicy> policies, ConfigAtomicPredicates configAPs) {
+    ImmutableList.Builder<Row> rows = ImmutableList.builder();
+    for (RoutingPolicy policy : policies) {
+      long start = System.currentTimeMillis();
+      rows.addAll(searchPolicy(policy, configAPs));
+      LOGGER.debug(
+          "Searched policy {} in node {} in {}ms",
+          policy.getName(),
+          policy.getOwner().getHostname(),
+          System.currentTimeMillis() - start);
+    }
+    return rows.build();
   }
 
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     SpecifierContext context = _batfish.specifierContext(snapshot);
-    List<Row> rows =
-        _nodeSpecifier.resolve(context).stream()
+    Set<CommunityVar> communities =
+        _communityRegexes.stream().map(CommunityVar::from).collect(ImmutableSet.toImmutableSet());
+
+    // Atomic predicates are expensive to compute, so nodes whose policies need the same ones share
+    // them. Each group of such nodes is searched sequentially, since TransferBDD reads their
+    // automata, but the groups are searched in parallel: every policy gets its own BDD factory.
+    Map<String, Set<RoutingPolicy>> policiesByNode = new LinkedHashMap<>();
+    Map<ConfigAtomicPredicates.Inputs, List<String>> nodesByInputs = new HashMap<>();
+    for (String node : _nodeSpecifier.resolve(context)) {
+      Set<RoutingPolicy> policies = _policySpecifier.resolve(node, context);
+      policiesByNode.put(node, policies);
+      nodesByInputs
+          .computeIfAbsent(
+              ConfigAtomicPredicates.inputs(
+                  _batfish, snapshot, null, node, communities, _asPathRegexes, policies, null),
+              k -> new ArrayList<>())
+          .add(node);
+    }
+
+    // Materialized for efficient parallelism.
+    List<Entry<ConfigAtomicPredicates.Inputs, List<String>>> groups =
+        ImmutableList.copyOf(nodesByInputs.entrySet());
+    Map<String, List<Row>> rowsByNode =
+        groups.parallelStream()
             .flatMap(
-                node ->
-                    searchPoliciesForNode(node, _policySpecifier.resolve(node, context), snapshot))
+                group -> {
+                  ConfigAtomicPredicates configAPs = new ConfigAtomicPredicates(group.getKey());
+                  return group.getValue().stream()
+                      .map(
+                          node ->
+                              Maps.immutableEntry(
+                                  node,
+                                  searchPoliciesForNode(policiesByNode.get(node), configAPs)));
+                })
+            .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
+    List<Row> rows =
+        policiesByNode.keySet().stream()
+            .flatMap(node -> rowsByNode.get(node).stream())
             .collect(ImmutableList.toImmutableList());
 
     TableAnswerElement answerElement = new TableAnswerElement(TestRoutePoliciesAnswerer.metadata());
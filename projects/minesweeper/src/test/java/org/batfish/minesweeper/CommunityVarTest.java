@@ -5,8 +5,13 @@ import static org.hamcrest.Matchers.equalTo;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.testing.EqualsTester;
+import dk.brics.automaton.Automaton;
 import dk.brics.automaton.RegExp;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 import org.batfish.datamodel.bgp.community.ExtendedCommunity;
 import org.batfish.datamodel.bgp.community.LargeCommunity;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
@@ -67,4 +72,34 @@ public class CommunityVarTest {
       }
     }
   }
+
+  @Test
+  public void testToAutomatonConcurrently() throws Exception {
+    // Route policies are analyzed in parallel, and every regex is intersected with the FSM of
+    // valid communities.
+    List<CommunityVar> vars =
+        IntStream.range(0, 100)
+            .mapToObj(i -> CommunityVar.from("^" + i + ":"))
+            .collect(ImmutableList.toImmutableList());
+    List<Automaton> expected =
+        vars.stream().map(CommunityVar::toAutomaton).collect(ImmutableList.toImmutableList());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<ImmutableList<Automaton>>> results =
+          IntStream.range(0, 4)
+              .mapToObj(
+                  i ->
+                      executor.submit(
+                          () ->
+                              vars.stream()
+                                  .map(CommunityVar::toAutomaton)
+                                  .collect(ImmutableList.toImmutableList())))
+              .collect(ImmutableList.toImmutableList());
+      for (Future<ImmutableList<Automaton>> result : results) {
+        assertThat(result.get(), equalTo(expected));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
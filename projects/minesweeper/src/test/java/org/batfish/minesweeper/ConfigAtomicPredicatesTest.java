@@ -8,7 +8,9 @@ import static org.junit.Assert.assertThat;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.testing.EqualsTester;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
@@ -180,6 +182,43 @@ public class ConfigAtomicPredicatesTest {
         hasItem(new SymbolicAsPathRegex("^$").toAutomaton()));
   }
 
+  @Test
+  public void testInputsEquals() {
+    Set<CommunityVar> communities =
+        ImmutableSet.of(CommunityVar.from(StandardCommunity.parse("30:40")));
+    new EqualsTester()
+        .addEqualityGroup(
+            ConfigAtomicPredicates.inputs(
+                _batfish,
+                _batfish.getSnapshot(),
+                null,
+                HOSTNAME,
+                communities,
+                ImmutableSet.of("^$"),
+                ImmutableSet.of(),
+                null),
+            ConfigAtomicPredicates.inputs(
+                _batfish,
+                _batfish.getSnapshot(),
+                null,
+                HOSTNAME,
+                communities,
+                ImmutableSet.of("^$"),
+                ImmutableSet.of(),
+                null))
+        .addEqualityGroup(
+            ConfigAtomicPredicates.inputs(
+                _batfish,
+                _batfish.getSnapshot(),
+                null,
+                HOSTNAME,
+                communities,
+                ImmutableSet.of("^40$"),
+                ImmutableSet.of(),
+                null))
+        .testEquals();
+  }
+
   @Test
   public void testCopyConstructor() {
     ConfigAtomicPredicates cap =
@@ -12,10 +12,16 @@ import dk.brics.automaton.Automaton;
 import dk.brics.automaton.RegExp;
 import java.util.Set;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
+import org.junit.Before;
 import org.junit.Test;
 
 /** Tests for the {@link RegexAtomicPredicates} class. */
 public class RegexAtomicPredicatesTest {
+  @Before
+  public void clearCache() {
+    RegexAtomicPredicates.clearCachedPartitions();
+  }
+
   @Test
   public void testInitAtomicPredicatesCVars() {
     Set<CommunityVar> cvars =
@@ -105,6 +111,81 @@ public class RegexAtomicPredicatesTest {
         hasEntry(equalTo(new SymbolicAsPathRegex(".*")), iterableWithSize(5)));
   }
 
+  @Test
+  public void testInitAtomicPredicatesRefinesSubset() {
+    CommunityVar range = CommunityVar.from("^2[0-3]:40$");
+    CommunityVar range2 = CommunityVar.from("^21:4[0-3]$");
+    RegexAtomicPredicates<CommunityVar> subsetAPs =
+        new RegexAtomicPredicates<>(
+            ImmutableSet.of(range, range2), CommunityVar.ALL_STANDARD_COMMUNITIES);
+    assertEquals(subsetAPs.getNumAtomicPredicates(), 4);
+
+    // computed by refining the atomic predicates of the subset
+    RegexAtomicPredicates<CommunityVar> commAPs =
+        new RegexAtomicPredicates<>(
+            ImmutableSet.of(
+                range,
+                range2,
+                CommunityVar.from(StandardCommunity.parse("20:40")),
+                CommunityVar.from(StandardCommunity.parse("22:22"))),
+            CommunityVar.ALL_STANDARD_COMMUNITIES);
+
+    // only the two regexes that are not in the subset were refined
+    assertEquals(commAPs.getNumRefinedRegexes(), 2);
+    assertEquals(commAPs.getNumAtomicPredicates(), 6);
+    assertThat(
+        commAPs.getAtomicPredicateAutomata().values(),
+        hasItem(new RegExp("^20:40$").toAutomaton()));
+    assertThat(
+        commAPs.getAtomicPredicateAutomata().values(),
+        hasItem(new RegExp("^2[2-3]:40$").toAutomaton()));
+    assertThat(
+        commAPs.getAtomicPredicateAutomata().values(),
+        hasItem(new RegExp("^22:22$").toAutomaton()));
+    assertThat(commAPs.getRegexAtomicPredicates(), hasEntry(equalTo(range), iterableWithSize(3)));
+    assertThat(commAPs.getRegexAtomicPredicates(), hasEntry(equalTo(range2), iterableWithSize(2)));
+  }
+
+  @Test
+  public void testInitAtomicPredicatesCanonicalNumbering() {
+    Set<CommunityVar> cvars =
+        ImmutableSet.of(
+            CommunityVar.from("^2[0-3]:40$"),
+            CommunityVar.from("^21:4[0-3]$"),
+            CommunityVar.from(StandardCommunity.parse("20:40")),
+            CommunityVar.from(StandardCommunity.parse("22:22")));
+    RegexAtomicPredicates<CommunityVar> fromScratch =
+        new RegexAtomicPredicates<>(cvars, CommunityVar.ALL_STANDARD_COMMUNITIES);
+    assertEquals(fromScratch.getNumRefinedRegexes(), 4);
+
+    // refining a cached partition of a different subset numbers the atomic predicates the same way
+    RegexAtomicPredicates.clearCachedPartitions();
+    new RegexAtomicPredicates<>(
+        ImmutableSet.of(
+            CommunityVar.from(StandardCommunity.parse("22:22")), CommunityVar.from("^21:4[0-3]$")),
+        CommunityVar.ALL_STANDARD_COMMUNITIES);
+    RegexAtomicPredicates<CommunityVar> refined =
+        new RegexAtomicPredicates<>(cvars, CommunityVar.ALL_STANDARD_COMMUNITIES);
+    assertEquals(refined.getNumRefinedRegexes(), 2);
+
+    assertEquals(fromScratch.getAtomicPredicateAutomata(), refined.getAtomicPredicateAutomata());
+    assertEquals(fromScratch.getRegexAtomicPredicates(), refined.getRegexAtomicPredicates());
+  }
+
+  @Test
+  public void testInitAtomicPredicatesEquivalentRegexes() {
+    CommunityVar prefix = CommunityVar.from("^40:");
+    CommunityVar equivalent = CommunityVar.from("^40:.*");
+    RegexAtomicPredicates<CommunityVar> commAPs =
+        new RegexAtomicPredicates<>(
+            ImmutableSet.of(prefix, equivalent), CommunityVar.ALL_STANDARD_COMMUNITIES);
+
+    assertEquals(commAPs.getNumAtomicPredicates(), 2);
+    assertEquals(
+        commAPs.getRegexAtomicPredicates().get(prefix),
+        commAPs.getRegexAtomicPredicates().get(equivalent));
+  }
+
   @Test
   public void testCopyConstructor() {
     Set<CommunityVar> cvars =
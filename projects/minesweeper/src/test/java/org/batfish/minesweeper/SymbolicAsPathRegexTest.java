@@ -3,7 +3,14 @@ package org.batfish.minesweeper;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
+import com.google.common.collect.ImmutableList;
+import dk.brics.automaton.Automaton;
 import dk.brics.automaton.RegExp;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 import org.junit.Test;
 
 /** Tests for the {@link org.batfish.minesweeper.SymbolicAsPathRegex} class. */
@@ -50,4 +57,36 @@ public class SymbolicAsPathRegexTest {
     assertThat(r3.toAutomaton(), equalTo(new RegExp("^^((0|[1-9][0-9]*) )*40$").toAutomaton()));
     assertThat(r4.toAutomaton(), equalTo(new RegExp("^^40( (0|[1-9][0-9]*))*$").toAutomaton()));
   }
+
+  @Test
+  public void testToAutomatonConcurrently() throws Exception {
+    // Route policies are analyzed in parallel, and every regex is intersected with the FSM of
+    // valid AS paths.
+    List<SymbolicAsPathRegex> regexes =
+        IntStream.range(0, 100)
+            .mapToObj(i -> new SymbolicAsPathRegex(UNDERSCORE + i + UNDERSCORE))
+            .collect(ImmutableList.toImmutableList());
+    List<Automaton> expected =
+        regexes.stream()
+            .map(SymbolicAsPathRegex::toAutomaton)
+            .collect(ImmutableList.toImmutableList());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<ImmutableList<Automaton>>> results =
+          IntStream.range(0, 4)
+              .mapToObj(
+                  i ->
+                      executor.submit(
+                          () ->
+                              regexes.stream()
+                                  .map(SymbolicAsPathRegex::toAutomaton)
+                                  .collect(ImmutableList.toImmutableList())))
+              .collect(ImmutableList.toImmutableList());
+      for (Future<ImmutableList<Automaton>> result : results) {
+        assertThat(result.get(), equalTo(expected));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
@@ -11,6 +11,7 @@ import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Multiset;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -28,7 +29,6 @@ import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.IpAccessList;
-import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.acl.ActionGetter;
 import org.batfish.datamodel.answers.AnswerElement;
@@ -90,6 +90,9 @@ public class CompareFiltersAnswerer extends Answerer {
             entry -> referenceFilters.containsEntry(entry.getKey(), entry.getValue()));
 
     BDDPacket bddPacket = new BDDPacket();
+    // Built once per node, so the source variables are allocated and the ACLs converted only once
+    // however many of the node's filters are compared.
+    Map<String, NodeBddConverters> convertersByNode = new HashMap<>();
     Multiset<Row> rows =
         commonFilters.entries().stream()
             .flatMap(
@@ -98,8 +101,11 @@ public class CompareFiltersAnswerer extends Answerer {
                         entry.getKey(),
                         entry.getValue(),
                         bddPacket,
-                        currentContext,
-                        referenceContext))
+                        convertersByNode.computeIfAbsent(
+                            entry.getKey(),
+                            hostname ->
+                                new NodeBddConverters(
+                                    hostname, bddPacket, currentContext, referenceContext))))
             .map(filterDifference -> toRow(filterDifference, currentContext, referenceContext))
             .collect(ImmutableMultiset.toImmutableMultiset());
 
@@ -160,35 +166,47 @@ public class CompareFiltersAnswerer extends Answerer {
       String hostname,
       String filtername,
       BDDPacket bddPacket,
-      SpecifierContext currentContext,
-      SpecifierContext referenceContext) {
-    Configuration currentConfig = currentContext.getConfigs().get(hostname);
-    Configuration referenceConfig = referenceContext.getConfigs().get(hostname);
-    Map<String, IpAccessList> currentAcls = currentConfig.getIpAccessLists();
-    Map<String, IpSpace> currentIpSpaces = currentConfig.getIpSpaces();
-    IpAccessList currentAcl = currentAcls.get(filtername);
-    BDDSourceManager srcMgr =
-        differentialBDDSourceManager(
-            bddPacket,
-            currentContext,
-            referenceContext,
-            currentConfig,
-            referenceConfig,
-            currentAcls.keySet(),
-            LocationSpecifier.ALL_LOCATIONS);
-    IpAccessListToBdd currentToBdd =
-        new IpAccessListToBddImpl(bddPacket, srcMgr, currentAcls, currentIpSpaces);
-    List<PermitAndDenyBdds> currentBdds = currentToBdd.reachAndMatchLines(currentAcl);
-
-    Map<String, IpAccessList> referenceAcls = referenceConfig.getIpAccessLists();
-    Map<String, IpSpace> referenceIpSpaces = referenceConfig.getIpSpaces();
-    IpAccessList referenceAcl = referenceAcls.get(filtername);
+      NodeBddConverters converters) {
+    List<PermitAndDenyBdds> currentBdds =
+        converters._current.reachAndMatchLines(converters._currentAcls.get(filtername));
     List<PermitAndDenyBdds> referenceBdds =
-        new IpAccessListToBddImpl(bddPacket, srcMgr, referenceAcls, referenceIpSpaces)
-            .reachAndMatchLines(referenceAcl);
+        converters._reference.reachAndMatchLines(converters._referenceAcls.get(filtername));
     return compareFilters(hostname, filtername, currentBdds, referenceBdds, bddPacket);
   }
 
+  /** The {@link IpAccessListToBdd converters} for both snapshots' versions of one node. */
+  private static final class NodeBddConverters {
+    private final Map<String, IpAccessList> _currentAcls;
+    private final Map<String, IpAccessList> _referenceAcls;
+    private final IpAccessListToBdd _current;
+    private final IpAccessListToBdd _reference;
+
+    private NodeBddConverters(
+        String hostname,
+        BDDPacket bddPacket,
+        SpecifierContext currentContext,
+        SpecifierContext referenceContext) {
+      Configuration currentConfig = currentContext.getConfigs().get(hostname);
+      Configuration referenceConfig = referenceContext.getConfigs().get(hostname);
+      _currentAcls = currentConfig.getIpAccessLists();
+      _referenceAcls = referenceConfig.getIpAccessLists();
+      BDDSourceManager srcMgr =
+          differentialBDDSourceManager(
+              bddPacket,
+              currentContext,
+              referenceContext,
+              currentConfig,
+              referenceConfig,
+              _currentAcls.keySet(),
+              LocationSpecifier.ALL_LOCATIONS);
+      _current =
+          new IpAccessListToBddImpl(bddPacket, srcMgr, _currentAcls, currentConfig.getIpSpaces());
+      _reference =
+          new IpAccessListToBddImpl(
+              bddPacket, srcMgr, _referenceAcls, referenceConfig.getIpSpaces());
+    }
+  }
+
   @VisibleForTesting
   static Stream<FilterDifference> compareFilters(
       String hostname,
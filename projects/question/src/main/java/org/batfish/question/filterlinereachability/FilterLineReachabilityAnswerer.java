@@ -12,16 +12,20 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDPacket;
@@ -357,7 +361,8 @@ public class FilterLineReachabilityAnswerer extends Answerer {
       SortedMap<String, Configuration> configurations,
       Map<String, Set<String>> specifiedAcls,
       FilterLineReachabilityRows answer) {
-    List<AclSpecs.Builder> aclSpecs = new ArrayList<>();
+    // Keyed by canonical ACL so each distinct ACL body is analyzed once, in first-seen order.
+    Map<CanonicalAcl, AclSpecs.Builder> aclSpecs = new LinkedHashMap<>();
 
     /*
      - For each ACL, build a CanonicalAcl structure with that ACL and referenced ACLs & interfaces
@@ -432,29 +437,67 @@ public class FilterLineReachabilityAnswerer extends Answerer {
                   node.getLinesInCycles());
 
           // If an identical ACL exists, add current hostname/aclName pair; otherwise, add new ACL
-          boolean added = false;
-          for (AclSpecs.Builder aclSpec : aclSpecs) {
-            if (aclSpec.getAcl().equals(currentAcl)) {
-              aclSpec.addSource(hostname, aclName);
-              added = true;
-              break;
-            }
-          }
-          if (!added) {
-            aclSpecs.add(AclSpecs.builder().setAcl(currentAcl).addSource(hostname, aclName));
-          }
+          aclSpecs
+              .computeIfAbsent(currentAcl, acl -> AclSpecs.builder().setAcl(acl))
+              .addSource(hostname, aclName);
         }
       }
     }
-    return aclSpecs.stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
+    return aclSpecs.values().stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
   }
 
+  /**
+   * Analyzes each distinct ACL in parallel. {@link BDDPacket}s are pooled and handed to one thread
+   * at a time, so an idle packet is reused for the next ACL instead of allocating a new factory.
+   * Each ACL allocates variables for its source interfaces, and its BDDs are never freed, so a
+   * packet is retired once it has grown by more than {@link #MAX_POOLED_PACKET_EXTRA_VARS}
+   * variables or holds more than {@link #MAX_POOLED_PACKET_NODES} nodes.
+   */
   private static List<UnreachableFilterLine> computeUnreachableFilterLines(
       List<AclSpecs> aclSpecs) {
+    Queue<PooledPacket> pool = new ConcurrentLinkedQueue<>();
     return aclSpecs.parallelStream()
         .flatMap(
-            aclSpec ->
-                FilterLineReachabilityUtils.computeUnreachableFilterLines(aclSpec, new BDDPacket()))
+            aclSpec -> {
+              PooledPacket pooled = pool.poll();
+              if (pooled == null) {
+                pooled = new PooledPacket();
+              }
+              // Materialize before the packet can be handed to another thread.
+              List<UnreachableFilterLine> lines =
+                  FilterLineReachabilityUtils.computeUnreachableFilterLines(aclSpec, pooled._pkt)
+                      .collect(ImmutableList.toImmutableList());
+              if (!pooled.isExhausted()) {
+                pool.add(pooled);
+              }
+              return lines.stream();
+            })
         .collect(Collectors.toList());
   }
+
+  /** Source-interface variables a pooled {@link BDDPacket} may accumulate before it is retired. */
+  private static final int MAX_POOLED_PACKET_EXTRA_VARS = 64;
+
+  /**
+   * Nodes a pooled {@link BDDPacket} may hold before it is retired. This is below the initial node
+   * table size, so the BDDs left over from earlier ACLs do not grow a pooled packet's table.
+   */
+  private static final int MAX_POOLED_PACKET_NODES = 500_000;
+
+  /** A {@link BDDPacket} in the pool, with the number of variables it was created with. */
+  private static final class PooledPacket {
+    private final BDDPacket _pkt;
+    private final int _baseVarNum;
+
+    private PooledPacket() {
+      _pkt = new BDDPacket();
+      _baseVarNum = _pkt.getFactory().varNum();
+    }
+
+    private boolean isExhausted() {
+      BDDFactory factory = _pkt.getFactory();
+      return factory.varNum() - _baseVarNum > MAX_POOLED_PACKET_EXTRA_VARS
+          || factory.getNodeNum() > MAX_POOLED_PACKET_NODES;
+    }
+  }
 }
@@ -25,6 +25,7 @@ import org.batfish.common.bdd.BDDSourceManager;
 import org.batfish.common.bdd.IpAccessListToBdd;
 import org.batfish.common.bdd.IpAccessListToBddImpl;
 import org.batfish.common.bdd.PermitAndDenyBdds;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.AclAclLine;
 import org.batfish.datamodel.AclIpSpace;
@@ -104,19 +105,34 @@ public final class FindMatchingFilterLinesAnswerer extends Answerer {
     }
 
     TableAnswerElement answer = new TableAnswerElement(createMetadata(question));
-    getRows(question.getHeaderConstraints(), question.getAction(), specifiedAcls, ctxt)
+    _batfish
+        .getBddContext(snapshot)
+        .compute(
+            bddCtxt ->
+                getRows(
+                        question.getHeaderConstraints(),
+                        question.getAction(),
+                        specifiedAcls,
+                        ctxt,
+                        bddCtxt)
+                    .collect(ImmutableList.toImmutableList()))
         .forEach(answer::addRow);
     return answer;
   }
 
+  /**
+   * Returns the rows for the specified ACLs. Must be called inside {@link
+   * SnapshotBddContext#compute}; the stream must be consumed there too.
+   */
   private static Stream<Row> getRows(
       PacketHeaderConstraints phc,
       @Nullable Action action,
       Multimap<String, String> acls,
-      SpecifierContext ctxt) {
+      SpecifierContext ctxt,
+      SnapshotBddContext bddCtxt) {
     Map<String, Configuration> configs = ctxt.getConfigs();
 
-    BDDPacket bddPacket = new BDDPacket();
+    BDDPacket bddPacket = bddCtxt.getPacket();
 
     BDD headerSpaceBdd =
         PacketHeaderConstraintsUtil.toBDD(
@@ -125,29 +141,48 @@ public final class FindMatchingFilterLinesAnswerer extends Answerer {
             resolveIpSpace(phc.getSrcIps(), ctxt),
             resolveIpSpace(phc.getDstIps(), ctxt));
 
-    Map<String, BDDSourceManager> mgrMap = BDDSourceManager.forNetwork(bddPacket, configs);
-
     return acls.keySet().stream()
         .flatMap(
             nodeName ->
                 getRowsForNode(
                     configs.get(nodeName),
-                    bddPacket,
-                    mgrMap.get(nodeName),
+                    getBddConverter(bddCtxt, configs, nodeName),
                     acls.get(nodeName),
                     headerSpaceBdd,
                     action));
   }
 
+  /**
+   * Returns the {@link IpAccessListToBdd} for node {@code nodeName}, shared by all questions about
+   * the snapshot so each ACL is converted once. Must be called inside {@link
+   * SnapshotBddContext#compute}.
+   */
+  private static IpAccessListToBdd getBddConverter(
+      SnapshotBddContext bddCtxt, Map<String, Configuration> configs, String nodeName) {
+    return bddCtxt.getArtifact(
+        ImmutableList.of(IpAccessListToBdd.class, nodeName),
+        IpAccessListToBdd.class,
+        () -> {
+          BDDPacket bddPacket = bddCtxt.getPacket();
+          // One source variable is shared by all nodes, so the managers are built together.
+          @SuppressWarnings("unchecked")
+          Map<String, BDDSourceManager> mgrs =
+              bddCtxt.getArtifact(
+                  ImmutableList.of(BDDSourceManager.class, "network"),
+                  Map.class,
+                  () -> BDDSourceManager.forNetwork(bddPacket, configs));
+          Configuration node = configs.get(nodeName);
+          return new IpAccessListToBddImpl(
+              bddPacket, mgrs.get(nodeName), node.getIpAccessLists(), node.getIpSpaces());
+        });
+  }
+
   private static Stream<Row> getRowsForNode(
       Configuration node,
-      BDDPacket bddPacket,
-      BDDSourceManager mgr,
+      IpAccessListToBdd bddConverter,
       Collection<String> acls,
       BDD headerSpaceBdd,
       @Nullable Action action) {
-    IpAccessListToBdd bddConverter =
-        new IpAccessListToBddImpl(bddPacket, mgr, node.getIpAccessLists(), node.getIpSpaces());
     Row.TypedRowBuilder rowBuilder = Row.builder(METADATA_MAP).put(COL_NODE, node.getHostname());
     return acls.stream()
         .flatMap(
@@ -11,6 +11,7 @@ import static org.batfish.question.routes.RoutesAnswererUtil.getEvpnRouteRowsDif
 import static org.batfish.question.routes.RoutesAnswererUtil.getEvpnRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getRoutesDiff;
+import static org.batfish.question.routes.RoutesAnswererUtil.getRowsSortedByVrf;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupBgpRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupEvpnRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupRoutes;
@@ -28,6 +29,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
@@ -125,48 +127,76 @@ public class RoutesAnswerer extends Answerer {
       answer.addWarning(WARNING_NO_MATCHING_VRFS);
     }
 
-    List<Row> rows = new ArrayList<>();
-
+    // Rows are sorted one VRF at a time rather than as a single network-wide list. The answer
+    // still holds every row; this only avoids the intermediate list and its sort.
+    Stream<Row> rows;
     switch (question.getRib()) {
       case BGP:
-        rows.addAll(
-            getBgpRibRoutes(
-                dp.getBgpRoutes(),
-                dp.getBgpBackupRoutes(),
-                matchingVrfsByNode,
-                network,
-                protocolSpec,
-                expandedBgpRouteStatuses,
-                question.getPrefixMatchType()));
-        rows.sort(BGP_COMPARATOR);
-        break;
+        {
+          Map<String, ColumnMetadata> columnMetadataMap =
+              getTableMetadata(RibProtocol.BGP).toColumnMap();
+          rows =
+              getRowsSortedByVrf(
+                  matchingVrfsByNode,
+                  (hostname, vrfName) ->
+                      getBgpRibRoutes(
+                          dp.getBgpRoutes(),
+                          dp.getBgpBackupRoutes(),
+                          hostname,
+                          vrfName,
+                          network,
+                          protocolSpec,
+                          expandedBgpRouteStatuses,
+                          question.getPrefixMatchType(),
+                          columnMetadataMap),
+                  BGP_COMPARATOR);
+          break;
+        }
       case EVPN:
-        rows.addAll(
-            getEvpnRoutes(
-                dp.getEvpnRoutes(),
-                dp.getEvpnBackupRoutes(),
-                matchingVrfsByNode,
-                network,
-                protocolSpec,
-                ImmutableSet.of(BEST, BACKUP),
-                question.getPrefixMatchType()));
-        rows.sort(EVPN_COMPARATOR);
-        break;
+        {
+          Map<String, ColumnMetadata> columnMetadataMap =
+              getTableMetadata(RibProtocol.EVPN).toColumnMap();
+          rows =
+              getRowsSortedByVrf(
+                  matchingVrfsByNode,
+                  (hostname, vrfName) ->
+                      getEvpnRoutes(
+                          dp.getEvpnRoutes(),
+                          dp.getEvpnBackupRoutes(),
+                          hostname,
+                          vrfName,
+                          network,
+                          protocolSpec,
+                          ImmutableSet.of(BEST, BACKUP),
+                          question.getPrefixMatchType(),
+                          columnMetadataMap),
+                  EVPN_COMPARATOR);
+          break;
+        }
       case MAIN:
-        rows.addAll(
-            getMainRibRoutes(
-                dp.getRibs(),
-                matchingVrfsByNode,
-                network,
-                protocolSpec,
-                question.getPrefixMatchType()));
-        rows.sort(MAIN_RIB_COMPARATOR);
-        break;
+        {
+          Map<String, ColumnMetadata> columnMetadataMap =
+              getTableMetadata(RibProtocol.MAIN).toColumnMap();
+          rows =
+              getRowsSortedByVrf(
+                  matchingVrfsByNode,
+                  (hostname, vrfName) ->
+                      getMainRibRoutes(
+                          dp.getRibs(),
+                          hostname,
+                          vrfName,
+                          network,
+                          protocolSpec,
+                          question.getPrefixMatchType(),
+                          columnMetadataMap),
+                  MAIN_RIB_COMPARATOR);
+          break;
+        }
       default:
         throw new UnsupportedOperationException("RIB type " + question.getRib());
     }
 
-    answer.postProcessAnswer(_question, rows);
+    answer.postProcessAnswer(_question, rows::iterator);
     return answer;
   }
 
@@ -48,15 +48,18 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Table;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.BiFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -170,16 +173,37 @@ public class RoutesAnswererUtil {
         getTableMetadata(RibProtocol.MAIN).toColumnMap();
     matchingVrfsByNode.forEach(
         (hostname, vrfName) ->
-            Optional.ofNullable(ribs.get(hostname, vrfName))
-                .map(rib -> getMatchingPrefixRoutes(prefixMatchType, network, rib))
-                .orElse(Stream.empty())
-                .filter(route -> protocolSpec.getProtocols().contains(route.getProtocol()))
-                .forEach(
-                    route ->
-                        rows.add(abstractRouteToRow(hostname, vrfName, route, columnMetadataMap))));
+            getMainRibRoutes(
+                    ribs,
+                    hostname,
+                    vrfName,
+                    network,
+                    protocolSpec,
+                    prefixMatchType,
+                    columnMetadataMap)
+                .forEach(rows::add));
     return rows;
   }
 
+  /**
+   * Returns the rows for the main RIB routes of one VRF on one node. See {@link
+   * #getMainRibRoutes(Table, Multimap, Prefix, RoutingProtocolSpecifier, PrefixMatchType)}.
+   */
+  static Stream<Row> getMainRibRoutes(
+      Table<String, String, FinalMainRib> ribs,
+      String hostname,
+      String vrfName,
+      @Nullable Prefix network,
+      RoutingProtocolSpecifier protocolSpec,
+      PrefixMatchType prefixMatchType,
+      Map<String, ColumnMetadata> columnMetadataMap) {
+    return Optional.ofNullable(ribs.get(hostname, vrfName))
+        .map(rib -> getMatchingPrefixRoutes(prefixMatchType, network, rib))
+        .orElse(Stream.empty())
+        .filter(route -> protocolSpec.getProtocols().contains(route.getProtocol()))
+        .map(route -> abstractRouteToRow(hostname, vrfName, route, columnMetadataMap));
+  }
+
   /**
    * Given the prefixMatchType and network (user input), returns routes from the {@code rib} that
    * match.
@@ -246,28 +270,58 @@ public class RoutesAnswererUtil {
     Map<String, ColumnMetadata> columnMetadataMap = getTableMetadata(RibProtocol.BGP).toColumnMap();
     matchingVrfsByNode.forEach(
         (hostname, vrfName) ->
-            getMatchingRoutes(
-                    firstNonNull(bgpBestRoutes.get(hostname, vrfName), ImmutableSet.of()),
-                    firstNonNull(bgpBackupRoutes.get(hostname, vrfName), ImmutableSet.of()),
+            getBgpRibRoutes(
+                    bgpBestRoutes,
+                    bgpBackupRoutes,
+                    hostname,
+                    vrfName,
                     network,
+                    protocolSpec,
                     routeStatuses,
-                    prefixMatchType)
-                .forEach(
-                    (status, routeStream) ->
-                        routeStream
-                            .filter(r -> protocolSpec.getProtocols().contains(r.getProtocol()))
-                            .forEach(
-                                route ->
-                                    rows.add(
-                                        bgpRouteToRow(
-                                            hostname,
-                                            vrfName,
-                                            route,
-                                            ImmutableSet.of(status),
-                                            columnMetadataMap)))));
+                    prefixMatchType,
+                    columnMetadataMap)
+                .forEach(rows::add));
     return rows;
   }
 
+  /**
+   * Returns the rows for the BGP routes of one VRF on one node. See {@link
+   * #getBgpRibRoutes(Table, Table, Multimap, Prefix, RoutingProtocolSpecifier, Set,
+   * PrefixMatchType)}.
+   */
+  static Stream<Row> getBgpRibRoutes(
+      Table<String, String, Set<Bgpv4Route>> bgpBestRoutes,
+      Table<String, String, Set<Bgpv4Route>> bgpBackupRoutes,
+      String hostname,
+      String vrfName,
+      @Nullable Prefix network,
+      RoutingProtocolSpecifier protocolSpec,
+      Set<BgpRouteStatus> routeStatuses,
+      PrefixMatchType prefixMatchType,
+      Map<String, ColumnMetadata> columnMetadataMap) {
+    return getMatchingRoutes(
+            firstNonNull(bgpBestRoutes.get(hostname, vrfName), ImmutableSet.of()),
+            firstNonNull(bgpBackupRoutes.get(hostname, vrfName), ImmutableSet.of()),
+            network,
+            routeStatuses,
+            prefixMatchType)
+        .entrySet()
+        .stream()
+        .flatMap(
+            statusAndRoutes ->
+                statusAndRoutes
+                    .getValue()
+                    .filter(r -> protocolSpec.getProtocols().contains(r.getProtocol()))
+                    .map(
+                        route ->
+                            bgpRouteToRow(
+                                hostname,
+                                vrfName,
+                                route,
+                                ImmutableSet.of(statusAndRoutes.getKey()),
+                                columnMetadataMap)));
+  }
+
   /**
    * Filters {@link Table} of BEST and BACKUP {@link EvpnRoute}s to produce a {@link Multiset} of
    * rows.
@@ -295,28 +349,77 @@ public class RoutesAnswererUtil {
         getTableMetadata(RibProtocol.EVPN).toColumnMap();
     matchingVrfsByNode.forEach(
         (hostname, vrfName) ->
-            getMatchingRoutes(
-                    firstNonNull(evpnBestRoutes.get(hostname, vrfName), ImmutableSet.of()),
-                    firstNonNull(evpnBackupRoutes.get(hostname, vrfName), ImmutableSet.of()),
+            getEvpnRoutes(
+                    evpnBestRoutes,
+                    evpnBackupRoutes,
+                    hostname,
+                    vrfName,
                     network,
+                    protocolSpec,
                     routeStatuses,
-                    prefixMatchType)
-                .forEach(
-                    (status, routeStream) ->
-                        routeStream
-                            .filter(r -> protocolSpec.getProtocols().contains(r.getProtocol()))
-                            .forEach(
-                                route ->
-                                    rows.add(
-                                        evpnRouteToRow(
-                                            hostname,
-                                            vrfName,
-                                            route,
-                                            ImmutableSet.of(status),
-                                            columnMetadataMap)))));
+                    prefixMatchType,
+                    columnMetadataMap)
+                .forEach(rows::add));
     return rows;
   }
 
+  /**
+   * Returns the rows for the EVPN routes of one VRF on one node. See {@link #getEvpnRoutes(Table,
+   * Table, Multimap, Prefix, RoutingProtocolSpecifier, Set, PrefixMatchType)}.
+   */
+  static Stream<Row> getEvpnRoutes(
+      Table<String, String, Set<EvpnRoute<?, ?>>> evpnBestRoutes,
+      Table<String, String, Set<EvpnRoute<?, ?>>> evpnBackupRoutes,
+      String hostname,
+      String vrfName,
+      @Nullable Prefix network,
+      RoutingProtocolSpecifier protocolSpec,
+      Set<BgpRouteStatus> routeStatuses,
+      PrefixMatchType prefixMatchType,
+      Map<String, ColumnMetadata> columnMetadataMap) {
+    return getMatchingRoutes(
+            firstNonNull(evpnBestRoutes.get(hostname, vrfName), ImmutableSet.of()),
+            firstNonNull(evpnBackupRoutes.get(hostname, vrfName), ImmutableSet.of()),
+            network,
+            routeStatuses,
+            prefixMatchType)
+        .entrySet()
+        .stream()
+        .flatMap(
+            statusAndRoutes ->
+                statusAndRoutes
+                    .getValue()
+                    .filter(r -> protocolSpec.getProtocols().contains(r.getProtocol()))
+                    .map(
+                        route ->
+                            evpnRouteToRow(
+                                hostname,
+                                vrfName,
+                                route,
+                                ImmutableSet.of(statusAndRoutes.getKey()),
+                                columnMetadataMap)));
+  }
+
+  /**
+   * Returns the rows produced by {@code rowsForVrf} for each VRF in {@code matchingVrfsByNode},
+   * sorted by {@code comparator}.
+   *
+   * <p>{@code comparator} must order rows by node name and then VRF name before anything else, so
+   * that sorting each VRF's rows separately yields the same order as sorting all rows together.
+   * This avoids building and sorting one list of all rows in the network; callers that collect the
+   * result still hold every row.
+   */
+  static Stream<Row> getRowsSortedByVrf(
+      Multimap<String, String> matchingVrfsByNode,
+      BiFunction<String, String, Stream<Row>> rowsForVrf,
+      Comparator<Row> comparator) {
+    return matchingVrfsByNode.entries().stream()
+        .sorted(Entry.<String, String>comparingByKey().thenComparing(Entry.comparingByValue()))
+        .flatMap(
+            nodeAndVrf ->
+                rowsForVrf.apply(nodeAndVrf.getKey(), nodeAndVrf.getValue()).sorted(comparator));
+  }
+
   /**
    * Filters best and backup routes to those that match the input network, route statuses, and
    * prefix match type.
@@ -24,6 +24,7 @@ import org.batfish.common.BatfishException;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDFlowConstraintGenerator.FlowPreference;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.SnapshotBddContext;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.FilterResult;
@@ -35,6 +36,7 @@ import org.batfish.datamodel.PacketHeaderConstraints;
 import org.batfish.datamodel.PacketHeaderConstraintsUtil;
 import org.batfish.datamodel.UniverseIpSpace;
 import org.batfish.datamodel.acl.AclTracer;
+import org.batfish.datamodel.acl.CompiledAcl;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.pojo.Node;
 import org.batfish.datamodel.questions.DisplayHints;
@@ -103,11 +105,16 @@ public class TestFiltersAnswerer extends Answerer {
     return answer;
   }
 
+  /**
+   * Returns the flows to test at node {@code c}. Must be called inside {@link
+   * SnapshotBddContext#compute}, with {@code pkt} the context's packet.
+   */
   private SortedSet<Flow> getFlows(
       Set<Location> queryLocations,
       SpecifierContext context,
       Configuration c,
-      ImmutableSet.Builder<String> allProblems) {
+      ImmutableSet.Builder<String> allProblems,
+      BDDPacket pkt) {
     TestFiltersQuestion question = (TestFiltersQuestion) _question;
     String node = c.getHostname();
     Set<Location> srcLocations =
@@ -141,7 +148,6 @@ public class TestFiltersAnswerer extends Answerer {
             .map(Entry::getIpSpace)
             .orElse(UniverseIpSpace.INSTANCE);
 
-    BDDPacket pkt = new BDDPacket();
     BDD hsBDD =
         PacketHeaderConstraintsUtil.toBDD(
             pkt,
@@ -217,7 +223,8 @@ public class TestFiltersAnswerer extends Answerer {
             c.getIpSpaces(),
             c.getIpSpaceMetadata());
     FilterResult result =
-        filter.filter(flow, flow.getIngressInterface(), c.getIpAccessLists(), c.getIpSpaces());
+        CompiledAcl.of(filter)
+            .filter(flow, flow.getIngressInterface(), c.getIpAccessLists(), c.getIpSpaces());
     Integer matchLine = result.getMatchLine();
     String lineDesc = "no-match";
     if (matchLine != null) {
@@ -265,7 +272,11 @@ public class TestFiltersAnswerer extends Answerer {
       foundMatchingFilter = true;
 
       Configuration c = configurations.get(node);
-      SortedSet<Flow> flows = getFlows(queryLocations, context, c, allProblems);
+      // Header constraints allocate no BDD variables, so the snapshot's shared packet can be used.
+      SortedSet<Flow> flows =
+          _batfish
+              .getBddContext(snapshot)
+              .compute(ctx -> getFlows(queryLocations, context, c, allProblems, ctx.getPacket()));
       if (flows.isEmpty()) {
         continue;
       }
@@ -120,6 +120,58 @@ public class FilterLineReachabilityTest {
     assertThat(answer.getRows().getData(), equalTo(expected));
   }
 
+  @Test
+  public void testIdenticalAclsFanOutThroughPool() {
+    // The same ACL on both nodes is analyzed once, and its row lists both sources.
+    List<AclLine> lines =
+        ImmutableList.of(
+            acceptingHeaderSpace(
+                HeaderSpace.builder().setSrcIps(Prefix.parse("1.2.3.0/24").toIpSpace()).build()),
+            acceptingHeaderSpace(
+                HeaderSpace.builder().setSrcIps(Ip.parse("1.2.3.4").toIpSpace()).build()));
+    _aclb.setLines(lines).setName("acl").build();
+    IpAccessList.builder().setOwner(_c2).setLines(lines).setName("acl").build();
+
+    // More distinct ACLs on c1, so that pooled packets are reused across ACLs.
+    ImmutableMultiset.Builder<Row> expected = ImmutableMultiset.builder();
+    expected.add(
+        Row.builder(COLUMN_METADATA)
+            .put(
+                COL_SOURCES,
+                ImmutableList.of(_c1.getHostname() + ": acl", _c2.getHostname() + ": acl"))
+            .put(COL_UNREACHABLE_LINE, lines.get(1).toString())
+            .put(COL_UNREACHABLE_LINE_ACTION, PERMIT)
+            .put(COL_BLOCKING_LINES, ImmutableList.of(lines.get(0).toString()))
+            .put(COL_DIFF_ACTION, false)
+            .put(COL_REASON, BLOCKING_LINES)
+            .build());
+    for (int i = 0; i < 10; i++) {
+      List<AclLine> otherLines =
+          ImmutableList.of(
+              rejectingHeaderSpace(
+                  HeaderSpace.builder()
+                      .setDstIps(Prefix.parse("10." + i + ".0.0/16").toIpSpace())
+                      .build()),
+              rejectingHeaderSpace(
+                  HeaderSpace.builder()
+                      .setDstIps(Prefix.parse("10." + i + ".0.0/24").toIpSpace())
+                      .build()));
+      _aclb.setLines(otherLines).setName("acl" + i).build();
+      expected.add(
+          Row.builder(COLUMN_METADATA)
+              .put(COL_SOURCES, ImmutableList.of(_c1.getHostname() + ": acl" + i))
+              .put(COL_UNREACHABLE_LINE, otherLines.get(1).toString())
+              .put(COL_UNREACHABLE_LINE_ACTION, LineAction.DENY)
+              .put(COL_BLOCKING_LINES, ImmutableList.of(otherLines.get(0).toString()))
+              .put(COL_DIFF_ACTION, false)
+              .put(COL_REASON, BLOCKING_LINES)
+              .build());
+    }
+
+    TableAnswerElement answer = answer(new FilterLineReachabilityQuestion());
+    assertThat(answer.getRows().getData(), equalTo(expected.build()));
+  }
+
   @Test
   public void testIpWildcards() {
     // First line accepts src IPs 1.2.3.4/30
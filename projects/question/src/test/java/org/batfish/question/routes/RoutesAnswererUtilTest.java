@@ -40,6 +40,7 @@ import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMatchingPrefixRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMatchingRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getRoutesDiff;
+import static org.batfish.question.routes.RoutesAnswererUtil.getRowsSortedByVrf;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupBgpRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.longestMatchingPrefix;
@@ -66,9 +67,11 @@ import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Table;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -1489,4 +1492,28 @@ public class RoutesAnswererUtilTest {
     assertThat(
         longestMatchingPrefix(Prefix.parse("2.1.1.0/32"), routes), equalTo(Optional.empty()));
   }
+
+  @Test
+  public void testGetRowsSortedByVrf() {
+    Row n1v1a = Row.of(COL_NODE, "n1", COL_VRF_NAME, "v1", COL_TAG, 1);
+    Row n1v1b = Row.of(COL_NODE, "n1", COL_VRF_NAME, "v1", COL_TAG, 2);
+    Row n1v2 = Row.of(COL_NODE, "n1", COL_VRF_NAME, "v2", COL_TAG, 1);
+    Row n2v1 = Row.of(COL_NODE, "n2", COL_VRF_NAME, "v1", COL_TAG, 1);
+    Map<Entry<String, String>, List<Row>> rowsByVrf =
+        ImmutableMap.of(
+            Maps.immutableEntry("n1", "v1"), ImmutableList.of(n1v1b, n1v1a),
+            Maps.immutableEntry("n1", "v2"), ImmutableList.of(n1v2),
+            Maps.immutableEntry("n2", "v1"), ImmutableList.of(n2v1));
+
+    assertThat(
+        getRowsSortedByVrf(
+                ImmutableMultimap.of("n2", "v1", "n1", "v2", "n1", "v1", "n3", "v1"),
+                (hostname, vrfName) ->
+                    rowsByVrf
+                        .getOrDefault(Maps.immutableEntry(hostname, vrfName), ImmutableList.of())
+                        .stream(),
+                Comparator.comparing(row -> row.getInteger(COL_TAG)))
+            .collect(ImmutableList.toImmutableList()),
+        contains(n1v1a, n1v1b, n1v2, n2v1));
+  }
 }
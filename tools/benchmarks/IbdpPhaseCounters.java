@@ -0,0 +1,55 @@
+package tools.benchmarks;
+
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_EGP;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_FIBS;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_IGP;
+import static org.batfish.datamodel.answers.IncrementalBdpAnswerElement.PHASE_TOPOLOGY;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the time spent in each phase of an iBDP data plane computation as secondary results, in
+ * milliseconds. The benchmarks using it run in single-shot mode, so each iteration reports the
+ * phases of exactly one computation.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class IbdpPhaseCounters {
+  public double igpMs;
+  public double egpMs;
+  public double fibsMs;
+  public double topologyMs;
+  public int dependentRoutesIterations;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    igpMs = 0;
+    egpMs = 0;
+    fibsMs = 0;
+    topologyMs = 0;
+    dependentRoutesIterations = 0;
+  }
+
+  /** Records the phase times of the given computation. */
+  public void record(ComputeDataPlaneResult result) {
+    IncrementalBdpAnswerElement answerElement = (IncrementalBdpAnswerElement) result._answerElement;
+    Map<String, Long> phaseNanos = answerElement.getPhaseNanos();
+    igpMs += toMillis(phaseNanos.getOrDefault(PHASE_IGP, 0L));
+    egpMs += toMillis(phaseNanos.getOrDefault(PHASE_EGP, 0L));
+    fibsMs += toMillis(phaseNanos.getOrDefault(PHASE_FIBS, 0L));
+    topologyMs += toMillis(phaseNanos.getOrDefault(PHASE_TOPOLOGY, 0L));
+    dependentRoutesIterations += answerElement.getDependentRoutesIterations();
+  }
+
+  private static double toMillis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
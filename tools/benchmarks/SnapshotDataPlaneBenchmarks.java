@@ -0,0 +1,72 @@
+package tools.benchmarks;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.batfish.main.TestrigText.loadTestrig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.plugin.DataPlanePlugin;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the iBDP data plane computation of a snapshot end to end, with the time of each phase
+ * reported by {@link IbdpPhaseCounters}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SnapshotDataPlaneBenchmarks {
+  @Param({"REQUIRED INPUT PARAM"})
+  public String snapshotDir;
+
+  private DataPlanePlugin _dataPlanePlugin;
+  private NetworkSnapshot _snapshot;
+
+  @Setup
+  public void setUp() throws IOException {
+    Path tmp = Files.createTempDirectory(this.getClass().getSimpleName());
+    Batfish batfish = BatfishTestUtils.getBatfishFromTestrigText(loadTestrig(snapshotDir), tmp);
+
+    Settings settings = batfish.getSettings();
+    settings.setDisableUnrecognized(false);
+    settings.setHaltOnConvertError(false);
+    settings.setHaltOnParseError(false);
+    settings.setThrowOnLexerError(false);
+    settings.setThrowOnParserError(false);
+    settings.setDataplaneEngineName(IncrementalDataPlanePlugin.PLUGIN_NAME);
+
+    _snapshot = batfish.getSnapshot();
+    // Parse and convert up front, so only the data plane computation is measured
+    SortedMap<String, Configuration> configs = batfish.loadConfigurations(_snapshot);
+    checkState(!configs.isEmpty(), "No configs were parsed");
+    _dataPlanePlugin = batfish.getDataPlanePlugin();
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane(IbdpPhaseCounters phases) {
+    ComputeDataPlaneResult result = _dataPlanePlugin.computeDataPlane(_snapshot);
+    phases.record(result);
+    return result;
+  }
+}
@@ -0,0 +1,233 @@
+package tools.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.IOException;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.plugin.DataPlanePlugin;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.bgp.Ipv4UnicastAddressFamily;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the iBDP data plane computation of generated networks of increasing size, to catch
+ * regressions in how the computation scales. The time of each phase is reported by {@link
+ * IbdpPhaseCounters}.
+ *
+ * <ul>
+ *   <li>{@code CLOS}: a two-tier fabric of {@code size} leaves and {@value #CLOS_SPINES} spines,
+ *       with an eBGP session on every leaf-spine link and multipath on every node.
+ *   <li>{@code IBGP_MESH}: {@code size} routers on a shared segment, with a full mesh of iBGP
+ *       sessions.
+ * </ul>
+ *
+ * <p>Each leaf or router originates {@code prefixesPerNode} prefixes into BGP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SyntheticDataPlaneBenchmarks {
+  public enum Topology {
+    CLOS,
+    IBGP_MESH
+  }
+
+  private static final int CLOS_SPINES = 4;
+  private static final long SPINE_AS = 65000L;
+  private static final long LEAF_AS_BASE = 65100L;
+  private static final long MESH_AS = 65000L;
+  private static final String EXPORT_POLICY = "export";
+  private static final String REDISTRIBUTION_POLICY = "redistribute";
+
+  @Param({"CLOS", "IBGP_MESH"})
+  public Topology topology;
+
+  @Param({"8", "32", "128"})
+  public int size;
+
+  @Param({"16"})
+  public int prefixesPerNode;
+
+  private TemporaryFolder _folder;
+  private DataPlanePlugin _dataPlanePlugin;
+  private NetworkSnapshot _snapshot;
+
+  @Setup
+  public void setUp() throws IOException {
+    SortedMap<String, Configuration> configs =
+        topology == Topology.CLOS ? clos(size, prefixesPerNode) : ibgpMesh(size, prefixesPerNode);
+    _folder = new TemporaryFolder();
+    _folder.create();
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, _folder);
+    batfish.getSettings().setDataplaneEngineName(IncrementalDataPlanePlugin.PLUGIN_NAME);
+    _snapshot = batfish.getSnapshot();
+    _dataPlanePlugin = batfish.getDataPlanePlugin();
+  }
+
+  @TearDown
+  public void tearDown() {
+    _folder.delete();
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane(IbdpPhaseCounters phases) {
+    ComputeDataPlaneResult result = _dataPlanePlugin.computeDataPlane(_snapshot);
+    phases.record(result);
+    return result;
+  }
+
+  /** Creates a node with one VRF, a BGP process, and the export and redistribution policies. */
+  private static Configuration node(NetworkFactory nf, String hostname, Ip routerId) {
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    c.setExportBgpFromBgpRib(true);
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    BgpProcess process = BgpProcess.testBgpProcess(routerId);
+    process.setMultipathEbgp(true);
+    process.setMultipathIbgp(true);
+    process.setRedistributionPolicy(REDISTRIBUTION_POLICY);
+    vrf.setBgpProcess(process);
+    nf.routingPolicyBuilder()
+        .setOwner(c)
+        .setName(EXPORT_POLICY)
+        .addStatement(Statements.ExitAccept.toStaticStatement())
+        .build();
+    nf.routingPolicyBuilder()
+        .setOwner(c)
+        .setName(REDISTRIBUTION_POLICY)
+        .addStatement(
+            new If(
+                new MatchProtocol(RoutingProtocol.STATIC),
+                ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+        .build();
+    return c;
+  }
+
+  /** Originates the {@code index}th node's prefixes as discard routes, redistributed into BGP. */
+  private static void originate(Configuration c, int index, int prefixesPerNode) {
+    long base = Ip.parse("100.0.0.0").asLong();
+    ImmutableSortedSet.Builder<StaticRoute> routes = ImmutableSortedSet.naturalOrder();
+    for (int i = 0; i < prefixesPerNode; i++) {
+      long network = base + (((long) index * prefixesPerNode + i) << 8);
+      routes.add(
+          StaticRoute.testBuilder().setNetwork(Prefix.create(Ip.create(network), 24)).build());
+    }
+    c.getDefaultVrf().setStaticRoutes(routes.build());
+  }
+
+  private static void addPeer(Configuration c, Ip localIp, Ip peerIp, long localAs, long remoteAs) {
+    BgpActivePeerConfig.builder()
+        .setBgpProcess(c.getDefaultVrf().getBgpProcess())
+        .setLocalIp(localIp)
+        .setPeerAddress(peerIp)
+        .setLocalAs(localAs)
+        .setRemoteAs(remoteAs)
+        .setIpv4UnicastAddressFamily(
+            Ipv4UnicastAddressFamily.builder().setExportPolicy(EXPORT_POLICY).build())
+        .build();
+  }
+
+  private static SortedMap<String, Configuration> clos(int leaves, int prefixesPerNode) {
+    NetworkFactory nf = new NetworkFactory();
+    long linkBase = Ip.parse("10.0.0.0").asLong();
+    Configuration[] spines = new Configuration[CLOS_SPINES];
+    for (int s = 0; s < CLOS_SPINES; s++) {
+      spines[s] = node(nf, "spine" + s, Ip.parse("192.168.0." + s));
+    }
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (int l = 0; l < leaves; l++) {
+      Configuration leaf = node(nf, "leaf" + l, Ip.create(Ip.parse("192.168.1.0").asLong() + l));
+      originate(leaf, l, prefixesPerNode);
+      long leafAs = LEAF_AS_BASE + l;
+      for (int s = 0; s < CLOS_SPINES; s++) {
+        // One /31 per link: the spine has the even address, the leaf the odd one
+        long spineIp = linkBase + ((long) s << 16) + ((long) l << 1);
+        ConcreteInterfaceAddress spineAddress =
+            ConcreteInterfaceAddress.create(Ip.create(spineIp), 31);
+        ConcreteInterfaceAddress leafAddress =
+            ConcreteInterfaceAddress.create(Ip.create(spineIp + 1), 31);
+        nf.interfaceBuilder()
+            .setOwner(spines[s])
+            .setVrf(spines[s].getDefaultVrf())
+            .setAddress(spineAddress)
+            .build();
+        nf.interfaceBuilder()
+            .setOwner(leaf)
+            .setVrf(leaf.getDefaultVrf())
+            .setAddress(leafAddress)
+            .build();
+        addPeer(spines[s], spineAddress.getIp(), leafAddress.getIp(), SPINE_AS, leafAs);
+        addPeer(leaf, leafAddress.getIp(), spineAddress.getIp(), leafAs, SPINE_AS);
+      }
+      configs.put(leaf.getHostname(), leaf);
+    }
+    for (Configuration spine : spines) {
+      configs.put(spine.getHostname(), spine);
+    }
+    return configs.build();
+  }
+
+  private static SortedMap<String, Configuration> ibgpMesh(int routers, int prefixesPerNode) {
+    NetworkFactory nf = new NetworkFactory();
+    long segmentBase = Ip.parse("10.0.0.0").asLong();
+    Ip[] ips = new Ip[routers];
+    Configuration[] nodes = new Configuration[routers];
+    for (int r = 0; r < routers; r++) {
+      ips[r] = Ip.create(segmentBase + r + 1);
+      nodes[r] = node(nf, "router" + r, ips[r]);
+      originate(nodes[r], r, prefixesPerNode);
+      nf.interfaceBuilder()
+          .setOwner(nodes[r])
+          .setVrf(nodes[r].getDefaultVrf())
+          .setAddress(ConcreteInterfaceAddress.create(ips[r], 16))
+          .build();
+    }
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (int r = 0; r < routers; r++) {
+      for (int peer = 0; peer < routers; peer++) {
+        if (peer != r) {
+          addPeer(nodes[r], ips[r], ips[peer], MESH_AS, MESH_AS);
+        }
+      }
+      configs.put(nodes[r].getHostname(), nodes[r]);
+    }
+    return configs.build();
+  }
+}